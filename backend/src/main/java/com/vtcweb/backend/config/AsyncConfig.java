@@ -1,5 +1,6 @@
 package com.vtcweb.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -20,4 +21,83 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Bounded pool for fanning out independent analytics sections. When saturated
+     * the request thread runs the section itself instead of queueing unboundedly.
+     */
+    @Bean(name = "analyticsExecutor")
+    public Executor analyticsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("analytics-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background snapshot refreshes (see AnalyticsSnapshotService). Kept off
+     * analyticsExecutor because a refresh fans its sections out onto that pool
+     * and would otherwise wait behind itself. A refresh the pool rejects is
+     * skipped; the next stale read or the scheduled refresh retries it.
+     */
+    @Bean(name = "analyticsRefreshExecutor")
+    public Executor analyticsRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("analytics-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bulk product imports. One runs at a time so a large catalogue cannot starve
+     * the connection pool; a few wait their turn, beyond that submission fails.
+     */
+    @Bean(name = "importExecutor")
+    public Executor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("import-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Image decode / download / upload work for product creation. These threads
+     * mostly wait on the network; when saturated the caller does the work itself.
+     */
+    @Bean(name = "imageIoExecutor")
+    public Executor imageIoExecutor(@Value("${app.images.normalize.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("image-io-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background image uploads (see ImageIngestionService). No CallerRuns here:
+     * a job the pool rejects stays PENDING and the poller dispatches it later.
+     */
+    @Bean(name = "imageIngestExecutor")
+    public Executor imageIngestExecutor(@Value("${app.images.ingest.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("image-ingest-");
+        executor.initialize();
+        return executor;
+    }
 }
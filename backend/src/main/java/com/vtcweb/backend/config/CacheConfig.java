@@ -1,5 +1,7 @@
 package com.vtcweb.backend.config;
 
+import com.vtcweb.backend.service.analytics.AnalyticsCacheService;
+import com.vtcweb.backend.service.catalog.CatalogCacheService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,9 +29,15 @@ import java.util.Map;
 public class CacheConfig {
 
     private final Duration cartTtl;
+    private final Duration analyticsTtl;
+    private final Duration catalogTtl;
 
-    public CacheConfig(@Value("${app.cache.cart.ttl-seconds:300}") long cartTtlSeconds) {
+    public CacheConfig(@Value("${app.cache.cart.ttl-seconds:300}") long cartTtlSeconds,
+            @Value("${app.cache.analytics.ttl-seconds:600}") long analyticsTtlSeconds,
+            @Value("${app.cache.catalog.ttl-seconds:3600}") long catalogTtlSeconds) {
         this.cartTtl = Duration.ofSeconds(cartTtlSeconds);
+        this.analyticsTtl = Duration.ofSeconds(analyticsTtlSeconds);
+        this.catalogTtl = Duration.ofSeconds(catalogTtlSeconds);
     }
 
     /**
@@ -54,6 +62,14 @@ public class CacheConfig {
 
             Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
             cacheConfigurations.put("cart", defaultConfig.entryTtl(java.util.Objects.requireNonNull(cartTtl)));
+            // Analytics entries are version-stamped by day bucket, so the TTL only bounds
+            // how long superseded entries (and non order-driven data such as stock) linger.
+            // Per-day fragments are written by AnalyticsCacheService itself (one multi-get per window).
+            cacheConfigurations.put(AnalyticsCacheService.RESULTS_CACHE,
+                    defaultConfig.entryTtl(java.util.Objects.requireNonNull(analyticsTtl)));
+            // Catalog keys carry a per-scope version; the TTL reclaims superseded versions
+            cacheConfigurations.put(CatalogCacheService.CACHE_NAME,
+                    defaultConfig.entryTtl(java.util.Objects.requireNonNull(catalogTtl)));
 
             log.info("Using RedisCacheManager for caching with cart TTL {} seconds", cartTtl.getSeconds());
             return RedisCacheManager.builder(connectionFactory)
@@ -63,6 +79,7 @@ public class CacheConfig {
                     .build();
         } catch (Exception ex) {
             log.warn("Redis unavailable, falling back to in-memory cache. Reason: {}", ex.getMessage());
+            // Analytics and catalog L2 caches are left out on purpose: stamped keys need a TTL to be reclaimed
             return new ConcurrentMapCacheManager("cart");
         }
     }
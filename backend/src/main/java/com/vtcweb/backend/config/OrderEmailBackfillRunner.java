@@ -0,0 +1,53 @@
+package com.vtcweb.backend.config;
+
+import com.vtcweb.backend.repository.order.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills orders.customer_email_normalized for rows written before the column
+ * existed (see V5 migration for the SQL equivalent). Runs in small committed
+ * batches and before the analytics backfill, which relies on the column.
+ * Once every row is filled this is a single no-op UPDATE per start.
+ */
+@Component
+@Profile("!test")
+@org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+public class OrderEmailBackfillRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(OrderEmailBackfillRunner.class);
+    private static final int BATCH_SIZE = 5000;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderEmailBackfillRunner(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long total = 0;
+        try {
+            int updated;
+            do {
+                Integer n = transactionTemplate.execute(s -> orderRepository.backfillNormalizedEmails(BATCH_SIZE));
+                updated = n == null ? 0 : n;
+                total += updated;
+            } while (updated == BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Order email backfill stopped after {} row(s): {}", total, e.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.info("Backfilled normalised customer email on {} order(s)", total);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.vtcweb.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Makes product_images.url nullable on databases created before background
+ * image uploads, whose PENDING placeholders have no URL yet (see V11 migration
+ * for the SQL equivalent). ddl-auto=update adds the status column but never
+ * relaxes an existing NOT NULL, and Flyway is disabled. Once the column is
+ * nullable this is a single information_schema read per start.
+ */
+@Component
+@Profile("!test")
+@org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductImageSchemaRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ProductImageSchemaRunner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductImageSchemaRunner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> nullable = jdbcTemplate.queryForList("select is_nullable from information_schema.columns "
+                    + "where table_schema = database() and table_name = 'product_images' and column_name = 'url'",
+                    String.class);
+            if (nullable.isEmpty() || "YES".equalsIgnoreCase(nullable.get(0))) {
+                return;
+            }
+            jdbcTemplate.execute("alter table product_images modify url varchar(500) null");
+            log.info("Made product_images.url nullable for pending image uploads");
+        } catch (Exception e) {
+            log.warn("Could not make product_images.url nullable; pending image uploads will fail: {}",
+                    e.getMessage());
+        }
+    }
+}
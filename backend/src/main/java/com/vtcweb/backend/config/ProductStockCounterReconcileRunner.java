@@ -0,0 +1,62 @@
+package com.vtcweb.backend.config;
+
+import com.vtcweb.backend.repository.product.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings products.total_stock / in_stock_variation_count and min_price /
+ * max_price in line with product_variations on start: fills them on the first
+ * start after the columns were added (see V7 and V9 migrations) and repairs any
+ * drift from manual DB edits. Only rows that disagree are written. Disable with
+ * app.catalog.stock-counters.reconcile-on-startup=false.
+ */
+@Component
+@Profile("!test")
+@org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ProductStockCounterReconcileRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ProductStockCounterReconcileRunner.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.catalog.stock-counters.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    public ProductStockCounterReconcileRunner(ProductRepository productRepository,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        try {
+            Integer fixed = transactionTemplate.execute(s -> productRepository.reconcileStockCounters());
+            if (fixed != null && fixed > 0) {
+                log.info("Reconciled stock counters on {} product(s)", fixed);
+            }
+        } catch (Exception e) {
+            log.warn("Product stock counter reconcile failed: {}", e.getMessage());
+        }
+        try {
+            Integer fixed = transactionTemplate.execute(s -> productRepository.reconcilePriceRanges());
+            if (fixed != null && fixed > 0) {
+                log.info("Reconciled price ranges on {} product(s)", fixed);
+            }
+        } catch (Exception e) {
+            log.warn("Product price range reconcile failed: {}", e.getMessage());
+        }
+    }
+}
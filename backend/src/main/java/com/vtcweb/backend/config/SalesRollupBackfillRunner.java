@@ -0,0 +1,62 @@
+package com.vtcweb.backend.config;
+
+import com.vtcweb.backend.service.analytics.CustomerLedgerService;
+import com.vtcweb.backend.service.analytics.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the daily sales rollups and the customer ledger from order history
+ * on the first start after they were introduced (i.e. while still empty). Later
+ * rebuilds are available via POST /api/admin/analytics/rollups/rebuild.
+ * Disable with app.analytics.rollup.backfill-on-startup=false.
+ */
+@Component
+@Profile("!test")
+public class SalesRollupBackfillRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupBackfillRunner.class);
+    private final SalesRollupService salesRollupService;
+    private final CustomerLedgerService customerLedgerService;
+
+    @Value("${app.analytics.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public SalesRollupBackfillRunner(SalesRollupService salesRollupService,
+            CustomerLedgerService customerLedgerService) {
+        this.salesRollupService = salesRollupService;
+        this.customerLedgerService = customerLedgerService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        if (!salesRollupService.isEmpty()) {
+            // Rollups predate the ledger on existing installs; backfill it on its own
+            if (customerLedgerService.isEmpty()) {
+                try {
+                    customerLedgerService.rebuild();
+                } catch (Exception e) {
+                    log.warn("Customer ledger backfill failed; run POST /api/admin/analytics/rollups/rebuild manually: {}",
+                            e.getMessage());
+                }
+            }
+            return;
+        }
+        try {
+            int days = salesRollupService.rebuildAll();
+            if (days > 0) {
+                log.info("Sales rollup backfill completed for {} day(s)", days);
+            }
+        } catch (Exception e) {
+            log.warn("Sales rollup backfill failed; run POST /api/admin/analytics/rollups/rebuild manually: {}",
+                    e.getMessage());
+        }
+    }
+}
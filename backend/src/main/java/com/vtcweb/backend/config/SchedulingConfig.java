@@ -0,0 +1,13 @@
+package com.vtcweb.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. analytics snapshot refresh). Uses
+ * Spring Boot's auto-configured single-threaded task scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,15 +2,26 @@ package com.vtcweb.backend.controller.admin;
 
 import com.vtcweb.backend.dto.admin.AdminDashboardAnalyticsDTO;
 import com.vtcweb.backend.dto.admin.AdminSalesAnalyticsDTO;
-import com.vtcweb.backend.model.entity.order.Order;
-import com.vtcweb.backend.model.entity.order.DeliveryMethod;
-import com.vtcweb.backend.repository.order.OrderItemRepository;
+import com.vtcweb.backend.model.entity.analytics.DailySalesRollup;
+import com.vtcweb.backend.repository.analytics.CustomerLedgerRepository;
+import com.vtcweb.backend.repository.analytics.DailyCategorySalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailyProductSalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailySalesRollupRepository;
+import com.vtcweb.backend.service.analytics.OrderWindowAggregate;
+import com.vtcweb.backend.service.analytics.AnalyticsCacheService;
+import com.vtcweb.backend.service.analytics.AnalyticsSnapshotService;
+import com.vtcweb.backend.service.analytics.SalesRollupService;
 import com.vtcweb.backend.repository.product.ProductRepository;
 import com.vtcweb.backend.repository.product.ProductVariationRepository;
 import com.vtcweb.backend.repository.order.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,16 +37,52 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/admin/analytics")
 @RequiredArgsConstructor
+@lombok.extern.slf4j.Slf4j
 public class AdminAnalyticsController {
 
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final ProductVariationRepository productVariationRepository;
+    private final DailySalesRollupRepository dailyRollupRepository;
+    private final DailyProductSalesRollupRepository productRollupRepository;
+    private final DailyCategorySalesRollupRepository categoryRollupRepository;
+    private final CustomerLedgerRepository customerLedgerRepository;
+    private final SalesRollupService salesRollupService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+    private final Executor analyticsExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Budget for each dashboard section, measured from when the sections are fanned out. */
+    @Value("${app.analytics.dashboard.section-timeout-ms:2000}")
+    private long dashboardSectionTimeoutMs;
+
+    /** Windows precomputed in the background (dashboard windowDays with the default chart, sales days). */
+    private static final int[] SNAPSHOT_WINDOWS = { 7, 30, 90, 365 };
+    private static final String SNAPSHOT_CURRENCY = "LKR";
+    private static final int SNAPSHOT_CHART_DAYS = 7;
+
+    @jakarta.annotation.PostConstruct
+    void registerSnapshots() {
+        for (int w : SNAPSHOT_WINDOWS) {
+            analyticsSnapshotService.register(dashboardSnapshotKey(SNAPSHOT_CURRENCY, SNAPSHOT_CHART_DAYS, w), () -> {
+                AdminDashboardAnalyticsDTO d = cachedDashboard(SNAPSHOT_CURRENCY, SNAPSHOT_CHART_DAYS, w,
+                        LocalDate.now(), new java.util.concurrent.ConcurrentHashMap<>());
+                return d.isPartial() ? null : d;
+            });
+            analyticsSnapshotService.register(salesSnapshotKey(SNAPSHOT_CURRENCY, w),
+                    () -> cachedSales(SNAPSHOT_CURRENCY, w, LocalDate.now()));
+        }
+    }
 
     /**
      * Dashboard analytics for the admin UI.
@@ -53,171 +100,118 @@ public class AdminAnalyticsController {
 
         int chartWindow = Math.max(1, Math.min(365, chartDays));
         int window = Math.max(1, Math.min(365, windowDays));
+        String cur = currency == null || currency.isBlank() ? "LKR" : currency.trim().toUpperCase();
+
+        // Common views come from the background snapshot; everything else goes through the cache
+        AnalyticsSnapshotService.Snapshot<AdminDashboardAnalyticsDTO> snapshot = analyticsSnapshotService
+                .get(dashboardSnapshotKey(cur, chartWindow, window), AdminDashboardAnalyticsDTO.class);
+        Map<String, Long> timings = new java.util.concurrent.ConcurrentHashMap<>();
+        AdminDashboardAnalyticsDTO dto = snapshot != null
+                ? snapshot.value()
+                : cachedDashboard(cur, chartWindow, window, LocalDate.now(), timings);
+
+        String timing = snapshot != null ? "snapshot;desc=hit"
+                : timings.isEmpty() ? "cache;desc=hit" : serverTiming(timings);
+        return ResponseEntity.ok()
+                .header("Server-Timing", timing)
+                .body(dto.toBuilder().snapshotAgeMs(ageMs(dto.getGeneratedAt())).build());
+    }
 
-        LocalDate today = LocalDate.now();
+    private AdminDashboardAnalyticsDTO cachedDashboard(String cur, int chartWindow, int window, LocalDate today,
+            Map<String, Long> timings) {
+        // The widest range any section reads is the previous trailing year through today
+        String key = "dashboard:" + cur + ":" + chartWindow + ":" + window + ":" + today + ":"
+                + analyticsCacheService.bucketStamp(today.minusDays(729), today);
+        return analyticsCacheService.getOrCompute(AnalyticsCacheService.RESULTS_CACHE, key,
+                AdminDashboardAnalyticsDTO.class, () -> dashboardReport(cur, chartWindow, window, today, timings),
+                d -> !d.isPartial());
+    }
+
+    private static String dashboardSnapshotKey(String cur, int chartWindow, int window) {
+        return "dashboard:" + cur + ":" + chartWindow + ":" + window;
+    }
 
+    private AdminDashboardAnalyticsDTO dashboardReport(String cur, int chartWindow, int window, LocalDate today,
+            Map<String, Long> timings) {
         // --- 30d window ---
         LocalDate winStartDate = today.minusDays(window - 1);
         LocalDateTime winStart = winStartDate.atStartOfDay();
         LocalDateTime winEndExclusive = today.plusDays(1).atStartOfDay();
 
-        BigDecimal revenue = nz(orderRepository.sumSalesTotalBetween(winStart, winEndExclusive));
-        long orderCount = orderRepository.countSalesBetween(winStart, winEndExclusive);
-        BigDecimal avgOrder = orderCount > 0
-                ? revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
         // previous equal window
         LocalDate prevEndDate = winStartDate.minusDays(1);
         LocalDate prevStartDate = prevEndDate.minusDays(window - 1);
-        LocalDateTime prevStart = prevStartDate.atStartOfDay();
-        LocalDateTime prevEndExclusive = winStartDate.atStartOfDay();
-
-        BigDecimal prevRevenue = nz(orderRepository.sumSalesTotalBetween(prevStart, prevEndExclusive));
-        long prevOrderCount = orderRepository.countSalesBetween(prevStart, prevEndExclusive);
-        BigDecimal prevAvgOrder = prevOrderCount > 0
-                ? prevRevenue.divide(BigDecimal.valueOf(prevOrderCount), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
-        double revenueChangePct = pctChange(prevRevenue, revenue);
-        double avgOrderChangePct = pctChange(prevAvgOrder, avgOrder);
-
-        // status counts for last 30d
-        Map<String, Long> statusCounts = new LinkedHashMap<>();
-        for (Object[] row : orderRepository.countByStatusBetween(winStart, winEndExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String status = String.valueOf(row[0]);
-            long count = ((Number) row[1]).longValue();
-            statusCounts.put(status, count);
-        }
 
         // --- trailing year (365 days) ---
         int trailingDays = 365;
         LocalDate trailingStartDate = today.minusDays(trailingDays - 1);
-        LocalDateTime trailingStart = trailingStartDate.atStartOfDay();
-        LocalDateTime trailingEndExclusive = today.plusDays(1).atStartOfDay();
-
-        BigDecimal trailingRevenue = nz(orderRepository.sumSalesTotalBetween(trailingStart, trailingEndExclusive));
-
         LocalDate trailingPrevEndDate = trailingStartDate.minusDays(1);
         LocalDate trailingPrevStartDate = trailingPrevEndDate.minusDays(trailingDays - 1);
-        BigDecimal trailingPrevRevenue = nz(orderRepository.sumSalesTotalBetween(
-                trailingPrevStartDate.atStartOfDay(),
-                trailingStartDate.atStartOfDay()
-        ));
-        double trailingChangePct = pctChange(trailingPrevRevenue, trailingRevenue);
 
-        // --- chart series (last N days) ---
         LocalDate chartStartDate = today.minusDays(chartWindow - 1);
-        Map<String, BigDecimal> daily = new LinkedHashMap<>();
-        for (int i = 0; i < chartWindow; i++) {
-            daily.put(chartStartDate.plusDays(i).toString(), BigDecimal.ZERO);
-        }
-
-        List<Order> chartOrders = orderRepository.findSalesBetween(chartStartDate.atStartOfDay(), today.plusDays(1).atStartOfDay());
-        for (Order o : chartOrders) {
-            if (o == null || o.getPlacedAt() == null) continue;
-            LocalDate d = o.getPlacedAt().toLocalDate();
-            String key = d.toString();
-            if (!daily.containsKey(key)) continue;
-            daily.put(key, daily.get(key).add(nz(o.getTotal())));
-        }
-
-        List<AdminDashboardAnalyticsDTO.DailyRevenuePoint> series = daily.entrySet().stream()
-                .map(e -> AdminDashboardAnalyticsDTO.DailyRevenuePoint.builder().date(e.getKey()).revenue(e.getValue()).build())
-                .toList();
 
-        // --- trending product (top revenue in last 30 days) ---
-        AdminDashboardAnalyticsDTO.TrendingProduct trending = null;
-        try {
-            List<Object[]> top = orderItemRepository.topProductsByRevenueBetween(winStart, winEndExclusive);
-            if (top != null && !top.isEmpty()) {
-            Object[] row = top.get(0);
-            Long productId = row != null && row.length > 0 ? (Long) row[0] : null;
-            String productName = row != null && row.length > 1 ? (String) row[1] : null;
-            String categoryName = row != null && row.length > 2 ? (String) row[2] : null;
-            String imageUrl = row != null && row.length > 3 ? (String) row[3] : null;
-            BigDecimal productRevenue = row != null && row.length > 4 && row[4] != null
-                ? (BigDecimal) row[4]
-                : BigDecimal.ZERO;
-
-            String sku = null;
-            if (productId != null) {
-                sku = productRepository.findById(productId).map(p -> p.getSku()).orElse(null);
+        // Sections are independent: fan them out on the analytics pool so latency is
+        // bounded by the slowest section; sections missing the deadline come back empty
+        // and are listed in partialSections.
+        CompletableFuture<RollupTotals[]> windowsF = section("revenueWindows", timings, () -> {
+            Map<LocalDate, DailySalesRollup> rollups = loadRollups(prevStartDate, today);
+            return new RollupTotals[] {
+                    RollupTotals.of(rollups, winStartDate, today),
+                    RollupTotals.of(rollups, prevStartDate, prevEndDate) };
+        });
+        CompletableFuture<Map<String, Long>> statusF = section("statusCounts", timings, () -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Object[] row : orderRepository.countByStatusBetween(winStart, winEndExclusive)) {
+                if (row == null || row.length < 2 || row[0] == null) continue;
+                counts.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
             }
-
-            BigDecimal prevProductRevenue = (productId != null)
-                ? nz(orderItemRepository.sumRevenueByProductIdBetween(productId, prevStart, prevEndExclusive))
+            return counts;
+        });
+        CompletableFuture<BigDecimal[]> trailingF = section("trailingYear", timings, () -> new BigDecimal[] {
+                nz(dailyRollupRepository.sumRevenueBetween(trailingStartDate, today)),
+                nz(dailyRollupRepository.sumRevenueBetween(trailingPrevStartDate, trailingPrevEndDate)) });
+        CompletableFuture<List<AdminDashboardAnalyticsDTO.DailyRevenuePoint>> chartF = section("chart", timings,
+                () -> revenueSeries(chartStartDate, chartWindow));
+        CompletableFuture<AdminDashboardAnalyticsDTO.TrendingProduct> trendingF = section("trendingProduct", timings,
+                () -> trendingProduct(winStartDate, today, prevStartDate, prevEndDate));
+        CompletableFuture<List<AdminDashboardAnalyticsDTO.CategoryPerformance>> categoriesF = section("categoryPerformance",
+                timings, () -> categoryPerformance(winStartDate, today, prevStartDate, prevEndDate));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dashboardSectionTimeoutMs);
+        List<String> partial = new ArrayList<>();
+        RollupTotals[] windows = await("revenueWindows", windowsF, deadline, partial,
+                new RollupTotals[] { new RollupTotals(), new RollupTotals() });
+        Map<String, Long> statusCounts = await("statusCounts", statusF, deadline, partial, java.util.Collections.emptyMap());
+        BigDecimal[] trailing = await("trailingYear", trailingF, deadline, partial,
+                new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+        List<AdminDashboardAnalyticsDTO.DailyRevenuePoint> series = await("chart", chartF, deadline, partial,
+                java.util.Collections.emptyList());
+        AdminDashboardAnalyticsDTO.TrendingProduct trending = await("trendingProduct", trendingF, deadline, partial, null);
+        List<AdminDashboardAnalyticsDTO.CategoryPerformance> categoryPerformance = await("categoryPerformance",
+                categoriesF, deadline, partial, java.util.Collections.emptyList());
+
+        BigDecimal revenue = windows[0].revenue;
+        long orderCount = windows[0].orders;
+        BigDecimal avgOrder = orderCount > 0
+                ? revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-            // same 30-day window one year ago
-            LocalDate yoyStartDate = winStartDate.minusYears(1);
-            LocalDate yoyEndDate = today.minusYears(1);
-            BigDecimal yoyRevenue = (productId != null)
-                ? nz(orderItemRepository.sumRevenueByProductIdBetween(
-                    productId,
-                    yoyStartDate.atStartOfDay(),
-                    yoyEndDate.plusDays(1).atStartOfDay()))
+        BigDecimal prevRevenue = windows[1].revenue;
+        long prevOrderCount = windows[1].orders;
+        BigDecimal prevAvgOrder = prevOrderCount > 0
+                ? prevRevenue.divide(BigDecimal.valueOf(prevOrderCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-            trending = AdminDashboardAnalyticsDTO.TrendingProduct.builder()
-                .productId(productId)
-                .sku(sku)
-                .productName(productName)
-                .categoryName(categoryName)
-                .imageUrl(imageUrl)
-                .revenue(productRevenue)
-                .growthMoMPct(round2(pctChange(prevProductRevenue, productRevenue)))
-                .growthYoYPct(round2(pctChange(yoyRevenue, productRevenue)))
-                .build();
-            }
-        } catch (Exception ignored) {
-            // keep dashboard resilient even if trending fails
-        }
-
-        // --- category performance (top units in last 30 days) ---
-        List<AdminDashboardAnalyticsDTO.CategoryPerformance> categoryPerformance = java.util.Collections.emptyList();
-        try {
-            List<Object[]> currentCats = orderItemRepository.topCategoriesByUnitsBetween(winStart, winEndExclusive);
-            List<Object[]> prevCats = orderItemRepository.topCategoriesByUnitsBetween(prevStart, prevEndExclusive);
-
-            Map<Long, Long> prevUnitsByCat = new HashMap<>();
-            if (prevCats != null) {
-                for (Object[] row : prevCats) {
-                    if (row == null || row.length < 3 || row[0] == null) continue;
-                    Long categoryId = (Long) row[0];
-                    Long units = row[2] != null ? ((Number) row[2]).longValue() : 0L;
-                    prevUnitsByCat.put(categoryId, units);
-                }
-            }
+        double revenueChangePct = pctChange(prevRevenue, revenue);
+        double avgOrderChangePct = pctChange(prevAvgOrder, avgOrder);
 
-            if (currentCats != null && !currentCats.isEmpty()) {
-                categoryPerformance = currentCats.stream()
-                        .filter(r -> r != null && r.length >= 3 && r[0] != null)
-                        .limit(4)
-                        .map(r -> {
-                            Long categoryId = (Long) r[0];
-                            String categoryName = r[1] != null ? String.valueOf(r[1]) : null;
-                            long unitsSold = r[2] != null ? ((Number) r[2]).longValue() : 0L;
-                            long prevUnits = prevUnitsByCat.getOrDefault(categoryId, 0L);
-                            double growthPct = pctChange(BigDecimal.valueOf(prevUnits), BigDecimal.valueOf(unitsSold));
-                            return AdminDashboardAnalyticsDTO.CategoryPerformance.builder()
-                                    .categoryId(categoryId)
-                                    .categoryName(categoryName)
-                                    .unitsSold(unitsSold)
-                                    .growthPct(round2(growthPct))
-                                    .trend(trendLabel(growthPct))
-                                    .build();
-                        })
-                        .toList();
-            }
-        } catch (Exception ignored) {
-            // keep dashboard resilient
-        }
+        BigDecimal trailingRevenue = trailing[0];
+        double trailingChangePct = pctChange(trailing[1], trailingRevenue);
 
-        AdminDashboardAnalyticsDTO dto = AdminDashboardAnalyticsDTO.builder()
-                .currency(currency == null || currency.isBlank() ? "LKR" : currency.trim().toUpperCase())
+        return AdminDashboardAnalyticsDTO.builder()
+                .currency(cur)
                 .asOfDate(today)
+                .generatedAt(LocalDateTime.now())
                 .grossRevenue30d(AdminDashboardAnalyticsDTO.MetricCard.builder()
                         .title("Gross Revenue")
                         .value(revenue)
@@ -250,9 +244,161 @@ public class AdminAnalyticsController {
                 .trendingProduct30d(trending)
                 .categoryPerformance30d(categoryPerformance)
                 .orderStatusCounts30d(statusCounts)
+                .partial(!partial.isEmpty())
+                .partialSections(partial)
+                .sectionTimingsMs(new LinkedHashMap<>(timings))
                 .build();
+    }
+
+    private List<AdminDashboardAnalyticsDTO.DailyRevenuePoint> revenueSeries(LocalDate chartStartDate, int chartWindow) {
+        Map<LocalDate, DailySalesRollup> rollups = loadRollups(chartStartDate, chartStartDate.plusDays(chartWindow - 1L));
+        List<AdminDashboardAnalyticsDTO.DailyRevenuePoint> series = new ArrayList<>(chartWindow);
+        for (int i = 0; i < chartWindow; i++) {
+            LocalDate d = chartStartDate.plusDays(i);
+            DailySalesRollup r = rollups.get(d);
+            series.add(AdminDashboardAnalyticsDTO.DailyRevenuePoint.builder()
+                    .date(d.toString())
+                    .revenue(r != null ? nz(r.getRevenue()) : BigDecimal.ZERO)
+                    .build());
+        }
+        return series;
+    }
+
+    /** Top revenue product in the window with MoM and YoY growth; null when there were no sales. */
+    private AdminDashboardAnalyticsDTO.TrendingProduct trendingProduct(
+            LocalDate winStartDate,
+            LocalDate today,
+            LocalDate prevStartDate,
+            LocalDate prevEndDate
+    ) {
+        List<Object[]> top = productRollupRepository.topProductsBetween(winStartDate, today);
+        if (top == null || top.isEmpty()) return null;
+        Object[] row = top.get(0);
+        Long productId = row != null && row.length > 0 ? (Long) row[0] : null;
+        String productName = row != null && row.length > 1 ? (String) row[1] : null;
+        String categoryName = row != null && row.length > 3 ? (String) row[3] : null;
+        String imageUrl = row != null && row.length > 4 ? (String) row[4] : null;
+        BigDecimal productRevenue = row != null && row.length > 5 && row[5] != null
+                ? (BigDecimal) row[5]
+                : BigDecimal.ZERO;
+
+        String sku = null;
+        if (productId != null) {
+            sku = productRepository.findSkuById(productId).orElse(null);
+        }
+
+        BigDecimal prevProductRevenue = (productId != null)
+                ? nz(productRollupRepository.sumRevenueByProductIdBetween(productId, prevStartDate, prevEndDate))
+                : BigDecimal.ZERO;
+
+        // same window one year ago
+        LocalDate yoyStartDate = winStartDate.minusYears(1);
+        LocalDate yoyEndDate = today.minusYears(1);
+        BigDecimal yoyRevenue = (productId != null)
+                ? nz(productRollupRepository.sumRevenueByProductIdBetween(productId, yoyStartDate, yoyEndDate))
+                : BigDecimal.ZERO;
 
-        return ResponseEntity.ok(dto);
+        return AdminDashboardAnalyticsDTO.TrendingProduct.builder()
+                .productId(productId)
+                .sku(sku)
+                .productName(productName)
+                .categoryName(categoryName)
+                .imageUrl(imageUrl)
+                .revenue(productRevenue)
+                .growthMoMPct(round2(pctChange(prevProductRevenue, productRevenue)))
+                .growthYoYPct(round2(pctChange(yoyRevenue, productRevenue)))
+                .build();
+    }
+
+    /** Top 4 categories by units in the window with growth vs the previous window. */
+    private List<AdminDashboardAnalyticsDTO.CategoryPerformance> categoryPerformance(
+            LocalDate winStartDate,
+            LocalDate today,
+            LocalDate prevStartDate,
+            LocalDate prevEndDate
+    ) {
+        List<Object[]> currentCats = categoryRollupRepository.topCategoriesByUnitsBetween(winStartDate, today);
+        List<Object[]> prevCats = categoryRollupRepository.topCategoriesByUnitsBetween(prevStartDate, prevEndDate);
+
+        Map<Long, Long> prevUnitsByCat = new HashMap<>();
+        if (prevCats != null) {
+            for (Object[] row : prevCats) {
+                if (row == null || row.length < 3 || row[0] == null) continue;
+                Long categoryId = (Long) row[0];
+                Long units = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+                prevUnitsByCat.put(categoryId, units);
+            }
+        }
+
+        if (currentCats == null || currentCats.isEmpty()) return java.util.Collections.emptyList();
+        return currentCats.stream()
+                .filter(r -> r != null && r.length >= 3 && r[0] != null)
+                .limit(4)
+                .map(r -> {
+                    Long categoryId = (Long) r[0];
+                    String categoryName = r[1] != null ? String.valueOf(r[1]) : null;
+                    long unitsSold = r[2] != null ? ((Number) r[2]).longValue() : 0L;
+                    long prevUnits = prevUnitsByCat.getOrDefault(categoryId, 0L);
+                    double growthPct = pctChange(BigDecimal.valueOf(prevUnits), BigDecimal.valueOf(unitsSold));
+                    return AdminDashboardAnalyticsDTO.CategoryPerformance.builder()
+                            .categoryId(categoryId)
+                            .categoryName(categoryName)
+                            .unitsSold(unitsSold)
+                            .growthPct(round2(growthPct))
+                            .trend(trendLabel(growthPct))
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Run a dashboard section on the analytics pool, recording its duration in {@code timings}.
+     * Cancelling the future does not stop a running JDBC call, so the section runs in a
+     * read-only transaction whose timeout becomes the statement timeout of its queries:
+     * a slow query is aborted by the database instead of holding a connection and a pool
+     * thread after the dashboard has given up on it.
+     */
+    private <T> CompletableFuture<T> section(String name, Map<String, Long> timings, java.util.function.Supplier<T> task) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.setTimeout((int) Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(dashboardSectionTimeoutMs + 999)));
+        return CompletableFuture.supplyAsync(() -> {
+            long started = System.nanoTime();
+            try {
+                return tx.execute(status -> task.get());
+            } finally {
+                timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        }, analyticsExecutor);
+    }
+
+    /**
+     * Wait for a section until the shared deadline. Sections that time out or fail
+     * yield {@code fallback} and are recorded as partial.
+     */
+    private static <T> T await(String name, CompletableFuture<T> future, long deadlineNanos, List<String> partial, T fallback) {
+        try {
+            long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Dashboard section '{}' missed its deadline", name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Dashboard section '{}' failed: {}", name, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+        partial.add(name);
+        return fallback;
+    }
+
+    private static String serverTiming(Map<String, Long> timings) {
+        StringBuilder sb = new StringBuilder();
+        timings.forEach((name, ms) -> {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(name).append(";dur=").append(ms);
+        });
+        return sb.toString();
     }
 
     /**
@@ -268,27 +414,52 @@ public class AdminAnalyticsController {
             @RequestParam(name = "days", required = false, defaultValue = "30") int days) {
 
         int window = Math.max(7, Math.min(365, days));
-        LocalDate today = LocalDate.now();
+        String cur = (currency == null || currency.isBlank()) ? "LKR" : currency.trim().toUpperCase();
+
+        AnalyticsSnapshotService.Snapshot<AdminSalesAnalyticsDTO> snapshot = analyticsSnapshotService
+                .get(salesSnapshotKey(cur, window), AdminSalesAnalyticsDTO.class);
+        AdminSalesAnalyticsDTO dto = snapshot != null ? snapshot.value() : cachedSales(cur, window, LocalDate.now());
+        return ResponseEntity.ok(dto.toBuilder().snapshotAgeMs(ageMs(dto.getGeneratedAt())).build());
+    }
+
+    private AdminSalesAnalyticsDTO cachedSales(String cur, int window, LocalDate today) {
+        // Keyed by the stamp of every day bucket the report reads: previous window through today
+        String key = "sales:" + cur + ":" + window + ":" + today + ":"
+                + analyticsCacheService.bucketStamp(today.minusDays(2L * window - 1), today);
+        return analyticsCacheService.getOrCompute(AnalyticsCacheService.RESULTS_CACHE, key,
+                AdminSalesAnalyticsDTO.class, () -> salesReport(cur, window, today));
+    }
+
+    private static String salesSnapshotKey(String cur, int window) {
+        return "sales:" + cur + ":" + window;
+    }
+
+    private static Long ageMs(LocalDateTime generatedAt) {
+        return generatedAt == null ? null
+                : Math.max(0L, java.time.Duration.between(generatedAt, LocalDateTime.now()).toMillis());
+    }
+
+    private AdminSalesAnalyticsDTO salesReport(String cur, int window, LocalDate today) {
         LocalDate startDate = today.minusDays(window - 1L);
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime endExclusive = today.plusDays(1).atStartOfDay();
 
         LocalDate prevEndDate = startDate.minusDays(1);
         LocalDate prevStartDate = prevEndDate.minusDays(window - 1L);
-        LocalDateTime prevStart = prevStartDate.atStartOfDay();
-        LocalDateTime prevEndExclusive = startDate.atStartOfDay();
 
-        String cur = (currency == null || currency.isBlank()) ? "LKR" : currency.trim().toUpperCase();
+        // --- KPI aggregates (day rollups; cost scales with days, not orders) ---
+        Map<LocalDate, DailySalesRollup> rollups = loadRollups(prevStartDate, today);
+        RollupTotals current = RollupTotals.of(rollups, startDate, today);
+        RollupTotals previous = RollupTotals.of(rollups, prevStartDate, prevEndDate);
 
-        // --- KPI aggregates (real data) ---
-        BigDecimal totalRevenue = nz(orderRepository.sumSalesTotalBetween(start, endExclusive));
-        BigDecimal prevTotalRevenue = nz(orderRepository.sumSalesTotalBetween(prevStart, prevEndExclusive));
+        BigDecimal totalRevenue = current.revenue;
+        BigDecimal prevTotalRevenue = previous.revenue;
 
-        BigDecimal netSales = nz(orderRepository.sumNetSalesBetween(start, endExclusive));
-        BigDecimal prevNetSales = nz(orderRepository.sumNetSalesBetween(prevStart, prevEndExclusive));
+        BigDecimal netSales = current.netSales;
+        BigDecimal prevNetSales = previous.netSales;
 
-        long ordersCount = orderRepository.countSalesBetween(start, endExclusive);
-        long prevOrdersCount = orderRepository.countSalesBetween(prevStart, prevEndExclusive);
+        long ordersCount = current.orders;
+        long prevOrdersCount = previous.orders;
 
         BigDecimal aov = ordersCount > 0
                 ? totalRevenue.divide(BigDecimal.valueOf(ordersCount), 2, RoundingMode.HALF_UP)
@@ -297,11 +468,11 @@ public class AdminAnalyticsController {
                 ? prevTotalRevenue.divide(BigDecimal.valueOf(prevOrdersCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-        BigDecimal discountGiven = nz(orderRepository.sumDiscountBetween(start, endExclusive));
-        BigDecimal prevDiscountGiven = nz(orderRepository.sumDiscountBetween(prevStart, prevEndExclusive));
+        BigDecimal discountGiven = current.discount;
+        BigDecimal prevDiscountGiven = previous.discount;
 
-        long unitsSold = sumUnits(orderItemRepository.dailyUnitsSoldBetween(start, endExclusive));
-        long prevUnitsSold = sumUnits(orderItemRepository.dailyUnitsSoldBetween(prevStart, prevEndExclusive));
+        long unitsSold = current.units;
+        long prevUnitsSold = previous.units;
 
         // Profit/margin proxies (no COGS stored): treat net sales as gross profit proxy.
         BigDecimal grossProfit = netSales;
@@ -320,189 +491,21 @@ public class AdminAnalyticsController {
                 .discountGiven(metric(discountGiven, prevDiscountGiven))
                 .build();
 
-        // --- Daily series (fill missing dates) ---
-        Map<String, BigDecimal> revenueByDay = new LinkedHashMap<>();
-        Map<String, Long> ordersByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            String d = startDate.plusDays(i).toString();
-            revenueByDay.put(d, BigDecimal.ZERO);
-            ordersByDay.put(d, 0L);
-        }
-
-        for (Object[] row : orderRepository.dailyRevenueAndOrdersBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!revenueByDay.containsKey(d)) continue;
-            revenueByDay.put(d, nz((BigDecimal) row[1]));
-            ordersByDay.put(d, row[2] != null ? ((Number) row[2]).longValue() : 0L);
-        }
-
-        Map<String, BigDecimal> discountsByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            discountsByDay.put(startDate.plusDays(i).toString(), BigDecimal.ZERO);
-        }
-        for (Object[] row : orderRepository.dailyDiscountsBetween(start, endExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!discountsByDay.containsKey(d)) continue;
-            discountsByDay.put(d, nz((BigDecimal) row[1]));
-        }
-
-        Map<String, BigDecimal> cancelledByDay = new LinkedHashMap<>();
-        Map<String, Long> cancelledCountByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            String d = startDate.plusDays(i).toString();
-            cancelledByDay.put(d, BigDecimal.ZERO);
-            cancelledCountByDay.put(d, 0L);
-        }
-        for (Object[] row : orderRepository.dailyCancelledTotalsBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!cancelledByDay.containsKey(d)) continue;
-            cancelledByDay.put(d, nz((BigDecimal) row[1]));
-            cancelledCountByDay.put(d, row[2] != null ? ((Number) row[2]).longValue() : 0L);
-        }
-
-        Map<String, Long> unitsByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            unitsByDay.put(startDate.plusDays(i).toString(), 0L);
-        }
-        for (Object[] row : orderItemRepository.dailyUnitsSoldBetween(start, endExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!unitsByDay.containsKey(d)) continue;
-            unitsByDay.put(d, row[1] != null ? ((Number) row[1]).longValue() : 0L);
-        }
-
-        Map<String, BigDecimal> onlineByDay = new LinkedHashMap<>();
-        Map<String, BigDecimal> posByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            String d = startDate.plusDays(i).toString();
-            onlineByDay.put(d, BigDecimal.ZERO);
-            posByDay.put(d, BigDecimal.ZERO);
-        }
-        for (Object[] row : orderRepository.dailyRevenueByDeliveryMethodBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null || row[1] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!onlineByDay.containsKey(d)) continue;
-            DeliveryMethod m = (DeliveryMethod) row[1];
-            BigDecimal v = nz((BigDecimal) row[2]);
-            if (m == DeliveryMethod.STANDARD_DELIVERY) onlineByDay.put(d, onlineByDay.get(d).add(v));
-            if (m == DeliveryMethod.IN_STORE_PICKUP) posByDay.put(d, posByDay.get(d).add(v));
-        }
-
         // Target line: use previous period average daily revenue + 5%.
         BigDecimal prevAvgDaily = (window > 0)
                 ? prevTotalRevenue.divide(BigDecimal.valueOf(window), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
         BigDecimal targetDaily = prevAvgDaily.multiply(BigDecimal.valueOf(1.05)).setScale(2, RoundingMode.HALF_UP);
 
-        List<AdminSalesAnalyticsDTO.DailyPoint> daily = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> e : revenueByDay.entrySet()) {
-            String d = e.getKey();
-            BigDecimal rev = e.getValue();
-            long oc = ordersByDay.getOrDefault(d, 0L);
-            BigDecimal dayAov = oc > 0
-                    ? rev.divide(BigDecimal.valueOf(oc), 2, RoundingMode.HALF_UP)
-                    : BigDecimal.ZERO;
-            daily.add(AdminSalesAnalyticsDTO.DailyPoint.builder()
-                    .date(d)
-                    .revenue(rev)
-                    .orders(oc)
-                    .aov(dayAov)
-                    .discounts(discountsByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .onlineRevenue(onlineByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .posRevenue(posByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .cancelled(cancelledByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .units(unitsByDay.getOrDefault(d, 0L))
-                    .targetRevenue(targetDaily)
-                    .build());
-        }
+        // --- Daily series (fill missing dates) ---
+        List<AdminSalesAnalyticsDTO.DailyPoint> daily = dailyPoints(rollups, startDate, window, targetDaily);
 
         // --- Previous-period daily series (same shape, aligned by index rather than date) ---
-        Map<String, BigDecimal> prevRevenueByDay = new LinkedHashMap<>();
-        Map<String, Long> prevOrdersByDay = new LinkedHashMap<>();
-        for (int i = 0; i < window; i++) {
-            String d = prevStartDate.plusDays(i).toString();
-            prevRevenueByDay.put(d, BigDecimal.ZERO);
-            prevOrdersByDay.put(d, 0L);
-        }
-        for (Object[] row : orderRepository.dailyRevenueAndOrdersBetween(prevStart, prevEndExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!prevRevenueByDay.containsKey(d)) continue;
-            prevRevenueByDay.put(d, nz((BigDecimal) row[1]));
-            prevOrdersByDay.put(d, row[2] != null ? ((Number) row[2]).longValue() : 0L);
-        }
-
-        Map<String, BigDecimal> prevDiscountsByDay = new LinkedHashMap<>();
-        Map<String, BigDecimal> prevOnlineByDay = new LinkedHashMap<>();
-        Map<String, BigDecimal> prevPosByDay = new LinkedHashMap<>();
-        Map<String, BigDecimal> prevCancelledByDay = new LinkedHashMap<>();
-        Map<String, Long> prevUnitsByDay = new LinkedHashMap<>();
-
-        for (int i = 0; i < window; i++) {
-            String d = prevStartDate.plusDays(i).toString();
-            prevDiscountsByDay.put(d, BigDecimal.ZERO);
-            prevOnlineByDay.put(d, BigDecimal.ZERO);
-            prevPosByDay.put(d, BigDecimal.ZERO);
-            prevCancelledByDay.put(d, BigDecimal.ZERO);
-            prevUnitsByDay.put(d, 0L);
-        }
-
-        for (Object[] row : orderRepository.dailyDiscountsBetween(prevStart, prevEndExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!prevDiscountsByDay.containsKey(d)) continue;
-            prevDiscountsByDay.put(d, nz((BigDecimal) row[1]));
-        }
-        for (Object[] row : orderRepository.dailyCancelledTotalsBetween(prevStart, prevEndExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!prevCancelledByDay.containsKey(d)) continue;
-            prevCancelledByDay.put(d, nz((BigDecimal) row[1]));
-        }
-        for (Object[] row : orderItemRepository.dailyUnitsSoldBetween(prevStart, prevEndExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!prevUnitsByDay.containsKey(d)) continue;
-            prevUnitsByDay.put(d, row[1] != null ? ((Number) row[1]).longValue() : 0L);
-        }
-        for (Object[] row : orderRepository.dailyRevenueByDeliveryMethodBetween(prevStart, prevEndExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null || row[1] == null) continue;
-            String d = String.valueOf(row[0]);
-            if (!prevOnlineByDay.containsKey(d)) continue;
-            DeliveryMethod m = (DeliveryMethod) row[1];
-            BigDecimal v = nz((BigDecimal) row[2]);
-            if (m == DeliveryMethod.STANDARD_DELIVERY) prevOnlineByDay.put(d, prevOnlineByDay.get(d).add(v));
-            if (m == DeliveryMethod.IN_STORE_PICKUP) prevPosByDay.put(d, prevPosByDay.get(d).add(v));
-        }
-
-        List<AdminSalesAnalyticsDTO.DailyPoint> previousDaily = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> e : prevRevenueByDay.entrySet()) {
-            String d = e.getKey();
-            BigDecimal rev = e.getValue();
-            long oc = prevOrdersByDay.getOrDefault(d, 0L);
-            BigDecimal dayAov = oc > 0
-                    ? rev.divide(BigDecimal.valueOf(oc), 2, RoundingMode.HALF_UP)
-                    : BigDecimal.ZERO;
-            previousDaily.add(AdminSalesAnalyticsDTO.DailyPoint.builder()
-                    .date(d)
-                    .revenue(rev)
-                    .orders(oc)
-                    .aov(dayAov)
-                    .discounts(prevDiscountsByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .onlineRevenue(prevOnlineByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .posRevenue(prevPosByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .cancelled(prevCancelledByDay.getOrDefault(d, BigDecimal.ZERO))
-                    .units(prevUnitsByDay.getOrDefault(d, 0L))
-                    .targetRevenue(targetDaily)
-                    .build());
-        }
+        List<AdminSalesAnalyticsDTO.DailyPoint> previousDaily = dailyPoints(rollups, prevStartDate, window, targetDaily);
 
         // --- Products / categories ---
-        List<Object[]> topRows = orderItemRepository.topProductsByRevenueAndUnitsBetween(start, endExclusive);
-        List<Object[]> worstRows = orderItemRepository.worstProductsByRevenueAndUnitsBetween(start, endExclusive);
+        List<Object[]> topRows = productRollupRepository.topProductsBetween(startDate, today);
+        List<Object[]> worstRows = productRollupRepository.worstProductsBetween(startDate, today);
 
         List<Object[]> contribRows = topRows == null ? java.util.Collections.emptyList() : topRows;
         List<AdminSalesAnalyticsDTO.ProductContribution> contributions = contribRows.stream()
@@ -532,18 +535,19 @@ public class AdminAnalyticsController {
         Map<Long, String> skuByProductId = new HashMap<>();
         Map<Long, BigDecimal> basePriceByProductId = new HashMap<>();
         if (!productIdsForEnrichment.isEmpty()) {
-            productRepository.findAllById(productIdsForEnrichment).forEach(p -> {
-                if (p == null) return;
-                skuByProductId.put(p.getId(), p.getSku());
-                basePriceByProductId.put(p.getId(), nz(p.getBasePrice()));
-            });
+            for (Object[] row : productRepository.findSkuAndBasePriceByIdIn(productIdsForEnrichment)) {
+                if (row == null || row.length < 3 || row[0] == null) continue;
+                Long id = ((Number) row[0]).longValue();
+                skuByProductId.put(id, row[1] != null ? String.valueOf(row[1]) : null);
+                basePriceByProductId.put(id, nz((BigDecimal) row[2]));
+            }
         }
 
         List<AdminSalesAnalyticsDTO.ProductPerformance> topProducts = mapProducts(topRows, skuByProductId, basePriceByProductId, 10);
         List<AdminSalesAnalyticsDTO.ProductPerformance> worstProducts = mapProducts(worstRows, skuByProductId, basePriceByProductId, 10);
 
         List<AdminSalesAnalyticsDTO.CategoryContribution> categories = new ArrayList<>();
-        for (Object[] row : orderItemRepository.categoryRevenueBetween(start, endExclusive)) {
+        for (Object[] row : categoryRollupRepository.categoryRevenueBetween(startDate, today)) {
             if (row == null || row.length < 4 || row[0] == null) continue;
             categories.add(AdminSalesAnalyticsDTO.CategoryContribution.builder()
                     .categoryId(row[0] != null ? ((Number) row[0]).longValue() : null)
@@ -554,21 +558,24 @@ public class AdminAnalyticsController {
         }
 
         // --- Inventory ---
-        AdminSalesAnalyticsDTO.InventoryBlock inventory = buildInventory(window, start, endExclusive, topProducts, skuByProductId, basePriceByProductId);
+        AdminSalesAnalyticsDTO.InventoryBlock inventory = buildInventory(window, daily, topProducts, skuByProductId, basePriceByProductId);
+
+        // --- Order-level splits (hour, payment, discount, customer): closed days cached, today streamed ---
+        OrderWindowAggregate orderAgg = analyticsCacheService.orderAggregate(startDate, today);
 
         // --- Customers ---
         AdminSalesAnalyticsDTO.CustomerBlock customers = buildCustomers(startDate, today, start, endExclusive);
 
         // --- Payments / discounts / returns ---
-        AdminSalesAnalyticsDTO.PaymentsBlock payments = buildPayments(daily, start, endExclusive);
+        AdminSalesAnalyticsDTO.PaymentsBlock payments = buildPayments(daily, rollups, startDate, today, orderAgg);
 
         // --- Channel + peak times ---
-        AdminSalesAnalyticsDTO.StaffStoreBlock staffStore = buildStaffStore(start, endExclusive);
+        AdminSalesAnalyticsDTO.StaffStoreBlock staffStore = buildStaffStore(current, orderAgg);
 
         // --- Smart insights ---
         List<String> insights = buildInsights(kpis, categories, inventory, customers, payments, topProducts);
 
-        AdminSalesAnalyticsDTO dto = AdminSalesAnalyticsDTO.builder()
+        return AdminSalesAnalyticsDTO.builder()
                 .currency(cur)
                 .startDate(startDate)
                 .endDate(today)
@@ -586,9 +593,104 @@ public class AdminAnalyticsController {
                 .payments(payments)
                 .staffStore(staffStore)
                 .insights(insights)
+                .generatedAt(LocalDateTime.now())
                 .build();
+    }
 
-        return ResponseEntity.ok(dto);
+    /**
+     * Rebuild the daily sales rollups from order history. Defaults to the full
+     * history (first order up to today) when no range is given.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days;
+        if (from == null && to == null) {
+            days = salesRollupService.rebuildAll();
+        } else {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate begin = from != null ? from : end;
+            days = salesRollupService.rebuild(begin, end);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("from", from);
+        body.put("to", to);
+        body.put("daysRebuilt", days);
+        return ResponseEntity.ok(body);
+    }
+
+    /** Hit/miss counters of the analytics caches. */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> cacheStats() {
+        return ResponseEntity.ok(analyticsCacheService.stats());
+    }
+
+    private Map<LocalDate, DailySalesRollup> loadRollups(LocalDate from, LocalDate to) {
+        Map<LocalDate, DailySalesRollup> byDay = new HashMap<>();
+        for (DailySalesRollup r : dailyRollupRepository.findBySalesDateBetweenOrderBySalesDateAsc(from, to)) {
+            if (r != null && r.getSalesDate() != null) byDay.put(r.getSalesDate(), r);
+        }
+        return byDay;
+    }
+
+    /** One point per day starting at {@code from}; days without a rollup row are zero-filled. */
+    private static List<AdminSalesAnalyticsDTO.DailyPoint> dailyPoints(
+            Map<LocalDate, DailySalesRollup> rollups,
+            LocalDate from,
+            int days,
+            BigDecimal targetDaily
+    ) {
+        List<AdminSalesAnalyticsDTO.DailyPoint> out = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            LocalDate d = from.plusDays(i);
+            DailySalesRollup r = rollups.get(d);
+            BigDecimal rev = r != null ? nz(r.getRevenue()) : BigDecimal.ZERO;
+            long oc = r != null ? r.getOrdersCount() : 0L;
+            BigDecimal dayAov = oc > 0
+                    ? rev.divide(BigDecimal.valueOf(oc), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            out.add(AdminSalesAnalyticsDTO.DailyPoint.builder()
+                    .date(d.toString())
+                    .revenue(rev)
+                    .orders(oc)
+                    .aov(dayAov)
+                    .discounts(r != null ? nz(r.getDiscountTotal()) : BigDecimal.ZERO)
+                    .onlineRevenue(r != null ? nz(r.getOnlineRevenue()) : BigDecimal.ZERO)
+                    .posRevenue(r != null ? nz(r.getPosRevenue()) : BigDecimal.ZERO)
+                    .cancelled(r != null ? nz(r.getCancelledRevenue()) : BigDecimal.ZERO)
+                    .units(r != null ? r.getUnitsSold() : 0L)
+                    .targetRevenue(targetDaily)
+                    .build());
+        }
+        return out;
+    }
+
+    /** Sums of the day rollups over an inclusive date range. */
+    private static final class RollupTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal netSales = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal online = BigDecimal.ZERO;
+        private BigDecimal pos = BigDecimal.ZERO;
+        private long orders;
+        private long units;
+
+        private static RollupTotals of(Map<LocalDate, DailySalesRollup> rollups, LocalDate from, LocalDate to) {
+            RollupTotals t = new RollupTotals();
+            for (DailySalesRollup r : rollups.values()) {
+                LocalDate d = r.getSalesDate();
+                if (d.isBefore(from) || d.isAfter(to)) continue;
+                t.revenue = t.revenue.add(nz(r.getRevenue()));
+                t.netSales = t.netSales.add(nz(r.getNetSales()));
+                t.discount = t.discount.add(nz(r.getDiscountTotal()));
+                t.online = t.online.add(nz(r.getOnlineRevenue()));
+                t.pos = t.pos.add(nz(r.getPosRevenue()));
+                t.orders += r.getOrdersCount();
+                t.units += r.getUnitsSold();
+            }
+            return t;
+        }
     }
 
     private static BigDecimal nz(BigDecimal v) {
@@ -629,17 +731,6 @@ public class AdminAnalyticsController {
                 .build();
     }
 
-    private static long sumUnits(List<Object[]> dailyUnitsRows) {
-        if (dailyUnitsRows == null) return 0L;
-        long sum = 0L;
-        for (Object[] row : dailyUnitsRows) {
-            if (row == null || row.length < 2) continue;
-            if (row[1] == null) continue;
-            sum += ((Number) row[1]).longValue();
-        }
-        return sum;
-    }
-
     private static List<AdminSalesAnalyticsDTO.ProductPerformance> mapProducts(
             List<Object[]> rows,
             Map<Long, String> skuByProductId,
@@ -686,8 +777,7 @@ public class AdminAnalyticsController {
 
     private AdminSalesAnalyticsDTO.InventoryBlock buildInventory(
             int window,
-            LocalDateTime start,
-            LocalDateTime endExclusive,
+            List<AdminSalesAnalyticsDTO.DailyPoint> daily,
             List<AdminSalesAnalyticsDTO.ProductPerformance> topProducts,
             Map<Long, String> skuByProductId,
             Map<Long, BigDecimal> basePriceByProductId
@@ -762,14 +852,14 @@ public class AdminAnalyticsController {
                     .build());
         }
 
-        // Turnover proxy: daily units sold (already queried in the main flow as daily.units)
+        // Turnover proxy: daily units sold (already computed in the main flow as daily.units)
         List<AdminSalesAnalyticsDTO.InventoryTurnoverPoint> turnover = new ArrayList<>();
-        // Caller will set from daily series on UI (we still populate a simple list to keep API self-contained)
-        for (Object[] row : orderItemRepository.dailyUnitsSoldBetween(start, endExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            long u = row[1] != null ? ((Number) row[1]).longValue() : 0L;
-            turnover.add(AdminSalesAnalyticsDTO.InventoryTurnoverPoint.builder().date(d).unitsSold(u).build());
+        if (daily != null) {
+            for (AdminSalesAnalyticsDTO.DailyPoint p : daily) {
+                long u = p.getUnits() == null ? 0L : p.getUnits();
+                if (u == 0L) continue;
+                turnover.add(AdminSalesAnalyticsDTO.InventoryTurnoverPoint.builder().date(p.getDate()).unitsSold(u).build());
+            }
         }
 
         return AdminSalesAnalyticsDTO.InventoryBlock.builder()
@@ -787,30 +877,25 @@ public class AdminAnalyticsController {
     ) {
         int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
 
-        // First purchase for customers active in the window
-        Map<String, LocalDate> firstPurchaseDateByEmail = new HashMap<>();
-        for (Object[] row : orderRepository.firstPurchaseForActiveCustomersBetween(start, endExclusive)) {
-            if (row == null || row.length < 2 || row[0] == null || row[1] == null) continue;
-            String email = String.valueOf(row[0]);
-            LocalDateTime ts = (LocalDateTime) row[1];
-            firstPurchaseDateByEmail.put(email, ts.toLocalDate());
-        }
-
-        long totalCustomers = firstPurchaseDateByEmail.size();
-        long newCustomers = firstPurchaseDateByEmail.values().stream().filter(d -> !d.isBefore(startDate)).count();
-        long returningCustomers = totalCustomers - newCustomers;
+        // Ledger rows: last order in the window = active customer, first ever order in the window = new.
+        // The window always ends today, so "last order since start" is exactly "active in the window".
+        long totalCustomers = customerLedgerRepository.countActiveSince(start);
 
-        // Growth series: new customers by day + active customers by day
+        // Growth series: new customers by day
         Map<String, Long> newByDay = new LinkedHashMap<>();
         for (int i = 0; i < days; i++) {
             String d = startDate.plusDays(i).toString();
             newByDay.put(d, 0L);
         }
 
-        for (Map.Entry<String, LocalDate> e : firstPurchaseDateByEmail.entrySet()) {
-            String d = e.getValue().toString();
-            if (newByDay.containsKey(d)) newByDay.put(d, newByDay.get(d) + 1);
+        long newCustomers = 0L;
+        for (Object[] row : customerLedgerRepository.newCustomersByDayBetween(start, endExclusive)) {
+            if (row == null || row.length < 2 || row[0] == null || row[1] == null) continue;
+            long n = ((Number) row[1]).longValue();
+            newByDay.computeIfPresent(String.valueOf(row[0]), (d, c) -> c + n);
+            newCustomers += n;
         }
+        long returningCustomers = Math.max(0L, totalCustomers - newCustomers);
 
         List<AdminSalesAnalyticsDTO.CustomerGrowthPoint> growth = new ArrayList<>();
         for (int i = 0; i < days; i++) {
@@ -822,24 +907,17 @@ public class AdminAnalyticsController {
                     .build());
         }
 
-        // Scatter: spend vs frequency
-        List<AdminSalesAnalyticsDTO.CustomerScatterPoint> scatter = new ArrayList<>();
-        for (Object[] row : orderRepository.customerSpendAndFrequencyBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String email = String.valueOf(row[0]);
-            long freq = row[1] != null ? ((Number) row[1]).longValue() : 0L;
-            BigDecimal spend = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
-            BigDecimal avg = freq > 0 ? spend.divide(BigDecimal.valueOf(freq), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
-            scatter.add(AdminSalesAnalyticsDTO.CustomerScatterPoint.builder()
-                    .customer(email)
-                    .orders(freq)
-                    .totalSpend(nz(spend))
-                    .avgOrder(avg)
-                    .build());
-        }
-        scatter = scatter.stream()
-                .sorted((a, b) -> nz(b.getTotalSpend()).compareTo(nz(a.getTotalSpend())))
-                .limit(120)
+        // Scatter: lifetime spend vs frequency of the window's biggest spenders
+        List<AdminSalesAnalyticsDTO.CustomerScatterPoint> scatter = customerLedgerRepository
+                .findActiveSinceBySpend(start, org.springframework.data.domain.PageRequest.of(0, 120)).stream()
+                .map(l -> AdminSalesAnalyticsDTO.CustomerScatterPoint.builder()
+                        .customer(l.getEmail())
+                        .orders(l.getLifetimeOrders())
+                        .totalSpend(nz(l.getLifetimeSpend()))
+                        .avgOrder(l.getLifetimeOrders() > 0
+                                ? nz(l.getLifetimeSpend()).divide(BigDecimal.valueOf(l.getLifetimeOrders()), 2, RoundingMode.HALF_UP)
+                                : BigDecimal.ZERO)
+                        .build())
                 .toList();
 
         // Radar: simple, scaled metrics (0-100)
@@ -875,37 +953,25 @@ public class AdminAnalyticsController {
         return n > 0 ? sum / n : 0.0;
     }
 
-    private AdminSalesAnalyticsDTO.PaymentsBlock buildPayments(List<AdminSalesAnalyticsDTO.DailyPoint> daily, LocalDateTime start, LocalDateTime endExclusive) {
-        List<AdminSalesAnalyticsDTO.PaymentSplit> methods = new ArrayList<>();
-        for (Object[] row : orderRepository.paymentSplitBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            methods.add(AdminSalesAnalyticsDTO.PaymentSplit.builder()
-                    .method(String.valueOf(row[0]))
-                    .orders(row[1] != null ? ((Number) row[1]).longValue() : 0L)
-                    .revenue(nz((BigDecimal) row[2]))
-                    .build());
-        }
+    private AdminSalesAnalyticsDTO.PaymentsBlock buildPayments(
+            List<AdminSalesAnalyticsDTO.DailyPoint> daily,
+            Map<LocalDate, DailySalesRollup> rollups,
+            LocalDate startDate,
+            LocalDate endDate,
+            OrderWindowAggregate orderAgg
+    ) {
+        List<AdminSalesAnalyticsDTO.PaymentSplit> methods = orderAgg.paymentSplits();
 
-        List<AdminSalesAnalyticsDTO.DiscountSplit> split = new ArrayList<>();
-        for (Object[] row : orderRepository.discountedSplitBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            split.add(AdminSalesAnalyticsDTO.DiscountSplit.builder()
-                    .bucket(String.valueOf(row[0]))
-                    .orders(row[1] != null ? ((Number) row[1]).longValue() : 0L)
-                    .revenue(nz((BigDecimal) row[2]))
-                    .build());
-        }
+        List<AdminSalesAnalyticsDTO.DiscountSplit> split = orderAgg.discountSplits();
 
         List<AdminSalesAnalyticsDTO.ReturnPoint> returns = new ArrayList<>();
-        for (Object[] row : orderRepository.dailyCancelledTotalsBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            String d = String.valueOf(row[0]);
-            BigDecimal cancelled = nz((BigDecimal) row[1]);
-            long cnt = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+        for (DailySalesRollup r : rollups.values()) {
+            if (r.getSalesDate().isBefore(startDate) || r.getSalesDate().isAfter(endDate)) continue;
+            if (r.getCancelledOrders() <= 0) continue;
             returns.add(AdminSalesAnalyticsDTO.ReturnPoint.builder()
-                    .date(d)
-                    .refunds(cancelled.negate())
-                    .cancelledOrders(cnt)
+                    .date(r.getSalesDate().toString())
+                    .refunds(nz(r.getCancelledRevenue()).negate())
+                    .cancelledOrders(r.getCancelledOrders())
                     .build());
         }
 
@@ -934,40 +1000,20 @@ public class AdminAnalyticsController {
                 .build();
     }
 
-    private AdminSalesAnalyticsDTO.StaffStoreBlock buildStaffStore(LocalDateTime start, LocalDateTime endExclusive) {
+    private AdminSalesAnalyticsDTO.StaffStoreBlock buildStaffStore(RollupTotals totals, OrderWindowAggregate orderAgg) {
         // Sales by channel derived from deliveryMethod
         Map<String, AdminSalesAnalyticsDTO.ChannelPoint> channel = new HashMap<>();
         channel.put("Online", AdminSalesAnalyticsDTO.ChannelPoint.builder().channel("Online").revenue(BigDecimal.ZERO).orders(0L).build());
         channel.put("POS", AdminSalesAnalyticsDTO.ChannelPoint.builder().channel("POS").revenue(BigDecimal.ZERO).orders(0L).build());
 
-        // Reuse dailyRevenueByDeliveryMethodBetween but aggregate over the full window
-        for (Object[] row : orderRepository.dailyRevenueByDeliveryMethodBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[1] == null) continue;
-            DeliveryMethod m = (DeliveryMethod) row[1];
-            BigDecimal v = nz((BigDecimal) row[2]);
-            if (m == DeliveryMethod.STANDARD_DELIVERY) {
-                AdminSalesAnalyticsDTO.ChannelPoint cp = channel.get("Online");
-                cp.setRevenue(nz(cp.getRevenue()).add(v));
-            }
-            if (m == DeliveryMethod.IN_STORE_PICKUP) {
-                AdminSalesAnalyticsDTO.ChannelPoint cp = channel.get("POS");
-                cp.setRevenue(nz(cp.getRevenue()).add(v));
-            }
-        }
+        // Channel revenue is kept per day in the rollups; sum over the full window
+        channel.get("Online").setRevenue(totals.online);
+        channel.get("POS").setRevenue(totals.pos);
 
         // Orders per channel (cheaper: infer from totals split is not possible without a dedicated query; keep 0 when unknown)
         List<AdminSalesAnalyticsDTO.ChannelPoint> channelPoints = new ArrayList<>(channel.values());
 
-        List<AdminSalesAnalyticsDTO.HourPoint> hours = new ArrayList<>();
-        for (Object[] row : orderRepository.hourlyRevenueAndOrdersBetween(start, endExclusive)) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            Integer h = ((Number) row[0]).intValue();
-            hours.add(AdminSalesAnalyticsDTO.HourPoint.builder()
-                    .hour(h)
-                    .revenue(nz((BigDecimal) row[1]))
-                    .orders(row[2] != null ? ((Number) row[2]).longValue() : 0L)
-                    .build());
-        }
+        List<AdminSalesAnalyticsDTO.HourPoint> hours = orderAgg.hourPoints();
 
         return AdminSalesAnalyticsDTO.StaffStoreBlock.builder()
                 .salesByChannel(channelPoints)
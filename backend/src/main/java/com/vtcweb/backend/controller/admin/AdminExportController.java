@@ -0,0 +1,101 @@
+package com.vtcweb.backend.controller.admin;
+
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+import com.vtcweb.backend.service.export.ExportFormat;
+import com.vtcweb.backend.service.export.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming CSV / NDJSON exports for admins. Rows are written to the response as
+ * they are read, so exports of any size use constant memory on the server.
+ *
+ * Query params (both endpoints):
+ * - from, to: ISO dates (inclusive); default last 30 days
+ * - format: csv (default) or ndjson
+ * - gzip: true to download a .gz file
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+public class AdminExportController {
+
+    private final OrderExportService orderExportService;
+
+    /** One row per order; optional status filter. */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> orders(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "format", required = false, defaultValue = "csv") String format,
+            @RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end);
+        ExportFormat fmt = ExportFormat.from(format);
+        OrderStatus orderStatus = parseStatus(status);
+        return stream("orders", start, end, fmt, gzip,
+                out -> orderExportService.writeOrders(start, end, orderStatus, fmt, out));
+    }
+
+    /** One row per order line of non-cancelled orders. */
+    @GetMapping("/sales")
+    public ResponseEntity<StreamingResponseBody> sales(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "format", required = false, defaultValue = "csv") String format,
+            @RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end);
+        ExportFormat fmt = ExportFormat.from(format);
+        return stream("sales", start, end, fmt, gzip, out -> orderExportService.writeSales(start, end, fmt, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, LocalDate start, LocalDate end,
+            ExportFormat format, boolean gzip, StreamingResponseBody body) {
+        String filename = name + "-" + start + "_" + end + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody responseBody = gzip
+                ? out -> {
+                    // Service closes the stream it is given, which finishes the gzip trailer
+                    OutputStream zipped = new GZIPOutputStream(out, 16 * 1024);
+                    body.writeTo(zipped);
+                }
+                : body;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(responseBody);
+    }
+
+    private static void validateRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start))
+            throw new IllegalArgumentException("to must not be before from");
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank())
+            return null;
+        try {
+            return OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+    }
+}
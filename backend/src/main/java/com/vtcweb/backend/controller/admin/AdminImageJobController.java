@@ -0,0 +1,31 @@
+package com.vtcweb.backend.controller.admin;
+
+import com.vtcweb.backend.dto.storage.ImageIngestionJobDTO;
+import com.vtcweb.backend.exception.NotFoundException;
+import com.vtcweb.backend.service.storage.ImageIngestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Status of background image uploads started by the product and category image
+ * endpoints (their 202 responses point here). Poll until status is SUCCEEDED
+ * (url set) or FAILED (lastError set); PENDING jobs show when the next retry is
+ * due.
+ */
+@RestController
+@RequestMapping("/api/admin/images/jobs")
+@RequiredArgsConstructor
+public class AdminImageJobController {
+
+    private final ImageIngestionService imageIngestionService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImageIngestionJobDTO> status(@PathVariable("id") String id) {
+        return ResponseEntity.ok(imageIngestionService.status(id)
+                .orElseThrow(() -> new NotFoundException("Image job not found: " + id)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.vtcweb.backend.controller.admin;
+
+import com.vtcweb.backend.dto.product.ProductImportStatusDTO;
+import com.vtcweb.backend.exception.NotFoundException;
+import com.vtcweb.backend.service.export.ExportFormat;
+import com.vtcweb.backend.service.product.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Bulk product import for admins. The request body is the raw file (not
+ * multipart); it is spooled to disk and imported in the background, so the
+ * POST returns 202 straight away and progress is polled with GET.
+ *
+ * Query params (POST):
+ * - format: csv or ndjson; defaults from Content-Type, else csv
+ * - gzip: true when the body is gzip-compressed (also implied by
+ *   Content-Encoding: gzip)
+ */
+@RestController
+@RequestMapping("/api/admin/products/import")
+@RequiredArgsConstructor
+public class AdminProductImportController {
+
+    private final ProductImportService productImportService;
+
+    @PostMapping
+    public ResponseEntity<ProductImportStatusDTO> start(HttpServletRequest request,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip,
+            @RequestHeader(name = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+            throws IOException {
+        ExportFormat fmt = format != null ? ExportFormat.from(format) : formatOf(request.getContentType());
+        boolean gzipped = gzip || "gzip".equalsIgnoreCase(contentEncoding);
+        ProductImportStatusDTO status = productImportService.start(request.getInputStream(), fmt, gzipped);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/products/import/" + status.getId()))
+                .body(status);
+    }
+
+    /** Progress and per-row errors of a recent import. */
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductImportStatusDTO> status(@PathVariable("id") String id) {
+        return ResponseEntity.ok(productImportService.status(id)
+                .orElseThrow(() -> new NotFoundException("Import not found: " + id)));
+    }
+
+    private static ExportFormat formatOf(String contentType) {
+        String ct = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        return ct.contains("json") ? ExportFormat.NDJSON : ExportFormat.CSV;
+    }
+}
@@ -1,9 +1,13 @@
 package com.vtcweb.backend.controller.category;
 
 import com.vtcweb.backend.dto.category.CategoryDTO;
+import com.vtcweb.backend.dto.category.CategoryPageDTO;
 import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.service.catalog.CatalogCacheService;
 import com.vtcweb.backend.service.category.CategoryService;
+import com.vtcweb.backend.repository.category.CategoryRepository;
 import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.util.ConditionalGet;
 import com.vtcweb.backend.util.Mapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -22,6 +26,8 @@ public class CategoryController {
 
     private final CategoryService categoryService;
     private final ProductRepository productRepository;
+    private final CatalogCacheService catalogCacheService;
+    private final CategoryRepository categoryRepository;
 
     /**
      * Create a new category.
@@ -39,10 +45,17 @@ public class CategoryController {
     }
 
     /**
-     * Retrieve category by id.
+     * Retrieve category by id. Conditional GET on the category's updatedAt.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getById(@PathVariable("id") Long id) {
+    public ResponseEntity<CategoryDTO> getById(@PathVariable("id") Long id,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        java.time.LocalDateTime updatedAt = categoryRepository.findUpdatedAtById(id);
+        if (updatedAt != null) {
+            long updated = ConditionalGet.millis(updatedAt);
+            if (ConditionalGet.notModified(request, "c" + id + "-" + updated, updated))
+                return null;
+        }
         return ResponseEntity.ok(Mapper.toDto(categoryService.getById(id)));
     }
 
@@ -50,29 +63,42 @@ public class CategoryController {
      * List categories with pagination. Defaults to showing only ACTIVE categories
      * to customers.
      * Pass status=all to retrieve all statuses. status=active|inactive to filter
-     * explicitly.
+     * explicitly. Pages are served from the catalog cache; conditional GET
+     * against the catalog-wide version (product counts move with products).
      */
     @GetMapping
     public ResponseEntity<Page<CategoryDTO>> list(Pageable pageable,
-            @RequestParam(name = "status", required = false) String status) {
+            @RequestParam(name = "status", required = false) String status,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        CatalogCacheService.CatalogStamp stamp = catalogCacheService.catalogStamp();
+        if (ConditionalGet.notModified(request, "catalog-" + stamp.version(), stamp.lastModified()))
+            return null;
         com.vtcweb.backend.model.entity.category.CategoryStatus st = parseStatus(status);
         boolean provided = status != null;
         // Default to ACTIVE when not provided
         if (!provided)
             st = com.vtcweb.backend.model.entity.category.CategoryStatus.ACTIVE;
 
-        Page<CategoryDTO> page = categoryService.list(pageable, st).map(c -> {
-            CategoryDTO dto = Mapper.toDto(c);
+        com.vtcweb.backend.model.entity.category.CategoryStatus filter = st;
+        String variant = filter + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":"
+                + pageable.getSort();
+        CategoryPageDTO cached = catalogCacheService.get(CatalogCacheService.CATEGORIES, CatalogCacheService.ALL,
+                variant, CategoryPageDTO.class, () -> {
+                    Page<CategoryDTO> page = categoryService.list(pageable, filter).map(c -> {
+                        CategoryDTO dto = Mapper.toDto(c);
 
-            try {
-                long count = productRepository.countByCategory_Id(c.getId());
-                dto.setProductCount((int) count);
-            } catch (Exception ignored) {
+                        try {
+                            long count = productRepository.countByCategory_Id(c.getId());
+                            dto.setProductCount((int) count);
+                        } catch (Exception ignored) {
 
-            }
-            return dto;
-        });
-        return ResponseEntity.ok(page);
+                        }
+                        return dto;
+                    });
+                    return new CategoryPageDTO(page.getContent(), page.getTotalElements());
+                });
+        return ResponseEntity.ok(new org.springframework.data.domain.PageImpl<>(cached.content(), pageable,
+                cached.totalElements()));
     }
 
     private com.vtcweb.backend.model.entity.category.CategoryStatus parseStatus(String status) {
@@ -1,8 +1,9 @@
 package com.vtcweb.backend.controller.category;
 
 import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.storage.ImageIngestionJob;
 import com.vtcweb.backend.service.category.CategoryService;
-import com.vtcweb.backend.service.storage.ImageStorageService;
+import com.vtcweb.backend.service.storage.ImageIngestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import lombok.extern.slf4j.Slf4j;
@@ -10,16 +11,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.Map;
 
 /**
  * Endpoints for uploading category related images (main, tile1, tile2).
- * Uses the generic {@link ImageStorageService} (Cloudinary implementation) and
- * persists
- * the resulting URL into the appropriate field on the Category entity.
+ * The file is handed to {@link ImageIngestionService}, which uploads it in the
+ * background and then persists the resulting URL into the appropriate field
+ * on the Category entity.
  */
 @RestController
 @RequestMapping("/api/categories")
@@ -27,7 +27,7 @@ import java.util.Map;
 @Slf4j
 public class CategoryImageController {
 
-    private final ImageStorageService imageStorageService;
+    private final ImageIngestionService imageIngestionService;
     private final CategoryService categoryService;
 
     /**
@@ -62,31 +62,17 @@ public class CategoryImageController {
         if (slug.isBlank())
             slug = "category-" + categoryId;
         String folder = "categories/" + slug; // all images for this category stored together
-        long start = System.currentTimeMillis();
-        ImageStorageService.UploadResult uploaded = imageStorageService.upload(file, folder);
-        long duration = System.currentTimeMillis() - start;
-        log.info("Uploaded category image: categoryId={}, slot={}, folder='{}', publicId={}, bytes={}, took={}ms",
-                categoryId, normalizedSlot, folder, uploaded.publicId(), uploaded.bytes(), duration);
+        // Stored in the background; the slot is filled once the upload succeeds
+        ImageIngestionJob job = imageIngestionService.submitCategoryImage(categoryId, normalizedSlot, folder, file);
+        log.info("Queued category image upload: categoryId={}, slot={}, folder='{}', bytes={}, job={}",
+                categoryId, normalizedSlot, folder, file.getSize(), job.getId());
 
-        // Persist URL in the chosen field (existing already loaded)
-        switch (normalizedSlot) {
-            case "tile1" -> existing.setCatTileImage1(uploaded.url());
-            case "tile2" -> existing.setCatTileImage2(uploaded.url());
-            default -> existing.setCatMainImg(uploaded.url());
-        }
-        Category updated = categoryService.update(categoryId, existing); // reuse update logic
-
-        URI location = ServletUriComponentsBuilder.fromCurrentRequest().build().toUri();
-        return ResponseEntity.created(location).body(Map.of(
-                "categoryId", updated.getId(),
-                "slot", normalizedSlot,
-                "url", switch (normalizedSlot) {
-                    case "tile1" -> updated.getCatTileImage1();
-                    case "tile2" -> updated.getCatTileImage2();
-                    default -> updated.getCatMainImg();
-                },
-                "publicId", uploaded.publicId(),
-                "bytes", uploaded.bytes(),
-                "format", uploaded.format()));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/images/jobs/" + job.getId()))
+                .body(Map.of(
+                        "categoryId", categoryId,
+                        "slot", normalizedSlot,
+                        "jobId", job.getId(),
+                        "status", job.getStatus().name()));
     }
 }
@@ -50,9 +50,18 @@ public class OrderController {
         return ResponseEntity.of(orderService.getByIdWithDetails(id).map(Mapper::toOrderDtoWithItems));
     }
 
+    /**
+     * Paged order list. With after (empty for the first page) returns a
+     * newest-first CursorSliceDTO instead, which stays constant-time at any depth.
+     */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
-    public ResponseEntity<Page<OrderDTO>> list(Pageable pageable) {
+    public ResponseEntity<?> list(Pageable pageable,
+            @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            return ResponseEntity.ok(orderService.listAfter(after, pageable.getPageSize())
+                    .map(Mapper::toOrderDtoShallow));
+        }
         Page<OrderDTO> page = orderService.list(pageable).map(Mapper::toOrderDtoShallow);
         return ResponseEntity.ok(page);
     }
@@ -11,7 +11,6 @@ import com.vtcweb.backend.service.product.ProductService;
 import com.vtcweb.backend.util.Mapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -27,9 +26,15 @@ public class ProductController {
 
     private final ProductService productService;
     @org.springframework.beans.factory.annotation.Autowired
-    private com.vtcweb.backend.repository.order.OrderItemRepository orderItemRepository;
-    @org.springframework.beans.factory.annotation.Autowired
     private com.vtcweb.backend.repository.product.ProductVariationRepository productVariationRepository;
+    @org.springframework.beans.factory.annotation.Autowired
+    private com.vtcweb.backend.repository.analytics.DailyProductVariationSalesRepository variationSalesRepository;
+    @org.springframework.beans.factory.annotation.Autowired
+    private com.vtcweb.backend.service.analytics.AnalyticsCacheService analyticsCacheService;
+    @org.springframework.beans.factory.annotation.Autowired
+    private com.vtcweb.backend.service.catalog.CatalogCacheService catalogCacheService;
+    @org.springframework.beans.factory.annotation.Autowired
+    private com.vtcweb.backend.repository.product.ProductRepository productRepository;
 
     /**
      * Create a new product under a category.
@@ -61,31 +66,54 @@ public class ProductController {
     }
 
     /**
-     * Retrieve product by id.
+     * Retrieve product by id. Conditional GET (ETag / Last-Modified, 304).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getById(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductDTO> getById(@PathVariable("id") Long id,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        if (productNotModified(id, request))
+            return null;
         return ResponseEntity.ok(Mapper.toDtoShallow(productService.getById(id)));
     }
 
     /**
      * Retrieve product by id with details (relations eager-loaded via repository
-     * method).
+     * method). Served from the catalog cache; catalog writes invalidate it.
+     * Conditional GET (ETag / Last-Modified, 304).
      */
     @GetMapping("/{id}/details")
-    public ResponseEntity<ProductDTO> getByIdWithDetails(@PathVariable("id") Long id) {
-        java.util.Optional<Product> opt = productService.getByIdWithDetails(id);
-        return opt.map(p -> ResponseEntity.ok(Mapper.toDtoWithDetails(p)))
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<ProductDTO> getByIdWithDetails(@PathVariable("id") Long id,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        if (productNotModified(id, request))
+            return null;
+        ProductDTO dto = catalogCacheService.get(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS, id,
+                "details", ProductDTO.class,
+                () -> productService.getByIdWithDetails(id).map(Mapper::toDtoWithDetails).orElse(null));
+        return dto != null ? ResponseEntity.ok(dto) : ResponseEntity.notFound().build();
     }
 
     /**
      * List products with pagination.
+     * Passing after (empty for the first page) switches to cursor mode: newest
+     * first, returns a CursorSliceDTO whose nextCursor feeds the next request, and
+     * never counts. Conditional GET against the catalog-wide version.
+     * attr.{name}=value filters by variation attributes (repeat or comma-separate
+     * values to OR them; attributes are AND-ed); with it or facets=true the
+     * response is a FacetedProductPageDTO carrying counts per attribute value.
+     * minPrice/maxPrice filter on the effective (variation) price range, and
+     * sort=price (alias of minPrice), minPrice or maxPrice orders by it.
      */
     @GetMapping
-    public ResponseEntity<Page<ProductDTO>> list(Pageable pageable,
+    public ResponseEntity<?> list(Pageable pageable,
             @RequestParam(name = "status", required = false) String status,
-            @RequestParam(name = "stock", required = false) String stock) {
+            @RequestParam(name = "stock", required = false) String stock,
+            @RequestParam(name = "minPrice", required = false) java.math.BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "facets", defaultValue = "false") boolean facets,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        if (catalogNotModified(request))
+            return null;
         boolean provided = status != null;
         com.vtcweb.backend.model.entity.product.ProductStatus st = parseStatus(status);
         if (!provided) {
@@ -93,92 +121,83 @@ public class ProductController {
             st = com.vtcweb.backend.model.entity.product.ProductStatus.ACTIVE;
         }
         StockFilter sf = parseStock(stock);
-        Page<Product> products;
-        if (sf == StockFilter.IN_STOCK) {
-            products = (st == null) ? productService.listInStock(pageable) : productService.listInStock(pageable, st);
-        } else if (sf == StockFilter.OUT_OF_STOCK) {
-            products = (st == null) ? productService.listOutOfStock(pageable)
-                    : productService.listOutOfStock(pageable, st);
-        } else {
-            products = (st == null) ? productService.list(pageable) : productService.list(pageable, st);
+        checkPriceRange(minPrice, maxPrice);
+        java.util.Map<String, java.util.Set<String>> attrs = attributeFilters(request);
+        if (!attrs.isEmpty() || facets) {
+            return ResponseEntity.ok(facetedPage(st, null, inStockFlag(sf), minPrice, maxPrice, attrs, after, pageable));
         }
-        // Collect IDs to batch-fetch images
-        java.util.List<Long> ids = products.stream().map(Product::getId).toList();
-        java.util.Map<Long, String> primaryMap = resolvePrimaryImages(ids);
-        Page<ProductDTO> page = products.map(p -> {
-            ProductDTO dto = Mapper.toDtoShallow(p);
-            String primary = primaryMap.get(p.getId());
-            if (primary != null) {
-                dto.setImage(primary);
-                dto.setPrimaryImageUrl(primary);
-            }
-            return dto;
-        });
-        return ResponseEntity.ok(page);
+        if (after != null) {
+            return ResponseEntity.ok(productService.listAfter(st, null, inStockFlag(sf), minPrice, maxPrice, after,
+                    pageable.getPageSize()));
+        }
+        // Cards come from one projection query (plus the page count)
+        return ResponseEntity.ok(
+                productService.listCards(st, null, inStockFlag(sf), minPrice, maxPrice, priceSort(pageable)));
     }
 
     /**
-     * List products by category with pagination.
+     * List products by category with pagination (cursor mode via after and
+     * attr.* / facets filtering and price range / sort, as in list).
      */
     @GetMapping("/by-category/{categoryId}")
-    public ResponseEntity<Page<ProductDTO>> listByCategory(@PathVariable("categoryId") Long categoryId,
+    public ResponseEntity<?> listByCategory(@PathVariable("categoryId") Long categoryId,
             Pageable pageable,
             @RequestParam(name = "status", required = false) String status,
-            @RequestParam(name = "stock", required = false) String stock) {
+            @RequestParam(name = "stock", required = false) String stock,
+            @RequestParam(name = "minPrice", required = false) java.math.BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "facets", defaultValue = "false") boolean facets,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        if (catalogNotModified(request))
+            return null;
         boolean provided = status != null;
         com.vtcweb.backend.model.entity.product.ProductStatus st = parseStatus(status);
         if (!provided) {
             st = com.vtcweb.backend.model.entity.product.ProductStatus.ACTIVE;
         }
         StockFilter sf = parseStock(stock);
-        Page<Product> products;
-        if (sf == StockFilter.IN_STOCK) {
-            products = (st == null) ? productService.listInStockByCategory(categoryId, pageable)
-                    : productService.listInStockByCategory(categoryId, pageable, st);
-        } else if (sf == StockFilter.OUT_OF_STOCK) {
-            products = (st == null) ? productService.listOutOfStockByCategory(categoryId, pageable)
-                    : productService.listOutOfStockByCategory(categoryId, pageable, st);
-        } else {
-            products = (st == null)
-                    ? productService.listByCategory(categoryId, pageable)
-                    : productService.listByCategory(categoryId, pageable, st);
+        if (categoryId == null)
+            throw new IllegalArgumentException("categoryId must not be null");
+        checkPriceRange(minPrice, maxPrice);
+        java.util.Map<String, java.util.Set<String>> attrs = attributeFilters(request);
+        if (!attrs.isEmpty() || facets) {
+            return ResponseEntity.ok(
+                    facetedPage(st, categoryId, inStockFlag(sf), minPrice, maxPrice, attrs, after, pageable));
         }
-        java.util.List<Long> ids = products.stream().map(Product::getId).toList();
-        java.util.Map<Long, String> primaryMap = resolvePrimaryImages(ids);
-        Page<ProductDTO> page = products.map(p -> {
-            ProductDTO dto = Mapper.toDtoShallow(p);
-            String primary = primaryMap.get(p.getId());
-            if (primary != null) {
-                dto.setImage(primary);
-                dto.setPrimaryImageUrl(primary);
-            }
-            return dto;
-        });
-        return ResponseEntity.ok(page);
+        if (after != null) {
+            return ResponseEntity.ok(productService.listAfter(st, categoryId, inStockFlag(sf), minPrice, maxPrice,
+                    after, pageable.getPageSize()));
+        }
+        return ResponseEntity.ok(
+                productService.listCards(st, categoryId, inStockFlag(sf), minPrice, maxPrice, priceSort(pageable)));
     }
 
     /**
      * Search products by text with pagination.
-     * Matches across: name (ignore case), shortDescription (ignore case), category
-     * name (ignore case),
-     * and description (case-sensitive to avoid CLOB + UPPER issues on certain DBs
-     * like H2).
+     * Matches words (and word prefixes) across name, shortDescription, category
+     * name and description via the in-memory search index, ranked by relevance.
+     * Optional status and stock (in/out) filters; after switches to cursor mode.
      * Use query param 'name' for compatibility (e.g.,
      * /api/products/search?name=book).
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductDTO>> search(@RequestParam(name = "name", required = false) String name,
+    public ResponseEntity<?> search(@RequestParam(name = "name", required = false) String name,
             @RequestParam(name = "sku", required = false) String sku,
             @RequestParam(name = "status", required = false) String status,
-            Pageable pageable) {
+            @RequestParam(name = "stock", required = false) String stock,
+            @RequestParam(name = "after", required = false) String after,
+            Pageable pageable,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        if (catalogNotModified(request))
+            return null;
         if (sku != null && !sku.isBlank()) {
             java.util.Optional<Product> opt = productService.getBySku(sku);
             if (opt.isPresent()) {
-                Product p = opt.get();
-                java.util.List<ProductDTO> list = java.util.List.of(
-                        enrichWithPrimary(Mapper.toDtoShallow(p), resolvePrimaryImages(java.util.List.of(p.getId()))));
+                java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> list = productService
+                        .getCards(java.util.List.of(opt.get().getId()));
                 return ResponseEntity.ok(new org.springframework.data.domain.PageImpl<>(
-                        java.util.Objects.requireNonNull(list), java.util.Objects.requireNonNull(pageable), 1));
+                        java.util.Objects.requireNonNull(list), java.util.Objects.requireNonNull(pageable), list.size()));
             } else {
                 return ResponseEntity.ok(new org.springframework.data.domain.PageImpl<>(
                         java.util.Objects.requireNonNull(java.util.List.of()),
@@ -190,21 +209,11 @@ public class ProductController {
         if (!provided) {
             st = com.vtcweb.backend.model.entity.product.ProductStatus.ACTIVE;
         }
-        Page<Product> products = (st == null)
-                ? productService.searchByName(name, pageable)
-                : productService.searchByName(name, pageable, st);
-        java.util.List<Long> ids = products.stream().map(Product::getId).toList();
-        java.util.Map<Long, String> primaryMap = resolvePrimaryImages(ids);
-        Page<ProductDTO> page = products.map(p -> {
-            ProductDTO dto = Mapper.toDtoShallow(p);
-            String primary = primaryMap.get(p.getId());
-            if (primary != null) {
-                dto.setImage(primary);
-                dto.setPrimaryImageUrl(primary);
-            }
-            return dto;
-        });
-        return ResponseEntity.ok(page);
+        Boolean inStock = inStockFlag(parseStock(stock));
+        if (after != null) {
+            return ResponseEntity.ok(productService.searchAfter(name, st, inStock, after, pageable.getPageSize()));
+        }
+        return ResponseEntity.ok(productService.searchCards(name, st, inStock, pageable));
     }
 
     @GetMapping("/next-sku")
@@ -214,8 +223,10 @@ public class ProductController {
 
     /**
      * Aggregated stats by product SKU.
-     * Public GET for dashboards. Uses SKU resolution -> productId, computes totals
-     * and 90-day daily series.
+     * Public GET for dashboards. Uses SKU resolution -> productId, then answers
+     * totals, the daily series and top variants from the product x variation
+     * rollup. Cached per product, window and day; any new sale or product edit
+     * changes the key.
      */
     @GetMapping("/by-sku/{sku}/stats")
     public ResponseEntity<ProductStatsDTO> statsBySku(@PathVariable("sku") String sku,
@@ -227,19 +238,35 @@ public class ProductController {
             return ResponseEntity.notFound().build();
         Product p = opt.get();
 
+        int window = Math.max(1, Math.min(365, days));
+        java.time.LocalDate today = java.time.LocalDate.now();
+        java.time.LocalDateTime salesStamp = variationSalesRepository.lastUpdatedForProduct(p.getId());
+        String key = "product-stats:" + p.getId() + ":" + window + ":" + today
+                + ":" + (salesStamp != null ? salesStamp : "0")
+                + ":" + (p.getUpdatedAt() != null ? p.getUpdatedAt() : "0");
+        ProductStatsDTO dto = analyticsCacheService.getOrCompute(
+                com.vtcweb.backend.service.analytics.AnalyticsCacheService.RESULTS_CACHE, key, ProductStatsDTO.class,
+                () -> computeStats(p, window, today));
+        return ResponseEntity.ok(dto);
+    }
+
+    private ProductStatsDTO computeStats(Product p, int window, java.time.LocalDate today) {
         Long pid = p.getId();
-        long units = java.util.Objects.requireNonNullElse(orderItemRepository.sumQuantityByProductId(pid), 0L);
-        java.math.BigDecimal revenue = java.util.Objects
-                .requireNonNullElse(orderItemRepository.sumRevenueByProductId(pid), java.math.BigDecimal.ZERO);
-        long orderCount = java.util.Objects.requireNonNullElse(orderItemRepository.countDistinctOrdersByProductId(pid),
-                0L);
+        long units = 0L;
+        java.math.BigDecimal revenue = java.math.BigDecimal.ZERO;
+        long orderCount = 0L;
+        for (Object[] row : variationSalesRepository.totalsByProductId(pid)) {
+            if (row == null || row.length < 3)
+                continue;
+            units = row[0] != null ? ((Number) row[0]).longValue() : 0L;
+            revenue = row[1] != null ? (java.math.BigDecimal) row[1] : java.math.BigDecimal.ZERO;
+            orderCount = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+        }
         java.math.BigDecimal avgPrice = (units > 0)
                 ? revenue.divide(java.math.BigDecimal.valueOf(units), java.math.RoundingMode.HALF_UP)
                 : java.math.BigDecimal.ZERO;
 
         // Build daily sales for last N days
-        int window = Math.max(1, Math.min(365, days));
-        java.time.LocalDate today = java.time.LocalDate.now();
         java.time.LocalDate start = today.minusDays(window - 1);
         java.util.Map<String, ProductStatsDTO.DataPoint> series = new java.util.LinkedHashMap<>();
         for (int i = 0; i < window; i++) {
@@ -247,41 +274,44 @@ public class ProductController {
             series.put(d,
                     ProductStatsDTO.DataPoint.builder().date(d).units(0).revenue(java.math.BigDecimal.ZERO).build());
         }
-        var since = start.atStartOfDay();
-        var recent = orderItemRepository.findByProductIdAndOrder_PlacedAtAfter(pid, since);
-        for (var oi : recent) {
-            java.time.LocalDate d = oi.getOrder() != null && oi.getOrder().getPlacedAt() != null
-                    ? oi.getOrder().getPlacedAt().toLocalDate()
-                    : null;
-            if (d == null)
+        for (Object[] row : variationSalesRepository.dailyByProductIdBetween(pid, start, today)) {
+            if (row == null || row.length < 3 || row[0] == null)
                 continue;
-            String key = d.toString();
-            var dp = series.get(key);
+            var dp = series.get(String.valueOf(row[0]));
             if (dp != null) {
-                long addUnits = java.util.Objects.requireNonNullElse(oi.getQuantity(), 0);
-                java.math.BigDecimal addRev = java.util.Objects.requireNonNullElse(oi.getTotalPrice(),
-                        java.math.BigDecimal.ZERO);
-                dp.setUnits(dp.getUnits() + addUnits);
-                dp.setRevenue(dp.getRevenue().add(addRev));
+                dp.setUnits(dp.getUnits() + (row[1] != null ? ((Number) row[1]).longValue() : 0L));
+                dp.setRevenue(dp.getRevenue().add(row[2] != null ? (java.math.BigDecimal) row[2]
+                        : java.math.BigDecimal.ZERO));
             }
         }
 
-        // Top variants by units (if variations exist)
+        // Top variants by units (if variations exist); labels for all of them in one query
+        java.util.List<Object[]> variantRows = variationSalesRepository.unitsByVariationForProduct(pid);
+        java.util.List<Long> variationIds = new java.util.ArrayList<>();
+        for (Object[] row : variantRows) {
+            if (row != null && row[0] != null)
+                variationIds.add(((Number) row[0]).longValue());
+        }
+        java.util.Map<Long, java.util.TreeMap<String, String>> attrsById = new java.util.HashMap<>();
+        if (!variationIds.isEmpty()) {
+            for (Object[] row : productVariationRepository.findAttributesByIdIn(variationIds)) {
+                if (row == null || row.length < 3 || row[0] == null || row[1] == null)
+                    continue;
+                attrsById.computeIfAbsent(((Number) row[0]).longValue(), k -> new java.util.TreeMap<>())
+                        .put(String.valueOf(row[1]), row[2] != null ? String.valueOf(row[2]) : null);
+            }
+        }
         java.util.List<ProductStatsDTO.TopVariant> topVariants = new java.util.ArrayList<>();
-        for (Object[] row : orderItemRepository.sumQuantityByVariation(pid)) {
-            Long variationId = (Long) row[0];
-            long vUnits = ((Number) row[1]).longValue();
-            if (variationId == null)
+        for (Object[] row : variantRows) {
+            if (row == null || row[0] == null)
                 continue;
-            var pvOpt = productVariationRepository.findById(variationId);
-            String label = pvOpt.map(v -> {
-                var attrs = v.getAttributes();
-                if (attrs == null || attrs.isEmpty())
-                    return "Variation " + v.getId();
-                return attrs.entrySet().stream().sorted(java.util.Map.Entry.comparingByKey())
-                        .map(e -> e.getKey() + "=" + e.getValue()).reduce((a, b) -> a + " | " + b)
-                        .orElse("Variation " + v.getId());
-            }).orElse("Variation " + variationId);
+            Long variationId = ((Number) row[0]).longValue();
+            long vUnits = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+            var attrs = attrsById.get(variationId);
+            String label = attrs == null || attrs.isEmpty()
+                    ? "Variation " + variationId
+                    : attrs.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue())
+                            .reduce((a, b) -> a + " | " + b).orElse("Variation " + variationId);
             topVariants.add(
                     ProductStatsDTO.TopVariant.builder().variationId(variationId).label(label).units(vUnits).build());
         }
@@ -289,7 +319,7 @@ public class ProductController {
         // pick primary image
         String primary = resolvePrimaryImages(java.util.List.of(pid)).get(pid);
 
-        ProductStatsDTO dto = ProductStatsDTO.builder()
+        return ProductStatsDTO.builder()
                 .productId(pid)
                 .sku(p.getSku())
                 .name(p.getName())
@@ -301,7 +331,6 @@ public class ProductController {
                 .dailySales(new java.util.ArrayList<>(series.values()))
                 .topVariants(topVariants)
                 .build();
-        return ResponseEntity.ok(dto);
     }
 
     /**
@@ -366,8 +395,8 @@ public class ProductController {
                 .findByProduct_IdIn(productIds);
         java.util.Map<Long, String> map = new java.util.HashMap<>();
         for (com.vtcweb.backend.model.entity.product.ProductImage img : images) {
-            if (!productIds.contains(img.getProduct().getId()))
-                continue;
+            if (!productIds.contains(img.getProduct().getId()) || img.getUrl() == null)
+                continue; // uploads still pending have no URL yet
             if (img.getType() == com.vtcweb.backend.model.entity.product.ProductImage.ImageType.PRIMARY) {
                 map.put(img.getProduct().getId(), img.getUrl());
             } else {
@@ -377,15 +406,29 @@ public class ProductController {
         return map;
     }
 
-    private ProductDTO enrichWithPrimary(ProductDTO dto, java.util.Map<Long, String> primaryMap) {
-        if (dto == null)
-            return null;
-        String primary = primaryMap.get(dto.getId());
-        if (primary != null) {
-            dto.setImage(primary);
-            dto.setPrimaryImageUrl(primary);
-        }
-        return dto;
+    /**
+     * Conditional GET on one product: updatedAt plus its catalog scope version,
+     * which also moves on variation, image, stock and category-name changes.
+     */
+    private boolean productNotModified(Long id,
+            org.springframework.web.context.request.ServletWebRequest request) {
+        java.time.LocalDateTime updatedAt = productRepository.findUpdatedAtById(id);
+        if (updatedAt == null)
+            return false; // unknown product: let the handler answer 404
+        String scope = catalogCacheService.scopeStamp(
+                com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS, id);
+        long updated = com.vtcweb.backend.util.ConditionalGet.millis(updatedAt);
+        // Related rows do not touch updatedAt, so Last-Modified also follows the catalog
+        long lastModified = Math.max(updated, catalogCacheService.catalogStamp().lastModified());
+        return com.vtcweb.backend.util.ConditionalGet.notModified(request, "p" + id + "-" + updated + "-" + scope,
+                lastModified);
+    }
+
+    /** Conditional GET for listings against the catalog-wide version. */
+    private boolean catalogNotModified(org.springframework.web.context.request.ServletWebRequest request) {
+        com.vtcweb.backend.service.catalog.CatalogCacheService.CatalogStamp stamp = catalogCacheService.catalogStamp();
+        return com.vtcweb.backend.util.ConditionalGet.notModified(request, "catalog-" + stamp.version(),
+                stamp.lastModified());
     }
 
     private com.vtcweb.backend.model.entity.product.ProductStatus parseStatus(String status) {
@@ -405,6 +448,56 @@ public class ProductController {
         IN_STOCK, OUT_OF_STOCK, NONE
     }
 
+    private com.vtcweb.backend.dto.product.FacetedProductPageDTO facetedPage(
+            com.vtcweb.backend.model.entity.product.ProductStatus st, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+            java.util.Map<String, java.util.Set<String>> attrs, String after, Pageable pageable) {
+        if (after != null)
+            throw new IllegalArgumentException("attr filters and facets are not available in cursor mode");
+        return productService.listFaceted(st, categoryId, inStock, minPrice, maxPrice, attrs, pageable);
+    }
+
+    private static void checkPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) {
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() < 0))
+            throw new IllegalArgumentException("minPrice and maxPrice must be >= 0");
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0)
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+    }
+
+    /** sort=price means the effective "from" price, i.e. the maintained minPrice column. */
+    private static Pageable priceSort(Pageable pageable) {
+        if (pageable.getSort().getOrderFor("price") == null)
+            return pageable;
+        org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(pageable.getSort().stream()
+                .map(o -> "price".equals(o.getProperty()) ? o.withProperty("minPrice") : o)
+                .toList());
+        return org.springframework.data.domain.PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    /** attr.{name}=v1,v2 (or repeated) request params as name -> values. */
+    private static java.util.Map<String, java.util.Set<String>> attributeFilters(
+            org.springframework.web.context.request.ServletWebRequest request) {
+        java.util.Map<String, java.util.Set<String>> out = new java.util.LinkedHashMap<>();
+        for (java.util.Map.Entry<String, String[]> e : request.getParameterMap().entrySet()) {
+            if (!e.getKey().startsWith("attr.") || e.getKey().length() <= 5)
+                continue;
+            java.util.Set<String> values = out.computeIfAbsent(e.getKey().substring(5),
+                    k -> new java.util.LinkedHashSet<>());
+            for (String raw : e.getValue()) {
+                for (String v : raw.split(",")) {
+                    if (!v.isBlank())
+                        values.add(v.trim());
+                }
+            }
+        }
+        out.values().removeIf(java.util.Set::isEmpty);
+        return out;
+    }
+
+    private static Boolean inStockFlag(StockFilter sf) {
+        return sf == StockFilter.IN_STOCK ? Boolean.TRUE : sf == StockFilter.OUT_OF_STOCK ? Boolean.FALSE : null;
+    }
+
     private StockFilter parseStock(String stock) {
         if (stock == null || stock.isBlank())
             return StockFilter.NONE;
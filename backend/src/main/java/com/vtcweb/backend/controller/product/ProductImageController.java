@@ -4,16 +4,15 @@ import com.vtcweb.backend.dto.product.ProductImageDTO;
 import com.vtcweb.backend.dto.product.ProductImagesSyncRequest;
 import com.vtcweb.backend.model.entity.product.ProductImage;
 import com.vtcweb.backend.model.entity.product.ProductImage.ImageType;
+import com.vtcweb.backend.model.entity.storage.ImageIngestionJob;
 import com.vtcweb.backend.service.product.ProductImageService;
-import com.vtcweb.backend.service.product.ProductService;
-import com.vtcweb.backend.service.storage.ImageStorageService;
+import com.vtcweb.backend.service.storage.ImageIngestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
@@ -21,42 +20,32 @@ import java.util.Map;
 
 /**
  * Endpoints for product & variation image uploads via backend-proxied
- * Cloudinary.
+ * Cloudinary. Uploads and data URIs are stored in the background (see
+ * ImageIngestionService).
  */
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductImageController {
 
-	private final ImageStorageService imageStorageService;
+	private final ImageIngestionService imageIngestionService;
 	private final ProductImageService productImageService;
-	private final ProductService productService; // to obtain SKU for folder naming
 
-	/** Upload an image for a product (multipart). */
+	/**
+	 * Upload an image for a product (multipart). The file is stored in the
+	 * background: the response is 202 with the PENDING image id and the job id;
+	 * poll the Location (the job) until it is SUCCEEDED.
+	 */
 	@PostMapping(value = "/{productId}/images/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
 	@PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
 	public ResponseEntity<Map<String, Object>> uploadForProduct(@PathVariable Long productId,
 			@RequestPart("file") MultipartFile file,
 			@RequestParam(name = "type", required = false) ImageType type) {
 		// Folder structure: products/{sku}/ (primary & secondary images)
-		String sku = productService.getById(productId).getSku();
-		String folder = "products/" + (sku != null ? sku : ("id-" + productId));
-		ImageStorageService.UploadResult uploaded = imageStorageService.upload(file, folder);
-		ProductImage created = productImageService.addToProduct(productId, uploaded.url(), type);
-		URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-				.path("/{id}")
-				.buildAndExpand(created.getId())
-				.toUri();
-		return ResponseEntity.created(location).body(Map.of(
-				"id", created.getId(),
-				"url", created.getUrl(),
-				"type", created.getType().name(),
-				"publicId", uploaded.publicId(),
-				"bytes", uploaded.bytes(),
-				"format", uploaded.format()));
+		return accepted(imageIngestionService.submitProductImage(productId, null, file, type), type);
 	}
 
-	/** Upload an image tied to a specific variation. */
+	/** Upload an image tied to a specific variation; asynchronous like uploadForProduct. */
 	@PostMapping(value = "/{productId}/variations/{variationId}/images/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
 	@PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
 	public ResponseEntity<Map<String, Object>> uploadForVariation(@PathVariable Long productId,
@@ -64,22 +53,17 @@ public class ProductImageController {
 			@RequestPart("file") MultipartFile file,
 			@RequestParam(name = "type", required = false) ImageType type) {
 		// Folder structure for variation image: products/{sku}/variations/{variationId}
-		String sku = productService.getById(productId).getSku();
-		String baseFolder = "products/" + (sku != null ? sku : ("id-" + productId));
-		ImageStorageService.UploadResult uploaded = imageStorageService.upload(file,
-				baseFolder + "/variations/" + variationId);
-		ProductImage created = productImageService.addToVariation(productId, variationId, uploaded.url(), type);
-		URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-				.path("/{id}")
-				.buildAndExpand(created.getId())
-				.toUri();
-		return ResponseEntity.created(location).body(Map.of(
-				"id", created.getId(),
-				"url", created.getUrl(),
-				"type", created.getType().name(),
-				"publicId", uploaded.publicId(),
-				"bytes", uploaded.bytes(),
-				"format", uploaded.format()));
+		return accepted(imageIngestionService.submitProductImage(productId, variationId, file, type), type);
+	}
+
+	private static ResponseEntity<Map<String, Object>> accepted(ImageIngestionJob job, ImageType type) {
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/admin/images/jobs/" + job.getId()))
+				.body(Map.of(
+						"id", job.getProductImageId(),
+						"jobId", job.getId(),
+						"status", ProductImage.Status.PENDING.name(),
+						"type", (type != null ? type : ImageType.SECONDARY).name()));
 	}
 
 	@PostMapping(value = "/{productId}/images/sync")
@@ -95,6 +79,7 @@ public class ProductImageController {
 						.id(img.getId())
 						.url(img.getUrl())
 						.type(img.getType() != null ? img.getType().name() : null)
+						.status(img.getStatus() != null ? img.getStatus().name() : null)
 						.build())
 				.toList();
 		return ResponseEntity.ok(Map.of(
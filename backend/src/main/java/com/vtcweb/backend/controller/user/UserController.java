@@ -51,8 +51,13 @@ public class UserController {
     // customer accounts enforced in service layer)
     @GetMapping("/admin/users")
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
-    public ResponseEntity<Page<UserDto>> list(@RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            // Cursor mode: newest first, no count query
+            return ResponseEntity.ok(userService.listWithStatsAfter(after, size));
+        }
         Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(size, 100));
         return ResponseEntity.ok(userService.listWithStats(pageable));
     }
@@ -11,7 +11,7 @@ import java.util.Map;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AdminDashboardAnalyticsDTO {
 
     /** ISO 4217 currency code. */
@@ -43,6 +43,23 @@ public class AdminDashboardAnalyticsDTO {
     @Builder.Default
     private Map<String, Long> orderStatusCounts30d = java.util.Collections.emptyMap();
 
+    /** True when one or more sections missed their deadline or failed and were returned empty. */
+    private boolean partial;
+
+    /** Names of the sections that were returned empty (see {@link #partial}). */
+    @Builder.Default
+    private List<String> partialSections = java.util.Collections.emptyList();
+
+    /** Server-side duration of each completed section, in milliseconds. */
+    @Builder.Default
+    private Map<String, Long> sectionTimingsMs = java.util.Collections.emptyMap();
+
+    /** When this payload was computed (it may be served later from a snapshot or cache). */
+    private java.time.LocalDateTime generatedAt;
+
+    /** Milliseconds between generatedAt and the moment this response was served. */
+    private Long snapshotAgeMs;
+
     @Getter
     @Setter
     @NoArgsConstructor
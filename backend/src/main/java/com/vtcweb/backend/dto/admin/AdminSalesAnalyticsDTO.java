@@ -18,7 +18,7 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AdminSalesAnalyticsDTO {
 
     @Builder.Default
@@ -62,6 +62,12 @@ public class AdminSalesAnalyticsDTO {
     @Builder.Default
     private List<String> insights = java.util.Collections.emptyList();
 
+    /** When this payload was computed (it may be served later from a snapshot or cache). */
+    private java.time.LocalDateTime generatedAt;
+
+    /** Milliseconds between generatedAt and the moment this response was served. */
+    private Long snapshotAgeMs;
+
     // -------------------- Blocks --------------------
 
     @Getter
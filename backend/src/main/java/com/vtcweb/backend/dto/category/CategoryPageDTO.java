@@ -0,0 +1,7 @@
+package com.vtcweb.backend.dto.category;
+
+import java.util.List;
+
+/** Cacheable form of a category listing page (content plus total). */
+public record CategoryPageDTO(List<CategoryDTO> content, long totalElements) {
+}
@@ -0,0 +1,34 @@
+package com.vtcweb.backend.dto.common;
+
+import lombok.*;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. nextCursor is passed back as
+ * ?after= to fetch the following page and is null on the last page. There is
+ * deliberately no total count.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorSliceDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static <S, T> CursorSliceDTO<T> of(Slice<S> slice, Function<S, T> mapper, Function<S, String> cursorOf) {
+        List<S> rows = slice.getContent();
+        String next = slice.hasNext() && !rows.isEmpty() ? cursorOf.apply(rows.get(rows.size() - 1)) : null;
+        return new CursorSliceDTO<>(rows.stream().map(mapper).toList(), rows.size(), slice.hasNext(), next);
+    }
+
+    public <R> CursorSliceDTO<R> map(Function<T, R> mapper) {
+        return new CursorSliceDTO<>(content.stream().map(mapper).toList(), size, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,5 @@
+package com.vtcweb.backend.dto.product;
+
+/** One attribute value and the number of products it would match. */
+public record FacetValueDTO(String value, long count) {
+}
@@ -0,0 +1,25 @@
+package com.vtcweb.backend.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product cards filtered by variation attributes, shaped like the regular page
+ * (content + page) plus facet counts per attribute. Counts for an attribute
+ * ignore that attribute's own selection, so sibling values stay selectable.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProductPageDTO {
+    private List<ProductCardDTO> content;
+    private PagedModel.PageMetadata page;
+    private Map<String, List<FacetValueDTO>> facets;
+}
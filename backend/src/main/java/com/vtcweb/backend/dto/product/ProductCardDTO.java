@@ -0,0 +1,66 @@
+package com.vtcweb.backend.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for product listings (cards). Filled by a single JPQL constructor
+ * projection (see ProductRepository CARD_SELECT), never from entities. Field
+ * names match ProductDTO so listing consumers read the same JSON keys.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductCardDTO {
+    private Long id;
+    private String sku;
+    private String name;
+    private String shortDescription;
+    private BigDecimal basePrice;
+    private BigDecimal price; // alias of basePrice
+    private Long categoryId;
+    private String categoryName;
+    private String category; // alias of categoryName
+    private String image;
+    private String primaryImageUrl;
+    private Boolean inStock;
+    /** Cheapest / dearest variation price (variations without a price use basePrice); maintained on Product. */
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /** Projection constructor; argument order matches ProductRepository.CARD_SELECT. */
+    public ProductCardDTO(Long id, String sku, String name, String shortDescription, BigDecimal basePrice,
+            ProductStatus status, Long categoryId, String categoryName, String primaryImageUrl,
+            Integer inStockVariationCount, BigDecimal minPrice, BigDecimal maxPrice,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.sku = sku;
+        this.name = name;
+        this.shortDescription = shortDescription;
+        this.basePrice = basePrice;
+        this.price = basePrice;
+        this.status = status != null ? status.name().toLowerCase() : null;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.category = categoryName;
+        this.image = primaryImageUrl;
+        this.primaryImageUrl = primaryImageUrl;
+        this.inStock = inStockVariationCount != null && inStockVariationCount > 0;
+        this.minPrice = minPrice != null ? minPrice : basePrice;
+        this.maxPrice = maxPrice != null ? maxPrice : basePrice;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -33,6 +33,10 @@ public class ProductDTO {
 
     private BigDecimal compareAtPrice;
 
+    /** Effective price range over variations (basePrice for unpriced ones). */
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
     private Long categoryId;
     private String categoryName;
 
@@ -48,6 +52,8 @@ public class ProductDTO {
     private List<String> highlights;
 
     private Integer imageCount;
+    /** False while any image upload is still pending or has failed. */
+    private Boolean imagesReady;
     private Integer variationCount;
 
     private LocalDateTime createdAt;
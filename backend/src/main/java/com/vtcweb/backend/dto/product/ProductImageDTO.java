@@ -18,4 +18,6 @@ public class ProductImageDTO {
     private Long id;
     private String url;
     private String type;
+    /** READY, PENDING (upload still running) or FAILED */
+    private String status;
 }
@@ -0,0 +1,46 @@
+package com.vtcweb.backend.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk product import. Counters grow while the job runs; errors
+ * lists rejected products (capped, see errorsTruncated).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportStatusDTO {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    /** A product that was not imported; row is the CSV record or NDJSON line it starts on. */
+    public record RowError(long row, String name, String message) {
+    }
+
+    private String id;
+    private Status status;
+    private String format;
+    private long bytesReceived;
+    private long productsRead;
+    private long productsCreated;
+    private long variationsCreated;
+    private long productsFailed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    /** Why the whole job stopped (status FAILED). */
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,31 @@
+package com.vtcweb.backend.dto.storage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Progress of one background image upload. url is set once it succeeded. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImageIngestionJobDTO {
+    private String id;
+    private String target;
+    private String status;
+    private Long productId;
+    private Long productImageId;
+    private Long categoryId;
+    private String slot;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private String url;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
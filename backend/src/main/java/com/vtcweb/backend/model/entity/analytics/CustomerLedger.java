@@ -0,0 +1,50 @@
+package com.vtcweb.backend.model.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row per customer (normalised email: trimmed, lower-cased) with lifetime
+ * purchase facts over non-cancelled orders. Maintained on order place/cancel so
+ * new-vs-returning and spend/frequency analytics never scan order history.
+ */
+@Entity
+@Table(name = "customer_ledger", indexes = {
+        @Index(name = "idx_customer_ledger_first_order", columnList = "first_order_at"),
+        @Index(name = "idx_customer_ledger_last_order", columnList = "last_order_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CustomerLedger {
+
+    @Id
+    @Column(name = "email", length = 320, nullable = false)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private String email;
+
+    @Column(name = "first_order_at")
+    private LocalDateTime firstOrderAt;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "lifetime_orders", nullable = false)
+    @Builder.Default
+    private long lifetimeOrders = 0L;
+
+    @Column(name = "lifetime_spend", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal lifetimeSpend = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package com.vtcweb.backend.model.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of a single category on a single day (excludes cancelled orders and
+ * items without a category).
+ */
+@Entity
+@Table(name = "sales_daily_category_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_daily_category", columnNames = { "sales_date", "category_id" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailyCategorySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    @ToString.Include
+    private LocalDate salesDate;
+
+    @Column(name = "category_id", nullable = false)
+    @ToString.Include
+    private Long categoryId;
+
+    @Column(name = "category_name")
+    private String categoryName;
+
+    @Column(name = "revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private long unitsSold = 0L;
+}
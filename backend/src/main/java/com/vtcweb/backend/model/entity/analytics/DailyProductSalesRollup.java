@@ -0,0 +1,62 @@
+package com.vtcweb.backend.model.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of a single product on a single day (excludes cancelled orders).
+ * Name/category/image are snapshots taken from the order items, mirroring
+ * {@link com.vtcweb.backend.model.entity.order.OrderItem}.
+ */
+@Entity
+@Table(name = "sales_daily_product_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_daily_product", columnNames = { "sales_date", "product_id" })
+}, indexes = {
+        @Index(name = "idx_sales_daily_product_product", columnList = "product_id, sales_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailyProductSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    @ToString.Include
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    @ToString.Include
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "category_name")
+    private String categoryName;
+
+    @Column(name = "image_url", length = 1024)
+    private String imageUrl;
+
+    @Column(name = "revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private long unitsSold = 0L;
+}
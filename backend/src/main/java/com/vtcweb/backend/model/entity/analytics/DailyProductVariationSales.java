@@ -0,0 +1,64 @@
+package com.vtcweb.backend.model.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per day x product x variation line totals backing the public product stats
+ * (/api/products/by-sku/{sku}/stats). Like that endpoint has always done, it
+ * counts every placed order regardless of later status, so it only grows on
+ * placement. variationId is 0 for lines without a variation.
+ *
+ * ordersCount is attributed to the first line of the product in each order, so
+ * summing it over a product's rows yields the number of distinct orders.
+ */
+@Entity
+@Table(name = "product_variation_daily_sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_variation_daily", columnNames = { "product_id", "sales_date", "variation_id" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailyProductVariationSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    @ToString.Include
+    private Long productId;
+
+    @Column(name = "sales_date", nullable = false)
+    @ToString.Include
+    private LocalDate salesDate;
+
+    @Column(name = "variation_id", nullable = false)
+    @Builder.Default
+    private Long variationId = 0L;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private long unitsSold = 0L;
+
+    @Column(name = "revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "orders_count", nullable = false)
+    @Builder.Default
+    private long ordersCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
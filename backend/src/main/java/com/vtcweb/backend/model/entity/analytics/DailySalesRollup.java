@@ -0,0 +1,71 @@
+package com.vtcweb.backend.model.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per calendar day (by order placedAt) holding the order-level sales
+ * aggregates used by the admin analytics endpoints.
+ * Sales columns exclude cancelled orders; cancelled orders are tracked
+ * separately so a cancellation moves its amounts from sales to cancelled.
+ */
+@Entity
+@Table(name = "sales_daily_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailySalesRollup {
+
+    @Id
+    @Column(name = "sales_date", nullable = false)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private LocalDate salesDate;
+
+    @Column(name = "revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO; // sum of order total
+
+    @Column(name = "net_sales", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal netSales = BigDecimal.ZERO; // subtotal - discount
+
+    @Column(name = "discount_total", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal discountTotal = BigDecimal.ZERO;
+
+    @Column(name = "orders_count", nullable = false)
+    @Builder.Default
+    private long ordersCount = 0L;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private long unitsSold = 0L;
+
+    @Column(name = "online_revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal onlineRevenue = BigDecimal.ZERO; // STANDARD_DELIVERY
+
+    @Column(name = "pos_revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal posRevenue = BigDecimal.ZERO; // IN_STORE_PICKUP
+
+    @Column(name = "cancelled_revenue", precision = 16, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal cancelledRevenue = BigDecimal.ZERO;
+
+    @Column(name = "cancelled_orders", nullable = false)
+    @Builder.Default
+    private long cancelledOrders = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.vtcweb.backend.model.entity.category;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Next free SKU number per category code (the SKU prefix, e.g. "SHR" in
+ * SHR-014). Keyed by the code rather than the category id because categories
+ * may share a code while SKUs are globally unique. Only written through
+ * CategorySkuSequenceRepository's row-atomic statements (see SkuSequenceAllocator).
+ */
+@Entity
+@Table(name = "category_sku_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CategorySkuSequence {
+
+    @Id
+    @Column(name = "prefix", length = 16, nullable = false)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private String prefix;
+
+    @Column(name = "next_value", nullable = false)
+    @ToString.Include
+    private long nextValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -13,7 +13,9 @@ import com.vtcweb.backend.model.entity.user.User;
 @Entity
 @Table(name = "orders", indexes = {
         @Index(name = "idx_orders_order_number", columnList = "orderNumber", unique = true),
-        @Index(name = "idx_orders_status", columnList = "status")
+        @Index(name = "idx_orders_status", columnList = "status"),
+        @Index(name = "idx_orders_email_norm_placed", columnList = "customerEmailNormalized, placedAt"),
+        @Index(name = "idx_orders_placed_at", columnList = "placedAt")
 })
 @Getter
 @Setter
@@ -57,6 +59,10 @@ public class Order {
     @Column(nullable = false, length = 160)
     private String customerEmail;
 
+    // Trimmed, lower-cased customerEmail; filled on write so per-customer lookups hit the index
+    @Column(length = 160)
+    private String customerEmailNormalized;
+
     @Column(length = 40)
     private String customerPhone;
 
@@ -139,4 +145,12 @@ public class Order {
         items.add(item);
         item.setOrder(this);
     }
+
+    /** Canonical form used for customerEmailNormalized and every email-keyed lookup. */
+    public static String normalizeEmail(String email) {
+        if (email == null)
+            return null;
+        String e = email.trim().toLowerCase(java.util.Locale.ROOT);
+        return e.isEmpty() ? null : e;
+    }
 }
@@ -18,7 +18,13 @@ import java.util.Set;
         @UniqueConstraint(name = "uk_products_sku", columnNames = { "sku" })
 }, indexes = {
         @Index(name = "idx_products_category_id", columnList = "category_id"),
-        @Index(name = "idx_products_status", columnList = "status")
+        @Index(name = "idx_products_status", columnList = "status"),
+        @Index(name = "idx_products_status_in_stock", columnList = "status, in_stock_variation_count"),
+        @Index(name = "idx_products_category_in_stock", columnList = "category_id, status, in_stock_variation_count"),
+        @Index(name = "idx_products_status_created", columnList = "status, createdAt"),
+        @Index(name = "idx_products_category_created", columnList = "category_id, status, createdAt"),
+        @Index(name = "idx_products_status_min_price", columnList = "status, min_price"),
+        @Index(name = "idx_products_category_min_price", columnList = "category_id, status, min_price")
 })
 @Getter
 @Setter
@@ -66,6 +72,24 @@ public class Product {
     @Builder.Default
     private List<ProductVariation> variations = new ArrayList<>();
 
+    // Stock counters over variations, maintained only through
+    // ProductRepository.applyStockChange (never written by entity flushes)
+    @Column(name = "total_stock", nullable = false, updatable = false)
+    @Builder.Default
+    private long totalStock = 0L;
+
+    @Column(name = "in_stock_variation_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int inStockVariationCount = 0;
+
+    // Effective price range (variation price, else basePrice), maintained only
+    // through ProductRepository.refreshPriceRange; equals basePrice without variations
+    @Column(name = "min_price", precision = 12, scale = 2, updatable = false)
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price", precision = 12, scale = 2, updatable = false)
+    private BigDecimal maxPrice;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<ProductImage> images = new HashSet<>();
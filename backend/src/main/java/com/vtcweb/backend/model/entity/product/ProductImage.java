@@ -24,17 +24,34 @@ public class ProductImage {
         SECONDARY
     }
 
+    /*
+     * READY images have a stored URL. PENDING ones are placeholders for an
+     * upload still running in the background (see ImageIngestionService); they
+     * have no URL until it finishes, or end up FAILED.
+     */
+    public enum Status {
+        READY,
+        PENDING,
+        FAILED
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include
     @ToString.Include
     private Long id;
 
-    // URL of the image
-    @Column(nullable = false, length = 500)
+    // URL of the image; null while the upload is pending
+    @Column(length = 500)
     @ToString.Include
     private String url;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @org.hibernate.annotations.ColumnDefault("'READY'")
+    @Builder.Default
+    private Status status = Status.READY;
+
     /* Type of image: PRIMARY or SECONDARY */
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
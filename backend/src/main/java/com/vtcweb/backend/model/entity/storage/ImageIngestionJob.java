@@ -0,0 +1,105 @@
+package com.vtcweb.backend.model.entity.storage;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One background image upload (see ImageIngestionService). The source is
+ * either a file spooled to local disk (sourcePath) or a remote URL to fetch
+ * (sourceUrl); on success the stored URL is written to the target: a
+ * product image placeholder row or a category image slot.
+ */
+@Entity
+@Table(name = "image_ingestion_jobs", indexes = {
+        @Index(name = "idx_image_jobs_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_image_jobs_product_image", columnList = "product_image_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ImageIngestionJob {
+
+    public enum Target {
+        PRODUCT_IMAGE,
+        CATEGORY_IMAGE
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @ToString.Include
+    private Target target;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @ToString.Include
+    private Status status;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "product_image_id")
+    private Long productImageId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    /* Category image slot: main, tile1 or tile2 */
+    @Column(length = 16)
+    private String slot;
+
+    @Column(nullable = false, length = 255)
+    private String folder;
+
+    @Column(length = 255)
+    private String filename;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "source_path", length = 500)
+    private String sourcePath;
+
+    @Column(name = "source_url", length = 1000)
+    private String sourceUrl;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "result_url", length = 500)
+    private String resultUrl;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
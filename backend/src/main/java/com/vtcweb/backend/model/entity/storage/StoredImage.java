@@ -0,0 +1,66 @@
+package com.vtcweb.backend.model.entity.storage;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded image asset keyed by the SHA-256 of its bytes (see
+ * StoredImageIndex). refCount is the number of uploads that resolved to this
+ * asset plus the times its URL was stored again as is (retainByUrl), that
+ * have not been released through deleteByUrl yet; the asset is
+ * removed from storage when it drops to zero.
+ */
+@Entity
+@Table(name = "stored_images", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stored_images_hash", columnNames = "content_hash")
+}, indexes = {
+        @Index(name = "idx_stored_images_public_id", columnList = "public_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class StoredImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private Long id;
+
+    /* Hex SHA-256 of the uploaded bytes */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    @ToString.Include
+    private String contentHash;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    @Column(name = "public_id", nullable = false, length = 255)
+    @ToString.Include
+    private String publicId;
+
+    @Column(nullable = false)
+    private long bytes;
+
+    @Column(length = 16)
+    private String format;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -13,7 +13,8 @@ import java.util.Set;
 @Table(name = "users", indexes = {
         @Index(name = "idx_users_email", columnList = "email", unique = true),
         @Index(name = "idx_users_last_name", columnList = "last_name"),
-        @Index(name = "idx_users_user_code", columnList = "user_code", unique = true)
+        @Index(name = "idx_users_user_code", columnList = "user_code", unique = true),
+        @Index(name = "idx_users_created_at", columnList = "createdAt")
 })
 @Getter
 @Setter
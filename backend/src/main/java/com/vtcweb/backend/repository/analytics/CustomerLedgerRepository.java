@@ -0,0 +1,68 @@
+package com.vtcweb.backend.repository.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.CustomerLedger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CustomerLedgerRepository extends JpaRepository<CustomerLedger, String> {
+
+    /** Customers with at least one order at or after since (the window's active customers). */
+    @Query("select count(l) from CustomerLedger l where l.lastOrderAt >= :since")
+    long countActiveSince(LocalDateTime since);
+
+    /** date, count of customers whose first ever order falls in [start, end). */
+    @Query("select function('date', l.firstOrderAt), count(l) from CustomerLedger l " +
+            "where l.firstOrderAt >= :start and l.firstOrderAt < :end " +
+            "group by function('date', l.firstOrderAt)")
+    List<Object[]> newCustomersByDayBetween(LocalDateTime start, LocalDateTime end);
+
+    /** Active customers since the given instant, biggest lifetime spenders first. */
+    @Query("select l from CustomerLedger l where l.lastOrderAt >= :since order by l.lifetimeSpend desc")
+    List<CustomerLedger> findActiveSinceBySpend(LocalDateTime since, Pageable pageable);
+
+    /**
+     * Add one placed order to a customer's row, creating it when missing. Single
+     * upsert so concurrent checkouts by the same customer never race on the insert.
+     */
+    @Modifying
+    @Query(value = "insert into customer_ledger (email, first_order_at, last_order_at, lifetime_orders, lifetime_spend, updated_at) "
+            + "values (:email, :placedAt, :placedAt, 1, :total, current_timestamp(6)) "
+            + "on duplicate key update first_order_at = coalesce(least(first_order_at, :placedAt), :placedAt), "
+            + "last_order_at = coalesce(greatest(last_order_at, :placedAt), :placedAt), "
+            + "lifetime_orders = lifetime_orders + 1, lifetime_spend = lifetime_spend + :total, "
+            + "updated_at = current_timestamp(6)", nativeQuery = true)
+    int applyPlaced(String email, LocalDateTime placedAt, BigDecimal total);
+
+    /** first_order_at, last_order_at of one customer's row (empty when there is none). */
+    @Query("select l.firstOrderAt, l.lastOrderAt from CustomerLedger l where l.email = :email")
+    List<Object[]> findBoundsByEmail(String email);
+
+    @Modifying
+    @Query("update CustomerLedger l set l.lifetimeOrders = l.lifetimeOrders - 1, l.lifetimeSpend = l.lifetimeSpend - :total, "
+            + "l.updatedAt = current_timestamp where l.email = :email")
+    int applyCancelled(String email, BigDecimal total);
+
+    @Modifying
+    @Query("update CustomerLedger l set l.firstOrderAt = :first, l.lastOrderAt = :last where l.email = :email")
+    int updateBounds(String email, LocalDateTime first, LocalDateTime last);
+
+    @Modifying
+    @Query("delete from CustomerLedger l where l.email = :email and l.lifetimeOrders <= 0")
+    int deleteIfEmpty(String email);
+
+    /** Repopulate every row from non-cancelled order history in one statement. */
+    @Modifying
+    @Query(value = "insert into customer_ledger (email, first_order_at, last_order_at, lifetime_orders, lifetime_spend, updated_at) "
+            + "select o.customer_email_normalized, min(o.placed_at), max(o.placed_at), count(*), coalesce(sum(o.total),0), current_timestamp(6) "
+            + "from orders o where o.status <> 'CANCELLED' and o.customer_email_normalized is not null "
+            + "group by o.customer_email_normalized", nativeQuery = true)
+    int insertFromOrders();
+}
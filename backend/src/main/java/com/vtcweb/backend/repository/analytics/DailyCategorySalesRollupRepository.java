@@ -0,0 +1,44 @@
+package com.vtcweb.backend.repository.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.DailyCategorySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCategorySalesRollupRepository extends JpaRepository<DailyCategorySalesRollup, Long> {
+
+    /** categoryId, name, revenue, units in [from, to], by revenue desc. */
+    @Query("select r.categoryId, max(r.categoryName), coalesce(sum(r.revenue),0), coalesce(sum(r.unitsSold),0) " +
+            "from DailyCategorySalesRollup r " +
+            "where r.salesDate >= :from and r.salesDate <= :to " +
+            "group by r.categoryId " +
+            "having sum(r.unitsSold) > 0 " +
+            "order by coalesce(sum(r.revenue),0) desc")
+    List<Object[]> categoryRevenueBetween(LocalDate from, LocalDate to);
+
+    /** categoryId, name, units in [from, to], by units desc. */
+    @Query("select r.categoryId, max(r.categoryName), coalesce(sum(r.unitsSold),0) " +
+            "from DailyCategorySalesRollup r " +
+            "where r.salesDate >= :from and r.salesDate <= :to " +
+            "group by r.categoryId " +
+            "having sum(r.unitsSold) > 0 " +
+            "order by coalesce(sum(r.unitsSold),0) desc")
+    List<Object[]> topCategoriesByUnitsBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "insert into sales_daily_category_rollups (sales_date, category_id, category_name, revenue, units_sold) "
+            + "values (:day, :categoryId, :categoryName, :revenue, :units) "
+            + "on duplicate key update revenue = revenue + :revenue, units_sold = units_sold + :units, "
+            + "category_name = coalesce(:categoryName, category_name)", nativeQuery = true)
+    int applyDelta(LocalDate day, Long categoryId, String categoryName, BigDecimal revenue, long units);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from DailyCategorySalesRollup r where r.salesDate >= :from and r.salesDate <= :to")
+    int deleteBetween(LocalDate from, LocalDate to);
+}
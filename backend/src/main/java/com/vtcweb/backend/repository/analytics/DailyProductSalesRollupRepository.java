@@ -0,0 +1,56 @@
+package com.vtcweb.backend.repository.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.DailyProductSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRollupRepository extends JpaRepository<DailyProductSalesRollup, Long> {
+
+    /**
+     * Products by revenue in [from, to]; same row shape as
+     * OrderItemRepository.topProductsByRevenueAndUnitsBetween:
+     * productId, name, categoryId, categoryName, imageUrl, revenue, units.
+     */
+    @Query("select r.productId, max(r.productName), max(r.categoryId), max(r.categoryName), max(r.imageUrl), " +
+            "coalesce(sum(r.revenue),0), coalesce(sum(r.unitsSold),0) " +
+            "from DailyProductSalesRollup r " +
+            "where r.salesDate >= :from and r.salesDate <= :to " +
+            "group by r.productId " +
+            "having sum(r.unitsSold) > 0 " +
+            "order by coalesce(sum(r.revenue),0) desc")
+    List<Object[]> topProductsBetween(LocalDate from, LocalDate to);
+
+    /** Same as {@link #topProductsBetween} but ascending by revenue. */
+    @Query("select r.productId, max(r.productName), max(r.categoryId), max(r.categoryName), max(r.imageUrl), " +
+            "coalesce(sum(r.revenue),0), coalesce(sum(r.unitsSold),0) " +
+            "from DailyProductSalesRollup r " +
+            "where r.salesDate >= :from and r.salesDate <= :to " +
+            "group by r.productId " +
+            "having sum(r.unitsSold) > 0 " +
+            "order by coalesce(sum(r.revenue),0) asc")
+    List<Object[]> worstProductsBetween(LocalDate from, LocalDate to);
+
+    @Query("select coalesce(sum(r.revenue),0) from DailyProductSalesRollup r where r.productId = :productId " +
+            "and r.salesDate >= :from and r.salesDate <= :to")
+    BigDecimal sumRevenueByProductIdBetween(Long productId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "insert into sales_daily_product_rollups (sales_date, product_id, product_name, category_id, category_name, image_url, revenue, units_sold) "
+            + "values (:day, :productId, :productName, :categoryId, :categoryName, :imageUrl, :revenue, :units) "
+            + "on duplicate key update revenue = revenue + :revenue, units_sold = units_sold + :units, "
+            + "product_name = coalesce(:productName, product_name), category_id = coalesce(:categoryId, category_id), "
+            + "category_name = coalesce(:categoryName, category_name), image_url = coalesce(:imageUrl, image_url)", nativeQuery = true)
+    int applyDelta(LocalDate day, Long productId, String productName, Long categoryId, String categoryName,
+            String imageUrl, BigDecimal revenue, long units);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from DailyProductSalesRollup r where r.salesDate >= :from and r.salesDate <= :to")
+    int deleteBetween(LocalDate from, LocalDate to);
+}
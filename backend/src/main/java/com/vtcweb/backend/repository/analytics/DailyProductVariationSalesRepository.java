@@ -0,0 +1,49 @@
+package com.vtcweb.backend.repository.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.DailyProductVariationSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyProductVariationSalesRepository extends JpaRepository<DailyProductVariationSales, Long> {
+
+    /** Lifetime units, revenue, distinct orders for a product (single row). */
+    @Query("select coalesce(sum(r.unitsSold),0), coalesce(sum(r.revenue),0), coalesce(sum(r.ordersCount),0) " +
+            "from DailyProductVariationSales r where r.productId = :productId")
+    List<Object[]> totalsByProductId(Long productId);
+
+    /** date, units, revenue for a product in [from, to]. Missing days have no row. */
+    @Query("select r.salesDate, coalesce(sum(r.unitsSold),0), coalesce(sum(r.revenue),0) " +
+            "from DailyProductVariationSales r " +
+            "where r.productId = :productId and r.salesDate >= :from and r.salesDate <= :to " +
+            "group by r.salesDate")
+    List<Object[]> dailyByProductIdBetween(Long productId, LocalDate from, LocalDate to);
+
+    /** variationId, lifetime units for a product's variations, by units desc. */
+    @Query("select r.variationId, coalesce(sum(r.unitsSold),0) " +
+            "from DailyProductVariationSales r where r.productId = :productId and r.variationId <> 0 " +
+            "group by r.variationId order by coalesce(sum(r.unitsSold),0) desc")
+    List<Object[]> unitsByVariationForProduct(Long productId);
+
+    /** Latest write to any of the product's rows; version stamp for cached stats. */
+    @Query("select max(r.updatedAt) from DailyProductVariationSales r where r.productId = :productId")
+    LocalDateTime lastUpdatedForProduct(Long productId);
+
+    @Modifying
+    @Query(value = "insert into product_variation_daily_sales (product_id, sales_date, variation_id, units_sold, revenue, orders_count, updated_at) "
+            + "values (:productId, :day, :variationId, :units, :revenue, :orders, current_timestamp(6)) "
+            + "on duplicate key update units_sold = units_sold + :units, revenue = revenue + :revenue, "
+            + "orders_count = orders_count + :orders, updated_at = current_timestamp(6)", nativeQuery = true)
+    int applyDelta(Long productId, LocalDate day, long variationId, long units, BigDecimal revenue, long orders);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from DailyProductVariationSales r where r.salesDate >= :from and r.salesDate <= :to")
+    int deleteBetween(LocalDate from, LocalDate to);
+}
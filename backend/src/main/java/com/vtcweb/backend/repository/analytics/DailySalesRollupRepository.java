@@ -0,0 +1,41 @@
+package com.vtcweb.backend.repository.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, LocalDate> {
+
+    /** Day rows in [from, to] (inclusive), oldest first. Missing days have no row. */
+    List<DailySalesRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    @Query("select coalesce(sum(r.revenue),0) from DailySalesRollup r where r.salesDate >= :from and r.salesDate <= :to")
+    BigDecimal sumRevenueBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Apply signed deltas to a day row, creating it when missing. Done as a single
+     * upsert so concurrent checkouts on the same day never race on the insert.
+     */
+    @Modifying
+    @Query(value = "insert into sales_daily_rollups (sales_date, revenue, net_sales, discount_total, orders_count, units_sold, "
+            + "online_revenue, pos_revenue, cancelled_revenue, cancelled_orders, updated_at) "
+            + "values (:day, :revenue, :netSales, :discount, :orders, :units, :online, :pos, :cancelledRevenue, :cancelledOrders, current_timestamp(6)) "
+            + "on duplicate key update revenue = revenue + :revenue, net_sales = net_sales + :netSales, "
+            + "discount_total = discount_total + :discount, orders_count = orders_count + :orders, units_sold = units_sold + :units, "
+            + "online_revenue = online_revenue + :online, pos_revenue = pos_revenue + :pos, "
+            + "cancelled_revenue = cancelled_revenue + :cancelledRevenue, cancelled_orders = cancelled_orders + :cancelledOrders, "
+            + "updated_at = current_timestamp(6)", nativeQuery = true)
+    int applyDelta(LocalDate day, BigDecimal revenue, BigDecimal netSales, BigDecimal discount, long orders, long units,
+            BigDecimal online, BigDecimal pos, BigDecimal cancelledRevenue, long cancelledOrders);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from DailySalesRollup r where r.salesDate >= :from and r.salesDate <= :to")
+    int deleteBetween(LocalDate from, LocalDate to);
+}
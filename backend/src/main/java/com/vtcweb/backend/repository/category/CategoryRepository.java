@@ -38,4 +38,8 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     /** List by status only. */
     Page<Category> findByStatus(CategoryStatus status, Pageable pageable);
+
+    /** Validator for conditional GETs; null when the category does not exist. */
+    @org.springframework.data.jpa.repository.Query("select c.updatedAt from Category c where c.id = :id")
+    java.time.LocalDateTime findUpdatedAtById(Long id);
 }
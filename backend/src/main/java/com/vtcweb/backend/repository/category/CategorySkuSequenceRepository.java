@@ -0,0 +1,33 @@
+package com.vtcweb.backend.repository.category;
+
+import com.vtcweb.backend.model.entity.category.CategorySkuSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CategorySkuSequenceRepository extends JpaRepository<CategorySkuSequence, String> {
+
+    /**
+     * Take count numbers from a prefix's sequence; returns 0 when the row does not
+     * exist yet. The row stays locked until the transaction ends, so read the new
+     * value with findNextValue in the same transaction.
+     */
+    @Modifying
+    @Query("update CategorySkuSequence s set s.nextValue = s.nextValue + :count, s.updatedAt = CURRENT_TIMESTAMP " +
+            "where s.prefix = :prefix")
+    int increment(String prefix, long count);
+
+    @Query("select s.nextValue from CategorySkuSequence s where s.prefix = :prefix")
+    Optional<Long> findNextValue(String prefix);
+
+    /** Seed a prefix's row; a no-op when a concurrent allocation created it first. */
+    @Modifying
+    @Query(value = "insert into category_sku_sequences (prefix, next_value, updated_at) "
+            + "values (:prefix, :nextValue, current_timestamp(6)) "
+            + "on duplicate key update next_value = next_value", nativeQuery = true)
+    int insertIfAbsent(String prefix, long nextValue);
+}
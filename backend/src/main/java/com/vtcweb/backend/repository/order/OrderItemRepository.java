@@ -12,19 +12,20 @@ import java.util.List;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
-    @Query("select coalesce(sum(oi.quantity),0) from OrderItem oi where oi.productId = :productId")
-    Long sumQuantityByProductId(Long productId);
-
-    @Query("select coalesce(sum(oi.totalPrice),0) from OrderItem oi where oi.productId = :productId")
-    BigDecimal sumRevenueByProductId(Long productId);
-
-    @Query("select count(distinct oi.order.id) from OrderItem oi where oi.productId = :productId")
-    Long countDistinctOrdersByProductId(Long productId);
-
-    List<OrderItem> findByProductIdAndOrder_PlacedAtAfter(Long productId, LocalDateTime placedAfter);
-
-    @Query("select oi.variationId, coalesce(sum(oi.quantity),0) from OrderItem oi where oi.productId = :productId and oi.variationId is not null group by oi.variationId order by coalesce(sum(oi.quantity),0) desc")
-    List<Object[]> sumQuantityByVariation(Long productId);
+    /**
+     * One keyset chunk of the sales-lines export (item id > :afterId, ascending,
+     * non-cancelled orders): itemId, orderNumber, placedAt, productId, productName,
+     * categoryName, variationId, quantity, unitPrice, totalPrice.
+     */
+    @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select oi.id, o.orderNumber, o.placedAt, oi.productId, oi.productName, oi.categoryName, oi.variationId, " +
+            "oi.quantity, oi.unitPrice, oi.totalPrice " +
+            "from OrderItem oi join oi.order o " +
+            "where oi.id > :afterId and o.placedAt >= :start and o.placedAt < :end " +
+            "and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
+            "order by oi.id asc")
+    java.util.stream.Stream<Object[]> streamSalesExportRows(long afterId, LocalDateTime start, LocalDateTime end,
+            org.springframework.data.domain.Pageable pageable);
 
         // --- Admin analytics helpers (sales = non-cancelled orders) ---
 
@@ -88,4 +89,34 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             "group by function('date', oi.order.placedAt) " +
             "order by function('date', oi.order.placedAt) asc")
         List<Object[]> dailyUnitsSoldBetween(LocalDateTime start, LocalDateTime end);
+
+        /** Per-day product sales for rollup rebuilds: date, productId, name, categoryId, categoryName, imageUrl, revenue, units (excludes cancelled). */
+        @Query("select function('date', oi.order.placedAt), oi.productId, max(oi.productName), max(oi.categoryId), max(oi.categoryName), max(oi.imageUrl), " +
+            "coalesce(sum(oi.totalPrice),0), coalesce(sum(oi.quantity),0) " +
+            "from OrderItem oi " +
+            "where oi.order.placedAt >= :start and oi.order.placedAt < :end " +
+            "and oi.order.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
+            "group by function('date', oi.order.placedAt), oi.productId")
+        List<Object[]> dailyProductSalesBetween(LocalDateTime start, LocalDateTime end);
+
+        /** Per-day category sales for rollup rebuilds: date, categoryId, categoryName, revenue, units (excludes cancelled). */
+        @Query("select function('date', oi.order.placedAt), oi.categoryId, max(oi.categoryName), " +
+            "coalesce(sum(oi.totalPrice),0), coalesce(sum(oi.quantity),0) " +
+            "from OrderItem oi " +
+            "where oi.order.placedAt >= :start and oi.order.placedAt < :end " +
+            "and oi.order.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
+            "and oi.categoryId is not null " +
+            "group by function('date', oi.order.placedAt), oi.categoryId")
+        List<Object[]> dailyCategorySalesBetween(LocalDateTime start, LocalDateTime end);
+
+        /**
+         * Order lines for product x variation rollup rebuilds, all statuses, ordered by
+         * order then line: date, orderId, productId, variationId, quantity, totalPrice.
+         */
+        @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("select function('date', o.placedAt), o.id, oi.productId, oi.variationId, oi.quantity, oi.totalPrice " +
+            "from OrderItem oi join oi.order o " +
+            "where o.placedAt >= :start and o.placedAt < :end and oi.productId is not null " +
+            "order by o.id asc, oi.id asc")
+        java.util.stream.Stream<Object[]> streamVariationSalesLinesBetween(LocalDateTime start, LocalDateTime end);
 }
@@ -33,15 +33,21 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @EntityGraph(attributePaths = { "items" }, type = EntityGraph.EntityGraphType.LOAD)
     Page<Order> findByUserId(Long userId, org.springframework.data.domain.Pageable pageable);
 
-    // Aggregates for user stats
-    @Query("select count(o) from Order o where lower(o.customerEmail) = lower(?1)")
-    long countByCustomerEmailIgnoreCase(String email);
+    /** Keyset listing, newest first, seeking past (placedAt, id); no count query, items not fetched. */
+    @Query("select o from Order o " +
+            "where (:afterPlacedAt is null or o.placedAt < :afterPlacedAt or (o.placedAt = :afterPlacedAt and o.id < :afterId)) " +
+            "order by o.placedAt desc, o.id desc")
+    org.springframework.data.domain.Slice<Order> findSliceAfter(LocalDateTime afterPlacedAt, Long afterId,
+            Pageable pageable);
 
-    @Query("select coalesce(sum(o.total),0) from Order o where lower(o.customerEmail) = lower(?1)")
-    java.math.BigDecimal sumTotalByCustomerEmailIgnoreCase(String email);
+    // Aggregates for user stats (email arguments must be Order.normalizeEmail'd)
+    long countByCustomerEmailNormalized(String customerEmailNormalized);
+
+    @Query("select coalesce(sum(o.total),0) from Order o where o.customerEmailNormalized = :email")
+    java.math.BigDecimal sumTotalByCustomerEmailNormalized(String email);
 
     @EntityGraph(attributePaths = { "items" }, type = EntityGraph.EntityGraphType.LOAD)
-    org.springframework.data.domain.Page<Order> findByCustomerEmailIgnoreCase(String email,
+    org.springframework.data.domain.Page<Order> findByCustomerEmailNormalized(String customerEmailNormalized,
             org.springframework.data.domain.Pageable pageable);
 
     // Detach user reference from orders before deleting the user to avoid FK
@@ -58,9 +64,6 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("select count(o) from Order o where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED")
     long countSalesBetween(LocalDateTime start, LocalDateTime end);
 
-    @Query("select o from Order o where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED")
-    List<Order> findSalesBetween(LocalDateTime start, LocalDateTime end);
-
     @Query("select o.status, count(o) from Order o where o.placedAt >= :start and o.placedAt < :end group by o.status")
     List<Object[]> countByStatusBetween(LocalDateTime start, LocalDateTime end);
 
@@ -98,20 +101,6 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "order by function('date', o.placedAt) asc")
         List<Object[]> dailyRevenueByDeliveryMethodBetween(LocalDateTime start, LocalDateTime end);
 
-        /** Payment method split (excludes cancelled). */
-        @Query("select o.paymentMethod, count(o), coalesce(sum(o.total),0) " +
-            "from Order o " +
-            "where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
-            "group by o.paymentMethod")
-        List<Object[]> paymentSplitBetween(LocalDateTime start, LocalDateTime end);
-
-        /** Discounted vs non-discounted sales (excludes cancelled). */
-        @Query("select (case when o.discountTotal > 0 then 'discounted' else 'full_price' end), count(o), coalesce(sum(o.total),0) " +
-            "from Order o " +
-            "where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
-            "group by (case when o.discountTotal > 0 then 'discounted' else 'full_price' end)")
-        List<Object[]> discountedSplitBetween(LocalDateTime start, LocalDateTime end);
-
         /** Daily cancelled totals (proxy for refunds/returns): returned as positive sums; UI can render as negative. */
         @Query("select function('date', o.placedAt), coalesce(sum(o.total),0), count(o) " +
             "from Order o " +
@@ -120,28 +109,67 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "order by function('date', o.placedAt) asc")
         List<Object[]> dailyCancelledTotalsBetween(LocalDateTime start, LocalDateTime end);
 
-        /** Hour-of-day performance (0-23) for revenue and order count (excludes cancelled). */
-        @Query("select function('hour', o.placedAt), coalesce(sum(o.total),0), count(o) " +
+        /**
+         * Per-day order aggregates used to (re)build the sales_daily_rollups table:
+         * date, revenue, net sales, discount, orders, online revenue, POS revenue (excludes cancelled).
+         */
+        @Query("select function('date', o.placedAt), coalesce(sum(o.total),0), coalesce(sum(o.subtotal - o.discountTotal),0), " +
+            "coalesce(sum(o.discountTotal),0), count(o), " +
+            "coalesce(sum(case when o.deliveryMethod = com.vtcweb.backend.model.entity.order.DeliveryMethod.STANDARD_DELIVERY then o.total else 0 end),0), " +
+            "coalesce(sum(case when o.deliveryMethod = com.vtcweb.backend.model.entity.order.DeliveryMethod.IN_STORE_PICKUP then o.total else 0 end),0) " +
             "from Order o " +
             "where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
-            "group by function('hour', o.placedAt) " +
-            "order by function('hour', o.placedAt) asc")
-        List<Object[]> hourlyRevenueAndOrdersBetween(LocalDateTime start, LocalDateTime end);
-
-        /** Customer rollup for scatter chart: frequency (orders) + spend per customer in window (excludes cancelled). */
-        @Query("select lower(o.customerEmail), count(o), coalesce(sum(o.total),0) " +
+            "group by function('date', o.placedAt)")
+        List<Object[]> dailyRollupTotalsBetween(LocalDateTime start, LocalDateTime end);
+
+        /**
+         * One keyset chunk of the non-cancelled orders for single-pass aggregation
+         * (id > :afterId, ascending id, at most pageable.size rows): id, placedAt,
+         * total, discountTotal, paymentMethod.
+         */
+        @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("select o.id, o.placedAt, o.total, o.discountTotal, o.paymentMethod " +
             "from Order o " +
-            "where o.placedAt >= :start and o.placedAt < :end and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
-            "group by lower(o.customerEmail)")
-        List<Object[]> customerSpendAndFrequencyBetween(LocalDateTime start, LocalDateTime end);
-
-        /** First purchase timestamp for customers active in the window (excludes cancelled). */
-        @Query("select lower(o.customerEmail), min(o.placedAt) " +
+            "where o.id > :afterId and o.placedAt >= :start and o.placedAt < :end " +
+            "and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
+            "order by o.id asc")
+        java.util.stream.Stream<Object[]> streamSalesFacts(long afterId, LocalDateTime start, LocalDateTime end,
+                Pageable pageable);
+
+        /**
+         * One keyset chunk of the order export (id > :afterId, ascending id, at most
+         * pageable.size rows): id, orderNumber, placedAt, status, firstName, lastName,
+         * email, phone, deliveryMethod, paymentMethod, subtotal, discountTotal,
+         * shippingFee, total. Status is optional (null = all).
+         */
+        @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("select o.id, o.orderNumber, o.placedAt, o.status, o.customerFirstName, o.customerLastName, o.customerEmail, " +
+            "o.customerPhone, o.deliveryMethod, o.paymentMethod, o.subtotal, o.discountTotal, o.shippingFee, o.total " +
             "from Order o " +
-            "where o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED " +
-            "and lower(o.customerEmail) in (" +
-            "  select distinct lower(o2.customerEmail) from Order o2 where o2.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED and o2.placedAt >= :start and o2.placedAt < :end" +
-            ") " +
-            "group by lower(o.customerEmail)")
-        List<Object[]> firstPurchaseForActiveCustomersBetween(LocalDateTime start, LocalDateTime end);
+            "where o.id > :afterId and o.placedAt >= :start and o.placedAt < :end and (:status is null or o.status = :status) " +
+            "order by o.id asc")
+        java.util.stream.Stream<Object[]> streamOrderExportRows(long afterId, LocalDateTime start, LocalDateTime end,
+                com.vtcweb.backend.model.entity.order.OrderStatus status, Pageable pageable);
+
+        /** Earliest order timestamp, used as the default start of a full rollup rebuild. */
+        @Query("select min(o.placedAt) from Order o")
+        LocalDateTime findFirstPlacedAt();
+
+        /**
+         * min(placedAt), max(placedAt) over a customer's non-cancelled orders other
+         * than excludeId (email already normalised).
+         */
+        @Query("select min(o.placedAt), max(o.placedAt) from Order o " +
+            "where o.customerEmailNormalized = :email and o.id <> :excludeId " +
+            "and o.status <> com.vtcweb.backend.model.entity.order.OrderStatus.CANCELLED")
+        List<Object[]> purchaseBoundsByEmailExcluding(String email, Long excludeId);
+
+        /**
+         * Fill customer_email_normalized for rows written before the column existed,
+         * at most :batchSize rows per call so the backfill never holds long locks.
+         */
+        @org.springframework.data.jpa.repository.Modifying
+        @Query(value = "update orders set customer_email_normalized = lower(trim(customer_email)) " +
+            "where customer_email_normalized is null limit :batchSize", nativeQuery = true)
+        int backfillNormalizedEmails(int batchSize);
 }
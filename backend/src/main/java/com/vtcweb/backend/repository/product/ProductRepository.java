@@ -110,24 +110,25 @@ public interface ProductRepository extends JpaRepository<Product, Long> { // Jpa
     /** Find by SKU. */
     Optional<Product> findBySku(String sku);
 
-    /** Find the latest SKU within a category prefix. */
-    Optional<Product> findTopByCategory_IdAndSkuStartingWithOrderBySkuDesc(Long categoryId, String skuPrefix);
+    /** SKUs matching a LIKE pattern, numerically highest first for digit tails (longest, then greatest). */
+    @org.springframework.data.jpa.repository.Query("select p.sku from Product p where p.sku like :pattern order by length(p.sku) desc, p.sku desc")
+    java.util.List<String> findSkusHighestFirst(String pattern, Pageable pageable);
 
     // --- Stock-aware queries ---
-    // In-stock = at least one variation with stock > 0
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) > 0")
+    // In-stock = at least one variation with stock > 0, via the maintained counter
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.inStockVariationCount > 0")
     Page<Product> findInStock(Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.status = :status group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) > 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.status = :status and p.inStockVariationCount > 0")
     Page<Product> findInStockByStatus(
             @org.springframework.data.repository.query.Param("status") com.vtcweb.backend.model.entity.product.ProductStatus status,
             Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.category.id = :categoryId group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) > 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.category.id = :categoryId and p.inStockVariationCount > 0")
     Page<Product> findInStockByCategory(@org.springframework.data.repository.query.Param("categoryId") Long categoryId,
             Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.category.id = :categoryId and p.status = :status group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) > 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.category.id = :categoryId and p.status = :status and p.inStockVariationCount > 0")
     Page<Product> findInStockByCategoryAndStatus(
             @org.springframework.data.repository.query.Param("categoryId") Long categoryId,
             @org.springframework.data.repository.query.Param("status") com.vtcweb.backend.model.entity.product.ProductStatus status,
@@ -135,21 +136,204 @@ public interface ProductRepository extends JpaRepository<Product, Long> { // Jpa
 
     // Out-of-stock = no variations with stock > 0 (including products with zero
     // variations)
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) = 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.inStockVariationCount = 0")
     Page<Product> findOutOfStock(Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.status = :status group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) = 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.status = :status and p.inStockVariationCount = 0")
     Page<Product> findOutOfStockByStatus(
             @org.springframework.data.repository.query.Param("status") com.vtcweb.backend.model.entity.product.ProductStatus status,
             Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.category.id = :categoryId group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) = 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.category.id = :categoryId and p.inStockVariationCount = 0")
     Page<Product> findOutOfStockByCategory(
             @org.springframework.data.repository.query.Param("categoryId") Long categoryId, Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("select p from Product p left join p.variations v where p.category.id = :categoryId and p.status = :status group by p having coalesce(sum(case when v.stock > 0 then 1 else 0 end),0) = 0")
+    @org.springframework.data.jpa.repository.Query("select p from Product p where p.category.id = :categoryId and p.status = :status and p.inStockVariationCount = 0")
     Page<Product> findOutOfStockByCategoryAndStatus(
             @org.springframework.data.repository.query.Param("categoryId") Long categoryId,
             @org.springframework.data.repository.query.Param("status") com.vtcweb.backend.model.entity.product.ProductStatus status,
             Pageable pageable);
+
+    /** Validator for conditional GETs; null when the product does not exist. */
+    @org.springframework.data.jpa.repository.Query("select p.updatedAt from Product p where p.id = :id")
+    java.time.LocalDateTime findUpdatedAtById(Long id);
+
+    // --- Product cards: listing rows projected straight into DTOs in one statement ---
+
+    /**
+     * Card columns; the primary image (PRIMARY type, else any image) comes from
+     * correlated subqueries, stock and price range from the maintained columns,
+     * so no entity or association is loaded.
+     */
+    String CARD_SELECT = "select new com.vtcweb.backend.dto.product.ProductCardDTO(" +
+            "p.id, p.sku, p.name, p.shortDescription, p.basePrice, p.status, c.id, c.name, " +
+            "coalesce((select min(pi.url) from ProductImage pi where pi.product = p " +
+            "and pi.type = com.vtcweb.backend.model.entity.product.ProductImage.ImageType.PRIMARY), " +
+            "(select min(ai.url) from ProductImage ai where ai.product = p)), " +
+            "p.inStockVariationCount, " +
+            "p.minPrice, p.maxPrice, " +
+            "p.createdAt, p.updatedAt) " +
+            "from Product p left join p.category c ";
+
+    String CARD_FILTER = "where (:status is null or p.status = :status) " +
+            "and (:categoryId is null or c.id = :categoryId) " +
+            "and (:inStock is null or (:inStock = true and p.inStockVariationCount > 0) or (:inStock = false and p.inStockVariationCount = 0)) " +
+            "and (:minPrice is null or p.maxPrice >= :minPrice) " +
+            "and (:maxPrice is null or p.minPrice <= :maxPrice) ";
+
+    /**
+     * Paged cards; status, categoryId, inStock and the price bounds are optional
+     * filters. minPrice keeps products with some variation at or above it,
+     * maxPrice those with one at or below it. Sortable by minPrice / maxPrice.
+     */
+    @org.springframework.data.jpa.repository.Query(value = CARD_SELECT + CARD_FILTER,
+            countQuery = "select count(p) from Product p left join p.category c " + CARD_FILTER)
+    Page<com.vtcweb.backend.dto.product.ProductCardDTO> findCards(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, Pageable pageable);
+
+    /** Paged cards among ids, with the same optional filters (facet listings while the index loads). */
+    @org.springframework.data.jpa.repository.Query(value = CARD_SELECT + CARD_FILTER + "and p.id in :ids",
+            countQuery = "select count(p) from Product p left join p.category c " + CARD_FILTER + "and p.id in :ids")
+    Page<com.vtcweb.backend.dto.product.ProductCardDTO> findCardsAmong(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, java.util.Collection<Long> ids,
+            Pageable pageable);
+
+    /** Products with a variation whose attribute name is one of values; values lower-cased, compared likewise. */
+    @org.springframework.data.jpa.repository.Query("select distinct pv.product.id from ProductVariation pv join pv.attributes a " +
+            "where lower(trim(key(a))) = :name and lower(trim(value(a))) in :values")
+    java.util.List<Long> findIdsByAttribute(String name, java.util.Collection<String> values);
+
+    /** Keyset cards: newest first, seeking past (createdAt, id); Slice => no count query. */
+    @org.springframework.data.jpa.repository.Query(CARD_SELECT + CARD_FILTER +
+            "and (:afterCreatedAt is null or p.createdAt < :afterCreatedAt or (p.createdAt = :afterCreatedAt and p.id < :afterId)) " +
+            "order by p.createdAt desc, p.id desc")
+    org.springframework.data.domain.Slice<com.vtcweb.backend.dto.product.ProductCardDTO> findCardSliceAfter(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+            java.time.LocalDateTime afterCreatedAt, Long afterId, Pageable pageable);
+
+    /** Cards for the given ids, unordered (search pages re-apply the ranking). */
+    @org.springframework.data.jpa.repository.Query(CARD_SELECT + "where p.id in :ids")
+    java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> findCardsByIdIn(java.util.Collection<Long> ids);
+
+    // --- Maintained stock counters ---
+
+    /**
+     * Relative, row-atomic counter update; call in the transaction that changes the
+     * variation stock. Managed Product instances are not refreshed.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("update Product p set p.totalStock = p.totalStock + :stockDelta, " +
+            "p.inStockVariationCount = p.inStockVariationCount + :inStockDelta where p.id = :productId")
+    int applyStockDelta(Long productId, long stockDelta, int inStockDelta);
+
+    /** Record one variation's stock moving from oldStock to newStock (0 for created/deleted). */
+    default void applyStockChange(Long productId, int oldStock, int newStock) {
+        if (productId == null || oldStock == newStock)
+            return;
+        applyStockDelta(productId, (long) newStock - oldStock, (newStock > 0 ? 1 : 0) - (oldStock > 0 ? 1 : 0));
+    }
+
+    /** Recompute counters that disagree with product_variations; returns rows fixed. */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(value = "update products p "
+            + "set p.total_stock = (select coalesce(sum(v.stock),0) from product_variations v where v.product_id = p.id), "
+            + "p.in_stock_variation_count = (select count(*) from product_variations v where v.product_id = p.id and v.stock > 0) "
+            + "where p.total_stock <> (select coalesce(sum(v.stock),0) from product_variations v where v.product_id = p.id) "
+            + "or p.in_stock_variation_count <> (select count(*) from product_variations v where v.product_id = p.id and v.stock > 0)",
+            nativeQuery = true)
+    int reconcileStockCounters();
+
+    // --- Maintained price range ---
+
+    /** (basePrice, min(price), max(price), variation count, priced variation count) of one product. */
+    @org.springframework.data.jpa.repository.Query("select p.basePrice, min(v.price), max(v.price), count(v.id), count(v.price) " +
+            "from Product p left join p.variations v where p.id = :productId group by p.id, p.basePrice")
+    java.util.List<Object[]> findVariationPriceStats(Long productId);
+
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true)
+    @org.springframework.data.jpa.repository.Query("update Product p set p.minPrice = :minPrice, p.maxPrice = :maxPrice where p.id = :productId")
+    int setPriceRange(Long productId, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice);
+
+    /**
+     * Recompute one product's min/max effective price from its variations (basePrice
+     * when it has none or for variations without a price). Call in the transaction
+     * that changes a variation price or the base price, after the change; managed
+     * Product instances are not refreshed.
+     */
+    default void refreshPriceRange(Long productId) {
+        if (productId == null)
+            return;
+        java.util.List<Object[]> rows = findVariationPriceStats(productId);
+        if (rows.isEmpty())
+            return;
+        Object[] r = rows.get(0);
+        java.math.BigDecimal base = (java.math.BigDecimal) r[0];
+        java.math.BigDecimal min = (java.math.BigDecimal) r[1];
+        java.math.BigDecimal max = (java.math.BigDecimal) r[2];
+        // Unpriced variations (or none at all) sell at the base price
+        if (((Number) r[4]).longValue() < ((Number) r[3]).longValue() || ((Number) r[3]).longValue() == 0) {
+            min = min == null || (base != null && base.compareTo(min) < 0) ? base : min;
+            max = max == null || (base != null && base.compareTo(max) > 0) ? base : max;
+        }
+        setPriceRange(productId, min, max);
+    }
+
+    /** Recompute price ranges that are missing or disagree with product_variations; returns rows fixed. */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(value = "update products p "
+            + "set p.min_price = coalesce((select min(coalesce(v.price, p.base_price)) from product_variations v where v.product_id = p.id), p.base_price), "
+            + "p.max_price = coalesce((select max(coalesce(v.price, p.base_price)) from product_variations v where v.product_id = p.id), p.base_price) "
+            + "where p.min_price is null or p.max_price is null "
+            + "or p.min_price <> coalesce((select min(coalesce(v.price, p.base_price)) from product_variations v where v.product_id = p.id), p.base_price) "
+            + "or p.max_price <> coalesce((select max(coalesce(v.price, p.base_price)) from product_variations v where v.product_id = p.id), p.base_price)",
+            nativeQuery = true)
+    int reconcilePriceRanges();
+
+    // --- Analytics projections (no entity hydration) ---
+
+    /** (id, sku, basePrice) rows for the given product ids. */
+    @org.springframework.data.jpa.repository.Query("select p.id, p.sku, p.basePrice from Product p where p.id in :ids")
+    java.util.List<Object[]> findSkuAndBasePriceByIdIn(java.util.Collection<Long> ids);
+
+    @org.springframework.data.jpa.repository.Query("select p.sku from Product p where p.id = :id")
+    Optional<String> findSkuById(Long id);
+
+    // --- Search index projections: (id, name, shortDescription, categoryName, description, status, categoryId, inStockVariationCount) ---
+
+    @org.springframework.data.jpa.repository.Query("select p.id, p.name, p.shortDescription, c.name, p.detailedDescription, p.status, c.id, p.inStockVariationCount " +
+            "from Product p join p.category c where p.id > :afterId order by p.id asc")
+    java.util.List<Object[]> findSearchDocumentsAfter(long afterId, Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("select p.id, p.name, p.shortDescription, c.name, p.detailedDescription, p.status, c.id, p.inStockVariationCount " +
+            "from Product p join p.category c where p.id in :ids")
+    java.util.List<Object[]> findSearchDocumentsByIdIn(java.util.Collection<Long> ids);
+
+    // --- Facet index projections: (id, status, categoryId, inStockVariationCount, minPrice, maxPrice) ---
+
+    @org.springframework.data.jpa.repository.Query("select p.id, p.status, p.category.id, p.inStockVariationCount, p.minPrice, p.maxPrice " +
+            "from Product p where p.id > :afterId order by p.id asc")
+    java.util.List<Object[]> findFacetDocumentsAfter(long afterId, Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("select p.id, p.status, p.category.id, p.inStockVariationCount, p.minPrice, p.maxPrice " +
+            "from Product p where p.id in :ids")
+    java.util.List<Object[]> findFacetDocumentsByIdIn(java.util.Collection<Long> ids);
+
+    @org.springframework.data.jpa.repository.Query("select p.id from Product p where p.id in :ids and p.inStockVariationCount > 0")
+    java.util.List<Long> findInStockIdsByIdIn(java.util.Collection<Long> ids);
+
+    @org.springframework.data.jpa.repository.Query("select p.id from Product p where p.category.id = :categoryId")
+    java.util.List<Long> findIdsByCategoryId(Long categoryId);
+
+    // --- Bulk import helpers ---
+
+    /** Every product name, lower-cased; preloaded once per import for uniqueness checks. */
+    @org.springframework.data.jpa.repository.Query("select lower(p.name) from Product p")
+    java.util.List<String> findAllLowerCaseNames();
+
+    /** (sku, id) of the given SKUs. */
+    @org.springframework.data.jpa.repository.Query("select p.sku, p.id from Product p where p.sku in :skus")
+    java.util.List<Object[]> findIdsBySkuIn(java.util.Collection<String> skus);
 }
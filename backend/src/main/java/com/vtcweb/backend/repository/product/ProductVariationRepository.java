@@ -54,6 +54,21 @@ public interface ProductVariationRepository extends JpaRepository<ProductVariati
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<ProductVariation> findWithLockingById(Long id);
 
+    /**
+     * (variationId, attributeName, attributeValue) for a set of variations in one
+     * query; variations without attributes return no rows.
+     */
+    @org.springframework.data.jpa.repository.Query("select pv.id, key(a), value(a) from ProductVariation pv join pv.attributes a where pv.id in :ids")
+    List<Object[]> findAttributesByIdIn(java.util.Collection<Long> ids);
+
+    /** (productId, name, value) of every variation attribute of the given products; facet index loads. */
+    @org.springframework.data.jpa.repository.Query("select pv.product.id, key(a), value(a) from ProductVariation pv join pv.attributes a where pv.product.id in :productIds")
+    List<Object[]> findAttributesByProductIdIn(java.util.Collection<Long> productIds);
+
+    /** (variationId, productId, variationKey) of the given products' variations; bulk import id lookup. */
+    @org.springframework.data.jpa.repository.Query("select pv.id, pv.product.id, pv.variationKey from ProductVariation pv where pv.product.id in :productIds")
+    List<Object[]> findKeysByProductIdIn(java.util.Collection<Long> productIds);
+
     // --- Admin analytics helpers ---
 
     /** Total stock by product id across all variations. */
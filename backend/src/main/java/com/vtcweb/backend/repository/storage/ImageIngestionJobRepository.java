@@ -0,0 +1,40 @@
+package com.vtcweb.backend.repository.storage;
+
+import com.vtcweb.backend.model.entity.storage.ImageIngestionJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageIngestionJobRepository extends JpaRepository<ImageIngestionJob, String> {
+
+    /** Ids of PENDING jobs whose next attempt is due, oldest first. */
+    @Query("select j.id from ImageIngestionJob j where j.status = com.vtcweb.backend.model.entity.storage.ImageIngestionJob.Status.PENDING "
+            + "and (j.nextAttemptAt is null or j.nextAttemptAt <= :now) order by j.nextAttemptAt, j.createdAt")
+    List<String> findDueIds(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Take a due job for this worker. Returns 1 when claimed; 0 when another
+     * worker (or node) got it first.
+     */
+    @Modifying
+    @Query("update ImageIngestionJob j set j.status = com.vtcweb.backend.model.entity.storage.ImageIngestionJob.Status.RUNNING, "
+            + "j.updatedAt = :now where j.id = :id "
+            + "and j.status = com.vtcweb.backend.model.entity.storage.ImageIngestionJob.Status.PENDING "
+            + "and (j.nextAttemptAt is null or j.nextAttemptAt <= :now)")
+    int claim(String id, LocalDateTime now);
+
+    /** Hand RUNNING jobs whose worker died (no update since {@code before}) back to the queue. */
+    @Modifying
+    @Query("update ImageIngestionJob j set j.status = com.vtcweb.backend.model.entity.storage.ImageIngestionJob.Status.PENDING, "
+            + "j.nextAttemptAt = :now where j.status = com.vtcweb.backend.model.entity.storage.ImageIngestionJob.Status.RUNNING "
+            + "and j.updatedAt < :before")
+    int requeueStale(LocalDateTime before, LocalDateTime now);
+
+    List<ImageIngestionJob> findByProductImageIdIn(java.util.Collection<Long> productImageIds);
+}
@@ -0,0 +1,41 @@
+package com.vtcweb.backend.repository.storage;
+
+import com.vtcweb.backend.model.entity.storage.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, Long> {
+
+    Optional<StoredImage> findByContentHash(String contentHash);
+
+    boolean existsByPublicId(String publicId);
+
+    /** Count one more reference to the asset with these bytes. Returns 0 when it is not indexed. */
+    @Modifying
+    @Query("update StoredImage s set s.refCount = s.refCount + 1 where s.contentHash = :hash")
+    int addReference(String hash);
+
+    /** Count one more reference to an indexed asset. Returns 0 when it is not indexed. */
+    @Modifying
+    @Query("update StoredImage s set s.refCount = s.refCount + 1 where s.publicId = :publicId")
+    int addReferenceByPublicId(String publicId);
+
+    /** Drop the row if this is its last reference. Returns 1 when the caller should delete the asset. */
+    @Modifying
+    @Query("delete from StoredImage s where s.publicId = :publicId and s.refCount <= 1")
+    int deleteIfLastReference(String publicId);
+
+    /** Release one of several references. Returns 0 when it was the last one (or not indexed). */
+    @Modifying
+    @Query("update StoredImage s set s.refCount = s.refCount - 1 where s.publicId = :publicId and s.refCount > 1")
+    int releaseSharedReference(String publicId);
+
+    @Modifying
+    @Query("delete from StoredImage s where s.publicId = :publicId")
+    int deleteByPublicId(String publicId);
+}
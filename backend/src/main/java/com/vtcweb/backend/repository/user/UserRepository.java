@@ -25,4 +25,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("select u from User u join u.roles r where r = com.vtcweb.backend.model.entity.user.Role.ROLE_MANAGER")
     Optional<User> findManager();
+
+    /** Keyset listing, newest first, seeking past (createdAt, id); no count query. */
+    @Query("select u from User u " +
+            "where (:afterCreatedAt is null or u.createdAt < :afterCreatedAt or (u.createdAt = :afterCreatedAt and u.id < :afterId)) " +
+            "order by u.createdAt desc, u.id desc")
+    org.springframework.data.domain.Slice<User> findSliceAfter(java.time.Instant afterCreatedAt, Long afterId,
+            org.springframework.data.domain.Pageable pageable);
 }
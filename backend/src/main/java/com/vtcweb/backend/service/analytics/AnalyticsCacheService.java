@@ -0,0 +1,304 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Day-bucketed cache for admin analytics.
+ *
+ * Every day has a version counter (a Redis hash keyed by date), bumped once
+ * the transaction that changed that day's orders has committed. Endpoint
+ * results are keyed by the versions of the days they cover, so a checkout only
+ * moves windows that reach today and a change to a past day only moves windows
+ * containing it. Order-level aggregates are assembled from one fragment per
+ * closed day, keyed by that day's version, plus a live pass over today. Because
+ * the bump follows the commit, a reader holding the old version can only have
+ * computed without the change, and its entry becomes unreachable instead of
+ * stale. Nothing is evicted explicitly; superseded entries age out through
+ * their TTL.
+ *
+ * Values are stored as JSON strings written with the application ObjectMapper
+ * so they round-trip through Redis without polymorphic type info. When the
+ * cache is unavailable (no Redis) everything is computed directly.
+ */
+@Service
+@RequiredArgsConstructor
+@lombok.extern.slf4j.Slf4j
+public class AnalyticsCacheService {
+
+    /** Whole endpoint responses, keyed by endpoint, params, as-of day and stamp. */
+    public static final String RESULTS_CACHE = "analytics";
+    /** Per-day order aggregates of closed days (before today), immutable for a given day version. */
+    public static final String FRAGMENTS_CACHE = "analytics-fragments";
+
+    private static final String DAY_VERSIONS = "analytics:day-versions";
+    private static final String FRAGMENT_PREFIX = "analytics:fragment:orders:";
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final SalesAggregationService salesAggregationService;
+    private final ObjectProvider<StringRedisTemplate> redisProvider;
+
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> misses = new ConcurrentHashMap<>();
+    /** Stamps used without Redis; prefixed with the boot time so they never repeat across restarts. */
+    private final long bootMillis = System.currentTimeMillis();
+    private final Map<LocalDate, Long> localDayVersions = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.analytics.fragment-ttl-seconds:86400}")
+    private long fragmentTtlSeconds;
+
+    /**
+     * Stamp of the day buckets in [from, to]: the sum of their versions, which only
+     * moves when one of those days changes. Read it before computing the value it
+     * keys so a concurrent write can only make the entry unreachable, never stale.
+     */
+    public String bucketStamp(LocalDate from, LocalDate to) {
+        List<LocalDate> days = days(from, to);
+        StringRedisTemplate redis = redis();
+        if (redis != null) {
+            try {
+                return Long.toString(sum(dayVersions(redis, days)));
+            } catch (Exception ex) {
+                log.debug("Analytics stamp read failed - {}", ex.toString());
+            }
+        }
+        long local = 0;
+        for (LocalDate day : days)
+            local += localDayVersions.getOrDefault(day, 0L);
+        return "b" + bootMillis + "." + local;
+    }
+
+    /** Move the version of day once the current transaction commits (now if none). */
+    public void touchAfterCommit(LocalDate day) {
+        touchAfterCommit(day, day);
+    }
+
+    /** Move the version of every day in [from, to] once the current transaction commits (now if none). */
+    public void touchAfterCommit(LocalDate from, LocalDate to) {
+        if (from == null || to == null)
+            return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    touch(days(from, to));
+                }
+            });
+        } else {
+            touch(days(from, to));
+        }
+    }
+
+    private void touch(List<LocalDate> days) {
+        for (LocalDate day : days)
+            localDayVersions.merge(day, 1L, Long::sum);
+        StringRedisTemplate redis = redis();
+        if (redis == null)
+            return;
+        try {
+            byte[] key = bytes(DAY_VERSIONS);
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (LocalDate day : days)
+                    connection.hashCommands().hIncrBy(key, bytes(day.toString()), 1L);
+                return null;
+            });
+        } catch (Exception ex) {
+            log.warn("Analytics day version bump failed, cached results may lag until they expire: {}",
+                    ex.getMessage());
+        }
+    }
+
+    /** Redis versions of days, in order; days never changed are 0. */
+    private static long[] dayVersions(StringRedisTemplate redis, List<LocalDate> days) {
+        List<Object> fields = new ArrayList<>(days.size());
+        for (LocalDate day : days)
+            fields.add(day.toString());
+        List<Object> values = redis.opsForHash().multiGet(DAY_VERSIONS, fields);
+        long[] versions = new long[days.size()];
+        for (int i = 0; i < versions.length && values != null && i < values.size(); i++)
+            versions[i] = values.get(i) == null ? 0L : Long.parseLong(values.get(i).toString());
+        return versions;
+    }
+
+    /** Redis behind the analytics caches, or null when they are disabled (no Redis). */
+    private StringRedisTemplate redis() {
+        return cacheManager instanceof RedisCacheManager ? redisProvider.getIfAvailable() : null;
+    }
+
+    /** Cached value for key in cacheName, computing and storing it on a miss. */
+    public <T> T getOrCompute(String cacheName, String key, Class<T> type, Supplier<T> loader) {
+        return getOrCompute(cacheName, key, type, loader, v -> true);
+    }
+
+    /** As above, but only values accepted by cacheable are stored (e.g. skip partial results). */
+    public <T> T getOrCompute(String cacheName, String key, Class<T> type, Supplier<T> loader,
+            Predicate<T> cacheable) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null)
+            return loader.get();
+        try {
+            String json = cache.get(key, String.class);
+            if (json != null) {
+                T value = objectMapper.readValue(json, type);
+                counter(hits, cacheName).increment();
+                return value;
+            }
+        } catch (Exception ex) {
+            log.debug("Analytics cache read failed for {}:{} - {}", cacheName, key, ex.toString());
+        }
+        counter(misses, cacheName).increment();
+        T value = loader.get();
+        if (value != null && cacheable.test(value)) {
+            try {
+                cache.put(key, objectMapper.writeValueAsString(value));
+            } catch (Exception ex) {
+                log.debug("Analytics cache write failed for {}:{} - {}", cacheName, key, ex.toString());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Order-level aggregate for [from, to]. Days before today are assembled from
+     * per-day fragments; only today's orders are streamed on every call.
+     */
+    public OrderWindowAggregate orderAggregate(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate closedEnd = to.isBefore(today) ? to : today.minusDays(1);
+        OrderWindowAggregate agg = new OrderWindowAggregate();
+        if (!closedEnd.isBefore(from)) {
+            agg.merge(closedDays(from, closedEnd));
+        }
+        if (closedEnd.isBefore(to)) {
+            agg.merge(salesAggregationService.aggregate(closedEnd.plusDays(1), to));
+        }
+        return agg;
+    }
+
+    /**
+     * Closed days [from, to] from one fragment per day, read in a single round trip.
+     * Days without a fragment for their current version are aggregated in one pass
+     * over the span they cover and stored.
+     */
+    private OrderWindowAggregate closedDays(LocalDate from, LocalDate to) {
+        StringRedisTemplate redis = redis();
+        if (redis == null)
+            return salesAggregationService.aggregate(from, to);
+        List<LocalDate> days = days(from, to);
+        List<String> keys = new ArrayList<>(days.size());
+        List<String> cached;
+        try {
+            long[] versions = dayVersions(redis, days);
+            for (int i = 0; i < days.size(); i++)
+                keys.add(FRAGMENT_PREFIX + days.get(i) + ":" + versions[i]);
+            cached = redis.opsForValue().multiGet(keys);
+        } catch (Exception ex) {
+            log.debug("Analytics fragment read failed for {}..{} - {}", from, to, ex.toString());
+            return salesAggregationService.aggregate(from, to);
+        }
+        OrderWindowAggregate agg = new OrderWindowAggregate();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < days.size(); i++) {
+            OrderWindowAggregate.Snapshot snapshot = null;
+            String json = cached != null && i < cached.size() ? cached.get(i) : null;
+            if (json != null) {
+                try {
+                    snapshot = objectMapper.readValue(json, OrderWindowAggregate.Snapshot.class);
+                } catch (Exception ex) {
+                    log.debug("Analytics fragment {} unreadable - {}", keys.get(i), ex.toString());
+                }
+            }
+            if (snapshot != null)
+                agg.merge(OrderWindowAggregate.fromSnapshot(snapshot));
+            else
+                missing.add(i);
+        }
+        counter(hits, FRAGMENTS_CACHE).add(days.size() - missing.size());
+        counter(misses, FRAGMENTS_CACHE).add(missing.size());
+        if (missing.isEmpty())
+            return agg;
+
+        Map<LocalDate, OrderWindowAggregate> computed = salesAggregationService.aggregateByDay(
+                days.get(missing.get(0)), days.get(missing.get(missing.size() - 1)));
+        Map<String, String> writes = new LinkedHashMap<>();
+        for (int i : missing) {
+            OrderWindowAggregate day = computed.get(days.get(i));
+            agg.merge(day);
+            try {
+                writes.put(keys.get(i), objectMapper.writeValueAsString(day.toSnapshot()));
+            } catch (Exception ex) {
+                log.debug("Analytics fragment {} not serializable - {}", keys.get(i), ex.toString());
+            }
+        }
+        try {
+            long ttl = Math.max(1L, fragmentTtlSeconds);
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                writes.forEach((key, json) -> connection.stringCommands().setEx(bytes(key), ttl, bytes(json)));
+                return null;
+            });
+        } catch (Exception ex) {
+            log.debug("Analytics fragment write failed for {}..{} - {}", from, to, ex.toString());
+        }
+        return agg;
+    }
+
+    /** Hit/miss counters per cache since startup. */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> out = new LinkedHashMap<>();
+        for (String name : new String[] { RESULTS_CACHE, FRAGMENTS_CACHE }) {
+            long h = counter(hits, name).sum();
+            long m = counter(misses, name).sum();
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("hits", h);
+            s.put("misses", m);
+            s.put("hitRatePct", h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0);
+            s.put("enabled", FRAGMENTS_CACHE.equals(name) ? redis() != null : cacheManager.getCache(name) != null);
+            out.put(name, s);
+        }
+        return out;
+    }
+
+    private static List<LocalDate> days(LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1))
+            days.add(d);
+        return days;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long v : values)
+            total += v;
+        return total;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String cacheName) {
+        return counters.computeIfAbsent(cacheName, k -> new LongAdder());
+    }
+}
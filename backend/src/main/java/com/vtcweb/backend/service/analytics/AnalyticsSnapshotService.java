@@ -0,0 +1,142 @@
+package com.vtcweb.backend.service.analytics;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Precomputed analytics payloads for the common admin views, refreshed in the
+ * background and served stale-while-revalidate.
+ *
+ * Callers register a loader per key once; the scheduler recomputes every
+ * registered key and swaps the whole snapshot map in one step. A read returns
+ * the current snapshot immediately; when it is older than the stale threshold a
+ * single background refresh for that key is kicked off. Snapshots from a
+ * previous day are never served (windows end "today").
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class AnalyticsSnapshotService {
+
+    /** A computed payload and when it was produced. */
+    public record Snapshot<T>(T value, LocalDate asOfDate, long generatedAtMillis) {
+        public long ageMillis() {
+            return Math.max(0L, System.currentTimeMillis() - generatedAtMillis);
+        }
+    }
+
+    private final Executor refreshExecutor;
+    private final Map<String, Supplier<?>> loaders = new ConcurrentHashMap<>();
+    private final AtomicReference<Map<String, Snapshot<?>>> snapshots = new AtomicReference<>(Map.of());
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.analytics.snapshots.enabled:true}")
+    private boolean enabled;
+
+    /** Age after which a served snapshot triggers a background refresh. */
+    @Value("${app.analytics.snapshots.stale-after-ms:30000}")
+    private long staleAfterMs;
+
+    public AnalyticsSnapshotService(@Qualifier("analyticsRefreshExecutor") Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Register the loader for a key. A loader returning null (e.g. a partial
+     * result) leaves the previous snapshot in place.
+     */
+    public void register(String key, Supplier<?> loader) {
+        loaders.put(key, loader);
+    }
+
+    /**
+     * Current snapshot for key, or null when the key is not registered or
+     * snapshots are disabled. The first read of a registered key computes it
+     * inline.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> get(String key, Class<T> type) {
+        if (!enabled || !loaders.containsKey(key))
+            return null;
+        Snapshot<?> snap = snapshots.get().get(key);
+        if (snap == null || !LocalDate.now().equals(snap.asOfDate())) {
+            snap = refresh(key);
+        } else if (snap.ageMillis() > staleAfterMs) {
+            refreshAsync(key);
+        }
+        return snap != null && type.isInstance(snap.value()) ? (Snapshot<T>) snap : null;
+    }
+
+    /** Recompute every registered key, then publish them together. */
+    @Scheduled(initialDelayString = "${app.analytics.snapshots.initial-delay-ms:15000}",
+            fixedDelayString = "${app.analytics.snapshots.refresh-ms:60000}")
+    public void refreshAll() {
+        if (!enabled || loaders.isEmpty())
+            return;
+        long startedAt = System.nanoTime();
+        Map<String, Snapshot<?>> fresh = new HashMap<>();
+        for (Map.Entry<String, Supplier<?>> e : loaders.entrySet()) {
+            Snapshot<?> snap = compute(e.getKey(), e.getValue());
+            if (snap != null)
+                fresh.put(e.getKey(), snap);
+        }
+        snapshots.updateAndGet(current -> {
+            Map<String, Snapshot<?>> next = new HashMap<>(current);
+            next.putAll(fresh);
+            return Map.copyOf(next);
+        });
+        log.debug("Refreshed {} analytics snapshot(s) in {} ms", fresh.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private void refreshAsync(String key) {
+        if (!refreshing.add(key))
+            return; // a refresh for this key is already running
+        try {
+            // Not the analytics pool: loaders fan their sections out onto it
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    private Snapshot<?> refresh(String key) {
+        Supplier<?> loader = loaders.get(key);
+        Snapshot<?> snap = loader != null ? compute(key, loader) : null;
+        if (snap == null)
+            return snapshots.get().get(key);
+        snapshots.updateAndGet(current -> {
+            Map<String, Snapshot<?>> next = new HashMap<>(current);
+            next.put(key, snap);
+            return Map.copyOf(next);
+        });
+        return snap;
+    }
+
+    private Snapshot<?> compute(String key, Supplier<?> loader) {
+        LocalDate asOf = LocalDate.now();
+        try {
+            Object value = loader.get();
+            return value == null ? null : new Snapshot<>(value, asOf, System.currentTimeMillis());
+        } catch (Exception ex) {
+            log.warn("Analytics snapshot {} failed to refresh: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+}
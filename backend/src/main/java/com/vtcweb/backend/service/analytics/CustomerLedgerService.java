@@ -0,0 +1,30 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.model.entity.order.Order;
+
+/**
+ * Maintains the per-customer ledger (first/last order, lifetime orders and
+ * spend over non-cancelled orders) that backs the customer analytics.
+ * Write-side hooks must run inside the transaction that persists the order.
+ */
+public interface CustomerLedgerService {
+
+    /** Add a freshly persisted (non-cancelled) order to its customer's row. */
+    void recordPlaced(Order order);
+
+    /** Remove a previously placed order from its customer's row. */
+    void recordCancelled(Order order);
+
+    /** Remove a non-cancelled order that is being deleted from its customer's row. */
+    void recordDeleted(Order order);
+
+    /**
+     * Replace the whole ledger with one recomputed from order history.
+     *
+     * @return number of customers written
+     */
+    int rebuild();
+
+    /** True when the ledger has no rows yet (e.g. first deploy after upgrade). */
+    boolean isEmpty();
+}
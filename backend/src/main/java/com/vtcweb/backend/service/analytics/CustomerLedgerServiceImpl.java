@@ -0,0 +1,103 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.model.entity.order.Order;
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+import com.vtcweb.backend.repository.analytics.CustomerLedgerRepository;
+import com.vtcweb.backend.repository.order.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@lombok.extern.slf4j.Slf4j
+public class CustomerLedgerServiceImpl implements CustomerLedgerService {
+
+    private final CustomerLedgerRepository ledgerRepository;
+    private final OrderRepository orderRepository;
+
+    @Override
+    public void recordPlaced(Order order) {
+        String email = emailOf(order);
+        if (email == null || order.getPlacedAt() == null || order.getStatus() == OrderStatus.CANCELLED)
+            return;
+        ledgerRepository.applyPlaced(email, order.getPlacedAt(), nz(order.getTotal()));
+    }
+
+    @Override
+    public void recordCancelled(Order order) {
+        remove(order);
+    }
+
+    @Override
+    public void recordDeleted(Order order) {
+        if (order == null || order.getStatus() == OrderStatus.CANCELLED)
+            return;
+        remove(order);
+    }
+
+    private void remove(Order order) {
+        String email = emailOf(order);
+        if (email == null || order.getPlacedAt() == null)
+            return;
+        if (ledgerRepository.applyCancelled(email, nz(order.getTotal())) == 0)
+            return;
+        if (ledgerRepository.deleteIfEmpty(email) > 0)
+            return;
+        // Read the bounds only now: the update above holds the row lock, so a concurrent
+        // removal for the same customer has either committed its bounds or waits for ours
+        List<Object[]> current = ledgerRepository.findBoundsByEmail(email);
+        if (current.isEmpty())
+            return;
+        if (strictlyBetween(order.getPlacedAt(), (LocalDateTime) current.get(0)[0], (LocalDateTime) current.get(0)[1]))
+            return; // neither the first nor the last order; the bounds stand
+        // first/last cannot be decremented; re-derive them from this customer's remaining orders
+        // (the order itself may not be cancelled or deleted in the database yet)
+        List<Object[]> bounds = orderRepository.purchaseBoundsByEmailExcluding(email,
+                order.getId() != null ? order.getId() : -1L);
+        Object[] row = bounds.isEmpty() ? null : bounds.get(0);
+        ledgerRepository.updateBounds(email,
+                row != null ? (LocalDateTime) row[0] : null,
+                row != null ? (LocalDateTime) row[1] : null);
+    }
+
+    @Override
+    public int rebuild() {
+        ledgerRepository.deleteAllInBatch();
+        int customers = ledgerRepository.insertFromOrders();
+        log.info("Rebuilt customer ledger for {} customer(s)", customers);
+        return customers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return ledgerRepository.count() == 0;
+    }
+
+    /**
+     * Whether placedAt falls strictly inside (first, last), compared to the
+     * second so a column that stores less precision than the entity cannot make
+     * the first or last order look like a middle one.
+     */
+    private static boolean strictlyBetween(LocalDateTime placedAt, LocalDateTime first, LocalDateTime last) {
+        if (first == null || last == null)
+            return false;
+        LocalDateTime at = placedAt.truncatedTo(ChronoUnit.SECONDS);
+        return at.isAfter(first.truncatedTo(ChronoUnit.SECONDS)) && at.isBefore(last.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private static String emailOf(Order order) {
+        return order == null ? null : Order.normalizeEmail(order.getCustomerEmail());
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+}
@@ -0,0 +1,160 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.dto.admin.AdminSalesAnalyticsDTO;
+import com.vtcweb.backend.model.entity.order.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass accumulator for the order-level analytics that are not
+ * day-grained (hour of day, payment method, discounted vs full price). Money is
+ * accumulated in minor units (cents) in primitive arrays so a full window scan
+ * allocates nothing per order.
+ * Not thread-safe: fill it from one stream, then read.
+ */
+public final class OrderWindowAggregate {
+
+    private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+
+    private final long[] revenueByHour = new long[24];
+    private final long[] ordersByHour = new long[24];
+    private final long[] revenueByPayment = new long[PAYMENT_METHODS.length];
+    private final long[] ordersByPayment = new long[PAYMENT_METHODS.length];
+    // index 0 = discounted, 1 = full_price
+    private final long[] revenueByDiscountBucket = new long[2];
+    private final long[] ordersByDiscountBucket = new long[2];
+    private long scanned;
+
+    /** Accumulate one non-cancelled order. */
+    public void accept(LocalDateTime placedAt, BigDecimal total, BigDecimal discount, PaymentMethod paymentMethod) {
+        long totalMinor = toMinor(total);
+        if (placedAt != null) {
+            int h = placedAt.getHour();
+            revenueByHour[h] += totalMinor;
+            ordersByHour[h]++;
+        }
+        if (paymentMethod != null) {
+            int p = paymentMethod.ordinal();
+            revenueByPayment[p] += totalMinor;
+            ordersByPayment[p]++;
+        }
+        int bucket = discount != null && discount.signum() > 0 ? 0 : 1;
+        revenueByDiscountBucket[bucket] += totalMinor;
+        ordersByDiscountBucket[bucket]++;
+        scanned++;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    /** Fold another (disjoint) window into this one; aggregates over days are additive. */
+    public OrderWindowAggregate merge(OrderWindowAggregate other) {
+        if (other == null)
+            return this;
+        addInto(revenueByHour, other.revenueByHour);
+        addInto(ordersByHour, other.ordersByHour);
+        addInto(revenueByPayment, other.revenueByPayment);
+        addInto(ordersByPayment, other.ordersByPayment);
+        addInto(revenueByDiscountBucket, other.revenueByDiscountBucket);
+        addInto(ordersByDiscountBucket, other.ordersByDiscountBucket);
+        scanned += other.scanned;
+        return this;
+    }
+
+    /** Plain copy of the accumulated state, suitable for JSON caching. */
+    public Snapshot toSnapshot() {
+        return new Snapshot(revenueByHour.clone(), ordersByHour.clone(), revenueByPayment.clone(),
+                ordersByPayment.clone(), revenueByDiscountBucket.clone(), ordersByDiscountBucket.clone(), scanned);
+    }
+
+    public static OrderWindowAggregate fromSnapshot(Snapshot s) {
+        OrderWindowAggregate agg = new OrderWindowAggregate();
+        if (s == null)
+            return agg;
+        addInto(agg.revenueByHour, s.revenueByHour());
+        addInto(agg.ordersByHour, s.ordersByHour());
+        addInto(agg.revenueByPayment, s.revenueByPayment());
+        addInto(agg.ordersByPayment, s.ordersByPayment());
+        addInto(agg.revenueByDiscountBucket, s.revenueByDiscountBucket());
+        addInto(agg.ordersByDiscountBucket, s.ordersByDiscountBucket());
+        agg.scanned = s.scanned();
+        return agg;
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        if (source == null)
+            return;
+        for (int i = 0; i < Math.min(target.length, source.length); i++)
+            target[i] += source[i];
+    }
+
+    /** Serializable form of an aggregate. Payment arrays are indexed by PaymentMethod ordinal. */
+    public record Snapshot(
+            long[] revenueByHour,
+            long[] ordersByHour,
+            long[] revenueByPayment,
+            long[] ordersByPayment,
+            long[] revenueByDiscountBucket,
+            long[] ordersByDiscountBucket,
+            long scanned) {
+    }
+
+    /** Hours that had at least one order, ascending. */
+    public List<AdminSalesAnalyticsDTO.HourPoint> hourPoints() {
+        List<AdminSalesAnalyticsDTO.HourPoint> out = new ArrayList<>();
+        for (int h = 0; h < 24; h++) {
+            if (ordersByHour[h] == 0)
+                continue;
+            out.add(AdminSalesAnalyticsDTO.HourPoint.builder()
+                    .hour(h)
+                    .revenue(fromMinor(revenueByHour[h]))
+                    .orders(ordersByHour[h])
+                    .build());
+        }
+        return out;
+    }
+
+    /** Payment methods that had at least one order. */
+    public List<AdminSalesAnalyticsDTO.PaymentSplit> paymentSplits() {
+        List<AdminSalesAnalyticsDTO.PaymentSplit> out = new ArrayList<>();
+        for (int i = 0; i < PAYMENT_METHODS.length; i++) {
+            if (ordersByPayment[i] == 0)
+                continue;
+            out.add(AdminSalesAnalyticsDTO.PaymentSplit.builder()
+                    .method(PAYMENT_METHODS[i].name())
+                    .orders(ordersByPayment[i])
+                    .revenue(fromMinor(revenueByPayment[i]))
+                    .build());
+        }
+        return out;
+    }
+
+    /** discounted / full_price buckets that had at least one order. */
+    public List<AdminSalesAnalyticsDTO.DiscountSplit> discountSplits() {
+        String[] labels = { "discounted", "full_price" };
+        List<AdminSalesAnalyticsDTO.DiscountSplit> out = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            if (ordersByDiscountBucket[i] == 0)
+                continue;
+            out.add(AdminSalesAnalyticsDTO.DiscountSplit.builder()
+                    .bucket(labels[i])
+                    .orders(ordersByDiscountBucket[i])
+                    .revenue(fromMinor(revenueByDiscountBucket[i]))
+                    .build());
+        }
+        return out;
+    }
+
+    static long toMinor(BigDecimal v) {
+        return v == null ? 0L : v.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
@@ -0,0 +1,17 @@
+package com.vtcweb.backend.service.analytics;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Computes the order-level (non day-grained) sales analytics for a window in a
+ * single streamed pass over the window's orders.
+ */
+public interface SalesAggregationService {
+
+    /** Aggregate non-cancelled orders placed in [from, to] (inclusive dates). */
+    OrderWindowAggregate aggregate(LocalDate from, LocalDate to);
+
+    /** As above in the same single pass, split by day: one entry per day in [from, to], ascending. */
+    Map<LocalDate, OrderWindowAggregate> aggregateByDay(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,89 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.model.entity.order.PaymentMethod;
+import com.vtcweb.backend.repository.order.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@lombok.extern.slf4j.Slf4j
+public class SalesAggregationServiceImpl implements SalesAggregationService {
+
+    private final OrderRepository orderRepository;
+
+    /** Rows per keyset chunk; bounds what the driver buffers (Connector/J reads a whole result set). */
+    @Value("${app.analytics.aggregation.chunk-size:5000}")
+    private int chunkSize;
+
+    @Override
+    public OrderWindowAggregate aggregate(LocalDate from, LocalDate to) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("from and to must not be null");
+        OrderWindowAggregate agg = new OrderWindowAggregate();
+        long startedAt = System.nanoTime();
+        scan(from, to, row -> agg.accept(
+                (LocalDateTime) row[1],
+                (BigDecimal) row[2],
+                (BigDecimal) row[3],
+                (PaymentMethod) row[4]));
+        log.debug("Aggregated {} orders for {}..{} in {} ms", agg.getScanned(), from, to,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return agg;
+    }
+
+    @Override
+    public Map<LocalDate, OrderWindowAggregate> aggregateByDay(LocalDate from, LocalDate to) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("from and to must not be null");
+        Map<LocalDate, OrderWindowAggregate> byDay = new LinkedHashMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1))
+            byDay.put(d, new OrderWindowAggregate());
+        scan(from, to, row -> {
+            LocalDateTime placedAt = (LocalDateTime) row[1];
+            byDay.get(placedAt.toLocalDate()).accept(placedAt, (BigDecimal) row[2], (BigDecimal) row[3],
+                    (PaymentMethod) row[4]);
+        });
+        return byDay;
+    }
+
+    /**
+     * Feed the window's sales facts to sink in keyset chunks of at most chunkSize
+     * rows (row[0] is the keyset id) until a short chunk comes back.
+     */
+    private void scan(LocalDate from, LocalDate to, Consumer<Object[]> sink) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        int size = Math.max(1, chunkSize);
+        Pageable page = PageRequest.of(0, size);
+        long lastId = 0L;
+        while (true) {
+            int count = 0;
+            try (Stream<Object[]> rows = orderRepository.streamSalesFacts(lastId, start, end, page)) {
+                Iterator<Object[]> it = rows.iterator();
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    sink.accept(row);
+                    lastId = ((Number) row[0]).longValue();
+                    count++;
+                }
+            }
+            if (count < size)
+                return;
+        }
+    }
+}
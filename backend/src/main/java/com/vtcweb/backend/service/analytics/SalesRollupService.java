@@ -0,0 +1,54 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.model.entity.order.Order;
+
+import java.time.LocalDate;
+
+/**
+ * Maintains the daily sales rollup tables (per day, per day x product, per day
+ * x category) that back the admin analytics endpoints, plus the per day x
+ * product x variation table behind the public product stats.
+ * Write-side hooks must be called inside the transaction that persists the
+ * order so rollups and orders commit together.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Add a freshly persisted (non-cancelled) order to the rollups of its placedAt
+     * day and to its customer's ledger row.
+     */
+    void recordPlaced(Order order);
+
+    /** Move a previously placed order from sales to cancelled on its placedAt day. */
+    void recordCancelled(Order order);
+
+    /**
+     * Mark the order's placedAt day as changed without touching its totals (status
+     * transitions, deletes). Keeps day-bucketed analytics caches honest.
+     */
+    void recordChanged(Order order);
+
+    /**
+     * Back an order that is about to be deleted out of every rollup and, unless it
+     * was cancelled, its customer's ledger row. Call before the delete while its
+     * items are still loaded.
+     */
+    void recordDeleted(Order order);
+
+    /**
+     * Recompute rollups for [from, to] (inclusive) from the orders tables,
+     * replacing whatever rows exist for those days.
+     *
+     * @return number of days processed
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /** Rebuild from the first order ever placed up to today, including the customer ledger. */
+    int rebuildAll();
+
+    /**
+     * True when the day or the product x variation rollups are still empty (e.g.
+     * first deploy after either was introduced).
+     */
+    boolean isEmpty();
+}
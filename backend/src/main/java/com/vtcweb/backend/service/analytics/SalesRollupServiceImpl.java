@@ -0,0 +1,337 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.model.entity.analytics.DailyCategorySalesRollup;
+import com.vtcweb.backend.model.entity.analytics.DailyProductSalesRollup;
+import com.vtcweb.backend.model.entity.analytics.DailyProductVariationSales;
+import com.vtcweb.backend.model.entity.analytics.DailySalesRollup;
+import com.vtcweb.backend.model.entity.order.DeliveryMethod;
+import com.vtcweb.backend.model.entity.order.Order;
+import com.vtcweb.backend.model.entity.order.OrderItem;
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+import com.vtcweb.backend.repository.analytics.DailyCategorySalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailyProductSalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailyProductVariationSalesRepository;
+import com.vtcweb.backend.repository.analytics.DailySalesRollupRepository;
+import com.vtcweb.backend.repository.order.OrderItemRepository;
+import com.vtcweb.backend.repository.order.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@lombok.extern.slf4j.Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    /** Days aggregated per rebuild query; keeps each GROUP BY bounded on large histories. */
+    private static final int REBUILD_CHUNK_DAYS = 31;
+
+    private final DailySalesRollupRepository dailyRepository;
+    private final DailyProductSalesRollupRepository productRepository;
+    private final DailyCategorySalesRollupRepository categoryRepository;
+    private final DailyProductVariationSalesRepository variationRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CustomerLedgerService customerLedgerService;
+    private final AnalyticsCacheService analyticsCacheService;
+
+    @Override
+    public void recordPlaced(Order order) {
+        if (order == null || order.getPlacedAt() == null || order.getStatus() == OrderStatus.CANCELLED)
+            return;
+        apply(order, 1, false);
+        applyVariationSales(order, 1);
+        customerLedgerService.recordPlaced(order);
+        analyticsCacheService.touchAfterCommit(order.getPlacedAt().toLocalDate());
+    }
+
+    @Override
+    public void recordCancelled(Order order) {
+        if (order == null || order.getPlacedAt() == null)
+            return;
+        apply(order, -1, true);
+        customerLedgerService.recordCancelled(order);
+        analyticsCacheService.touchAfterCommit(order.getPlacedAt().toLocalDate());
+    }
+
+    @Override
+    public void recordChanged(Order order) {
+        if (order == null || order.getPlacedAt() == null)
+            return;
+        analyticsCacheService.touchAfterCommit(order.getPlacedAt().toLocalDate());
+    }
+
+    @Override
+    public void recordDeleted(Order order) {
+        if (order == null || order.getPlacedAt() == null)
+            return;
+        applyVariationSales(order, -1);
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            // Only its cancelled columns still count it
+            dailyRepository.applyDelta(order.getPlacedAt().toLocalDate(),
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0L, 0L,
+                    BigDecimal.ZERO, BigDecimal.ZERO, nz(order.getTotal()).negate(), -1L);
+        } else {
+            apply(order, -1, false);
+            customerLedgerService.recordDeleted(order);
+        }
+        analyticsCacheService.touchAfterCommit(order.getPlacedAt().toLocalDate());
+    }
+
+    /**
+     * Product x variation lines count every order regardless of status (product
+     * stats semantics), so only placement and deletion move them.
+     */
+    private void applyVariationSales(Order order, int sign) {
+        if (order.getItems() == null)
+            return;
+        LocalDate day = order.getPlacedAt().toLocalDate();
+        Map<List<Long>, long[]> counts = new LinkedHashMap<>(); // [units, orders]
+        Map<List<Long>, BigDecimal> revenue = new LinkedHashMap<>();
+        Set<Long> seenProducts = new HashSet<>();
+        for (OrderItem it : order.getItems()) {
+            if (it == null || it.getProductId() == null)
+                continue;
+            List<Long> key = List.of(it.getProductId(), it.getVariationId() != null ? it.getVariationId() : 0L);
+            long[] c = counts.computeIfAbsent(key, k -> new long[2]);
+            c[0] += it.getQuantity() == null ? 0L : it.getQuantity();
+            if (seenProducts.add(it.getProductId()))
+                c[1] += 1; // first line of the product carries the order
+            revenue.merge(key, nz(it.getTotalPrice()), BigDecimal::add);
+        }
+        BigDecimal s = BigDecimal.valueOf(sign);
+        for (Map.Entry<List<Long>, long[]> e : counts.entrySet()) {
+            variationRepository.applyDelta(e.getKey().get(0), day, e.getKey().get(1),
+                    e.getValue()[0] * sign, revenue.get(e.getKey()).multiply(s), e.getValue()[1] * sign);
+        }
+    }
+
+    /**
+     * sign = 1 adds the order to sales; sign = -1 removes it from sales, and with
+     * cancel also adds it to the cancelled columns.
+     */
+    private void apply(Order order, int sign, boolean cancel) {
+        LocalDate day = order.getPlacedAt().toLocalDate();
+        BigDecimal s = BigDecimal.valueOf(sign);
+        BigDecimal total = nz(order.getTotal());
+        BigDecimal discount = nz(order.getDiscountTotal());
+        BigDecimal net = nz(order.getSubtotal()).subtract(discount);
+        BigDecimal online = order.getDeliveryMethod() == DeliveryMethod.STANDARD_DELIVERY ? total : BigDecimal.ZERO;
+        BigDecimal pos = order.getDeliveryMethod() == DeliveryMethod.IN_STORE_PICKUP ? total : BigDecimal.ZERO;
+        boolean removing = sign < 0;
+
+        // Collapse items so each (day, product) and (day, category) row is touched once per order
+        Map<Long, OrderItem> productSnapshot = new LinkedHashMap<>();
+        Map<Long, BigDecimal> productRevenue = new LinkedHashMap<>();
+        Map<Long, Long> productUnits = new LinkedHashMap<>();
+        Map<Long, String> categoryName = new LinkedHashMap<>();
+        Map<Long, BigDecimal> categoryRevenue = new LinkedHashMap<>();
+        Map<Long, Long> categoryUnits = new LinkedHashMap<>();
+        long units = 0L;
+        if (order.getItems() != null) {
+            for (OrderItem it : order.getItems()) {
+                if (it == null)
+                    continue;
+                long qty = it.getQuantity() == null ? 0L : it.getQuantity();
+                BigDecimal line = nz(it.getTotalPrice());
+                units += qty;
+                if (it.getProductId() != null) {
+                    productSnapshot.putIfAbsent(it.getProductId(), it);
+                    productRevenue.merge(it.getProductId(), line, BigDecimal::add);
+                    productUnits.merge(it.getProductId(), qty, Long::sum);
+                }
+                if (it.getCategoryId() != null) {
+                    categoryName.putIfAbsent(it.getCategoryId(), it.getCategoryName());
+                    categoryRevenue.merge(it.getCategoryId(), line, BigDecimal::add);
+                    categoryUnits.merge(it.getCategoryId(), qty, Long::sum);
+                }
+            }
+        }
+
+        dailyRepository.applyDelta(day,
+                total.multiply(s), net.multiply(s), discount.multiply(s), sign, units * sign,
+                online.multiply(s), pos.multiply(s),
+                cancel ? total : BigDecimal.ZERO, cancel ? 1L : 0L);
+
+        for (Map.Entry<Long, OrderItem> e : productSnapshot.entrySet()) {
+            OrderItem snap = e.getValue();
+            productRepository.applyDelta(day, e.getKey(),
+                    removing ? null : snap.getProductName(),
+                    removing ? null : snap.getCategoryId(),
+                    removing ? null : snap.getCategoryName(),
+                    removing ? null : snap.getImageUrl(),
+                    productRevenue.get(e.getKey()).multiply(s),
+                    productUnits.get(e.getKey()) * sign);
+        }
+        for (Map.Entry<Long, String> e : categoryName.entrySet()) {
+            categoryRepository.applyDelta(day, e.getKey(),
+                    removing ? null : e.getValue(),
+                    categoryRevenue.get(e.getKey()).multiply(s),
+                    categoryUnits.get(e.getKey()) * sign);
+        }
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("from and to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("to must not be before from");
+
+        int days = 0;
+        LocalDate chunkStart = from;
+        while (!chunkStart.isAfter(to)) {
+            LocalDate chunkEnd = chunkStart.plusDays(REBUILD_CHUNK_DAYS - 1L);
+            if (chunkEnd.isAfter(to))
+                chunkEnd = to;
+            rebuildChunk(chunkStart, chunkEnd);
+            days += (int) ChronoUnit.DAYS.between(chunkStart, chunkEnd) + 1;
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        analyticsCacheService.touchAfterCommit(from, to);
+        log.info("Rebuilt sales rollups for {} day(s) between {} and {}", days, from, to);
+        return days;
+    }
+
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime endExclusive = to.plusDays(1).atStartOfDay();
+
+        dailyRepository.deleteBetween(from, to);
+        productRepository.deleteBetween(from, to);
+        categoryRepository.deleteBetween(from, to);
+        variationRepository.deleteBetween(from, to);
+
+        Map<LocalDate, DailySalesRollup> byDay = new LinkedHashMap<>();
+        for (Object[] row : orderRepository.dailyRollupTotalsBetween(start, endExclusive)) {
+            if (row == null || row.length < 7 || row[0] == null)
+                continue;
+            LocalDate d = LocalDate.parse(String.valueOf(row[0]));
+            DailySalesRollup r = byDay.computeIfAbsent(d, k -> DailySalesRollup.builder().salesDate(k).build());
+            r.setRevenue(nz((BigDecimal) row[1]));
+            r.setNetSales(nz((BigDecimal) row[2]));
+            r.setDiscountTotal(nz((BigDecimal) row[3]));
+            r.setOrdersCount(row[4] != null ? ((Number) row[4]).longValue() : 0L);
+            r.setOnlineRevenue(nz((BigDecimal) row[5]));
+            r.setPosRevenue(nz((BigDecimal) row[6]));
+        }
+        for (Object[] row : orderRepository.dailyCancelledTotalsBetween(start, endExclusive)) {
+            if (row == null || row.length < 3 || row[0] == null)
+                continue;
+            LocalDate d = LocalDate.parse(String.valueOf(row[0]));
+            DailySalesRollup r = byDay.computeIfAbsent(d, k -> DailySalesRollup.builder().salesDate(k).build());
+            r.setCancelledRevenue(nz((BigDecimal) row[1]));
+            r.setCancelledOrders(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+        }
+        for (Object[] row : orderItemRepository.dailyUnitsSoldBetween(start, endExclusive)) {
+            if (row == null || row.length < 2 || row[0] == null)
+                continue;
+            LocalDate d = LocalDate.parse(String.valueOf(row[0]));
+            DailySalesRollup r = byDay.computeIfAbsent(d, k -> DailySalesRollup.builder().salesDate(k).build());
+            r.setUnitsSold(row[1] != null ? ((Number) row[1]).longValue() : 0L);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        byDay.values().forEach(r -> r.setUpdatedAt(now));
+        dailyRepository.saveAll(byDay.values());
+
+        List<DailyProductSalesRollup> products = new ArrayList<>();
+        for (Object[] row : orderItemRepository.dailyProductSalesBetween(start, endExclusive)) {
+            if (row == null || row.length < 8 || row[0] == null || row[1] == null)
+                continue;
+            products.add(DailyProductSalesRollup.builder()
+                    .salesDate(LocalDate.parse(String.valueOf(row[0])))
+                    .productId(((Number) row[1]).longValue())
+                    .productName(row[2] != null ? String.valueOf(row[2]) : null)
+                    .categoryId(row[3] != null ? ((Number) row[3]).longValue() : null)
+                    .categoryName(row[4] != null ? String.valueOf(row[4]) : null)
+                    .imageUrl(row[5] != null ? String.valueOf(row[5]) : null)
+                    .revenue(nz((BigDecimal) row[6]))
+                    .unitsSold(row[7] != null ? ((Number) row[7]).longValue() : 0L)
+                    .build());
+        }
+        productRepository.saveAll(products);
+
+        List<DailyCategorySalesRollup> categories = new ArrayList<>();
+        for (Object[] row : orderItemRepository.dailyCategorySalesBetween(start, endExclusive)) {
+            if (row == null || row.length < 5 || row[0] == null || row[1] == null)
+                continue;
+            categories.add(DailyCategorySalesRollup.builder()
+                    .salesDate(LocalDate.parse(String.valueOf(row[0])))
+                    .categoryId(((Number) row[1]).longValue())
+                    .categoryName(row[2] != null ? String.valueOf(row[2]) : null)
+                    .revenue(nz((BigDecimal) row[3]))
+                    .unitsSold(row[4] != null ? ((Number) row[4]).longValue() : 0L)
+                    .build());
+        }
+        categoryRepository.saveAll(categories);
+
+        rebuildVariationChunk(start, endExclusive);
+    }
+
+    /** Lines arrive ordered by order id, so tracking the current order's products is enough. */
+    private void rebuildVariationChunk(LocalDateTime start, LocalDateTime endExclusive) {
+        Map<String, DailyProductVariationSales> rows = new LinkedHashMap<>();
+        Set<Long> orderProducts = new HashSet<>();
+        Long currentOrder = null;
+        try (Stream<Object[]> lines = orderItemRepository.streamVariationSalesLinesBetween(start, endExclusive)) {
+            Iterator<Object[]> itr = lines.iterator();
+            while (itr.hasNext()) {
+                Object[] row = itr.next();
+                if (row == null || row.length < 6 || row[0] == null || row[1] == null || row[2] == null)
+                    continue;
+                Long orderId = ((Number) row[1]).longValue();
+                if (!Objects.equals(orderId, currentOrder)) {
+                    currentOrder = orderId;
+                    orderProducts.clear();
+                }
+                LocalDate d = LocalDate.parse(String.valueOf(row[0]));
+                Long productId = ((Number) row[2]).longValue();
+                Long variationId = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+                DailyProductVariationSales r = rows.computeIfAbsent(d + ":" + productId + ":" + variationId,
+                        k -> DailyProductVariationSales.builder()
+                                .salesDate(d).productId(productId).variationId(variationId).build());
+                r.setUnitsSold(r.getUnitsSold() + (row[4] != null ? ((Number) row[4]).longValue() : 0L));
+                r.setRevenue(r.getRevenue().add(nz((BigDecimal) row[5])));
+                if (orderProducts.add(productId))
+                    r.setOrdersCount(r.getOrdersCount() + 1);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        rows.values().forEach(r -> r.setUpdatedAt(now));
+        variationRepository.saveAll(rows.values());
+    }
+
+    @Override
+    public int rebuildAll() {
+        LocalDateTime first = orderRepository.findFirstPlacedAt();
+        if (first == null)
+            return 0;
+        customerLedgerService.rebuild();
+        return rebuild(first.toLocalDate(), LocalDate.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return dailyRepository.count() == 0 || variationRepository.count() == 0;
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+}
@@ -0,0 +1,292 @@
+package com.vtcweb.backend.service.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for mapped catalog DTOs (product details, category pages).
+ *
+ * L1 is a bounded, per-node LRU with a short TTL holding the DTO instances. L2
+ * is the Redis "catalog" cache from CacheConfig holding JSON. Entries are
+ * grouped in scopes (a product id, the category list); every scope has a
+ * version counter in Redis that is part of the L2 key, so a write only has to
+ * bump the counter for readers on every node to miss the old entry. The bump is
+ * published on a Redis channel so the other nodes drop their L1 entries of that
+ * scope right away; the L1 TTL bounds staleness if a message is lost.
+ *
+ * Writers call invalidateAfterCommit from the transaction that changed the
+ * data. Without Redis only L1 is used and invalidation stays local.
+ *
+ * The same counters back HTTP validators: scopeStamp for one product, and
+ * catalogStamp (bumped by every invalidation) for listings.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class CatalogCacheService {
+
+    /** Redis cache holding the L2 entries. */
+    public static final String CACHE_NAME = "catalog";
+    /** Product details DTO; scope is the product id. */
+    public static final String PRODUCTS = "product";
+    /** Category listing pages; a single scope covers every page. */
+    public static final String CATEGORIES = "categories";
+    public static final String ALL = "all";
+
+    private static final String VERSION_PREFIX = "catalog:version:";
+    private static final String CHANNEL = "catalog:invalidate";
+    private static final String CATALOG_VERSION = "catalog:version";
+    private static final String CATALOG_MODIFIED = "catalog:modified";
+
+    /** Catalog-wide validator: a version counter and the time of the last write. */
+    public record CatalogStamp(String version, long lastModified) {
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<StringRedisTemplate> redisProvider;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    /** Access-ordered LRU of "scope|variant" -> entry. Guarded by itself. */
+    private final LinkedHashMap<String, Entry> local;
+    /** Bumped on every invalidation; an L1 fill is dropped if it moved meanwhile. */
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile RedisMessageListenerContainer listenerContainer;
+    /** Stamps used without Redis; prefixed with the boot time so they never repeat across restarts. */
+    private final long bootMillis = System.currentTimeMillis();
+    private final AtomicLong localCatalogVersion = new AtomicLong();
+    private final AtomicLong localModified = new AtomicLong(bootMillis);
+    private final Map<String, Long> localScopeVersions = new java.util.concurrent.ConcurrentHashMap<>();
+
+    @Value("${app.cache.catalog.local.ttl-seconds:60}")
+    private long localTtlSeconds;
+
+    public CatalogCacheService(CacheManager cacheManager, ObjectMapper objectMapper,
+            ObjectProvider<StringRedisTemplate> redisProvider,
+            ObjectProvider<RedisConnectionFactory> connectionFactoryProvider,
+            @Value("${app.cache.catalog.local.max-entries:2000}") int maxEntries) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.redisProvider = redisProvider;
+        this.connectionFactoryProvider = connectionFactoryProvider;
+        int cap = Math.max(1, maxEntries);
+        this.local = new LinkedHashMap<>(Math.min(cap, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cap;
+            }
+        };
+    }
+
+    /**
+     * Cached value for (namespace, scope, variant), loading it on a miss. A null
+     * from the loader (e.g. not found) is returned but not cached.
+     */
+    public <T> T get(String namespace, Object scope, String variant, Class<T> type, Supplier<T> loader) {
+        String scopeKey = namespace + ":" + scope;
+        String localKey = scopeKey + "|" + variant;
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            Entry e = local.get(localKey);
+            if (e != null && e.expiresAt() > now && type.isInstance(e.value())) {
+                return type.cast(e.value());
+            }
+            if (e != null)
+                local.remove(localKey);
+        }
+        long seen = invalidations.get();
+        Cache l2 = l2();
+        String l2Key = null;
+        if (l2 != null) {
+            try {
+                // Read the version before loading so a concurrent write can only orphan the entry
+                l2Key = scopeKey + ":v" + version(scopeKey) + "|" + variant;
+                String json = l2.get(l2Key, String.class);
+                if (json != null) {
+                    T value = objectMapper.readValue(json, type);
+                    putLocal(localKey, value, seen);
+                    return value;
+                }
+            } catch (Exception ex) {
+                log.debug("Catalog cache read failed for {} - {}", localKey, ex.toString());
+            }
+        }
+        T value = loader.get();
+        if (value == null)
+            return null;
+        if (l2Key != null) {
+            try {
+                l2.put(l2Key, objectMapper.writeValueAsString(value));
+            } catch (Exception ex) {
+                log.debug("Catalog cache write failed for {} - {}", l2Key, ex.toString());
+            }
+        }
+        putLocal(localKey, value, seen);
+        return value;
+    }
+
+    /** Invalidate one scope once the current transaction commits (now if none). */
+    public void invalidateAfterCommit(String namespace, Object scope) {
+        if (scope != null)
+            invalidateAfterCommit(namespace, List.of(scope));
+    }
+
+    /** Invalidate the given scopes once the current transaction commits (now if none). */
+    public void invalidateAfterCommit(String namespace, Collection<?> scopes) {
+        if (scopes == null || scopes.isEmpty())
+            return;
+        List<String> keys = scopes.stream().map(s -> namespace + ":" + s).distinct().toList();
+        Runnable action = () -> keys.forEach(this::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** Current version of one scope, for ETags of single-entity responses. */
+    public String scopeStamp(String namespace, Object scope) {
+        String scopeKey = namespace + ":" + scope;
+        if (l2() != null) {
+            try {
+                return version(scopeKey);
+            } catch (Exception ex) {
+                log.debug("Catalog scope stamp read failed for {} - {}", scopeKey, ex.toString());
+            }
+        }
+        return "b" + bootMillis + "." + localScopeVersions.getOrDefault(scopeKey, 0L);
+    }
+
+    /** Catalog-wide stamp, moved by every invalidation; validator for listings. */
+    public CatalogStamp catalogStamp() {
+        StringRedisTemplate redis = l2() != null ? redisProvider.getIfAvailable() : null;
+        if (redis != null) {
+            try {
+                List<String> values = redis.opsForValue().multiGet(List.of(CATALOG_VERSION, CATALOG_MODIFIED));
+                if (values != null && values.size() == 2) {
+                    String version = values.get(0) == null ? "0" : values.get(0);
+                    long modified = values.get(1) == null ? bootMillis : Long.parseLong(values.get(1));
+                    return new CatalogStamp(version, modified);
+                }
+            } catch (Exception ex) {
+                log.debug("Catalog stamp read failed - {}", ex.toString());
+            }
+        }
+        return new CatalogStamp("b" + bootMillis + "." + localCatalogVersion.get(), localModified.get());
+    }
+
+    /** Subscribe to invalidations from other nodes when Redis backs the cache. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        RedisConnectionFactory factory = connectionFactoryProvider.getIfAvailable();
+        if (l2() == null || factory == null)
+            return;
+        try {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(factory);
+            container.addMessageListener((message, pattern) -> onMessage(
+                    new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainer = container;
+        } catch (Exception ex) {
+            log.warn("Catalog cache invalidation subscribe failed, relying on L1 TTL: {}", ex.getMessage());
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        RedisMessageListenerContainer container = listenerContainer;
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private void invalidate(String scopeKey) {
+        evictLocal(scopeKey);
+        long now = System.currentTimeMillis();
+        localScopeVersions.merge(scopeKey, 1L, Long::sum);
+        localCatalogVersion.incrementAndGet();
+        localModified.accumulateAndGet(now, Math::max);
+        if (l2() == null)
+            return;
+        StringRedisTemplate redis = redisProvider.getIfAvailable();
+        if (redis == null)
+            return;
+        try {
+            redis.opsForValue().increment(VERSION_PREFIX + scopeKey);
+            redis.opsForValue().increment(CATALOG_VERSION);
+            redis.opsForValue().set(CATALOG_MODIFIED, Long.toString(now));
+            redis.convertAndSend(CHANNEL, nodeId + "|" + scopeKey);
+        } catch (Exception ex) {
+            log.warn("Catalog cache invalidation of {} failed: {}", scopeKey, ex.getMessage());
+        }
+    }
+
+    private void onMessage(String body) {
+        int sep = body.indexOf('|');
+        if (sep <= 0 || body.substring(0, sep).equals(nodeId))
+            return; // malformed, or our own (already evicted)
+        evictLocal(body.substring(sep + 1));
+    }
+
+    private void evictLocal(String scopeKey) {
+        invalidations.incrementAndGet();
+        String prefix = scopeKey + "|";
+        synchronized (local) {
+            local.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+    }
+
+    private void putLocal(String localKey, Object value, long seenInvalidations) {
+        synchronized (local) {
+            // Skip the fill when anything was invalidated while loading: the value may predate it
+            if (invalidations.get() == seenInvalidations)
+                local.put(localKey, new Entry(value, System.currentTimeMillis() + localTtlSeconds * 1000L));
+        }
+    }
+
+    private String version(String scopeKey) {
+        StringRedisTemplate redis = redisProvider.getIfAvailable();
+        String v = redis != null ? redis.opsForValue().get(VERSION_PREFIX + scopeKey) : null;
+        return v == null ? "0" : v;
+    }
+
+    /** The Redis catalog cache, or null when caching fell back to memory. */
+    private Cache l2() {
+        return cacheManager instanceof RedisCacheManager ? cacheManager.getCache(CACHE_NAME) : null;
+    }
+}
@@ -6,6 +6,7 @@ import com.vtcweb.backend.model.entity.category.Category;
 import com.vtcweb.backend.repository.category.CategoryRepository;
 import com.vtcweb.backend.repository.product.ProductRepository;
 import com.vtcweb.backend.service.storage.ImageStorageService;
+import com.vtcweb.backend.service.storage.RemoteImageFetcher;
 import com.vtcweb.backend.util.ImageUploadUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -22,6 +23,9 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final ImageStorageService imageStorageService;
+    private final RemoteImageFetcher remoteImageFetcher;
+    private final com.vtcweb.backend.service.product.ProductSearchIndex productSearchIndex;
+    private final com.vtcweb.backend.service.catalog.CatalogCacheService catalogCache;
 
     @Override
     public Category create(Category category) {
@@ -51,9 +55,9 @@ public class CategoryServiceImpl implements CategoryService {
 
         String slug = slugify(category.getName());
         String folder = buildCategoryFolder(slug);
-        category.setCatMainImg(materializeImage(category.getCatMainImg(), folder, slug + "-main"));
-        category.setCatTileImage1(materializeImage(category.getCatTileImage1(), folder, slug + "-tile1"));
-        category.setCatTileImage2(materializeImage(category.getCatTileImage2(), folder, slug + "-tile2"));
+        category.setCatMainImg(materializeImage(category.getCatMainImg(), folder));
+        category.setCatTileImage1(materializeImage(category.getCatTileImage1(), folder));
+        category.setCatTileImage2(materializeImage(category.getCatTileImage2(), folder));
 
         // Ensure id is null so JPA treats it as new
         category.setId(null);
@@ -61,6 +65,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (category.getStatus() == null) {
             category.setStatus(com.vtcweb.backend.model.entity.category.CategoryStatus.ACTIVE);
         }
+        evictCategoryPages();
         return categoryRepository.save(category);
     }
 
@@ -103,6 +108,12 @@ public class CategoryServiceImpl implements CategoryService {
                     && categoryRepository.existsByNameIgnoreCase(newName)) {
                 throw new ConflictException("Category name already exists: " + newName);
             }
+            if (!newName.equals(existing.getName())) {
+                productSearchIndex.reindexCategoryAfterCommit(existing.getId());
+                // Product details embed the category name
+                catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS,
+                        productRepository.findIdsByCategoryId(existing.getId()));
+            }
             existing.setName(newName);
         }
         // Description and image fields
@@ -112,45 +123,9 @@ public class CategoryServiceImpl implements CategoryService {
         String slug = slugify(existing.getName());
         String folder = buildCategoryFolder(slug);
 
-        if (updates.getCatMainImg() != null) {
-            String resolved = materializeImage(updates.getCatMainImg(), folder, slug + "-main");
-            boolean clearRequested = updates.getCatMainImg().trim().isEmpty();
-            if (resolved == null && clearRequested) {
-                if (existing.getCatMainImg() != null) {
-                    imageStorageService.deleteByUrl(existing.getCatMainImg());
-                    existing.setCatMainImg(null);
-                }
-            } else if (resolved != null && !resolved.equals(existing.getCatMainImg())) {
-                imageStorageService.deleteByUrl(existing.getCatMainImg());
-                existing.setCatMainImg(resolved);
-            }
-        }
-        if (updates.getCatTileImage1() != null) {
-            String resolved = materializeImage(updates.getCatTileImage1(), folder, slug + "-tile1");
-            boolean clearRequested = updates.getCatTileImage1().trim().isEmpty();
-            if (resolved == null && clearRequested) {
-                if (existing.getCatTileImage1() != null) {
-                    imageStorageService.deleteByUrl(existing.getCatTileImage1());
-                    existing.setCatTileImage1(null);
-                }
-            } else if (resolved != null && !resolved.equals(existing.getCatTileImage1())) {
-                imageStorageService.deleteByUrl(existing.getCatTileImage1());
-                existing.setCatTileImage1(resolved);
-            }
-        }
-        if (updates.getCatTileImage2() != null) {
-            String resolved = materializeImage(updates.getCatTileImage2(), folder, slug + "-tile2");
-            boolean clearRequested = updates.getCatTileImage2().trim().isEmpty();
-            if (resolved == null && clearRequested) {
-                if (existing.getCatTileImage2() != null) {
-                    imageStorageService.deleteByUrl(existing.getCatTileImage2());
-                    existing.setCatTileImage2(null);
-                }
-            } else if (resolved != null && !resolved.equals(existing.getCatTileImage2())) {
-                imageStorageService.deleteByUrl(existing.getCatTileImage2());
-                existing.setCatTileImage2(resolved);
-            }
-        }
+        existing.setCatMainImg(replaceImage(existing.getCatMainImg(), updates.getCatMainImg(), folder));
+        existing.setCatTileImage1(replaceImage(existing.getCatTileImage1(), updates.getCatTileImage1(), folder));
+        existing.setCatTileImage2(replaceImage(existing.getCatTileImage2(), updates.getCatTileImage2(), folder));
         // Status
         if (updates.getStatus() != null) {
             existing.setStatus(updates.getStatus());
@@ -171,6 +146,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (updates.getStatus() != null) {
             existing.setStatus(updates.getStatus());
         }
+        evictCategoryPages();
         return categoryRepository.save(existing);
     }
 
@@ -211,7 +187,29 @@ public class CategoryServiceImpl implements CategoryService {
         return code.substring(0, 3);
     }
 
-    private String materializeImage(String raw, String folder, String nameHint) {
+    /**
+     * The value of one image slot after an update that sent requested for it
+     * (null leaves it alone, blank clears it). The replaced asset is released.
+     */
+    private String replaceImage(String current, String requested, String folder) {
+        if (requested == null)
+            return current;
+        String resolved = materializeImage(requested, folder);
+        if (resolved == null) {
+            imageStorageService.deleteByUrl(current); // explicit clear
+            return null;
+        }
+        if (resolved.equals(current)) {
+            // Same image sent again: materializing took a second reference the slot does not need
+            imageStorageService.releaseByUrl(resolved);
+            return current;
+        }
+        imageStorageService.deleteByUrl(current);
+        return resolved;
+    }
+
+    /** A stored URL for the image; it holds one reference of its own (see ImageStorageService.retainByUrl). */
+    private String materializeImage(String raw, String folder) {
         if (raw == null)
             return null;
         String trimmed = raw.trim();
@@ -220,15 +218,16 @@ public class CategoryServiceImpl implements CategoryService {
         }
         try {
             if (ImageUploadUtils.isDataUri(trimmed)) {
-                var multipart = ImageUploadUtils.dataUriToMultipartFile(trimmed, nameHint);
-                return imageStorageService.upload(multipart, folder).url();
+                return imageStorageService.uploadDataUri(trimmed, folder).url();
             }
             if (ImageUploadUtils.isCloudinaryUrl(trimmed)) {
+                imageStorageService.retainByUrl(trimmed);
                 return trimmed; // already a Cloudinary asset
             }
             if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
-                var multipart = ImageUploadUtils.remoteImageToMultipart(trimmed, nameHint);
-                return imageStorageService.upload(multipart, folder).url();
+                try (RemoteImageFetcher.Fetched fetched = remoteImageFetcher.fetch(trimmed)) {
+                    return imageStorageService.upload(fetched.file(), fetched.contentType(), folder).url();
+                }
             }
             throw new IllegalArgumentException("Unsupported image source (must be data URI or HTTP URL): " + trimmed);
         } catch (Exception e) {
@@ -265,5 +264,11 @@ public class CategoryServiceImpl implements CategoryService {
         boolean carDel = imageStorageService.deleteByUrl(existing.getCatTileImage2());
         log.debug("Category {} image cleanup results: main={}, icon={}, tile2={}", id, mainDel, iconDel, carDel);
         categoryRepository.deleteById(id);
+        evictCategoryPages();
+    }
+
+    private void evictCategoryPages() {
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.CATEGORIES,
+                com.vtcweb.backend.service.catalog.CatalogCacheService.ALL);
     }
 }
@@ -36,6 +36,10 @@ public class CheckoutServiceImpl implements CheckoutService {
     private final ProductVariationRepository variationRepository;
     private final com.vtcweb.backend.service.coupon.CouponService couponService;
     private final EmailService emailService;
+    private final com.vtcweb.backend.service.analytics.SalesRollupService salesRollupService;
+    private final com.vtcweb.backend.service.product.ProductSearchIndex productSearchIndex;
+    private final com.vtcweb.backend.service.product.ProductFacetIndex productFacetIndex;
+    private final com.vtcweb.backend.service.catalog.CatalogCacheService catalogCache;
 
     @Value("${app.cart.tax-rate:0.00}")
     private BigDecimal taxRate;
@@ -65,6 +69,7 @@ public class CheckoutServiceImpl implements CheckoutService {
         order.setCustomerLastName(
                 request.getCustomerLastName() != null ? request.getCustomerLastName() : user.getLastName());
         order.setCustomerEmail(request.getCustomerEmail() != null ? request.getCustomerEmail() : user.getEmail());
+        order.setCustomerEmailNormalized(Order.normalizeEmail(order.getCustomerEmail()));
         order.setCustomerPhone(request.getCustomerPhone() != null ? request.getCustomerPhone() : user.getPhone());
         // Link order to authenticated user so customerId is recorded in DB and DTOs
         order.setUser(user);
@@ -165,6 +170,16 @@ public class CheckoutServiceImpl implements CheckoutService {
 
             // decrement stock once with aggregated quantity
             variation.setStock(available - qty);
+            if (product != null) {
+                productRepository.applyStockChange(product.getId(), available, available - qty);
+                // Cached product details show variation stock
+                catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS,
+                        product.getId());
+            }
+            if (available - qty <= 0 && product != null) {
+                productSearchIndex.refreshStockAfterCommit(java.util.List.of(product.getId()));
+                productFacetIndex.refreshAfterCommit(java.util.List.of(product.getId()));
+            }
         }
 
         // Allow optional overrides from the request for discount and shipping fee
@@ -201,6 +216,7 @@ public class CheckoutServiceImpl implements CheckoutService {
         order.setTotal(total);
 
         Order saved = orderRepository.save(order);
+        salesRollupService.recordPlaced(saved);
 
         // Clear cart after successful order creation
         cartService.clearCart(userId);
@@ -0,0 +1,36 @@
+package com.vtcweb.backend.service.export;
+
+import java.util.Locale;
+
+/** Wire formats supported by the admin export and product import endpoints. */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Parse a request parameter (case-insensitive); null/blank means CSV. */
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank())
+            return CSV;
+        try {
+            return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported format: " + value + " (use csv or ndjson)");
+        }
+    }
+}
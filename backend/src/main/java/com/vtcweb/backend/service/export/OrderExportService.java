@@ -0,0 +1,33 @@
+package com.vtcweb.backend.service.export;
+
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Streams order and sales exports row by row to an output stream. Rows are read
+ * in keyset chunks, each in its own short read-only transaction, so an export of
+ * any size uses constant memory and never pins a connection for the whole
+ * transfer.
+ */
+public interface OrderExportService {
+
+    /**
+     * One row per order placed in [from, to] (inclusive dates), optionally
+     * filtered by status. The stream is closed when done.
+     *
+     * @return rows written
+     */
+    long writeOrders(LocalDate from, LocalDate to, OrderStatus status, ExportFormat format, OutputStream out)
+            throws IOException;
+
+    /**
+     * One row per order line of non-cancelled orders placed in [from, to]. The
+     * stream is closed when done.
+     *
+     * @return rows written
+     */
+    long writeSales(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,110 @@
+package com.vtcweb.backend.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+import com.vtcweb.backend.repository.order.OrderItemRepository;
+import com.vtcweb.backend.repository.order.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@lombok.extern.slf4j.Slf4j
+public class OrderExportServiceImpl implements OrderExportService {
+
+    static final String[] ORDER_COLUMNS = { "id", "orderNumber", "placedAt", "status", "customerFirstName",
+            "customerLastName", "customerEmail", "customerPhone", "deliveryMethod", "paymentMethod", "subtotal",
+            "discountTotal", "shippingFee", "total" };
+
+    static final String[] SALES_COLUMNS = { "orderItemId", "orderNumber", "placedAt", "productId", "productName",
+            "categoryName", "variationId", "quantity", "unitPrice", "totalPrice" };
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Rows per keyset chunk, i.e. per read-only transaction. */
+    @Value("${app.export.chunk-size:5000}")
+    private int chunkSize;
+
+    @Override
+    public long writeOrders(LocalDate from, LocalDate to, OrderStatus status, ExportFormat format, OutputStream out)
+            throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        try (RowWriter writer = RowWriter.open(format, out, objectMapper, ORDER_COLUMNS)) {
+            return writeChunked(writer,
+                    (afterId, page) -> orderRepository.streamOrderExportRows(afterId, start, end, status, page));
+        }
+    }
+
+    @Override
+    public long writeSales(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        try (RowWriter writer = RowWriter.open(format, out, objectMapper, SALES_COLUMNS)) {
+            return writeChunked(writer,
+                    (afterId, page) -> orderItemRepository.streamSalesExportRows(afterId, start, end, page));
+        }
+    }
+
+    /**
+     * Pull chunks of at most chunkSize rows (row[0] is the keyset id) until a short
+     * chunk comes back. Each chunk's cursor lives only inside its own transaction.
+     */
+    private long writeChunked(RowWriter writer, BiFunction<Long, Pageable, Stream<Object[]>> chunkQuery)
+            throws IOException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        int size = Math.max(1, chunkSize);
+        Pageable page = PageRequest.of(0, size);
+        long[] lastId = { 0L };
+        long total = 0;
+        long startedAt = System.nanoTime();
+        try {
+            while (true) {
+                Integer n = tx.execute(status -> {
+                    int count = 0;
+                    try (Stream<Object[]> rows = chunkQuery.apply(lastId[0], page)) {
+                        Iterator<Object[]> it = rows.iterator();
+                        while (it.hasNext()) {
+                            Object[] row = it.next();
+                            writer.write(row);
+                            lastId[0] = ((Number) row[0]).longValue();
+                            count++;
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    return count;
+                });
+                int written = n == null ? 0 : n;
+                total += written;
+                writer.flush();
+                if (written < size)
+                    break;
+            }
+        } catch (UncheckedIOException ex) {
+            // Typically the client went away mid-download
+            log.debug("Export aborted after {} row(s): {}", total, ex.getCause().toString());
+            throw ex.getCause();
+        }
+        log.debug("Exported {} row(s) in {} ms", total, (System.nanoTime() - startedAt) / 1_000_000);
+        return total;
+    }
+}
@@ -0,0 +1,127 @@
+package com.vtcweb.backend.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes projection rows (Object[] aligned with a fixed column list) straight to
+ * an output stream as CSV or NDJSON. Nothing is buffered beyond the writer's
+ * own buffer, so memory stays flat regardless of row count.
+ */
+abstract class RowWriter implements Closeable {
+
+    protected final String[] columns;
+
+    private RowWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    static RowWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper, String[] columns)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out, columns);
+            case NDJSON -> new Ndjson(out, objectMapper, columns);
+        };
+    }
+
+    abstract void write(Object[] row) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    private static final class Csv extends RowWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0)
+                    writer.write(',');
+                writer.write(columns[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(Object[] row) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0)
+                    writer.write(',');
+                Object v = i < row.length ? row[i] : null;
+                if (v != null)
+                    writeField(v instanceof BigDecimal bd ? bd.toPlainString() : String.valueOf(v));
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            writer.write(s.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class Ndjson extends RowWriter {
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out, ObjectMapper objectMapper, String[] columns) throws IOException {
+            super(columns);
+            // Generator from the application mapper so java.time values serialise as ISO strings
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object v = i < row.length ? row[i] : null;
+                if (v instanceof Enum<?> e)
+                    generator.writeString(e.name());
+                else
+                    generator.writeObject(v);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
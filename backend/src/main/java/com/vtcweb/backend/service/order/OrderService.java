@@ -21,6 +21,9 @@ public interface OrderService {
 
     Page<Order> list(Pageable pageable);
 
+    /** Keyset listing, newest first; after is the previous page's nextCursor (blank for the first page). */
+    com.vtcweb.backend.dto.common.CursorSliceDTO<Order> listAfter(String after, int size);
+
     Page<Order> listByCustomerEmail(String email, Pageable pageable);
 
     Page<Order> listByUserId(Long userId, Pageable pageable);
@@ -35,6 +35,10 @@ public class OrderServiceImpl implements OrderService {
     private final com.vtcweb.backend.repository.user.UserRepository userRepository;
     private final EmailService emailService;
     private final ShippingConfigService shippingConfigService;
+    private final com.vtcweb.backend.service.analytics.SalesRollupService salesRollupService;
+    private final com.vtcweb.backend.service.product.ProductSearchIndex productSearchIndex;
+    private final com.vtcweb.backend.service.product.ProductFacetIndex productFacetIndex;
+    private final com.vtcweb.backend.service.catalog.CatalogCacheService catalogCache;
 
     private static final SecureRandom RANDOM = new SecureRandom();
 
@@ -50,6 +54,7 @@ public class OrderServiceImpl implements OrderService {
         order.setCustomerFirstName(request.getCustomerFirstName());
         order.setCustomerLastName(request.getCustomerLastName());
         order.setCustomerEmail(request.getCustomerEmail());
+        order.setCustomerEmailNormalized(Order.normalizeEmail(request.getCustomerEmail()));
         order.setCustomerPhone(request.getCustomerPhone());
 
         // Addresses
@@ -160,6 +165,7 @@ public class OrderServiceImpl implements OrderService {
             userRepository.findByEmailIgnoreCase(order.getCustomerEmail()).ifPresent(order::setUser);
         }
         Order saved = orderRepository.save(order);
+        salesRollupService.recordPlaced(saved);
 
         // Fire-and-forget order confirmation email
         try {
@@ -215,6 +221,17 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public com.vtcweb.backend.dto.common.CursorSliceDTO<Order> listAfter(String after, int size) {
+        com.vtcweb.backend.util.KeysetCursor cursor = com.vtcweb.backend.util.KeysetCursor.decode(after);
+        org.springframework.data.domain.Slice<Order> slice = orderRepository.findSliceAfter(
+                cursor != null ? cursor.keyAsLocalDateTime() : null, cursor != null ? cursor.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, Math.max(1, Math.min(size, 100))));
+        return com.vtcweb.backend.dto.common.CursorSliceDTO.of(slice, o -> o,
+                o -> com.vtcweb.backend.util.KeysetCursor.encode(o.getPlacedAt(), o.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Order getByOrderNumber(String orderNumber) {
@@ -234,7 +251,7 @@ public class OrderServiceImpl implements OrderService {
     public Page<Order> listByCustomerEmail(String email, Pageable pageable) {
         if (email == null || email.isBlank())
             throw new IllegalArgumentException("email must not be blank");
-        return orderRepository.findByCustomerEmailIgnoreCase(email, pageable);
+        return orderRepository.findByCustomerEmailNormalized(Order.normalizeEmail(email), pageable);
     }
 
     @Override
@@ -306,6 +323,17 @@ public class OrderServiceImpl implements OrderService {
                         int newStock = (currentStock == null ? 0 : currentStock) + qty;
                         variation.setStock(newStock);
                         variationRepository.save(variation);
+                        if (variation.getProduct() != null) {
+                            productRepository.applyStockChange(variation.getProduct().getId(),
+                                    currentStock == null ? 0 : currentStock, newStock);
+                            catalogCache.invalidateAfterCommit(
+                                    com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS,
+                                    variation.getProduct().getId());
+                        }
+                        if ((currentStock == null || currentStock <= 0) && it.getProductId() != null) {
+                            productSearchIndex.refreshStockAfterCommit(java.util.List.of(it.getProductId()));
+                            productFacetIndex.refreshAfterCommit(java.util.List.of(it.getProductId()));
+                        }
                     }
                     order.setStockRestored(true);
                 }
@@ -315,6 +343,11 @@ public class OrderServiceImpl implements OrderService {
             case PLACED -> throw new IllegalArgumentException("Cannot revert status to PLACED");
         }
         Order saved = orderRepository.save(order);
+        if (newStatus == OrderStatus.CANCELLED) {
+            salesRollupService.recordCancelled(saved);
+        } else {
+            salesRollupService.recordChanged(saved);
+        }
 
         // Notify customer about status update (except reverting to PLACED which is
         // disallowed above)
@@ -341,6 +374,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public void delete(Long id) {
         Order existing = getById(id);
+        // Before the delete, while the items are still loaded
+        salesRollupService.recordDeleted(existing);
         orderRepository.delete(existing);
     }
 
@@ -0,0 +1,441 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.dto.product.FacetValueDTO;
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.repository.product.ProductVariationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory bitmap index over variation attributes for faceted listings
+ * (?attr.color=red&attr.size=m).
+ *
+ * Every (attribute, value) pair maps to a bitset of product ids; status,
+ * category and in-stock have bitsets too, so filtering and facet counts are
+ * bitset intersections and never touch SQL. Price bounds are checked against
+ * the kept per-product range while narrowing the base set. Values of one attribute are OR-ed,
+ * attributes are AND-ed. Names and values match case-insensitively; facets are
+ * keyed by the lower-cased name and show the first spelling seen of each value.
+ *
+ * Built on startup and rebuilt periodically; writers call the *AfterCommit
+ * hooks, which read the affected products just before their transaction
+ * commits and apply them once it has.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class ProductFacetIndex {
+
+    /** One normalised attribute value of a product, with the spelling it was stored in. */
+    private record Pair(String attr, String value, String label) {
+        String key() {
+            return attr + SEP + value;
+        }
+    }
+
+    /** A product's filterable state. */
+    private record Doc(int id, ProductStatus status, Long categoryId, boolean inStock, BigDecimal minPrice,
+            BigDecimal maxPrice, Collection<Pair> pairs) {
+        /** Same semantics as the SQL card filter: some variation priced within [lo, hi]. */
+        boolean priceOverlaps(BigDecimal lo, BigDecimal hi) {
+            return (lo == null || (maxPrice != null && maxPrice.compareTo(lo) >= 0))
+                    && (hi == null || (minPrice != null && minPrice.compareTo(hi) <= 0));
+        }
+    }
+
+    /** Matching ids (newest first) for the requested window, the total and the facet counts. */
+    public record Result(List<Long> ids, long total, Map<String, List<FacetValueDTO>> facets) {
+    }
+
+    /** All bitsets, swapped as a whole by a rebuild. Guarded by lock. */
+    private static final class State {
+        final Map<Integer, Doc> docs = new HashMap<>();
+        final BitSet all = new BitSet();
+        final BitSet inStock = new BitSet();
+        final Map<ProductStatus, BitSet> byStatus = new HashMap<>();
+        final Map<Long, BitSet> byCategory = new HashMap<>();
+        /** attribute -> value -> products */
+        final Map<String, Map<String, BitSet>> byAttribute = new HashMap<>();
+        /** "attribute\0value" -> label */
+        final Map<String, String> labels = new HashMap<>();
+    }
+
+    private static final char SEP = '\0';
+
+    private final ProductRepository productRepository;
+    private final ProductVariationRepository variationRepository;
+    private final TransactionTemplate readTx;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${app.catalog.facets.batch-size:2000}")
+    private int batchSize;
+
+    public ProductFacetIndex(ProductRepository productRepository, ProductVariationRepository variationRepository,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.variationRepository = variationRepository;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    /**
+     * Products matching the filters (status, categoryId, inStock, minPrice,
+     * maxPrice optional; selected maps attribute -> accepted values), newest first, windowed by
+     * offset/limit, with counts for every attribute value. Null until the first
+     * build has finished: requests never build it themselves, the startup and
+     * scheduled rebuilds do.
+     */
+    public Result query(ProductStatus status, Long categoryId, Boolean inStock, BigDecimal minPrice,
+            BigDecimal maxPrice, Map<String, Set<String>> selected, long offset, int limit) {
+        if (!ready)
+            return null;
+        Map<String, Set<String>> wanted = normalize(selected);
+        lock.readLock().lock();
+        try {
+            State s = state;
+            BitSet base = (BitSet) s.all.clone();
+            if (status != null)
+                base.and(s.byStatus.getOrDefault(status, new BitSet()));
+            if (categoryId != null)
+                base.and(s.byCategory.getOrDefault(categoryId, new BitSet()));
+            if (inStock != null) {
+                if (inStock)
+                    base.and(s.inStock);
+                else
+                    base.andNot(s.inStock);
+            }
+            if (minPrice != null || maxPrice != null) {
+                for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                    Doc d = s.docs.get(i);
+                    if (d == null || !d.priceOverlaps(minPrice, maxPrice))
+                        base.clear(i);
+                }
+            }
+            Map<String, BitSet> unions = new HashMap<>();
+            for (Map.Entry<String, Set<String>> e : wanted.entrySet()) {
+                BitSet u = new BitSet();
+                Map<String, BitSet> values = s.byAttribute.getOrDefault(e.getKey(), Map.of());
+                for (String v : e.getValue()) {
+                    BitSet bits = values.get(v);
+                    if (bits != null)
+                        u.or(bits);
+                }
+                unions.put(e.getKey(), u);
+            }
+            BitSet match = (BitSet) base.clone();
+            unions.values().forEach(match::and);
+
+            List<Long> ids = new ArrayList<>(Math.max(0, limit));
+            long skipped = 0;
+            for (int i = match.length() - 1; i >= 0 && ids.size() < limit; i = match.previousSetBit(i - 1)) {
+                if (skipped++ >= offset)
+                    ids.add((long) i);
+            }
+            return new Result(ids, match.cardinality(), facets(s, base, unions));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Counts per attribute value; each attribute is counted without its own selection. */
+    private static Map<String, List<FacetValueDTO>> facets(State s, BitSet base, Map<String, BitSet> unions) {
+        Map<String, List<FacetValueDTO>> out = new LinkedHashMap<>();
+        List<String> attributes = new ArrayList<>(s.byAttribute.keySet());
+        attributes.sort(null);
+        for (String attr : attributes) {
+            BitSet scope = (BitSet) base.clone();
+            for (Map.Entry<String, BitSet> u : unions.entrySet()) {
+                if (!u.getKey().equals(attr))
+                    scope.and(u.getValue());
+            }
+            List<FacetValueDTO> counts = new ArrayList<>();
+            for (Map.Entry<String, BitSet> v : s.byAttribute.get(attr).entrySet()) {
+                BitSet hit = (BitSet) v.getValue().clone();
+                hit.and(scope);
+                int n = hit.cardinality();
+                if (n > 0)
+                    counts.add(new FacetValueDTO(s.labels.getOrDefault(attr + SEP + v.getKey(), v.getKey()), n));
+            }
+            if (counts.isEmpty())
+                continue;
+            counts.sort((a, b) -> a.count() != b.count() ? Long.compare(b.count(), a.count())
+                    : a.value().compareToIgnoreCase(b.value()));
+            out.put(attr, counts);
+        }
+        return out;
+    }
+
+    /** Reload products (variations, stock, status, category) once the current transaction commits. */
+    public void refreshAfterCommit(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty())
+            return;
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(productIds));
+        onCommit(() -> load(ids), loaded -> apply(ids, loaded));
+    }
+
+    /** Drop a product once the current transaction commits. */
+    public void removeAfterCommit(Long productId) {
+        if (productId != null)
+            refreshAfterCommit(List.of(productId)); // reload finds nothing and removes it
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    /** Full reload, swapped in atomically. */
+    @Scheduled(initialDelayString = "${app.catalog.facets.rebuild-ms:900000}",
+            fixedDelayString = "${app.catalog.facets.rebuild-ms:900000}")
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        State fresh = new State();
+        try {
+            int size = Math.max(1, batchSize);
+            long afterId = 0L;
+            while (true) {
+                final long cursor = afterId;
+                List<Doc> batch = readTx.execute(s -> loadDocs(
+                        productRepository.findFacetDocumentsAfter(cursor, PageRequest.of(0, size))));
+                if (batch == null || batch.isEmpty())
+                    break;
+                for (Doc d : batch) {
+                    add(fresh, d);
+                    afterId = Math.max(afterId, d.id());
+                }
+                if (batch.size() < size)
+                    break;
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Product facet index rebuild failed: {}", ex.getMessage());
+            return;
+        }
+        List<Long> touched;
+        lock.writeLock().lock();
+        try {
+            state = fresh;
+            rebuilding = false;
+            ready = true;
+            touched = new ArrayList<>(touchedDuringRebuild);
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!touched.isEmpty())
+            reload(touched);
+        log.info("Product facet index built: {} product(s), {} attribute(s) in {} ms", fresh.docs.size(),
+                fresh.byAttribute.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private List<Doc> load(List<Long> productIds) {
+        return loadDocs(productRepository.findFacetDocumentsByIdIn(productIds));
+    }
+
+    private void reload(List<Long> productIds) {
+        apply(productIds, readTx.execute(s -> load(productIds)));
+    }
+
+    /** Replaces productIds with their loaded rows; ids without a row are dropped. */
+    private void apply(List<Long> productIds, List<Doc> loaded) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : productIds) {
+                if (id != null && id <= Integer.MAX_VALUE)
+                    remove(state, id.intValue());
+                if (rebuilding)
+                    touchedDuringRebuild.add(id);
+            }
+            if (loaded != null)
+                loaded.forEach(d -> add(state, d));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Rows are (id, status, categoryId, inStockVariationCount, minPrice, maxPrice); attributes are fetched for the batch. */
+    private List<Doc> loadDocs(List<Object[]> rows) {
+        if (rows.isEmpty())
+            return List.of();
+        List<Long> ids = new ArrayList<>(rows.size());
+        rows.forEach(r -> ids.add(((Number) r[0]).longValue()));
+        Map<Long, Map<String, Pair>> pairs = new HashMap<>();
+        for (Object[] a : variationRepository.findAttributesByProductIdIn(ids)) {
+            String name = (String) a[1];
+            String value = (String) a[2];
+            Pair pair = new Pair(key(name), key(value), value == null ? "" : value.trim());
+            if (pair.attr().isEmpty() || pair.value().isEmpty())
+                continue;
+            pairs.computeIfAbsent(((Number) a[0]).longValue(), k -> new HashMap<>()).putIfAbsent(pair.key(), pair);
+        }
+        List<Doc> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            long id = ((Number) r[0]).longValue();
+            if (id > Integer.MAX_VALUE) {
+                log.warn("Product id {} is beyond the facet index range; skipped", id);
+                continue;
+            }
+            out.add(new Doc((int) id, (ProductStatus) r[1], r[2] != null ? ((Number) r[2]).longValue() : null,
+                    r[3] != null && ((Number) r[3]).intValue() > 0, (BigDecimal) r[4], (BigDecimal) r[5],
+                    List.copyOf(pairs.getOrDefault(id, Map.of()).values())));
+        }
+        return out;
+    }
+
+    /** Caller holds the write lock (or owns s). */
+    private void add(State s, Doc d) {
+        s.docs.put(d.id(), d);
+        s.all.set(d.id());
+        if (d.inStock())
+            s.inStock.set(d.id());
+        if (d.status() != null)
+            s.byStatus.computeIfAbsent(d.status(), k -> new BitSet()).set(d.id());
+        if (d.categoryId() != null)
+            s.byCategory.computeIfAbsent(d.categoryId(), k -> new BitSet()).set(d.id());
+        for (Pair p : d.pairs()) {
+            s.byAttribute.computeIfAbsent(p.attr(), k -> new HashMap<>())
+                    .computeIfAbsent(p.value(), k -> new BitSet()).set(d.id());
+            s.labels.putIfAbsent(p.key(), p.label()); // first spelling seen
+        }
+    }
+
+    /** Caller holds the write lock. */
+    private static void remove(State s, int id) {
+        Doc old = s.docs.remove(id);
+        if (old == null)
+            return;
+        s.all.clear(id);
+        s.inStock.clear(id);
+        if (old.status() != null)
+            clear(s.byStatus, old.status(), id);
+        if (old.categoryId() != null)
+            clear(s.byCategory, old.categoryId(), id);
+        for (Pair p : old.pairs()) {
+            Map<String, BitSet> values = s.byAttribute.get(p.attr());
+            if (values == null)
+                continue;
+            if (clear(values, p.value(), id))
+                s.labels.remove(p.key());
+            if (values.isEmpty())
+                s.byAttribute.remove(p.attr());
+        }
+    }
+
+    /** Clears id in map[k]; drops the entry when it becomes empty and returns true then. */
+    private static <K> boolean clear(Map<K, BitSet> map, K k, int id) {
+        BitSet bits = map.get(k);
+        if (bits == null)
+            return false;
+        bits.clear(id);
+        if (bits.isEmpty()) {
+            map.remove(k);
+            return true;
+        }
+        return false;
+    }
+
+    private static Map<String, Set<String>> normalize(Map<String, Set<String>> selected) {
+        Map<String, Set<String>> out = new HashMap<>();
+        if (selected == null)
+            return out;
+        selected.forEach((name, values) -> {
+            String nameKey = key(name);
+            if (nameKey.isEmpty() || values == null)
+                return;
+            Set<String> keys = out.computeIfAbsent(nameKey, k -> new HashSet<>());
+            values.forEach(v -> {
+                String vk = key(v);
+                if (!vk.isEmpty())
+                    keys.add(vk);
+            });
+        });
+        return out;
+    }
+
+    private static String key(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Loads inside the current transaction just before it commits, on its own
+     * connection, and applies once committed; see ProductSearchIndex#onCommit.
+     */
+    private <T> void onCommit(Supplier<T> load, Consumer<T> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded(() -> apply.accept(readTx.execute(s -> load.get()))).run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private T loaded;
+            private boolean failed;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    loaded = load.get();
+                } catch (RuntimeException ex) {
+                    failed = true; // never fail the writer's commit over the index
+                    log.warn("Product facet index update failed: {}", ex.getMessage());
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (!failed)
+                    guarded(() -> apply.accept(loaded)).run();
+            }
+        });
+    }
+
+    private static Runnable guarded(Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException ex) {
+                // The periodic rebuild repairs anything missed here
+                log.warn("Product facet index update failed: {}", ex.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.service.storage.ImageStorageService;
+import com.vtcweb.backend.service.storage.RemoteImageFetcher;
+import com.vtcweb.backend.util.ImageUploadUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns image references from a create request into stored URLs: data URIs are
+ * decoded and uploaded, external URLs are downloaded and re-uploaded, storage
+ * URLs pass through. Images are processed concurrently on the imageIoExecutor
+ * so a product with many images costs roughly one round-trip per pool width
+ * instead of one per image, and none of it holds a DB connection.
+ *
+ * Failures and timeouts keep the original URL, as createFull always has.
+ * Downloads go through RemoteImageFetcher, which limits them per source host
+ * so one slow site cannot take the whole pool.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class ProductImageNormalizer {
+
+    /** An image to normalize and the storage folder it belongs in. */
+    public record Source(String url, String folder) {
+    }
+
+    /**
+     * The URL to persist, whether it was uploaded by this call and whether a
+     * storage URL that passed through had a reference taken for it.
+     */
+    public record Image(String url, boolean uploaded, boolean retained) {
+    }
+
+    private final ImageStorageService imageStorageService;
+    private final RemoteImageFetcher remoteImageFetcher;
+    private final Executor imageIoExecutor;
+
+    /** Budget for one image: its download plus its upload. */
+    @Value("${app.images.normalize.timeout-ms:20000}")
+    private long timeoutMs;
+
+    /** Width of imageIoExecutor; images beyond it wait for a free thread. */
+    @Value("${app.images.normalize.threads:8}")
+    private int threads;
+
+    public ProductImageNormalizer(ImageStorageService imageStorageService, RemoteImageFetcher remoteImageFetcher,
+            @Qualifier("imageIoExecutor") Executor imageIoExecutor) {
+        this.imageStorageService = imageStorageService;
+        this.remoteImageFetcher = remoteImageFetcher;
+        this.imageIoExecutor = imageIoExecutor;
+    }
+
+    /** Normalize all sources concurrently; results are in the same order. */
+    public List<Image> normalize(List<Source> sources) {
+        List<CompletableFuture<Image>> futures = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            if (!needsUpload(source.url()))
+                futures.add(CompletableFuture.completedFuture(passThrough(source.url())));
+            else
+                futures.add(CompletableFuture.supplyAsync(() -> normalizeOne(source), imageIoExecutor));
+        }
+        // Images queue behind each other once the pool is full, so the wait scales with the waves
+        long waves = Math.max(1, (sources.size() + Math.max(1, threads) - 1) / Math.max(1, threads));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs) * waves;
+        List<Image> out = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++)
+            out.add(await(sources.get(i), futures.get(i), deadline));
+        return out;
+    }
+
+    /** Best-effort delete of images uploaded by normalize(), e.g. when the create rolled back. */
+    public void discard(Collection<Image> images) {
+        for (Image image : images) {
+            if (image.uploaded())
+                imageStorageService.deleteByUrl(image.url());
+            else if (image.retained())
+                imageStorageService.releaseByUrl(image.url());
+        }
+    }
+
+    /** A storage URL is persisted as is and counts as one more use of its asset. */
+    private Image passThrough(String url) {
+        return new Image(url, false, ImageUploadUtils.isCloudinaryUrl(url) && imageStorageService.retainByUrl(url));
+    }
+
+    private Image await(Source source, CompletableFuture<Image> future, long deadline) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Image normalization timed out for {}", describe(source.url()));
+            // The upload may still finish; do not leave it orphaned
+            future.thenAccept(late -> discard(List.of(late)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Failed to normalize image {}: {}", describe(source.url()),
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+        return new Image(source.url(), false, false);
+    }
+
+    private Image normalizeOne(Source source) {
+        String url = source.url();
+        if (url.startsWith("data:image")) {
+            if (!ImageUploadUtils.isDataUri(url))
+                return new Image(url, false, false);
+            // Decoded as a stream into a temp file, never as one big byte[]
+            return new Image(imageStorageService.uploadDataUri(url, source.folder()).url(), true, false);
+        }
+        try (RemoteImageFetcher.Fetched fetched = remoteImageFetcher.fetch(url)) {
+            return new Image(imageStorageService.upload(fetched.file(), fetched.contentType(), source.folder()).url(),
+                    true, false);
+        }
+    }
+
+    private static boolean needsUpload(String url) {
+        return url != null && !url.isBlank() && (url.startsWith("data:image") || isExternalNonCloudinaryUrl(url));
+    }
+
+    private static boolean isExternalNonCloudinaryUrl(String url) {
+        String lower = url.toLowerCase();
+        if (!(lower.startsWith("http://") || lower.startsWith("https://")))
+            return false;
+        return !lower.contains("res.cloudinary.com");
+    }
+
+    /** Data URIs are huge; log only their header. */
+    private static String describe(String url) {
+        int comma = url.startsWith("data:") ? url.indexOf(',') : -1;
+        return comma > 0 ? url.substring(0, comma) + ",..." : url;
+    }
+}
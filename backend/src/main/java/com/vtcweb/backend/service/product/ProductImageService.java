@@ -28,7 +28,9 @@ public interface ProductImageService {
     /**
      * Synchronise product images with the provided primary/secondary set. Incoming
      * images may be secure URLs or
-     * data URIs. Returns the up-to-date list of persisted images.
+     * data URIs. Data URIs and non-Cloudinary URLs are uploaded in the background
+     * and show up as PENDING images until done. Returns the up-to-date list of
+     * persisted images.
      */
     java.util.List<ProductImage> syncProductImages(Long productId, String primaryImage,
             java.util.List<String> secondaryImages);
@@ -33,6 +33,8 @@ public class ProductImageServiceImpl implements ProductImageService {
     private final ProductRepository productRepository;
     private final ProductVariationRepository variationRepository;
     private final ImageStorageService imageStorageService;
+    private final com.vtcweb.backend.service.catalog.CatalogCacheService catalogCache;
+    private final com.vtcweb.backend.service.storage.ImageIngestionService imageIngestionService;
 
     @Override
     @org.springframework.lang.NonNull
@@ -52,6 +54,7 @@ public class ProductImageServiceImpl implements ProductImageService {
             .type(type)
             .build();
         ProductImage savedImage = imageRepository.save(image);
+        evictDetails(productId);
         return savedImage;
     }
 
@@ -80,6 +83,7 @@ public class ProductImageServiceImpl implements ProductImageService {
                 .url(url)
                 .type(type)
                 .build();
+        evictDetails(productId);
         return imageRepository.save(image);
     }
 
@@ -121,6 +125,7 @@ public class ProductImageServiceImpl implements ProductImageService {
             existing.setUrl(url);
         if (type != null)
             existing.setType(type);
+        evictDetails(existing.getProduct() != null ? existing.getProduct().getId() : null);
         return imageRepository.save(existing);
     }
 
@@ -131,6 +136,7 @@ public class ProductImageServiceImpl implements ProductImageService {
         }
         ProductImage existing = getById(id);
         imageRepository.delete(existing);
+        evictDetails(existing.getProduct() != null ? existing.getProduct().getId() : null);
     }
 
     @Override
@@ -138,6 +144,7 @@ public class ProductImageServiceImpl implements ProductImageService {
         if (productId == null) {
             throw new IllegalArgumentException("productId must not be null");
         }
+        evictDetails(productId);
         return imageRepository.deleteByProductId(productId);
     }
 
@@ -150,23 +157,21 @@ public class ProductImageServiceImpl implements ProductImageService {
             .orElseThrow(() -> new NotFoundException("Product not found: id=" + productId));
 
         String sku = product.getSku();
-        String folder = "products/" + (sku != null ? sku : ("id-" + productId));
+        String nameBase = sku != null ? sku : "product";
 
+        // Desired images in order, first PRIMARY; sources may be stored URLs, data URIs or remote URLs
         Map<String, ImageType> desiredImages = new LinkedHashMap<>();
-
-        String normalizedPrimary = materialize(primaryImage, folder, (sku != null ? sku : "product") + "-primary");
-        if (normalizedPrimary != null && !normalizedPrimary.isBlank()) {
-            desiredImages.put(normalizedPrimary, ImageType.PRIMARY);
+        String trimmedPrimary = primaryImage == null ? null : primaryImage.trim();
+        if (trimmedPrimary != null && !trimmedPrimary.isEmpty()) {
+            desiredImages.put(trimmedPrimary, ImageType.PRIMARY);
         }
-
         if (secondaryImages != null) {
-            int index = 0;
             for (String raw : secondaryImages) {
-                String normalized = materialize(raw, folder, (sku != null ? sku : "product") + "-secondary-" + index++);
-                if (normalized == null || normalized.isBlank())
+                String source = raw == null ? null : raw.trim();
+                if (source == null || source.isEmpty())
                     continue;
-                if (!desiredImages.containsKey(normalized)) {
-                    desiredImages.put(normalized,
+                if (!desiredImages.containsKey(source)) {
+                    desiredImages.put(source,
                             desiredImages.containsValue(ImageType.PRIMARY) ? ImageType.SECONDARY : ImageType.PRIMARY);
                 }
             }
@@ -178,11 +183,19 @@ public class ProductImageServiceImpl implements ProductImageService {
                 .collect(Collectors.toMap(ProductImage::getUrl, img -> img, (a, b) -> a, LinkedHashMap::new));
 
         List<ProductImage> persisted = new ArrayList<>();
+        int index = 0;
         for (Map.Entry<String, ImageType> entry : desiredImages.entrySet()) {
             String url = entry.getKey();
             ImageType type = entry.getValue();
+            if (!ImageUploadUtils.isCloudinaryUrl(url)) {
+                // Data URIs and foreign URLs are uploaded in the background into a PENDING placeholder
+                String nameHint = nameBase + (type == ImageType.PRIMARY ? "-primary" : "-secondary-" + index++);
+                persisted.add(imageIngestionService.submitProductImage(product, url, type, nameHint));
+                continue;
+            }
             ProductImage image = existingByUrl.get(url);
             if (image == null) {
+                imageStorageService.retainByUrl(url); // one more product now uses this asset
                 image = ProductImage.builder()
                         .product(product)
                         .url(url)
@@ -195,7 +208,16 @@ public class ProductImageServiceImpl implements ProductImageService {
         }
 
         Set<String> desiredUrls = new LinkedHashSet<>(desiredImages.keySet());
+        boolean newPrimary = desiredImages.containsValue(ImageType.PRIMARY);
         for (ProductImage image : existing) {
+            if (image.getStatus() == ProductImage.Status.PENDING) {
+                // Still uploading from an earlier call; it has no URL to match, so keep it
+                if (newPrimary && image.getType() == ImageType.PRIMARY) {
+                    image.setType(ImageType.SECONDARY);
+                    imageRepository.save(image);
+                }
+                continue;
+            }
             if (!desiredUrls.contains(image.getUrl())) {
                 imageRepository.delete(image);
                 imageStorageService.deleteByUrl(image.getUrl());
@@ -208,6 +230,7 @@ public class ProductImageServiceImpl implements ProductImageService {
             imageRepository.save(promote);
         }
 
+        evictDetails(productId);
         List<ProductImage> refreshed = imageRepository.findByProductId(productId);
         refreshed.sort((a, b) -> {
             if (a.getType() == b.getType()) {
@@ -219,30 +242,8 @@ public class ProductImageServiceImpl implements ProductImageService {
         return refreshed;
     }
 
-    private String materialize(String source, String folder, String nameHint) {
-        if (source == null)
-            return null;
-        String trimmed = source.trim();
-        if (trimmed.isEmpty())
-            return null;
-        try {
-            if (ImageUploadUtils.isDataUri(trimmed)) {
-                var multipart = ImageUploadUtils.dataUriToMultipartFile(trimmed, nameHint);
-                return imageStorageService.upload(multipart, folder).url();
-            }
-            // If already Cloudinary secure URL, keep as-is (enforces Cloudinary-only
-            // persistence)
-            if (ImageUploadUtils.isCloudinaryUrl(trimmed)) {
-                return trimmed;
-            }
-            // Otherwise fetch remote and re-upload to Cloudinary
-            if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
-                var multipart = ImageUploadUtils.remoteImageToMultipart(trimmed, nameHint);
-                return imageStorageService.upload(multipart, folder).url();
-            }
-            throw new IllegalArgumentException("Unsupported image source (must be data URI or HTTP URL): " + trimmed);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Failed to materialize product image", e);
-        }
+    /** Drop the product's cached details once the image change commits. */
+    private void evictDetails(Long productId) {
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS, productId);
     }
 }
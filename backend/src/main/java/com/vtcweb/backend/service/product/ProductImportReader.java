@@ -0,0 +1,292 @@
+package com.vtcweb.backend.service.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vtcweb.backend.dto.product.CreateProductFullRequest;
+import com.vtcweb.backend.dto.product.ProductImageCreateRequest;
+import com.vtcweb.backend.dto.product.ProductVariationCreateRequest;
+import com.vtcweb.backend.model.entity.product.ProductImage;
+import com.vtcweb.backend.service.export.ExportFormat;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file one product at a time, the inverse of the export
+ * RowWriter. Only the current product is held in memory.
+ *
+ * NDJSON: one CreateProductFullRequest object per line.
+ *
+ * CSV: a header row naming the columns (any order, case-insensitive), then one
+ * row per variation. Consecutive rows with the same name form one product whose
+ * product-level columns come from its first row. Columns: name, categoryId,
+ * basePrice, shortDescription, description, status, highlights and images
+ * ("|"-separated; the first image is PRIMARY), variationPrice, variationStock,
+ * variationImageUrl, attributes ("Color=Red;Size=M"). A product without
+ * variations is a single row with empty attributes.
+ */
+abstract class ProductImportReader implements Closeable {
+
+    /** One product read from the file; error is set when it could not be parsed. */
+    record Item(long row, CreateProductFullRequest product, String error) {
+    }
+
+    static ProductImportReader open(ExportFormat format, InputStream in, ObjectMapper objectMapper)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(reader, objectMapper);
+        };
+    }
+
+    /** The next product, or null at the end of the input. */
+    abstract Item next() throws IOException;
+
+    private static final class Ndjson extends ProductImportReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Item next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank())
+                    continue;
+                try {
+                    return new Item(line, objectMapper.readValue(text, CreateProductFullRequest.class), null);
+                } catch (JsonProcessingException ex) {
+                    return new Item(line, null, "Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Csv extends ProductImportReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> header = new HashMap<>();
+        private long record;
+        /** Row read ahead that starts the next product. */
+        private List<String> pending;
+        private long pendingRow;
+
+        Csv(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> names = readRecord();
+            if (names == null)
+                return;
+            for (int i = 0; i < names.size(); i++)
+                header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            if (!header.containsKey("name"))
+                throw new IllegalArgumentException("CSV header must contain a name column");
+        }
+
+        @Override
+        Item next() throws IOException {
+            List<String> first = pending;
+            long row = pendingRow;
+            pending = null;
+            while (first == null) {
+                first = readRecord();
+                if (first == null)
+                    return null;
+                row = record;
+                if (isBlank(first))
+                    first = null;
+            }
+            CreateProductFullRequest product = new CreateProductFullRequest();
+            String error = null;
+            try {
+                product.setName(field(first, "name"));
+                product.setCategoryId(parseLong(field(first, "categoryid"), "categoryId"));
+                product.setBasePrice(parseDecimal(field(first, "baseprice"), "basePrice"));
+                product.setShortDescription(field(first, "shortdescription"));
+                String description = field(first, "description");
+                product.setDetailedDescription(description != null ? description : field(first, "detaileddescription"));
+                product.setStatus(field(first, "status"));
+                product.setHighlights(split(field(first, "highlights")));
+                List<ProductImageCreateRequest> images = new ArrayList<>();
+                for (String url : split(field(first, "images"))) {
+                    images.add(ProductImageCreateRequest.builder().url(url)
+                            .type(images.isEmpty() ? ProductImage.ImageType.PRIMARY : ProductImage.ImageType.SECONDARY)
+                            .build());
+                }
+                product.setImages(images);
+                product.setVariations(new ArrayList<>());
+                addVariation(product, first);
+            } catch (IllegalArgumentException ex) {
+                error = ex.getMessage();
+            }
+            String key = key(field(first, "name"));
+            List<String> next;
+            while ((next = readRecord()) != null) {
+                if (isBlank(next))
+                    continue;
+                if (!key.equals(key(field(next, "name")))) {
+                    pending = next;
+                    pendingRow = record;
+                    break;
+                }
+                if (error == null) {
+                    try {
+                        addVariation(product, next);
+                    } catch (IllegalArgumentException ex) {
+                        error = ex.getMessage() + " (row " + record + ")";
+                    }
+                }
+            }
+            return new Item(row, error == null ? product : null, error);
+        }
+
+        private void addVariation(CreateProductFullRequest product, List<String> rec) {
+            Map<String, String> attributes = parseAttributes(field(rec, "attributes"));
+            if (attributes.isEmpty())
+                return;
+            product.getVariations().add(ProductVariationCreateRequest.builder()
+                    .price(parseDecimal(field(rec, "variationprice"), "variationPrice"))
+                    .stock(parseInt(field(rec, "variationstock"), "variationStock"))
+                    .imageUrl(field(rec, "variationimageurl"))
+                    .attributes(attributes)
+                    .build());
+        }
+
+        private String field(List<String> rec, String column) {
+            Integer i = header.get(column);
+            if (i == null || i >= rec.size())
+                return null;
+            String v = rec.get(i).trim();
+            return v.isEmpty() ? null : v;
+        }
+
+        /**
+         * One RFC 4180 record (quoted fields may contain commas, quotes and line
+         * breaks), or null at the end of the input.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0)
+                return null;
+            record++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0)
+                        throw new IllegalArgumentException("Unterminated quoted field in CSV record " + record);
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            sb.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        sb.append((char) c);
+                    }
+                } else if (c == '"' && sb.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(sb.toString());
+                    sb.setLength(0);
+                } else if (c == '\n' || c < 0) {
+                    break;
+                } else if (c != '\r') {
+                    sb.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(sb.toString());
+            return fields;
+        }
+
+        private static boolean isBlank(List<String> rec) {
+            return rec.stream().allMatch(String::isBlank);
+        }
+
+        private static String key(String name) {
+            return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static List<String> split(String value) {
+            List<String> out = new ArrayList<>();
+            if (value == null)
+                return out;
+            for (String part : value.split("\\|")) {
+                if (!part.isBlank())
+                    out.add(part.trim());
+            }
+            return out;
+        }
+
+        private static Map<String, String> parseAttributes(String value) {
+            Map<String, String> out = new LinkedHashMap<>();
+            if (value == null)
+                return out;
+            for (String pair : value.split(";")) {
+                if (pair.isBlank())
+                    continue;
+                int eq = pair.indexOf('=');
+                if (eq <= 0)
+                    throw new IllegalArgumentException("attributes must be name=value pairs separated by ';'");
+                out.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+            return out;
+        }
+
+        private static Long parseLong(String value, String column) {
+            try {
+                return value == null ? null : Long.valueOf(value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(column + " is not a number: " + value);
+            }
+        }
+
+        private static Integer parseInt(String value, String column) {
+            try {
+                return value == null ? null : Integer.valueOf(value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(column + " is not a whole number: " + value);
+            }
+        }
+
+        private static BigDecimal parseDecimal(String value, String column) {
+            try {
+                return value == null ? null : new BigDecimal(value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(column + " is not a number: " + value);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
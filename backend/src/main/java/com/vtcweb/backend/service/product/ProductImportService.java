@@ -0,0 +1,28 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.dto.product.ProductImportStatusDTO;
+import com.vtcweb.backend.service.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Bulk product import from CSV or NDJSON (see ProductImportReader for the
+ * layout). The upload is spooled to disk and imported in the background in
+ * chunks; each chunk is validated against preloaded names and categories, takes
+ * its SKUs from one reservation per category and is written with batched JDBC
+ * inserts in a single transaction. Rejected products are reported per row.
+ */
+public interface ProductImportService {
+
+    /**
+     * Spool the body (gzip-compressed when gzip is set) and queue its import.
+     *
+     * @return the queued job; poll status(id) for progress
+     */
+    ProductImportStatusDTO start(InputStream body, ExportFormat format, boolean gzip) throws IOException;
+
+    /** Progress of a recent import on this node. */
+    Optional<ProductImportStatusDTO> status(String id);
+}
@@ -0,0 +1,528 @@
+package com.vtcweb.backend.service.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vtcweb.backend.dto.product.CreateProductFullRequest;
+import com.vtcweb.backend.dto.product.ProductImageCreateRequest;
+import com.vtcweb.backend.dto.product.ProductImportStatusDTO;
+import com.vtcweb.backend.dto.product.ProductVariationCreateRequest;
+import com.vtcweb.backend.exception.ConflictException;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.ProductImage;
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.repository.product.ProductVariationRepository;
+import com.vtcweb.backend.service.catalog.CatalogCacheService;
+import com.vtcweb.backend.service.export.ExportFormat;
+import com.vtcweb.backend.service.storage.ImageStorageService;
+import com.vtcweb.backend.util.ImageUploadUtils;
+import com.vtcweb.backend.util.Mapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+@Service
+@lombok.extern.slf4j.Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    // Column limits of products / product_variations / product_images / attributes
+    private static final int NAME_MAX = 150;
+    private static final int SHORT_DESCRIPTION_MAX = 255;
+    private static final int IMAGE_URL_MAX = 500;
+    private static final int VARIATION_IMAGE_URL_MAX = 255;
+    private static final int VARIATION_KEY_MAX = 500;
+    private static final int ATTRIBUTE_MAX = 255;
+    private static final int HIGHLIGHT_MAX = 300;
+    private static final int MAX_HIGHLIGHTS = 25;
+    /** DECIMAL(12,2) */
+    private static final int PRICE_PRECISION = 12;
+
+    private static final String INSERT_PRODUCT = "insert into products (sku, name, short_description, description, "
+            + "category_id, base_price, status, total_stock, in_stock_variation_count, min_price, max_price, "
+            + "created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_HIGHLIGHT = "insert into product_highlights (product_id, position, highlight) "
+            + "values (?, ?, ?)";
+    private static final String INSERT_IMAGE = "insert into product_images (url, type, product_id) values (?, ?, ?)";
+    private static final String INSERT_VARIATION = "insert into product_variations (product_id, price, stock, "
+            + "image_url, variation_key) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_ATTRIBUTE = "insert into product_variation_attributes (variation_id, "
+            + "attribute_name, attribute_value) values (?, ?, ?)";
+
+    /** A validated variation, ready to insert. */
+    private record Variation(String key, BigDecimal price, int stock, String imageUrl, Map<String, String> attributes) {
+    }
+
+    /** A validated product, ready to insert once it has a SKU. */
+    private record Prepared(long row, String name, String nameKey, Category category, String shortDescription,
+            String description, BigDecimal basePrice, ProductStatus status, List<String> highlights,
+            List<ProductImageCreateRequest> images, List<Variation> variations) {
+    }
+
+    /** Mutable progress of one import; read through snapshot(). */
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final ExportFormat format;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong variations = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<ProductImportStatusDTO.RowError> errors = new ArrayList<>();
+        final int maxErrors;
+        volatile boolean errorsTruncated;
+        volatile ProductImportStatusDTO.Status status = ProductImportStatusDTO.Status.QUEUED;
+        volatile String message;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        Job(ExportFormat format, int maxErrors) {
+            this.format = format;
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long row, String name, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors)
+                    errors.add(new ProductImportStatusDTO.RowError(row, name, message));
+                else
+                    errorsTruncated = true;
+            }
+        }
+
+        boolean finished() {
+            return finishedAt != null;
+        }
+
+        ProductImportStatusDTO snapshot() {
+            List<ProductImportStatusDTO.RowError> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return ProductImportStatusDTO.builder()
+                    .id(id)
+                    .status(status)
+                    .format(format.getExtension())
+                    .bytesReceived(bytes.get())
+                    .productsRead(read.get())
+                    .productsCreated(created.get())
+                    .variationsCreated(variations.get())
+                    .productsFailed(failed.get())
+                    .errors(errorsCopy)
+                    .errorsTruncated(errorsTruncated)
+                    .message(message)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductVariationRepository variationRepository;
+    private final CategoryRepository categoryRepository;
+    private final SkuSequenceAllocator skuAllocator;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final CatalogCacheService catalogCache;
+    private final ImageStorageService imageStorageService;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTx;
+    private final TransactionTemplate readTx;
+    private final Executor importExecutor;
+
+    /** Recent jobs by id; finished ones beyond retainJobs are dropped oldest first. */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /** Products per chunk, i.e. per write transaction and SKU reservation. */
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.import.retain-jobs:20}")
+    private int retainJobs;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+            ProductVariationRepository variationRepository, CategoryRepository categoryRepository,
+            SkuSequenceAllocator skuAllocator, ProductSearchIndex searchIndex, ProductFacetIndex facetIndex,
+            CatalogCacheService catalogCache, ImageStorageService imageStorageService, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, @Qualifier("importExecutor") Executor importExecutor) {
+        this.productRepository = productRepository;
+        this.variationRepository = variationRepository;
+        this.categoryRepository = categoryRepository;
+        this.skuAllocator = skuAllocator;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.catalogCache = catalogCache;
+        this.imageStorageService = imageStorageService;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.importExecutor = importExecutor;
+    }
+
+    @Override
+    public ProductImportStatusDTO start(InputStream body, ExportFormat format, boolean gzip) throws IOException {
+        Job job = new Job(format, Math.max(1, maxErrors));
+        Path file = Files.createTempFile("product-import-", "." + format.getExtension() + (gzip ? ".gz" : ""));
+        try {
+            spool(body, file, job);
+            jobs.put(job.id, job);
+            importExecutor.execute(() -> run(job, file, gzip));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(file);
+            throw new ConflictException("Too many product imports queued; try again later");
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        pruneJobs();
+        return job.snapshot();
+    }
+
+    @Override
+    public Optional<ProductImportStatusDTO> status(String id) {
+        Job job = id == null ? null : jobs.get(id);
+        return Optional.ofNullable(job).map(Job::snapshot);
+    }
+
+    /** Copy the request body to disk with a size cap; the request thread never holds it in memory. */
+    private void spool(InputStream body, Path file, Job job) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = body; OutputStream out = Files.newOutputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (job.bytes.addAndGet(n) > maxBytes)
+                    throw new IllegalArgumentException("Import file exceeds " + maxBytes + " bytes");
+                out.write(buffer, 0, n);
+            }
+        }
+    }
+
+    private void run(Job job, Path file, boolean gzip) {
+        job.startedAt = LocalDateTime.now();
+        job.status = ProductImportStatusDTO.Status.RUNNING;
+        long startedAt = System.nanoTime();
+        try (InputStream raw = Files.newInputStream(file);
+                InputStream in = gzip ? new GZIPInputStream(raw, 64 * 1024) : raw;
+                ProductImportReader reader = ProductImportReader.open(job.format, in, objectMapper)) {
+            // Uniqueness and category checks run against these instead of a query per row
+            Set<String> names = new HashSet<>(readTx.execute(s -> productRepository.findAllLowerCaseNames()));
+            Map<Long, Category> categories = new HashMap<>();
+            readTx.executeWithoutResult(s -> categoryRepository.findAll().forEach(c -> categories.put(c.getId(), c)));
+            int size = Math.max(1, Math.min(chunkSize, SkuSequenceAllocator.MAX_RESERVATION));
+            List<Prepared> chunk = new ArrayList<>(size);
+            ProductImportReader.Item item;
+            while ((item = reader.next()) != null) {
+                job.read.incrementAndGet();
+                Prepared p = prepare(item, names, categories, job);
+                if (p == null)
+                    continue;
+                chunk.add(p);
+                if (chunk.size() >= size) {
+                    write(chunk, names, job);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty())
+                write(chunk, names, job);
+            job.status = ProductImportStatusDTO.Status.COMPLETED;
+        } catch (Exception ex) {
+            log.warn("Product import {} failed after {} product(s): {}", job.id, job.read.get(), ex.getMessage());
+            job.message = ex.getMessage();
+            job.status = ProductImportStatusDTO.Status.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.debug("Could not delete import spool file {}: {}", file, ex.toString());
+            }
+        }
+        log.info("Product import {} {}: read={}, created={}, failed={} in {} ms", job.id, job.status,
+                job.read.get(), job.created.get(), job.failed.get(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /** Validate one product; rejects it on the job and returns null when invalid. */
+    private Prepared prepare(ProductImportReader.Item item, Set<String> names, Map<Long, Category> categories,
+            Job job) {
+        CreateProductFullRequest req = item.product();
+        String name = req != null && req.getName() != null ? req.getName().trim() : null;
+        if (item.error() != null) {
+            job.reject(item.row(), name, item.error());
+            return null;
+        }
+        try {
+            if (name == null || name.isEmpty())
+                throw new IllegalArgumentException("name must not be blank");
+            if (name.length() > NAME_MAX)
+                throw new IllegalArgumentException("name must be at most " + NAME_MAX + " characters");
+            String nameKey = name.toLowerCase(Locale.ROOT);
+            if (names.contains(nameKey))
+                throw new IllegalArgumentException("Product name already exists: " + name);
+            if (req.getCategoryId() == null)
+                throw new IllegalArgumentException("categoryId must not be null");
+            Category category = categories.get(req.getCategoryId());
+            if (category == null)
+                throw new IllegalArgumentException("Category not found: id=" + req.getCategoryId());
+            BigDecimal basePrice = price(req.getBasePrice(), "basePrice");
+            if (basePrice == null)
+                throw new IllegalArgumentException("basePrice must not be null");
+            String shortDescription = blankToNull(req.getShortDescription());
+            if (shortDescription != null && shortDescription.length() > SHORT_DESCRIPTION_MAX)
+                throw new IllegalArgumentException(
+                        "shortDescription must be at most " + SHORT_DESCRIPTION_MAX + " characters");
+            ProductStatus status = ProductStatus.ACTIVE;
+            if (req.getStatus() != null && !req.getStatus().isBlank()) {
+                try {
+                    status = ProductStatus.valueOf(req.getStatus().trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Unknown status: " + req.getStatus());
+                }
+            }
+            List<String> highlights = new ArrayList<>();
+            if (req.getHighlights() != null) {
+                for (String h : req.getHighlights()) {
+                    if (h == null || h.isBlank() || highlights.size() >= MAX_HIGHLIGHTS)
+                        continue;
+                    if (h.trim().length() > HIGHLIGHT_MAX)
+                        throw new IllegalArgumentException("highlights must be at most " + HIGHLIGHT_MAX + " characters");
+                    highlights.add(h.trim());
+                }
+            }
+            List<ProductImageCreateRequest> images = new ArrayList<>();
+            if (req.getImages() != null) {
+                for (ProductImageCreateRequest img : req.getImages()) {
+                    if (img == null || img.getUrl() == null || img.getUrl().isBlank())
+                        continue;
+                    images.add(new ProductImageCreateRequest(imageUrl(img.getUrl(), IMAGE_URL_MAX),
+                            img.getType() != null ? img.getType() : ProductImage.ImageType.SECONDARY));
+                }
+            }
+            List<Variation> variations = new ArrayList<>();
+            Set<String> keys = new HashSet<>();
+            if (req.getVariations() != null) {
+                for (ProductVariationCreateRequest v : req.getVariations()) {
+                    if (v == null)
+                        continue;
+                    variations.add(variation(v, keys));
+                }
+            }
+            names.add(nameKey);
+            return new Prepared(item.row(), name, nameKey, category, shortDescription,
+                    blankToNull(req.getDetailedDescription()), basePrice, status, highlights, images, variations);
+        } catch (IllegalArgumentException ex) {
+            job.reject(item.row(), name, ex.getMessage());
+            return null;
+        }
+    }
+
+    private static Variation variation(ProductVariationCreateRequest v, Set<String> keys) {
+        if (v.getAttributes() == null || v.getAttributes().isEmpty())
+            throw new IllegalArgumentException("variation.attributes must not be empty");
+        Map<String, String> attributes = new LinkedHashMap<>();
+        v.getAttributes().forEach((k, val) -> {
+            if (k == null || k.isBlank() || val == null)
+                return;
+            if (k.length() > ATTRIBUTE_MAX || val.length() > ATTRIBUTE_MAX)
+                throw new IllegalArgumentException("variation attributes must be at most " + ATTRIBUTE_MAX + " characters");
+            attributes.put(k, val);
+        });
+        String key = Mapper.buildVariationKey(attributes);
+        if (key == null || key.isBlank())
+            throw new IllegalArgumentException("variation.attributes contain no valid entries");
+        if (key.length() > VARIATION_KEY_MAX)
+            throw new IllegalArgumentException("variation.attributes are too long");
+        if (!keys.add(key))
+            throw new IllegalArgumentException("Duplicate variation: " + key);
+        int stock = v.getStock() == null ? 0 : v.getStock();
+        if (stock < 0)
+            throw new IllegalArgumentException("variation.stock must be >= 0");
+        String imageUrl = v.getImageUrl() == null || v.getImageUrl().isBlank() ? null
+                : imageUrl(v.getImageUrl(), VARIATION_IMAGE_URL_MAX);
+        return new Variation(key, price(v.getPrice(), "variation.price"), stock, imageUrl, attributes);
+    }
+
+    /** Non-negative, 2 decimals, fits DECIMAL(12,2); null stays null. */
+    private static BigDecimal price(BigDecimal value, String field) {
+        if (value == null)
+            return null;
+        if (value.signum() < 0)
+            throw new IllegalArgumentException(field + " must be >= 0");
+        BigDecimal scaled = value.setScale(2, RoundingMode.HALF_UP);
+        if (scaled.precision() > PRICE_PRECISION)
+            throw new IllegalArgumentException(field + " is too large");
+        return scaled;
+    }
+
+    private static String imageUrl(String url, int max) {
+        String u = url.trim();
+        // createFull uploads data URIs and foreign URLs one by one; a bulk import takes stored URLs only
+        if (u.regionMatches(true, 0, "data:", 0, 5))
+            throw new IllegalArgumentException("Image data URIs are not accepted by the import; upload images first");
+        if (u.length() > max)
+            throw new IllegalArgumentException("Image URL must be at most " + max + " characters");
+        return u;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    /**
+     * Insert one chunk: SKUs from one reservation per category, then batched
+     * inserts of products, highlights, images, variations and attributes in a
+     * single transaction. A failure rejects the whole chunk and keeps going.
+     */
+    private void write(List<Prepared> chunk, Set<String> names, Job job) {
+        Map<String, Prepared> bySku = new LinkedHashMap<>();
+        List<Long> productIds;
+        try {
+            Map<Long, List<Prepared>> byCategory = new LinkedHashMap<>();
+            chunk.forEach(p -> byCategory.computeIfAbsent(p.category().getId(), k -> new ArrayList<>()).add(p));
+            for (List<Prepared> group : byCategory.values()) {
+                List<String> skus = skuAllocator.reserve(group.get(0).category(), group.size());
+                for (int i = 0; i < group.size(); i++)
+                    bySku.put(skus.get(i), group.get(i));
+            }
+            productIds = writeTx.execute(s -> insert(bySku));
+        } catch (RuntimeException ex) {
+            log.warn("Product import {} chunk of {} failed: {}", job.id, chunk.size(), ex.getMessage());
+            for (Prepared p : chunk) {
+                names.remove(p.nameKey());
+                job.reject(p.row(), p.name(), "Not imported, its batch failed: " + ex.getMessage());
+            }
+            return;
+        }
+        retainStoredImages(chunk);
+        job.created.addAndGet(chunk.size());
+        job.variations.addAndGet(chunk.stream().mapToLong(p -> p.variations().size()).sum());
+        // No transaction is active here, so these run right away
+        searchIndex.reindexAfterCommit(productIds);
+        facetIndex.refreshAfterCommit(productIds);
+        catalogCache.invalidateAfterCommit(CatalogCacheService.CATEGORIES, CatalogCacheService.ALL);
+    }
+
+    /**
+     * Storage URLs in the file are persisted as is; count them as uses of their
+     * assets so deleting another product that shares one does not remove it.
+     */
+    private void retainStoredImages(List<Prepared> chunk) {
+        for (Prepared p : chunk) {
+            for (ProductImageCreateRequest img : p.images()) {
+                if (ImageUploadUtils.isCloudinaryUrl(img.getUrl()))
+                    imageStorageService.retainByUrl(img.getUrl());
+            }
+            for (Variation v : p.variations()) {
+                if (v.imageUrl() != null && ImageUploadUtils.isCloudinaryUrl(v.imageUrl()))
+                    imageStorageService.retainByUrl(v.imageUrl());
+            }
+        }
+    }
+
+    private List<Long> insert(Map<String, Prepared> bySku) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> productRows = new ArrayList<>(bySku.size());
+        bySku.forEach((sku, p) -> {
+            long totalStock = 0;
+            int inStock = 0;
+            BigDecimal min = null;
+            BigDecimal max = null;
+            for (Variation v : p.variations()) {
+                totalStock += v.stock();
+                if (v.stock() > 0)
+                    inStock++;
+                BigDecimal effective = v.price() != null ? v.price() : p.basePrice();
+                min = min == null || effective.compareTo(min) < 0 ? effective : min;
+                max = max == null || effective.compareTo(max) > 0 ? effective : max;
+            }
+            productRows.add(new Object[] { sku, p.name(), p.shortDescription(), p.description(),
+                    p.category().getId(), p.basePrice(), p.status().name(), totalStock, inStock,
+                    min != null ? min : p.basePrice(), max != null ? max : p.basePrice(), now, now });
+        });
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, productRows);
+
+        Map<String, Long> idBySku = new HashMap<>();
+        for (Object[] r : productRepository.findIdsBySkuIn(bySku.keySet()))
+            idBySku.put((String) r[0], ((Number) r[1]).longValue());
+
+        List<Object[]> highlightRows = new ArrayList<>();
+        List<Object[]> imageRows = new ArrayList<>();
+        List<Object[]> variationRows = new ArrayList<>();
+        Map<Long, Prepared> byId = new LinkedHashMap<>();
+        bySku.forEach((sku, p) -> {
+            Long id = idBySku.get(sku);
+            if (id == null)
+                throw new IllegalStateException("Inserted product not found: " + sku);
+            byId.put(id, p);
+            for (int i = 0; i < p.highlights().size(); i++)
+                highlightRows.add(new Object[] { id, i, p.highlights().get(i) });
+            for (ProductImageCreateRequest img : p.images())
+                imageRows.add(new Object[] { img.getUrl(), img.getType().name(), id });
+            for (Variation v : p.variations())
+                variationRows.add(new Object[] { id, v.price(), v.stock(), v.imageUrl(), v.key() });
+        });
+        jdbcTemplate.batchUpdate(INSERT_HIGHLIGHT, highlightRows);
+        jdbcTemplate.batchUpdate(INSERT_IMAGE, imageRows);
+        jdbcTemplate.batchUpdate(INSERT_VARIATION, variationRows);
+
+        if (!variationRows.isEmpty()) {
+            List<Object[]> attributeRows = new ArrayList<>();
+            for (Object[] r : variationRepository.findKeysByProductIdIn(byId.keySet())) {
+                Long variationId = ((Number) r[0]).longValue();
+                Prepared p = byId.get(((Number) r[1]).longValue());
+                String key = (String) r[2];
+                p.variations().stream().filter(v -> v.key().equals(key)).findFirst()
+                        .ifPresent(v -> v.attributes().forEach(
+                                (name, value) -> attributeRows.add(new Object[] { variationId, name, value })));
+            }
+            jdbcTemplate.batchUpdate(INSERT_ATTRIBUTE, attributeRows);
+        }
+        return new ArrayList<>(byId.keySet());
+    }
+
+    private void pruneJobs() {
+        List<Job> finished = jobs.values().stream().filter(Job::finished)
+                .sorted((a, b) -> a.createdAt.compareTo(b.createdAt)).toList();
+        for (int i = 0; i < finished.size() - Math.max(1, retainJobs); i++)
+            jobs.remove(finished.get(i).id);
+    }
+}
@@ -0,0 +1,427 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, short description, category name
+ * and description, replacing the four-way %q% LIKE search.
+ *
+ * Text is tokenised on non letter/digit characters and lower-cased; every query
+ * token must match a term exactly or as a prefix (tokens of two or more
+ * characters), and hits are ranked by field weight with exact matches counting
+ * double. Status and in-stock flags live on each document so both filters run
+ * in the index. Writers hook in through the *AfterCommit methods, which read
+ * the affected products just before their transaction commits and apply them
+ * once it has; a periodic full rebuild keeps several instances converged.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 8;
+    static final int CATEGORY_WEIGHT = 4;
+    static final int SHORT_DESCRIPTION_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /** Long descriptions only contribute their first N tokens. */
+    private static final int MAX_DESCRIPTION_TOKENS = 2000;
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private record Doc(long id, ProductStatus status, Long categoryId, boolean inStock, Map<String, Integer> terms) {
+    }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readTx;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** term -> (productId -> weight); sorted so prefixes are a subMap. Guarded by lock. */
+    private TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    /** Guarded by lock. */
+    private Map<Long, Doc> docs = new HashMap<>();
+    /** Products touched while a full rebuild is running; re-applied after the swap. */
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${app.search.index.batch-size:2000}")
+    private int batchSize;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    /**
+     * Ranked product ids matching every token of query (best first, then newest
+     * id). status and inStock are optional filters. Null until the first build
+     * has finished, so callers fall back to the database instead of waiting on a
+     * full load; the startup and scheduled rebuilds fill it.
+     */
+    public List<Long> search(String query, ProductStatus status, Boolean inStock) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty())
+            return List.of();
+        if (!ready)
+            return null;
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Long, Integer> tokenScores = match(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Integer> next = new HashMap<>();
+                    for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                        Integer s = tokenScores.get(e.getKey());
+                        if (s != null)
+                            next.put(e.getKey(), e.getValue() + s);
+                    }
+                    scores = next;
+                }
+                if (scores.isEmpty())
+                    return List.of();
+            }
+            List<Map.Entry<Long, Integer>> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                Doc d = docs.get(e.getKey());
+                if (d == null || (status != null && d.status() != status)
+                        || (inStock != null && d.inStock() != inStock))
+                    continue;
+                hits.add(e);
+            }
+            hits.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+            List<Long> ids = new ArrayList<>(hits.size());
+            hits.forEach(e -> ids.add(e.getKey()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Best weight per product for one query token. Caller holds the read lock. */
+    private Map<Long, Integer> match(String token) {
+        Map<Long, Integer> out = new HashMap<>();
+        Map<String, Map<Long, Integer>> terms = token.length() < 2
+                ? (postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of())
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Integer>> term : terms.entrySet()) {
+            boolean exact = term.getKey().equals(token);
+            for (Map.Entry<Long, Integer> p : term.getValue().entrySet()) {
+                int w = exact ? p.getValue() * 2 : p.getValue();
+                out.merge(p.getKey(), w, Math::max);
+            }
+        }
+        return out;
+    }
+
+    /** Reload a product into the index once the current transaction commits. */
+    public void reindexAfterCommit(Long productId) {
+        if (productId != null)
+            reindexAfterCommit(List.of(productId));
+    }
+
+    /** Reload products (e.g. a bulk import chunk) once the current transaction commits. */
+    public void reindexAfterCommit(Collection<Long> productIds) {
+        if (productIds != null && !productIds.isEmpty()) {
+            List<Long> ids = List.copyOf(new LinkedHashSet<>(productIds));
+            onCommit(() -> load(ids), this::apply);
+        }
+    }
+
+    /** Reload every product of a category (e.g. after a rename) once committed. */
+    public void reindexCategoryAfterCommit(Long categoryId) {
+        if (categoryId != null)
+            onCommit(() -> load(productRepository.findIdsByCategoryId(categoryId)), this::apply);
+    }
+
+    /** Drop a product from the index once the current transaction commits. */
+    public void removeAfterCommit(Long productId) {
+        if (productId == null)
+            return;
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(productId);
+                if (rebuilding)
+                    touchedDuringRebuild.add(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Refresh only the in-stock flag of products whose stock may have crossed zero
+     * (checkout, cancellation restores). Cheaper than a full reload.
+     */
+    public void refreshStockAfterCommit(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty())
+            return;
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(productIds));
+        onCommit(() -> new HashSet<>(productRepository.findInStockIdsByIdIn(ids)), inStock -> {
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    Doc d = docs.get(id);
+                    if (d != null)
+                        docs.put(id, new Doc(d.id(), d.status(), d.categoryId(), inStock.contains(id), d.terms()));
+                    if (rebuilding)
+                        touchedDuringRebuild.add(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    /** Full reload from the products table, swapped in atomically. */
+    @Scheduled(initialDelayString = "${app.search.index.rebuild-ms:900000}",
+            fixedDelayString = "${app.search.index.rebuild-ms:900000}")
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TreeMap<String, Map<Long, Integer>> freshPostings = new TreeMap<>();
+        Map<Long, Doc> freshDocs = new HashMap<>();
+        try {
+            int size = Math.max(1, batchSize);
+            long afterId = 0L;
+            while (true) {
+                final long cursor = afterId;
+                List<Doc> batch = readTx.execute(s -> loadDocs(
+                        productRepository.findSearchDocumentsAfter(cursor, PageRequest.of(0, size))));
+                if (batch == null || batch.isEmpty())
+                    break;
+                for (Doc d : batch) {
+                    freshDocs.put(d.id(), d);
+                    addPostings(freshPostings, d);
+                    afterId = Math.max(afterId, d.id());
+                }
+                if (batch.size() < size)
+                    break;
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Product search index rebuild failed: {}", ex.getMessage());
+            return;
+        }
+        List<Long> touched;
+        lock.writeLock().lock();
+        try {
+            postings = freshPostings;
+            docs = freshDocs;
+            rebuilding = false;
+            ready = true;
+            touched = new ArrayList<>(touchedDuringRebuild);
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!touched.isEmpty())
+            reload(touched);
+        log.info("Product search index built: {} product(s), {} term(s) in {} ms", freshDocs.size(),
+                freshPostings.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /** Current rows of productIds; ids without a row are dropped when applied. */
+    private record Loaded(List<Long> productIds, List<Doc> docs) {
+    }
+
+    private Loaded load(List<Long> productIds) {
+        return new Loaded(productIds, productIds.isEmpty() ? List.of()
+                : loadDocs(productRepository.findSearchDocumentsByIdIn(productIds)));
+    }
+
+    private void reload(List<Long> productIds) {
+        if (productIds != null && !productIds.isEmpty())
+            apply(readTx.execute(s -> load(productIds)));
+    }
+
+    private void apply(Loaded loaded) {
+        if (loaded == null)
+            return;
+        Set<Long> found = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (Doc d : loaded.docs()) {
+                remove(d.id());
+                docs.put(d.id(), d);
+                addPostings(postings, d);
+                found.add(d.id());
+            }
+            for (Long id : loaded.productIds()) {
+                if (!found.contains(id))
+                    remove(id); // deleted in the meantime
+                if (rebuilding)
+                    touchedDuringRebuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rows are (id, name, shortDescription, categoryName, description, status,
+     * categoryId, inStockVariationCount).
+     */
+    private List<Doc> loadDocs(List<Object[]> rows) {
+        List<Doc> out = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            Map<String, Integer> terms = new HashMap<>();
+            addTerms(terms, (String) row[1], NAME_WEIGHT, Integer.MAX_VALUE);
+            addTerms(terms, (String) row[2], SHORT_DESCRIPTION_WEIGHT, Integer.MAX_VALUE);
+            addTerms(terms, (String) row[3], CATEGORY_WEIGHT, Integer.MAX_VALUE);
+            addTerms(terms, (String) row[4], DESCRIPTION_WEIGHT, MAX_DESCRIPTION_TOKENS);
+            out.add(new Doc(id, (ProductStatus) row[5], row[6] != null ? ((Number) row[6]).longValue() : null,
+                    row[7] != null && ((Number) row[7]).intValue() > 0, terms));
+        }
+        return out;
+    }
+
+    /** Keeps the highest field weight per term. */
+    private static void addTerms(Map<String, Integer> terms, String text, int weight, int maxTokens) {
+        if (text == null || text.isEmpty())
+            return;
+        List<String> tokens = tokenize(TAGS.matcher(text).replaceAll(" "));
+        int n = Math.min(tokens.size(), maxTokens);
+        for (int i = 0; i < n; i++)
+            terms.merge(tokens.get(i), weight, Math::max);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank())
+            return List.of();
+        List<String> out = new ArrayList<>();
+        for (String t : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty())
+                out.add(t);
+        }
+        return out;
+    }
+
+    private static void addPostings(TreeMap<String, Map<Long, Integer>> target, Doc d) {
+        for (Map.Entry<String, Integer> t : d.terms().entrySet())
+            target.computeIfAbsent(t.getKey(), k -> new HashMap<>()).put(d.id(), t.getValue());
+    }
+
+    /** Caller holds the write lock. */
+    private void remove(long productId) {
+        Doc old = docs.remove(productId);
+        if (old == null)
+            return;
+        for (String term : old.terms().keySet()) {
+            Map<Long, Integer> p = postings.get(term);
+            if (p != null) {
+                p.remove(productId);
+                if (p.isEmpty())
+                    postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Runs load inside the current transaction just before it commits, on the
+     * connection it already holds, and applies the result once it has committed.
+     * Loading from afterCommit would need a second pooled connection while the
+     * first is still bound, and concurrent writers would drain the pool waiting
+     * on each other. Without a transaction both run right away.
+     */
+    private <T> void onCommit(Supplier<T> load, Consumer<T> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded(() -> apply.accept(readTx.execute(s -> load.get()))).run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private T loaded;
+            private boolean failed;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    loaded = load.get();
+                } catch (RuntimeException ex) {
+                    failed = true; // never fail the writer's commit over the index
+                    log.warn("Product search index update failed: {}", ex.getMessage());
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (!failed)
+                    guarded(() -> apply.accept(loaded)).run();
+            }
+        });
+    }
+
+    private static Runnable guarded(Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException ex) {
+                // The periodic rebuild repairs anything missed here
+                log.warn("Product search index update failed: {}", ex.getMessage());
+            }
+        };
+    }
+
+    private static void afterCommit(Runnable action) {
+        Runnable guarded = guarded(action);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
@@ -36,6 +36,53 @@ public interface ProductService {
     Page<Product> searchByName(String name, Pageable pageable,
             com.vtcweb.backend.model.entity.product.ProductStatus status);
 
+    /**
+     * Relevance-ranked text search over name, short description, category name
+     * and description. status and inStock are optional filters; a blank query
+     * falls back to the plain listings.
+     */
+    Page<Product> search(String query, com.vtcweb.backend.model.entity.product.ProductStatus status, Boolean inStock,
+            Pageable pageable);
+
+    // Listing cards (single-query projection, no entities)
+
+    /**
+     * Paged product cards; status, categoryId, inStock and the effective price
+     * bounds (minPrice/maxPrice, inclusive) are optional filters.
+     */
+    Page<com.vtcweb.backend.dto.product.ProductCardDTO> listCards(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, Pageable pageable);
+
+    /** Cards for the given ids, in the order given; unknown ids are skipped. */
+    java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> getCards(java.util.List<Long> ids);
+
+    /** search(...) returning cards, in relevance order. */
+    Page<com.vtcweb.backend.dto.product.ProductCardDTO> searchCards(String query,
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Boolean inStock, Pageable pageable);
+
+    /**
+     * Keyset listing, newest first, for infinite scroll. after is the previous
+     * page's nextCursor (blank for the first page); all filters are optional.
+     */
+    com.vtcweb.backend.dto.common.CursorSliceDTO<com.vtcweb.backend.dto.product.ProductCardDTO> listAfter(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, String after, int size);
+
+    /** Cursor-mode variant of search; relevance order, blank query lists newest first. */
+    com.vtcweb.backend.dto.common.CursorSliceDTO<com.vtcweb.backend.dto.product.ProductCardDTO> searchAfter(String query,
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Boolean inStock, String after, int size);
+
+    /**
+     * Cards filtered by variation attributes (attribute -> accepted values; values
+     * OR-ed, attributes AND-ed) plus facet counts, newest first. status,
+     * categoryId and inStock are optional filters.
+     */
+    com.vtcweb.backend.dto.product.FacetedProductPageDTO listFaceted(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+            java.util.Map<String, java.util.Set<String>> attributes, Pageable pageable);
+
     /** Find product by SKU (case-insensitive normalization). */
     Optional<Product> getBySku(String sku);
 
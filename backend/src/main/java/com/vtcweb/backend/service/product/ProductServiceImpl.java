@@ -16,12 +16,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Base64;
-import org.springframework.web.multipart.MultipartFile;
-import org.springframework.lang.NonNull;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -35,9 +37,12 @@ public class ProductServiceImpl implements ProductService {
     private final ProductImageService productImageService;
     private final ProductVariationService productVariationService;
     private final com.vtcweb.backend.service.storage.ImageStorageService imageStorageService; // cloud cleanup
-
-    private static final int MAX_SKU_ATTEMPTS = 10_000;
-    private static final String DEFAULT_CATEGORY_CODE = "CAT";
+    private final ProductImageNormalizer imageNormalizer;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final com.vtcweb.backend.service.catalog.CatalogCacheService catalogCache;
+    private final SkuSequenceAllocator skuAllocator;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public Product create(Product product, Long categoryId) {
@@ -50,24 +55,32 @@ public class ProductServiceImpl implements ProductService {
             log.debug("Creating product name='{}' detailedDescriptionPreview='{}'", product.getName(),
                     dd == null ? "<null>" : dd.substring(0, Math.min(40, dd.length())).replaceAll("\n", " "));
         }
+        Category category = checkNewProduct(product, categoryId);
+        // SKU is always allocated from the category code's sequence (CAT-001)
+        if (product.getSku() != null && !product.getSku().isBlank()) {
+            log.debug("Ignoring client-supplied SKU '{}' in favor of generated value", product.getSku());
+        }
+        return insert(product, category, skuAllocator.next(category));
+    }
+
+    /** Validation shared by create and createFull; returns the product's category. */
+    private Category checkNewProduct(Product product, Long categoryId) {
         validateProductFields(product);
         if (productRepository.existsByNameIgnoreCase(product.getName())) {
             throw new ConflictException("Product name already exists: " + product.getName());
         }
-        Category category = categoryRepository.findById(categoryId)
+        return categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new NotFoundException("Category not found: id=" + categoryId));
+    }
+
+    private Product insert(Product product, Category category, String sku) {
         product.setId(null);
         product.setCategory(category);
         // Default status if not provided
         if (product.getStatus() == null) {
             product.setStatus(com.vtcweb.backend.model.entity.product.ProductStatus.ACTIVE);
         }
-        // SKU generation is always derived from category prefix + per-category sequence
-        // (CAT-001)
-        if (product.getSku() != null && !product.getSku().isBlank()) {
-            log.debug("Ignoring client-supplied SKU '{}' in favor of generated value", product.getSku());
-        }
-        product.setSku(generateSku(category));
+        product.setSku(sku);
         // Normalize highlights if present
         if (product.getHighlights() != null) {
             product.setHighlights(product.getHighlights().stream()
@@ -77,14 +90,33 @@ public class ProductServiceImpl implements ProductService {
                     .limit(25)
                     .collect(java.util.stream.Collectors.toCollection(java.util.ArrayList::new)));
         }
+        // No variations yet: the effective price range is the base price
+        product.setMinPrice(product.getBasePrice());
+        product.setMaxPrice(product.getBasePrice());
         // Variations/images are managed separately; ensure they are initialized
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.reindexAfterCommit(saved.getId());
+        facetIndex.refreshAfterCommit(java.util.List.of(saved.getId()));
+        // Category pages carry product counts
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.CATEGORIES,
+                com.vtcweb.backend.service.catalog.CatalogCacheService.ALL);
+        return saved;
     }
 
+    /**
+     * Runs outside the class-level transaction: the request is validated, the
+     * SKU allocated and every image normalized (concurrently, see
+     * ProductImageNormalizer) before a transaction opens, so the DB connection
+     * is only held while the rows and resulting URLs are written. Images
+     * uploaded for a create that then fails are deleted again.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product createFull(CreateProductFullRequest request) {
         if (request == null)
             throw new IllegalArgumentException("request must not be null");
+        if (request.getCategoryId() == null)
+            throw new IllegalArgumentException("categoryId must not be null");
         // Create base product first
         Product base = new Product();
         base.setName(request.getName());
@@ -110,62 +142,17 @@ public class ProductServiceImpl implements ProductService {
                 base.setStatus(com.vtcweb.backend.model.entity.product.ProductStatus
                         .valueOf(request.getStatus().trim().toUpperCase()));
             } catch (IllegalArgumentException ignored) {
-                // default in create()
+                // default in insert()
             }
         }
-        Product created = create(base, request.getCategoryId());
-
-        // Attach images
+        // Reject bad requests before anything is uploaded
+        Category category = checkNewProduct(base, request.getCategoryId());
+        List<ProductImageCreateRequest> images = new ArrayList<>();
         if (request.getImages() != null) {
-            for (ProductImageCreateRequest img : request.getImages()) {
-                if (img == null)
-                    continue;
-                String url = img.getUrl();
-                ProductImage.ImageType type = img.getType();
-                String sku = created.getSku() != null ? created.getSku() : ("id-" + created.getId());
-                String folder = "products/" + sku;
-                try {
-                    if (url != null && !url.isBlank()) {
-                        if (url.startsWith("data:image")) {
-                            // data URI -> decode
-                            int comma = url.indexOf(',');
-                            if (comma > 0) {
-                                String meta = url.substring(0, comma); // e.g. data:image/png;base64
-                                String b64 = url.substring(comma + 1);
-                                byte[] bytes = Base64.getDecoder().decode(b64);
-                                MultipartFile mf = new InMemoryMultipartFile(
-                                        sku + "-img." + deriveExt(meta),
-                                        sku + "-img." + deriveExt(meta),
-                                        deriveContentType(meta),
-                                        bytes);
-                                com.vtcweb.backend.service.storage.ImageStorageService.UploadResult uploaded = imageStorageService
-                                        .upload(mf, folder);
-                                url = uploaded.url();
-                            }
-                        } else if (isExternalNonCloudinaryUrl(url)) {
-                            // Fetch remote image bytes then upload so we only persist Cloudinary URL
-                            byte[] bytes = downloadImage(url);
-                            if (bytes != null && bytes.length > 0) {
-                                String meta = guessMetaFromUrl(url);
-                                MultipartFile mf = new InMemoryMultipartFile(
-                                        sku + "-ext." + deriveExt(meta),
-                                        sku + "-ext." + deriveExt(meta),
-                                        deriveContentType(meta),
-                                        bytes);
-                                com.vtcweb.backend.service.storage.ImageStorageService.UploadResult uploaded = imageStorageService
-                                        .upload(mf, folder);
-                                url = uploaded.url();
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to normalize product image for product {}: {}", created.getId(), e.getMessage());
-                }
-                productImageService.addToProduct(created.getId(), url, type);
-            }
+            request.getImages().stream().filter(java.util.Objects::nonNull).forEach(images::add);
         }
-
-        // Attach variations (attributes-driven; variationKey is derived server-side)
+        List<ProductVariationCreateRequest> variations = new ArrayList<>();
+        List<String> variationKeys = new ArrayList<>();
         if (request.getVariations() != null) {
             for (ProductVariationCreateRequest varReq : request.getVariations()) {
                 if (varReq == null)
@@ -177,60 +164,52 @@ public class ProductServiceImpl implements ProductService {
                 if (key == null || key.isBlank()) {
                     throw new IllegalArgumentException("variation.attributes contain no valid entries");
                 }
-                ProductVariation var = new ProductVariation();
-                var.setVariationKey(key); // internal uniqueness key
-                var.setPrice(varReq.getPrice());
-                var.setStock(varReq.getStock() != null ? varReq.getStock() : 0);
-                // Variation image (data URI support)
-                String variationImageUrl = varReq.getImageUrl();
-                if (variationImageUrl != null && !variationImageUrl.isBlank()) {
-                    try {
-                        String skuVar = created.getSku() != null ? created.getSku() : ("id-" + created.getId());
-                        String folderVar = "products/" + skuVar + "/variations";
-                        if (variationImageUrl.startsWith("data:image")) {
-                            int comma = variationImageUrl.indexOf(',');
-                            if (comma > 0) {
-                                String meta = variationImageUrl.substring(0, comma);
-                                String b64 = variationImageUrl.substring(comma + 1);
-                                byte[] bytes = Base64.getDecoder().decode(b64);
-                                MultipartFile mf = new InMemoryMultipartFile(
-                                        skuVar + "-var." + deriveExt(meta),
-                                        skuVar + "-var." + deriveExt(meta),
-                                        deriveContentType(meta),
-                                        bytes);
-                                com.vtcweb.backend.service.storage.ImageStorageService.UploadResult up = imageStorageService
-                                        .upload(mf, folderVar);
-                                variationImageUrl = up.url();
-                            }
-                        } else if (isExternalNonCloudinaryUrl(variationImageUrl)) {
-                            byte[] bytes = downloadImage(variationImageUrl);
-                            if (bytes != null && bytes.length > 0) {
-                                String meta = guessMetaFromUrl(variationImageUrl);
-                                MultipartFile mf = new InMemoryMultipartFile(
-                                        skuVar + "-var-ext." + deriveExt(meta),
-                                        skuVar + "-var-ext." + deriveExt(meta),
-                                        deriveContentType(meta),
-                                        bytes);
-                                com.vtcweb.backend.service.storage.ImageStorageService.UploadResult up = imageStorageService
-                                        .upload(mf, folderVar);
-                                variationImageUrl = up.url();
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("Failed to normalize variation image for product {}: {}", created.getId(),
-                                e.getMessage());
-                    }
+                if (variationKeys.contains(key)) {
+                    throw new ConflictException("Variation already exists for product with same attributes");
                 }
-                var.setImageUrl(variationImageUrl);
-                var.setAttributes(varReq.getAttributes());
-                productVariationService.create(created.getId(), var);
+                variations.add(varReq);
+                variationKeys.add(key);
             }
         }
 
-        // Return the product with details loaded
-        Long createdId = java.util.Objects.requireNonNull(created.getId(), "created id must not be null");
-        return productRepository.findOneById(createdId)
-                .orElseGet(() -> productRepository.findById(createdId).orElse(created));
+        // Image folders are named after the SKU, so it is allocated up front
+        String sku = skuAllocator.next(category);
+        List<ProductImageNormalizer.Source> sources = new ArrayList<>();
+        for (ProductImageCreateRequest img : images) {
+            sources.add(new ProductImageNormalizer.Source(img.getUrl(), "products/" + sku));
+        }
+        for (ProductVariationCreateRequest varReq : variations) {
+            sources.add(new ProductImageNormalizer.Source(varReq.getImageUrl(), "products/" + sku + "/variations"));
+        }
+        List<ProductImageNormalizer.Image> normalized = imageNormalizer.normalize(sources);
+
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                Product created = insert(base, checkNewProduct(base, request.getCategoryId()), sku);
+                // Attach images
+                for (int i = 0; i < images.size(); i++) {
+                    productImageService.addToProduct(created.getId(), normalized.get(i).url(), images.get(i).getType());
+                }
+                // Attach variations (attributes-driven; variationKey is derived server-side)
+                for (int i = 0; i < variations.size(); i++) {
+                    ProductVariationCreateRequest varReq = variations.get(i);
+                    ProductVariation var = new ProductVariation();
+                    var.setVariationKey(variationKeys.get(i)); // internal uniqueness key
+                    var.setPrice(varReq.getPrice());
+                    var.setStock(varReq.getStock() != null ? varReq.getStock() : 0);
+                    var.setImageUrl(normalized.get(images.size() + i).url());
+                    var.setAttributes(varReq.getAttributes());
+                    productVariationService.create(created.getId(), var);
+                }
+                // Return the product with details loaded
+                Long createdId = java.util.Objects.requireNonNull(created.getId(), "created id must not be null");
+                return productRepository.findOneById(createdId)
+                        .orElseGet(() -> productRepository.findById(createdId).orElse(created));
+            });
+        } catch (RuntimeException ex) {
+            imageNormalizer.discard(normalized);
+            throw ex;
+        }
     }
 
     @Override
@@ -288,30 +267,213 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public Page<Product> searchByName(String name, Pageable pageable) {
-        java.util.Objects.requireNonNull(pageable, "pageable must not be null");
-        String q = (name == null) ? "" : name.trim();
-        // If query is empty after trimming, return all to keep UX simple
-        if (q.isEmpty()) {
-            return productRepository.findAll(pageable);
-        }
-        return productRepository
-                .findByNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseOrCategory_NameContainingIgnoreCaseOrDetailedDescriptionContaining(
-                        q, q, q, q, pageable);
+        return search(name, null, null, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Product> searchByName(String name, Pageable pageable,
             com.vtcweb.backend.model.entity.product.ProductStatus status) {
+        return search(name, status, null, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> search(String query, com.vtcweb.backend.model.entity.product.ProductStatus status,
+            Boolean inStock, Pageable pageable) {
         java.util.Objects.requireNonNull(pageable, "pageable must not be null");
-        String q = (name == null) ? "" : name.trim();
-        if (status == null)
-            return searchByName(name, pageable);
+        String q = (query == null) ? "" : query.trim();
+        // If query is empty after trimming, return the plain listing to keep UX simple
+        if (q.isEmpty()) {
+            if (Boolean.TRUE.equals(inStock))
+                return listInStock(pageable, status);
+            if (Boolean.FALSE.equals(inStock))
+                return listOutOfStock(pageable, status);
+            return status == null ? productRepository.findAll(pageable) : list(pageable, status);
+        }
+        java.util.List<Long> ranked = searchIndex.search(q, status, inStock);
+        if (ranked == null) {
+            // Index unavailable: substring scan, without the stock filter
+            return status == null
+                    ? productRepository
+                            .findByNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseOrCategory_NameContainingIgnoreCaseOrDetailedDescriptionContaining(
+                                    q, q, q, q, pageable)
+                    : productRepository
+                            .findByNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseOrCategory_NameContainingIgnoreCaseOrDetailedDescriptionContainingAndStatus(
+                                    q, q, q, q, status, pageable);
+        }
+        // Results are in relevance order; only the requested page is loaded
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranked.size()) : ranked.size();
+        return new org.springframework.data.domain.PageImpl<>(loadRanked(ranked, from, to), pageable, ranked.size());
+    }
+
+    /** Batch-load ranked[from, to) keeping the ranking order. */
+    private java.util.List<Product> loadRanked(java.util.List<Long> ranked, int from, int to) {
+        java.util.List<Long> pageIds = ranked.subList(from, to);
+        java.util.Map<Long, Product> byId = new java.util.HashMap<>();
+        productRepository.findAllById(pageIds).forEach(p -> byId.put(p.getId(), p));
+        return pageIds.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> getCards(java.util.List<Long> ids) {
+        return ids == null ? java.util.List.of() : loadCards(ids);
+    }
+
+    /** Cards for ids, in the order given. */
+    private java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> loadCards(java.util.List<Long> ids) {
+        if (ids.isEmpty())
+            return java.util.List.of();
+        java.util.Map<Long, com.vtcweb.backend.dto.product.ProductCardDTO> byId = new java.util.HashMap<>();
+        productRepository.findCardsByIdIn(ids).forEach(c -> byId.put(c.getId(), c));
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<com.vtcweb.backend.dto.product.ProductCardDTO> listCards(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        java.util.Objects.requireNonNull(pageable, "pageable must not be null");
+        return productRepository.findCards(status, categoryId, inStock, minPrice, maxPrice, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<com.vtcweb.backend.dto.product.ProductCardDTO> searchCards(String query,
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Boolean inStock, Pageable pageable) {
+        java.util.Objects.requireNonNull(pageable, "pageable must not be null");
+        String q = (query == null) ? "" : query.trim();
+        if (q.isEmpty())
+            return listCards(status, null, inStock, null, null, pageable);
+        java.util.List<Long> ranked = searchIndex.search(q, status, inStock);
+        if (ranked == null) {
+            // Index unavailable: page through the substring fallback, then project its ids
+            Page<Product> fallback = search(q, status, inStock, pageable);
+            return new org.springframework.data.domain.PageImpl<>(
+                    loadCards(fallback.getContent().stream().map(Product::getId).toList()), pageable,
+                    fallback.getTotalElements());
+        }
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranked.size()) : ranked.size();
+        return new org.springframework.data.domain.PageImpl<>(loadCards(ranked.subList(from, to)), pageable,
+                ranked.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public com.vtcweb.backend.dto.common.CursorSliceDTO<com.vtcweb.backend.dto.product.ProductCardDTO> listAfter(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            BigDecimal minPrice, BigDecimal maxPrice, String after, int size) {
+        com.vtcweb.backend.util.KeysetCursor cursor = com.vtcweb.backend.util.KeysetCursor.decode(after);
+        org.springframework.data.domain.Slice<com.vtcweb.backend.dto.product.ProductCardDTO> slice = productRepository
+                .findCardSliceAfter(status, categoryId, inStock, minPrice, maxPrice,
+                        cursor != null ? cursor.keyAsLocalDateTime() : null, cursor != null ? cursor.id() : null,
+                        org.springframework.data.domain.PageRequest.of(0, clampSize(size)));
+        return com.vtcweb.backend.dto.common.CursorSliceDTO.of(slice, c -> c,
+                c -> com.vtcweb.backend.util.KeysetCursor.encode(c.getCreatedAt(), c.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public com.vtcweb.backend.dto.common.CursorSliceDTO<com.vtcweb.backend.dto.product.ProductCardDTO> searchAfter(String query,
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Boolean inStock, String after, int size) {
+        String q = (query == null) ? "" : query.trim();
         if (q.isEmpty())
-            return list(pageable, status);
-        return productRepository
-                .findByNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseOrCategory_NameContainingIgnoreCaseOrDetailedDescriptionContainingAndStatus(
-                        q, q, q, q, status, pageable);
+            return listAfter(status, null, inStock, null, null, after, size);
+        // Ranked hits live in memory, so the cursor carries the position in the ranking
+        com.vtcweb.backend.util.KeysetCursor cursor = com.vtcweb.backend.util.KeysetCursor.decode(after);
+        int from = cursor != null ? (int) Math.max(0L, Math.min(cursor.id(), Integer.MAX_VALUE)) : 0;
+        int n = clampSize(size);
+        java.util.List<Long> ranked = searchIndex.search(q, status, inStock);
+        java.util.List<com.vtcweb.backend.dto.product.ProductCardDTO> content;
+        boolean hasNext;
+        if (ranked == null) {
+            Page<com.vtcweb.backend.dto.product.ProductCardDTO> page = searchCards(q, status, inStock,
+                    org.springframework.data.domain.PageRequest.of(from / n, n));
+            content = page.getContent();
+            hasNext = page.hasNext();
+        } else {
+            content = loadCards(ranked.subList(Math.min(from, ranked.size()), Math.min(from + n, ranked.size())));
+            hasNext = from + n < ranked.size();
+        }
+        return new com.vtcweb.backend.dto.common.CursorSliceDTO<>(content, content.size(), hasNext,
+                hasNext ? com.vtcweb.backend.util.KeysetCursor.encode("", from + n) : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public com.vtcweb.backend.dto.product.FacetedProductPageDTO listFaceted(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            BigDecimal minPrice, BigDecimal maxPrice,
+            java.util.Map<String, java.util.Set<String>> attributes, Pageable pageable) {
+        java.util.Objects.requireNonNull(pageable, "pageable must not be null");
+        int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0L;
+        ProductFacetIndex.Result result = facetIndex.query(status, categoryId, inStock, minPrice, maxPrice,
+                attributes, offset, size);
+        if (result == null)
+            return listFacetedFromDatabase(status, categoryId, inStock, minPrice, maxPrice, attributes, pageable);
+        int pageSize = pageable.isPaged() ? size : Math.max(1, result.ids().size());
+        return com.vtcweb.backend.dto.product.FacetedProductPageDTO.builder()
+                .content(loadCards(result.ids()))
+                .page(new org.springframework.data.web.PagedModel.PageMetadata(pageSize,
+                        pageable.isPaged() ? pageable.getPageNumber() : 0, result.total(),
+                        (result.total() + pageSize - 1) / pageSize))
+                .facets(result.facets())
+                .build();
+    }
+
+    /**
+     * The same page while the facet index is still loading: attribute filters
+     * become id sets from the variation attributes, the rest are the card
+     * filters, newest first. Facet counts stay empty until the index is ready.
+     */
+    private com.vtcweb.backend.dto.product.FacetedProductPageDTO listFacetedFromDatabase(
+            com.vtcweb.backend.model.entity.product.ProductStatus status, Long categoryId, Boolean inStock,
+            BigDecimal minPrice, BigDecimal maxPrice, java.util.Map<String, java.util.Set<String>> attributes,
+            Pageable pageable) {
+        java.util.Set<Long> ids = null;
+        if (attributes != null) {
+            for (java.util.Map.Entry<String, java.util.Set<String>> e : attributes.entrySet()) {
+                java.util.Set<String> values = new java.util.HashSet<>();
+                e.getValue().forEach(v -> values.add(v.trim().toLowerCase(java.util.Locale.ROOT)));
+                String name = e.getKey().trim().toLowerCase(java.util.Locale.ROOT);
+                if (name.isEmpty() || values.isEmpty())
+                    continue;
+                java.util.Set<Long> matching = new java.util.HashSet<>(productRepository.findIdsByAttribute(name, values));
+                if (ids == null)
+                    ids = matching;
+                else
+                    ids.retainAll(matching);
+            }
+        }
+        Pageable newest = pageable.isPaged()
+                ? org.springframework.data.domain.PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                        org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "id"))
+                : org.springframework.data.domain.Pageable.unpaged(
+                        org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "id"));
+        Page<com.vtcweb.backend.dto.product.ProductCardDTO> page;
+        if (ids == null)
+            page = productRepository.findCards(status, categoryId, inStock, minPrice, maxPrice, newest);
+        else if (ids.isEmpty())
+            page = Page.empty(newest);
+        else
+            page = productRepository.findCardsAmong(status, categoryId, inStock, minPrice, maxPrice, ids, newest);
+        int pageSize = pageable.isPaged() ? pageable.getPageSize() : Math.max(1, page.getNumberOfElements());
+        return com.vtcweb.backend.dto.product.FacetedProductPageDTO.builder()
+                .content(page.getContent())
+                .page(new org.springframework.data.web.PagedModel.PageMetadata(pageSize,
+                        pageable.isPaged() ? pageable.getPageNumber() : 0, page.getTotalElements(),
+                        (page.getTotalElements() + pageSize - 1) / pageSize))
+                .facets(java.util.Map.of())
+                .build();
+    }
+
+    private static int clampSize(int size) {
+        return Math.max(1, Math.min(size, 100));
     }
 
     @Override
@@ -406,7 +568,7 @@ public class ProductServiceImpl implements ProductService {
         }
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new NotFoundException("Category not found: id=" + categoryId));
-        return generateSku(category);
+        return skuAllocator.peek(category);
     }
 
     @Override
@@ -432,10 +594,13 @@ public class ProductServiceImpl implements ProductService {
         if (updates.getDetailedDescription() != null)
             existing.setDetailedDescription(updates.getDetailedDescription());
         // Base price
+        boolean basePriceChanged = false;
         if (updates.getBasePrice() != null) {
             if (isNegative(updates.getBasePrice())) {
                 throw new IllegalArgumentException("basePrice must be >= 0");
             }
+            basePriceChanged = existing.getBasePrice() == null
+                    || existing.getBasePrice().compareTo(updates.getBasePrice()) != 0;
             existing.setBasePrice(updates.getBasePrice());
         }
         // Highlights (replace list if provided)
@@ -459,11 +624,21 @@ public class ProductServiceImpl implements ProductService {
             Long currentCategoryId = existing.getCategory() != null ? existing.getCategory().getId() : null;
             existing.setCategory(newCategory);
             if (newCategory.getId() != null && !java.util.Objects.equals(currentCategoryId, newCategory.getId())) {
-                existing.setSku(generateSku(newCategory));
+                existing.setSku(skuAllocator.next(newCategory));
+                catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.CATEGORIES,
+                        com.vtcweb.backend.service.catalog.CatalogCacheService.ALL);
             }
         }
         @SuppressWarnings({ "DataFlowIssue", "null" })
         Product saved = productRepository.save(existing);
+        if (basePriceChanged) {
+            // basePrice stands in for unpriced variations
+            productRepository.refreshPriceRange(saved.getId());
+        }
+        searchIndex.reindexAfterCommit(saved.getId());
+        facetIndex.refreshAfterCommit(java.util.List.of(saved.getId()));
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS,
+                saved.getId());
         return saved;
     }
 
@@ -493,6 +668,11 @@ public class ProductServiceImpl implements ProductService {
         log.debug("Product {} image cleanup results: productImagesDeleted={}, variationImagesDeleted={}", id,
                 imgDeleted, varDeleted.get());
         productRepository.delete(existing);
+        searchIndex.removeAfterCommit(id);
+        facetIndex.removeAfterCommit(id);
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.PRODUCTS, id);
+        catalogCache.invalidateAfterCommit(com.vtcweb.backend.service.catalog.CatalogCacheService.CATEGORIES,
+                com.vtcweb.backend.service.catalog.CatalogCacheService.ALL);
     }
 
     private void validateProductFields(Product product) {
@@ -507,232 +687,4 @@ public class ProductServiceImpl implements ProductService {
     private boolean isNegative(BigDecimal value) {
         return value.signum() < 0;
     }
-
-    /**
-     * SKU Format: CCC-NNN
-     * - CCC: first 3 alphanumeric chars of category name (uppercased, padded with X
-     * if shorter)
-     * - NNN: per-category numeric sequence (001, 002, ...)
-     * Ensures uniqueness by incrementing sequence until a free candidate is found.
-     */
-    private String generateSku(Category category) {
-        if (category == null) {
-            throw new IllegalArgumentException("category must not be null");
-        }
-        if (category.getId() == null) {
-            throw new IllegalArgumentException("Category must be persisted before generating SKU");
-        }
-        String categoryCode = deriveCategoryCode(category);
-        int nextSequence = determineNextSequence(category.getId(), categoryCode);
-        int attempts = 0;
-        int candidateSequence = nextSequence;
-        while (attempts < MAX_SKU_ATTEMPTS) {
-            String candidate = formatSku(categoryCode, candidateSequence);
-            if (!productRepository.existsBySku(candidate)) {
-                return candidate;
-            }
-            candidateSequence++;
-            attempts++;
-        }
-        throw new IllegalStateException("Unable to generate unique SKU after " + MAX_SKU_ATTEMPTS
-                + " attempts for category " + category.getId());
-    }
-
-    private int determineNextSequence(Long categoryId, String categoryCode) {
-        String prefixWithDash = categoryCode + "-";
-        return productRepository
-                .findTopByCategory_IdAndSkuStartingWithOrderBySkuDesc(categoryId, prefixWithDash)
-                .map(product -> {
-                    int last = extractSequence(product.getSku(), prefixWithDash);
-                    return (last >= 1) ? last + 1 : 1;
-                })
-                .orElse(1);
-    }
-
-    private int extractSequence(String sku, String prefixWithDash) {
-        if (sku == null || prefixWithDash == null || !sku.startsWith(prefixWithDash)) {
-            return 0;
-        }
-        String tail = sku.substring(prefixWithDash.length());
-        if (tail.isEmpty()) {
-            return 0;
-        }
-        try {
-            return Integer.parseInt(tail);
-        } catch (NumberFormatException ignored) {
-            String digitsOnly = tail.replaceAll("[^0-9]", "");
-            if (digitsOnly.isEmpty()) {
-                return 0;
-            }
-            return Integer.parseInt(digitsOnly);
-        }
-    }
-
-    private String deriveCategoryCode(Category category) {
-        if (category != null && category.getCode() != null) {
-            String explicit = category.getCode().trim().toUpperCase();
-            // Accept only alphanumeric 1-3 chars
-            if (explicit.matches("[A-Z0-9]{1,3}")) {
-                // Pad to 3 chars if shorter (e.g. 'HW' -> 'HWX') to maintain fixed width
-                return (explicit + "XXX").substring(0, 3);
-            }
-        }
-        String categoryName = category != null ? category.getName() : null;
-        if (categoryName == null)
-            return DEFAULT_CATEGORY_CODE;
-        String cleaned = categoryName.replaceAll("[^A-Za-z0-9]", "").toUpperCase();
-        if (cleaned.isEmpty())
-            return DEFAULT_CATEGORY_CODE;
-        // Consonant-based generation similar to CategoryServiceImpl
-        StringBuilder code = new StringBuilder();
-        code.append(cleaned.charAt(0));
-        String vowels = "AEIOU";
-        for (int i = 1; i < cleaned.length() && code.length() < 3; i++) {
-            char c = cleaned.charAt(i);
-            if (Character.isLetter(c) && vowels.indexOf(c) == -1) {
-                code.append(c);
-            } else if (Character.isDigit(c)) {
-                code.append(c);
-            }
-        }
-        for (int i = 1; i < cleaned.length() && code.length() < 3; i++) {
-            char c = cleaned.charAt(i);
-            if (code.indexOf(String.valueOf(c)) == -1) {
-                code.append(c);
-            }
-        }
-        while (code.length() < 3)
-            code.append('X');
-        return code.substring(0, 3);
-    }
-
-    private String formatSku(String categoryCode, int sequence) {
-        return categoryCode + "-" + String.format("%03d", sequence);
-    }
-
-    private boolean isExternalNonCloudinaryUrl(String url) {
-        if (url == null)
-            return false;
-        String lower = url.toLowerCase();
-        if (!(lower.startsWith("http://") || lower.startsWith("https://")))
-            return false;
-        return !lower.contains("res.cloudinary.com");
-    }
-
-    private byte[] downloadImage(String url) {
-        try {
-            java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
-                    .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
-                    .build();
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder(java.net.URI.create(url))
-                    .GET()
-                    .header("User-Agent", "VTC-Backend/1.0")
-                    .build();
-            java.net.http.HttpResponse<byte[]> resp = client.send(request,
-                    java.net.http.HttpResponse.BodyHandlers.ofByteArray());
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                String ctype = resp.headers().firstValue("Content-Type").orElse("");
-                if (ctype.startsWith("image/")) {
-                    return resp.body();
-                }
-            }
-        } catch (Exception e) {
-            log.debug("Remote image fetch failed for URL {}: {}", url, e.getMessage());
-        }
-        return null;
-    }
-
-    private String guessMetaFromUrl(String url) {
-        if (url == null)
-            return "image/png"; // default
-        String lower = url.toLowerCase();
-        if (lower.endsWith(".png"))
-            return "image/png";
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg"))
-            return "image/jpeg";
-        if (lower.endsWith(".webp"))
-            return "image/webp";
-        return "image/png";
-    }
-
-    private String deriveExt(String meta) {
-        if (meta == null)
-            return "png"; // default
-        if (meta.contains("image/png"))
-            return "png";
-        if (meta.contains("image/jpeg"))
-            return "jpg";
-        if (meta.contains("image/webp"))
-            return "webp";
-        return "png";
-    }
-
-    private String deriveContentType(String meta) {
-        if (meta == null)
-            return org.springframework.http.MediaType.IMAGE_PNG_VALUE;
-        if (meta.contains("image/png"))
-            return org.springframework.http.MediaType.IMAGE_PNG_VALUE;
-        if (meta.contains("image/jpeg"))
-            return org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
-        if (meta.contains("image/webp"))
-            return "image/webp";
-        return org.springframework.http.MediaType.IMAGE_PNG_VALUE;
-    }
-
-    /** Simple in-memory MultipartFile implementation. */
-    private static class InMemoryMultipartFile implements MultipartFile {
-        private final @NonNull String name;
-        private final @NonNull String originalFilename;
-        private final String contentType;
-        private final byte[] content;
-
-        InMemoryMultipartFile(String name, String originalFilename, String contentType, byte[] content) {
-            this.name = java.util.Objects.requireNonNull(name, "name");
-            this.originalFilename = java.util.Objects.requireNonNull(originalFilename, "originalFilename");
-            this.contentType = contentType;
-            this.content = content != null ? content : new byte[0];
-        }
-
-        @Override
-        public @NonNull String getName() {
-            return name;
-        }
-
-        @Override
-        public @NonNull String getOriginalFilename() {
-            return originalFilename;
-        }
-
-        @Override
-        public String getContentType() {
-            return contentType;
-        }
-
-        @Override
-        public boolean isEmpty() {
-            return content.length == 0;
-        }
-
-        @Override
-        public long getSize() {
-            return content.length;
-        }
-
-        @Override
-        public @NonNull byte[] getBytes() {
-            return content.clone();
-        }
-
-        @Override
-        public @NonNull java.io.InputStream getInputStream() {
-            return new java.io.ByteArrayInputStream(content);
-        }
-
-        @Override
-        public void transferTo(@NonNull java.io.File dest) throws java.io.IOException {
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(dest)) {
-                fos.write(content);
-            }
-        }
-    }
 }
@@ -6,6 +6,7 @@ import com.vtcweb.backend.model.entity.product.Product;
 import com.vtcweb.backend.model.entity.product.ProductVariation;
 import com.vtcweb.backend.repository.product.ProductRepository;
 import com.vtcweb.backend.repository.product.ProductVariationRepository;
+import com.vtcweb.backend.service.catalog.CatalogCacheService;
 import com.vtcweb.backend.util.Mapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,9 @@ public class ProductVariationServiceImpl implements ProductVariationService {
 
     private final ProductVariationRepository variationRepository;
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final CatalogCacheService catalogCache;
 
     @Override
     public ProductVariation create(Long productId, ProductVariation variation) {
@@ -52,7 +56,14 @@ public class ProductVariationServiceImpl implements ProductVariationService {
         variation.setId(null);
         variation.setProduct(product);
         variation.setVariationKey(derivedKey);
-        return variationRepository.save(variation);
+        ProductVariation saved = variationRepository.save(variation);
+        productRepository.applyStockChange(product.getId(), 0, stockOf(saved));
+        productRepository.refreshPriceRange(product.getId());
+        searchIndex.refreshStockAfterCommit(List.of(product.getId()));
+        facetIndex.refreshAfterCommit(List.of(product.getId()));
+        catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS,
+                product.getId());
+        return saved;
     }
 
     @Override
@@ -108,16 +119,20 @@ public class ProductVariationServiceImpl implements ProductVariationService {
             existing.setVariationKey(newKey);
         }
         // price
+        boolean priceChanged = false;
         if (updates.getPrice() != null) {
             if (updates.getPrice().signum() < 0)
                 throw new IllegalArgumentException("price must be >= 0");
+            priceChanged = existing.getPrice() == null || existing.getPrice().compareTo(updates.getPrice()) != 0;
             existing.setPrice(updates.getPrice());
         }
         // stock
         if (updates.getStock() != null) {
             if (updates.getStock() < 0)
                 throw new IllegalArgumentException("stock must be >= 0");
+            productRepository.applyStockChange(existing.getProduct().getId(), stockOf(existing), updates.getStock());
             existing.setStock(updates.getStock());
+            searchIndex.refreshStockAfterCommit(List.of(existing.getProduct().getId()));
         }
         // image url
         if (updates.getImageUrl() != null)
@@ -127,6 +142,11 @@ public class ProductVariationServiceImpl implements ProductVariationService {
         if (saved == null) {
             throw new IllegalStateException("Failed to save ProductVariation");
         }
+        if (priceChanged)
+            productRepository.refreshPriceRange(existing.getProduct().getId());
+        facetIndex.refreshAfterCommit(List.of(existing.getProduct().getId()));
+        catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS,
+                existing.getProduct().getId());
         return saved;
     }
 
@@ -134,5 +154,15 @@ public class ProductVariationServiceImpl implements ProductVariationService {
     public void delete(Long id) {
         ProductVariation existing = getById(id);
         variationRepository.delete(existing);
+        productRepository.applyStockChange(existing.getProduct().getId(), stockOf(existing), 0);
+        productRepository.refreshPriceRange(existing.getProduct().getId());
+        searchIndex.refreshStockAfterCommit(List.of(existing.getProduct().getId()));
+        facetIndex.refreshAfterCommit(List.of(existing.getProduct().getId()));
+        catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS,
+                existing.getProduct().getId());
+    }
+
+    private static int stockOf(ProductVariation v) {
+        return v.getStock() == null ? 0 : v.getStock();
     }
 }
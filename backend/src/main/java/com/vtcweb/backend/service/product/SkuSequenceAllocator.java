@@ -0,0 +1,156 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.repository.category.CategorySkuSequenceRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SKU allocation: CCC-NNN where CCC is the category code and NNN a number from
+ * the category_sku_sequences row of that code.
+ *
+ * Every allocation is one row-locked increment plus a read, so concurrent
+ * creations in a category never probe for free SKUs. The increment joins the
+ * caller's transaction when there is one: a separate transaction would need a
+ * second pooled connection per create, and enough concurrent creates would
+ * exhaust the pool waiting on each other. The row lock is therefore held until
+ * the caller commits, and a rolled-back caller's numbers are reused. Callers
+ * without a transaction (bulk imports) get a short one of their own. A row is
+ * seeded on first use from the highest SKU already present for the code.
+ */
+@Service
+public class SkuSequenceAllocator {
+
+    /** Upper bound for one reservation; bulk imports reserve in chunks. */
+    public static final int MAX_RESERVATION = 10_000;
+
+    private static final String DEFAULT_CATEGORY_CODE = "CAT";
+
+    private final CategorySkuSequenceRepository sequenceRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate allocationTx;
+
+    public SkuSequenceAllocator(CategorySkuSequenceRepository sequenceRepository,
+            ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.sequenceRepository = sequenceRepository;
+        this.productRepository = productRepository;
+        this.allocationTx = new TransactionTemplate(transactionManager);
+        this.allocationTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+    }
+
+    /** Allocate the next SKU for a persisted category. */
+    public String next(Category category) {
+        return reserve(category, 1).get(0);
+    }
+
+    /** Allocate count consecutive SKUs for a persisted category (bulk imports). */
+    public List<String> reserve(Category category, int count) {
+        if (count < 1 || count > MAX_RESERVATION)
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_RESERVATION);
+        String code = categoryCode(category);
+        long first = allocate(code, count);
+        List<String> skus = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            skus.add(format(code, first + i));
+        return skus;
+    }
+
+    /** The SKU the next allocation would return, without taking it. */
+    public String peek(Category category) {
+        String code = categoryCode(category);
+        long next = sequenceRepository.findNextValue(code).orElseGet(() -> highestUsed(code) + 1);
+        return format(code, next);
+    }
+
+    /** First number of a freshly taken block of count numbers. */
+    private long allocate(String code, int count) {
+        Long next = allocationTx.execute(s -> {
+            if (sequenceRepository.increment(code, count) == 0) {
+                sequenceRepository.insertIfAbsent(code, highestUsed(code) + 1);
+                sequenceRepository.increment(code, count);
+            }
+            return sequenceRepository.findNextValue(code)
+                    .orElseThrow(() -> new IllegalStateException("SKU sequence missing for " + code));
+        });
+        return next - count;
+    }
+
+    /** Highest number among existing SKUs of a code (0 when none). */
+    private long highestUsed(String code) {
+        String prefixWithDash = code + "-";
+        return productRepository.findSkusHighestFirst(prefixWithDash + "%", PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(sku -> extractSequence(sku, prefixWithDash))
+                .orElse(0L);
+    }
+
+    private long extractSequence(String sku, String prefixWithDash) {
+        if (sku == null || !sku.startsWith(prefixWithDash)) {
+            return 0;
+        }
+        String digitsOnly = sku.substring(prefixWithDash.length()).replaceAll("[^0-9]", "");
+        if (digitsOnly.isEmpty() || digitsOnly.length() > 18) {
+            return 0;
+        }
+        return Long.parseLong(digitsOnly);
+    }
+
+    private String categoryCode(Category category) {
+        if (category == null) {
+            throw new IllegalArgumentException("category must not be null");
+        }
+        if (category.getId() == null) {
+            throw new IllegalArgumentException("Category must be persisted before generating SKU");
+        }
+        return deriveCategoryCode(category);
+    }
+
+    private String deriveCategoryCode(Category category) {
+        if (category != null && category.getCode() != null) {
+            String explicit = category.getCode().trim().toUpperCase();
+            // Accept only alphanumeric 1-3 chars
+            if (explicit.matches("[A-Z0-9]{1,3}")) {
+                // Pad to 3 chars if shorter (e.g. 'HW' -> 'HWX') to maintain fixed width
+                return (explicit + "XXX").substring(0, 3);
+            }
+        }
+        String categoryName = category != null ? category.getName() : null;
+        if (categoryName == null)
+            return DEFAULT_CATEGORY_CODE;
+        String cleaned = categoryName.replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+        if (cleaned.isEmpty())
+            return DEFAULT_CATEGORY_CODE;
+        // Consonant-based generation similar to CategoryServiceImpl
+        StringBuilder code = new StringBuilder();
+        code.append(cleaned.charAt(0));
+        String vowels = "AEIOU";
+        for (int i = 1; i < cleaned.length() && code.length() < 3; i++) {
+            char c = cleaned.charAt(i);
+            if (Character.isLetter(c) && vowels.indexOf(c) == -1) {
+                code.append(c);
+            } else if (Character.isDigit(c)) {
+                code.append(c);
+            }
+        }
+        for (int i = 1; i < cleaned.length() && code.length() < 3; i++) {
+            char c = cleaned.charAt(i);
+            if (code.indexOf(String.valueOf(c)) == -1) {
+                code.append(c);
+            }
+        }
+        while (code.length() < 3)
+            code.append('X');
+        return code.substring(0, 3);
+    }
+
+    private static String format(String categoryCode, long sequence) {
+        return categoryCode + "-" + String.format("%03d", sequence);
+    }
+}
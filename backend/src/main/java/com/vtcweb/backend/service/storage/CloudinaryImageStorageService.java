@@ -4,46 +4,121 @@ import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
-/** Cloudinary implementation of ImageStorageService. */
+/**
+ * Cloudinary implementation of ImageStorageService. Uploads are deduplicated by
+ * content through StoredImageIndex: bytes that are already stored return the
+ * existing asset, and deleteByUrl only removes an asset with its last
+ * reference.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CloudinaryImageStorageService implements ImageStorageService {
 
 	private final Cloudinary cloudinary;
+	private final StoredImageIndex storedImageIndex;
+
+	/**
+	 * Parts up to this size are sent from memory; larger ones are moved to a temp
+	 * file first (usually a rename of the container's own spool file) and
+	 * streamed from disk.
+	 */
+	@Value("${app.images.upload.in-memory-max-bytes:262144}")
+	private long inMemoryMaxBytes;
 
 	@Override
 	public UploadResult upload(MultipartFile file, String folder) {
 		if (file == null || file.isEmpty()) {
 			throw new IllegalArgumentException("file must not be empty");
 		}
-		try {
-			// Basic validation of content type
-			String contentType = file.getContentType();
-			if (contentType != null && !contentType.startsWith("image/")) {
-				throw new IllegalArgumentException("Only image files are allowed");
+		String contentType = file.getContentType();
+		checkContentType(contentType);
+		if (file.getSize() <= inMemoryMaxBytes) {
+			try {
+				byte[] bytes = file.getBytes();
+				String hash = storedImageIndex.isEnabled() ? StoredImageIndex.sha256(bytes) : null;
+				return dedup(hash, () -> send(bytes, contentType, folder, file.getSize()));
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to upload image to Cloudinary", e);
 			}
-			@SuppressWarnings("unchecked")
-			Map<String, Object> params = (Map<String, Object>) (Map<?, ?>) ObjectUtils.asMap(
-					"folder", folder != null && !folder.isBlank() ? folder : "products",
-					"resource_type", "image",
-					"overwrite", false,
-					"format", deriveFormat(contentType));
-			Map<?, ?> result = cloudinary.uploader().upload(file.getBytes(), params);
-			String url = (String) result.get("secure_url");
-			String publicId = (String) result.get("public_id");
-			String format = (String) result.get("format");
-			Number bytes = (Number) result.get("bytes");
-			return new UploadResult(url, publicId, bytes != null ? bytes.longValue() : file.getSize(), format);
+		}
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile("upload-", ".img");
+			file.transferTo(tmp);
+			return upload(tmp, contentType, folder);
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to upload image to Cloudinary", e);
+		} finally {
+			deleteQuietly(tmp);
+		}
+	}
+
+	@Override
+	public UploadResult upload(Path file, String contentType, String folder) {
+		long size;
+		try {
+			size = file != null ? Files.size(file) : 0;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("file not readable: " + file, e);
+		}
+		if (size == 0) {
+			throw new IllegalArgumentException("file must not be empty");
+		}
+		checkContentType(contentType);
+		try {
+			String hash = storedImageIndex.isEnabled() ? StoredImageIndex.sha256(file) : null;
+			// The SDK sends a File as a streamed multipart body
+			return dedup(hash, () -> send(file.toFile(), contentType, folder, size));
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to upload image to Cloudinary", e);
+		}
+	}
+
+	/** Reuse the asset stored for these bytes, or upload and index them. */
+	private UploadResult dedup(String hash, StoredImageIndex.Upload upload) throws IOException {
+		return storedImageIndex.store(hash, upload, lost -> destroy(lost.publicId()));
+	}
+
+	private UploadResult send(Object source, String contentType, String folder, long size) throws IOException {
+		@SuppressWarnings("unchecked")
+		Map<String, Object> params = (Map<String, Object>) (Map<?, ?>) ObjectUtils.asMap(
+				"folder", folder != null && !folder.isBlank() ? folder : "products",
+				"resource_type", "image",
+				"overwrite", false,
+				"format", deriveFormat(contentType));
+		Map<?, ?> result = cloudinary.uploader().upload(source, params);
+		String url = (String) result.get("secure_url");
+		String publicId = (String) result.get("public_id");
+		String format = (String) result.get("format");
+		Number bytes = (Number) result.get("bytes");
+		return new UploadResult(url, publicId, bytes != null ? bytes.longValue() : size, format);
+	}
+
+	// Basic validation of content type
+	private static void checkContentType(String contentType) {
+		if (contentType != null && !contentType.startsWith("image/")) {
+			throw new IllegalArgumentException("Only image files are allowed");
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		if (path == null)
+			return;
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.debug("Could not delete temp upload {}: {}", path, e.getMessage());
 		}
 	}
 
@@ -51,6 +126,31 @@ public class CloudinaryImageStorageService implements ImageStorageService {
 	public void delete(String publicId) {
 		if (publicId == null || publicId.isBlank())
 			return; // no-op
+		destroy(publicId);
+		storedImageIndex.forget(publicId);
+	}
+
+	/** Releases one reference; the asset itself goes with the last one. */
+	@Override
+	public boolean deleteByUrl(String url) {
+		String publicId = ImageStorageService.publicIdOf(url);
+		if (publicId == null || !storedImageIndex.release(publicId))
+			return false;
+		destroy(publicId);
+		return true;
+	}
+
+	@Override
+	public boolean retainByUrl(String url) {
+		return storedImageIndex.retain(ImageStorageService.publicIdOf(url));
+	}
+
+	@Override
+	public void releaseByUrl(String url) {
+		storedImageIndex.releaseShared(ImageStorageService.publicIdOf(url));
+	}
+
+	private void destroy(String publicId) {
 		try {
 			cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
 		} catch (Exception e) {
@@ -0,0 +1,468 @@
+package com.vtcweb.backend.service.storage;
+
+import com.vtcweb.backend.dto.storage.ImageIngestionJobDTO;
+import com.vtcweb.backend.exception.NotFoundException;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.Product;
+import com.vtcweb.backend.model.entity.product.ProductImage;
+import com.vtcweb.backend.model.entity.product.ProductImage.ImageType;
+import com.vtcweb.backend.model.entity.product.ProductVariation;
+import com.vtcweb.backend.model.entity.storage.ImageIngestionJob;
+import com.vtcweb.backend.repository.product.ProductImageRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.repository.product.ProductVariationRepository;
+import com.vtcweb.backend.repository.storage.ImageIngestionJobRepository;
+import com.vtcweb.backend.service.catalog.CatalogCacheService;
+import com.vtcweb.backend.service.category.CategoryService;
+import com.vtcweb.backend.util.ImageUploadUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background image uploads. Admin uploads are spooled to local disk and
+ * recorded as a job (plus a PENDING ProductImage placeholder for product
+ * images) so the request returns without waiting for the storage provider.
+ * Workers on imageIngestExecutor upload the file and write the resulting URL
+ * to its target; failures are retried with exponential backoff until
+ * app.images.ingest.max-attempts, after which the job and its placeholder are
+ * FAILED.
+ *
+ * Jobs are dispatched right after their transaction commits; a poller picks
+ * up retries, jobs the pool had no room for, and RUNNING jobs whose worker
+ * died. Spooled files live on the node that accepted the upload, so nodes
+ * must share app.images.ingest.spool-dir to pick up each other's jobs.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class ImageIngestionService {
+
+    private static final int ERROR_MAX = 500;
+
+    private final ImageIngestionJobRepository jobRepository;
+    private final ProductImageRepository imageRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariationRepository variationRepository;
+    private final CategoryService categoryService;
+    private final ImageStorageService imageStorageService;
+    private final RemoteImageFetcher remoteImageFetcher;
+    private final CatalogCacheService catalogCache;
+    private final TransactionTemplate tx;
+    private final Executor imageIngestExecutor;
+
+    @Value("${app.images.ingest.spool-dir:${java.io.tmpdir}/vtc-image-ingest}")
+    private String spoolDir;
+
+    @Value("${app.images.ingest.max-attempts:5}")
+    private int maxAttempts;
+
+    /** Delay before the first retry; doubles per attempt up to max-backoff-ms. */
+    @Value("${app.images.ingest.backoff-ms:2000}")
+    private long backoffMs;
+
+    @Value("${app.images.ingest.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    /** RUNNING jobs untouched for this long are assumed abandoned and requeued. */
+    @Value("${app.images.ingest.stale-after-ms:600000}")
+    private long staleAfterMs;
+
+    @Value("${app.images.ingest.poll-batch:20}")
+    private int pollBatch;
+
+    public ImageIngestionService(ImageIngestionJobRepository jobRepository, ProductImageRepository imageRepository,
+            ProductRepository productRepository, ProductVariationRepository variationRepository,
+            CategoryService categoryService, ImageStorageService imageStorageService,
+            RemoteImageFetcher remoteImageFetcher, CatalogCacheService catalogCache, PlatformTransactionManager transactionManager,
+            @Qualifier("imageIngestExecutor") Executor imageIngestExecutor) {
+        this.jobRepository = jobRepository;
+        this.imageRepository = imageRepository;
+        this.productRepository = productRepository;
+        this.variationRepository = variationRepository;
+        this.categoryService = categoryService;
+        this.imageStorageService = imageStorageService;
+        this.remoteImageFetcher = remoteImageFetcher;
+        this.catalogCache = catalogCache;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.imageIngestExecutor = imageIngestExecutor;
+    }
+
+    /**
+     * Accept an uploaded file for a product (variationId null) or one of its
+     * variations. Returns the job; its productImageId is the placeholder row.
+     */
+    public ImageIngestionJob submitProductImage(Long productId, Long variationId, MultipartFile file, ImageType type) {
+        if (productId == null)
+            throw new IllegalArgumentException("productId must not be null");
+        requireFile(file);
+        String jobId = UUID.randomUUID().toString();
+        Path spooled = spool(jobId, file);
+        try {
+            return tx.execute(status -> {
+                Product product = productRepository.findById(productId)
+                        .orElseThrow(() -> new NotFoundException("Product not found: id=" + productId));
+                ProductVariation variation = null;
+                String folder = productFolder(product);
+                if (variationId != null) {
+                    variation = variationRepository.findById(variationId)
+                            .orElseThrow(() -> new NotFoundException("Variation not found: id=" + variationId));
+                    if (!variation.getProduct().getId().equals(product.getId()))
+                        throw new IllegalArgumentException("Variation does not belong to product");
+                    folder = folder + "/variations/" + variationId;
+                }
+                ProductImage placeholder = imageRepository.save(ProductImage.builder()
+                        .product(product)
+                        .variation(variation)
+                        .type(type != null ? type : ImageType.SECONDARY)
+                        .status(ProductImage.Status.PENDING)
+                        .build());
+                catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS, productId);
+                return enqueue(ImageIngestionJob.builder()
+                        .id(jobId)
+                        .target(ImageIngestionJob.Target.PRODUCT_IMAGE)
+                        .productId(productId)
+                        .productImageId(placeholder.getId())
+                        .folder(folder)
+                        .filename(file.getOriginalFilename())
+                        .contentType(file.getContentType())
+                        .sourcePath(spooled.toString())
+                        .build());
+            });
+        } catch (RuntimeException ex) {
+            deleteQuietly(spooled);
+            throw ex;
+        }
+    }
+
+    /**
+     * Queue a data URI or remote URL as a product image, inside the caller's
+     * transaction. Returns the PENDING placeholder.
+     */
+    public ProductImage submitProductImage(Product product, String source, ImageType type, String nameHint) {
+        String trimmed = source == null ? "" : source.trim();
+        String jobId = UUID.randomUUID().toString();
+        ImageIngestionJob.ImageIngestionJobBuilder job = ImageIngestionJob.builder()
+                .id(jobId)
+                .target(ImageIngestionJob.Target.PRODUCT_IMAGE)
+                .productId(product.getId())
+                .folder(productFolder(product));
+        String mime = ImageUploadUtils.dataUriMime(trimmed);
+        if (mime != null) {
+            Path spooled = spoolPath(jobId);
+            try {
+                Files.createDirectories(spooled.getParent());
+                ImageUploadUtils.writeDataUri(trimmed, spooled);
+            } catch (IOException | IllegalArgumentException e) {
+                deleteQuietly(spooled);
+                throw new IllegalArgumentException("Failed to read image data", e);
+            }
+            registerCleanupOnRollback(spooled);
+            job.sourcePath(spooled.toString()).contentType(mime).filename(nameHint + "." + extension(mime));
+        } else if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
+            job.sourceUrl(trimmed).filename(nameHint);
+        } else {
+            throw new IllegalArgumentException("Unsupported image source (must be data URI or HTTP URL): " + trimmed);
+        }
+        ProductImage placeholder = imageRepository.save(ProductImage.builder()
+                .product(product)
+                .type(type != null ? type : ImageType.SECONDARY)
+                .status(ProductImage.Status.PENDING)
+                .build());
+        enqueue(job.productImageId(placeholder.getId()).build());
+        return placeholder;
+    }
+
+    /** Accept an uploaded file for a category image slot (main, tile1, tile2). */
+    public ImageIngestionJob submitCategoryImage(Long categoryId, String slot, String folder, MultipartFile file) {
+        if (categoryId == null)
+            throw new IllegalArgumentException("categoryId must not be null");
+        requireFile(file);
+        String jobId = UUID.randomUUID().toString();
+        Path spooled = spool(jobId, file);
+        try {
+            return tx.execute(status -> enqueue(ImageIngestionJob.builder()
+                    .id(jobId)
+                    .target(ImageIngestionJob.Target.CATEGORY_IMAGE)
+                    .categoryId(categoryId)
+                    .slot(slot)
+                    .folder(folder)
+                    .filename(file.getOriginalFilename())
+                    .contentType(file.getContentType())
+                    .sourcePath(spooled.toString())
+                    .build()));
+        } catch (RuntimeException ex) {
+            deleteQuietly(spooled);
+            throw ex;
+        }
+    }
+
+    public Optional<ImageIngestionJobDTO> status(String jobId) {
+        if (jobId == null || jobId.isBlank())
+            return Optional.empty();
+        return jobRepository.findById(jobId).map(ImageIngestionService::toDto);
+    }
+
+    /** Retries, overflow and abandoned jobs; fresh jobs are dispatched on commit. */
+    @Scheduled(initialDelayString = "${app.images.ingest.poll-ms:2000}",
+            fixedDelayString = "${app.images.ingest.poll-ms:2000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Integer requeued = tx.execute(s -> jobRepository.requeueStale(now.minusNanos(staleAfterMs * 1_000_000), now));
+            if (requeued != null && requeued > 0)
+                log.warn("Requeued {} abandoned image ingestion job(s)", requeued);
+            List<String> due = jobRepository.findDueIds(now, PageRequest.of(0, Math.max(1, pollBatch)));
+            due.forEach(this::dispatch);
+        } catch (RuntimeException ex) {
+            log.warn("Image ingestion poll failed: {}", ex.getMessage());
+        }
+    }
+
+    private ImageIngestionJob enqueue(ImageIngestionJob job) {
+        job.setStatus(ImageIngestionJob.Status.PENDING);
+        job.setNextAttemptAt(LocalDateTime.now());
+        ImageIngestionJob saved = jobRepository.save(job);
+        String id = saved.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(id);
+                }
+            });
+        } else {
+            dispatch(id);
+        }
+        return saved;
+    }
+
+    private void dispatch(String jobId) {
+        try {
+            imageIngestExecutor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException ex) {
+            log.debug("Image ingestion pool full; job {} waits for the poller", jobId);
+        }
+    }
+
+    private void run(String jobId) {
+        Integer claimed = tx.execute(s -> jobRepository.claim(jobId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0)
+            return; // already taken, finished or not due yet
+        ImageIngestionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null)
+            return;
+        String url;
+        try {
+            url = upload(job);
+        } catch (MissingSourceException ex) {
+            fail(job, ex.getMessage(), true);
+            return;
+        } catch (Exception ex) {
+            fail(job, ex.getMessage() != null ? ex.getMessage() : ex.toString(), false);
+            return;
+        }
+        try {
+            complete(job, url);
+        } catch (RuntimeException ex) {
+            // The stored asset is not referenced by anything; remove it and retry from the source
+            imageStorageService.deleteByUrl(url);
+            fail(job, ex.getMessage(), false);
+        }
+    }
+
+    private String upload(ImageIngestionJob job) {
+        if (job.getSourcePath() != null) {
+            Path path = Paths.get(job.getSourcePath());
+            if (!Files.isRegularFile(path))
+                throw new MissingSourceException("Spooled image is missing: " + path);
+            return imageStorageService.upload(path, job.getContentType(), job.getFolder()).url();
+        }
+        if (job.getSourceUrl() != null) {
+            try (RemoteImageFetcher.Fetched fetched = remoteImageFetcher.fetch(job.getSourceUrl())) {
+                return imageStorageService.upload(fetched.file(), fetched.contentType(), job.getFolder()).url();
+            }
+        }
+        throw new MissingSourceException("Job has no image source");
+    }
+
+    private void complete(ImageIngestionJob job, String url) {
+        if (job.getTarget() == ImageIngestionJob.Target.CATEGORY_IMAGE) {
+            // Same path as a synchronous upload: update() swaps the slot and deletes the old asset.
+            // Only the slot is set so edits made while the job ran are not overwritten.
+            Category slot = new Category();
+            slot.setStatus(null); // defaults to ACTIVE, which update() would apply
+            switch (job.getSlot() == null ? "main" : job.getSlot()) {
+                case "tile1" -> slot.setCatTileImage1(url);
+                case "tile2" -> slot.setCatTileImage2(url);
+                default -> slot.setCatMainImg(url);
+            }
+            categoryService.update(job.getCategoryId(), slot);
+            // The slot took its own reference to the URL; give back the one from our upload
+            imageStorageService.releaseByUrl(url);
+        }
+        boolean orphaned = Boolean.TRUE.equals(tx.execute(s -> {
+            boolean gone = false;
+            if (job.getTarget() == ImageIngestionJob.Target.PRODUCT_IMAGE) {
+                ProductImage image = job.getProductImageId() == null ? null
+                        : imageRepository.findById(job.getProductImageId()).orElse(null);
+                if (image == null) {
+                    gone = true; // placeholder deleted while uploading
+                } else {
+                    image.setUrl(url);
+                    image.setStatus(ProductImage.Status.READY);
+                    imageRepository.save(image);
+                    catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS, job.getProductId());
+                }
+            }
+            job.setStatus(ImageIngestionJob.Status.SUCCEEDED);
+            job.setResultUrl(url);
+            job.setLastError(null);
+            job.setNextAttemptAt(null);
+            jobRepository.save(job);
+            return gone;
+        }));
+        if (orphaned)
+            imageStorageService.deleteByUrl(url);
+        discardSource(job);
+        log.debug("Image ingestion job {} stored {}", job.getId(), url);
+    }
+
+    private void fail(ImageIngestionJob job, String error, boolean permanent) {
+        int attempts = job.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= Math.max(1, maxAttempts);
+        tx.executeWithoutResult(s -> {
+            job.setAttempts(attempts);
+            job.setLastError(error == null ? null : error.substring(0, Math.min(ERROR_MAX, error.length())));
+            if (giveUp) {
+                job.setStatus(ImageIngestionJob.Status.FAILED);
+                job.setNextAttemptAt(null);
+                if (job.getProductImageId() != null) {
+                    imageRepository.findById(job.getProductImageId()).ifPresent(image -> {
+                        image.setStatus(ProductImage.Status.FAILED);
+                        imageRepository.save(image);
+                    });
+                    catalogCache.invalidateAfterCommit(CatalogCacheService.PRODUCTS, job.getProductId());
+                }
+            } else {
+                job.setStatus(ImageIngestionJob.Status.PENDING);
+                job.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff(attempts) * 1_000_000));
+            }
+            jobRepository.save(job);
+        });
+        if (giveUp) {
+            discardSource(job);
+            log.warn("Image ingestion job {} failed after {} attempt(s): {}", job.getId(), attempts, error);
+        } else {
+            log.info("Image ingestion job {} attempt {} failed, retrying: {}", job.getId(), attempts, error);
+        }
+    }
+
+    private long backoff(int attempts) {
+        long delay = Math.max(1, backoffMs) << Math.min(20, attempts - 1);
+        return Math.min(delay, Math.max(backoffMs, maxBackoffMs));
+    }
+
+    private void discardSource(ImageIngestionJob job) {
+        if (job.getSourcePath() != null)
+            deleteQuietly(Paths.get(job.getSourcePath()));
+    }
+
+    private static String productFolder(Product product) {
+        return "products/" + (product.getSku() != null ? product.getSku() : ("id-" + product.getId()));
+    }
+
+    private static void requireFile(MultipartFile file) {
+        if (file == null || file.isEmpty())
+            throw new IllegalArgumentException("file is required");
+    }
+
+    private Path spoolPath(String jobId) {
+        return Paths.get(spoolDir).resolve(jobId + ".img");
+    }
+
+    private Path spool(String jobId, MultipartFile file) {
+        Path target = spoolPath(jobId);
+        try {
+            Files.createDirectories(target.getParent());
+            // Moves the container's temp file when the part was spooled to disk
+            file.transferTo(target);
+            return target;
+        } catch (IOException e) {
+            deleteQuietly(target);
+            throw new IllegalStateException("Failed to store uploaded image", e);
+        }
+    }
+
+    private static void registerCleanupOnRollback(Path spooled) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED)
+                    deleteQuietly(spooled);
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete spooled image {}: {}", path, e.toString());
+        }
+    }
+
+    private static String extension(String mime) {
+        return switch (mime == null ? "" : mime.toLowerCase(Locale.ROOT)) {
+            case "image/jpeg", "image/jpg" -> "jpg";
+            case "image/webp" -> "webp";
+            case "image/svg+xml" -> "svg";
+            default -> "png";
+        };
+    }
+
+    private static ImageIngestionJobDTO toDto(ImageIngestionJob job) {
+        return ImageIngestionJobDTO.builder()
+                .id(job.getId())
+                .target(job.getTarget().name())
+                .status(job.getStatus().name())
+                .productId(job.getProductId())
+                .productImageId(job.getProductImageId())
+                .categoryId(job.getCategoryId())
+                .slot(job.getSlot())
+                .attempts(job.getAttempts())
+                .nextAttemptAt(job.getNextAttemptAt())
+                .lastError(job.getLastError())
+                .url(job.getResultUrl())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    /** The job cannot succeed on retry. */
+    private static final class MissingSourceException extends RuntimeException {
+        MissingSourceException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.vtcweb.backend.service.storage;
 
+import com.vtcweb.backend.util.ImageUploadUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * Abstraction for storing images (Cloudinary, S3, etc.).
  *
@@ -41,6 +46,44 @@ public interface ImageStorageService {
 	 */
 	UploadResult upload(MultipartFile file, String folder);
 
+	/**
+	 * Upload an image that is already on local disk. Providers should stream the
+	 * file rather than read it into memory.
+	 *
+	 * @param file        image file
+	 * @param contentType mime type (may be null)
+	 * @param folder      optional logical folder/path (provider-specific)
+	 * @return upload result containing URL and provider public ID
+	 */
+	UploadResult upload(Path file, String contentType, String folder);
+
+	/**
+	 * Upload a base64 data URI (data:image/png;base64,...). The payload is decoded
+	 * as a stream into a temp file and uploaded from there, so the decoded image
+	 * never sits in memory next to the base64 text.
+	 */
+	default UploadResult uploadDataUri(String dataUri, String folder) {
+		String mime = ImageUploadUtils.dataUriMime(dataUri);
+		if (mime == null) {
+			throw new IllegalArgumentException("Value is not a valid data URI");
+		}
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile("img-", "." + ImageUploadUtils.extensionFor(mime));
+			ImageUploadUtils.writeDataUri(dataUri, tmp);
+			return upload(tmp, mime, folder);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to decode data URI: " + e.getMessage(), e);
+		} finally {
+			if (tmp != null) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
 	/**
 	 * Delete a previously uploaded asset by its public ID.
 	 * 
@@ -60,13 +103,43 @@ public interface ImageStorageService {
 	 * Returns true if a delete attempt was made.
 	 */
 	default boolean deleteByUrl(String url) {
-		if (url == null || url.isBlank())
+		String publicId = publicIdOf(url);
+		if (publicId == null)
 			return false;
+		delete(publicId); // delegate to provider-specific deletion
+		return true;
+	}
+
+	/**
+	 * Count one more use of a stored asset whose URL is persisted again as is
+	 * (a storage URL passed through instead of uploaded), so a later deleteByUrl
+	 * for another user does not remove it. Returns true when a reference was
+	 * taken; providers without reference counting take none.
+	 */
+	default boolean retainByUrl(String url) {
+		return false;
+	}
+
+	/**
+	 * Give back a reference that is known not to be the asset's last (one taken
+	 * for a value that then was not used). Unlike deleteByUrl this never deletes
+	 * the asset, so it is safe on URLs that may not be counted.
+	 */
+	default void releaseByUrl(String url) {
+	}
+
+	/**
+	 * Public ID of a Cloudinary secure URL (formats above), or null when the URL
+	 * does not look like one.
+	 */
+	static String publicIdOf(String url) {
+		if (url == null || url.isBlank())
+			return null;
 		try {
 			// Only handle Cloudinary secure URLs
 			int idx = url.indexOf("/upload/");
 			if (idx < 0)
-				return false;
+				return null;
 			String tail = url.substring(idx + "/upload/".length());
 			// Strip version segment if present (v123456789)
 			if (tail.startsWith("v")) {
@@ -78,12 +151,9 @@ public interface ImageStorageService {
 			int dot = tail.lastIndexOf('.');
 			if (dot > 0)
 				tail = tail.substring(0, dot);
-			if (tail.isBlank())
-				return false;
-			delete(tail); // delegate to provider-specific deletion
-			return true;
+			return tail.isBlank() ? null : tail;
 		} catch (Exception ignored) {
-			return false;
+			return null;
 		}
 	}
 
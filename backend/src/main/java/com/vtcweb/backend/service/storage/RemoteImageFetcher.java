@@ -0,0 +1,226 @@
+package com.vtcweb.backend.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Downloads remote images for re-upload (category images, createFull
+ * normalization, background ingestion). One HttpClient is shared so
+ * connections are pooled and kept alive (HTTP/2 where the server offers it).
+ *
+ * Redirects are followed by hand up to maxRedirects hops. The body is streamed
+ * to a temp file and the download is abandoned as soon as it passes maxBytes,
+ * whatever Content-Length claimed, or when it has not finished within timeout
+ * (the request timeout only covers the headers, so a server trickling the body
+ * would otherwise hold the caller and its host slot indefinitely). Each host gets at most perHost concurrent
+ * downloads so one slow site cannot tie up every caller.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class RemoteImageFetcher {
+
+    private static final Set<Integer> REDIRECT_CODES = Set.of(301, 302, 303, 307, 308);
+
+    /** A downloaded image on local disk; close() deletes the file. */
+    public record Fetched(Path file, String contentType, long size) implements AutoCloseable {
+        @Override
+        public void close() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete fetched image {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    /** Closes bodies that overrun their deadline; closing unblocks the reading thread. */
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "remote-image-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int maxRedirects;
+    private final long maxBytes;
+    private final int perHost;
+    private final Duration timeout;
+
+    public RemoteImageFetcher(@Value("${app.images.fetch.max-redirects:5}") int maxRedirects,
+            @Value("${app.images.fetch.max-bytes:5242880}") long maxBytes,
+            @Value("${app.images.fetch.per-host:4}") int perHost,
+            @Value("${app.images.fetch.timeout-ms:15000}") long timeoutMs) {
+        this.maxRedirects = Math.max(0, maxRedirects);
+        this.maxBytes = maxBytes;
+        this.perHost = Math.max(1, perHost);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
+                .build();
+    }
+
+    /**
+     * Download an image into a temp file. Callers should use try-with-resources
+     * so the file is removed once uploaded.
+     *
+     * @throws IllegalArgumentException when the URL is not http(s), the response
+     *                                  is not an image, too large, empty, or the
+     *                                  fetch fails
+     */
+    public Fetched fetch(String url) {
+        if (url == null || url.isBlank())
+            throw new IllegalArgumentException("url required");
+        URI uri = toHttpUri(url.trim());
+        for (int hop = 0;; hop++) {
+            Semaphore permits = acquire(uri);
+            try {
+                HttpResponse<InputStream> resp = send(uri);
+                if (!REDIRECT_CODES.contains(resp.statusCode()))
+                    return read(uri, resp);
+                closeQuietly(resp.body());
+                String location = resp.headers().firstValue("Location").orElse(null);
+                if (location == null)
+                    throw new IllegalArgumentException("Redirect without Location from " + uri);
+                if (hop >= maxRedirects)
+                    throw new IllegalArgumentException("Too many redirects fetching " + url);
+                uri = toHttpUri(uri.resolve(location).toString());
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    /** Take a download slot for the URI's host; held until its body is read. */
+    private Semaphore acquire(URI uri) {
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        Semaphore permits = hostPermits.computeIfAbsent(host, h -> new Semaphore(perHost));
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS))
+                throw new IllegalArgumentException("Too many concurrent downloads from " + host);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Interrupted waiting to fetch " + uri, e);
+        }
+        return permits;
+    }
+
+    private HttpResponse<InputStream> send(URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(timeout)
+                .header("User-Agent", "VTC-Backend/1.0")
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to download remote image: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Interrupted fetching " + uri, e);
+        }
+    }
+
+    private Fetched read(URI uri, HttpResponse<InputStream> resp) {
+        try (InputStream body = resp.body()) {
+            if (resp.statusCode() != 200)
+                throw new IllegalArgumentException("Remote image fetch failed HTTP " + resp.statusCode());
+            String contentType = resp.headers().firstValue("Content-Type").orElse("")
+                    .split(";")[0].trim().toLowerCase(Locale.ROOT);
+            if (!contentType.startsWith("image/"))
+                throw new IllegalArgumentException("URL does not point to an image");
+            long declared = resp.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (declared > maxBytes)
+                throw new IllegalArgumentException("Remote image too large (>" + maxBytes + " bytes)");
+            Path file = Files.createTempFile("remote-", ".img");
+            try {
+                long size = copyBounded(uri, body, file);
+                if (size == 0)
+                    throw new IllegalArgumentException("Empty remote image");
+                return new Fetched(file, contentType, size);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to download remote image from " + uri + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy at most maxBytes within timeout; closing the body early makes the
+     * client drop the connection.
+     */
+    private long copyBounded(URI uri, InputStream in, Path file) throws IOException {
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+            expired.set(true);
+            closeQuietly(in);
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        byte[] buffer = new byte[16 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                if (total > maxBytes)
+                    throw new IllegalArgumentException("Remote image too large (>" + maxBytes + " bytes)");
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            if (expired.get())
+                throw new IllegalArgumentException("Timed out downloading remote image from " + uri, e);
+            throw e;
+        } finally {
+            deadline.cancel(false);
+        }
+        return total;
+    }
+
+    private static URI toHttpUri(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid image URL: " + url, e);
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null)
+            throw new IllegalArgumentException("Unsupported image URL: " + url);
+        return uri;
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
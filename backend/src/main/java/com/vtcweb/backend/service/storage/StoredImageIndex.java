@@ -0,0 +1,258 @@
+package com.vtcweb.backend.service.storage;
+
+import com.vtcweb.backend.model.entity.storage.StoredImage;
+import com.vtcweb.backend.repository.storage.StoredImageRepository;
+import com.vtcweb.backend.service.storage.ImageStorageService.UploadResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Content-addressed index of uploaded images, so the same bytes are stored
+ * once no matter how many products, variations or categories use them.
+ *
+ * The stored_images table maps the SHA-256 of the bytes to the asset and
+ * counts its references; a bounded per-node LRU in front of it saves the
+ * lookup on repeat hits. Every upload that resolves to an asset adds a
+ * reference, as does persisting an indexed URL again (retain), and every
+ * deleteByUrl releases one, so the asset is only deleted with its last user.
+ * Assets uploaded before the index existed are not in it and are deleted as
+ * before.
+ *
+ * Concurrent uploads of the same bytes on one node wait for the first one
+ * instead of each uploading; across nodes the unique hash decides and the
+ * losing copy is deleted.
+ *
+ * Counts are changed in their own transactions: the storage side effects they
+ * guard (upload, delete) happen immediately and are not rolled back with the
+ * caller either.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class StoredImageIndex {
+
+    private final StoredImageRepository repository;
+    private final TransactionTemplate tx;
+    /** Access-ordered LRU of content hash -> asset. Guarded by itself. */
+    private final LinkedHashMap<String, UploadResult> local;
+    /** Hashes being uploaded on this node. */
+    private final ConcurrentHashMap<String, ReentrantLock> uploading = new ConcurrentHashMap<>();
+
+    @Value("${app.images.dedup.enabled:true}")
+    private boolean enabled;
+
+    public StoredImageIndex(StoredImageRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${app.images.dedup.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int cap = Math.max(1, cacheSize);
+        this.local = new LinkedHashMap<>(Math.min(cap, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UploadResult> eldest) {
+                return size() > cap;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** An upload to the storage provider. */
+    @FunctionalInterface
+    public interface Upload {
+        UploadResult run() throws IOException;
+    }
+
+    /**
+     * The asset for these bytes: an existing one with a reference added, or the
+     * result of upload, indexed with one reference. A null hash (dedup off)
+     * just uploads.
+     */
+    public UploadResult store(String hash, Upload upload, Consumer<UploadResult> discard) throws IOException {
+        if (!enabled || hash == null)
+            return upload.run();
+        ReentrantLock lock = uploading.computeIfAbsent(hash, h -> new ReentrantLock());
+        lock.lock();
+        try {
+            Optional<UploadResult> existing = reuse(hash);
+            if (existing.isPresent()) {
+                log.debug("Reusing stored image {} for identical upload", existing.get().publicId());
+                return existing.get();
+            }
+            return register(hash, upload.run(), discard);
+        } finally {
+            lock.unlock();
+            if (!lock.hasQueuedThreads())
+                uploading.remove(hash, lock);
+        }
+    }
+
+    /**
+     * The asset already stored for these bytes, with one more reference counted
+     * against it; empty when the bytes have not been uploaded yet.
+     */
+    private Optional<UploadResult> reuse(String hash) {
+        if (!enabled || hash == null)
+            return Optional.empty();
+        UploadResult found = tx.execute(status -> {
+            if (repository.addReference(hash) == 0)
+                return null;
+            UploadResult cached;
+            synchronized (local) {
+                cached = local.get(hash);
+            }
+            return cached != null ? cached : repository.findByContentHash(hash).map(StoredImageIndex::toResult).orElse(null);
+        });
+        synchronized (local) {
+            if (found != null)
+                local.put(hash, found);
+            else
+                local.remove(hash); // deleted meanwhile (possibly on another node)
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * Record a fresh upload of these bytes with one reference. If another upload
+     * of the same bytes was recorded first, that asset is used instead and ours
+     * is handed to discard.
+     */
+    private UploadResult register(String hash, UploadResult uploaded, Consumer<UploadResult> discard) {
+        if (!enabled || hash == null || uploaded == null || uploaded.publicId() == null)
+            return uploaded;
+        try {
+            tx.executeWithoutResult(status -> repository.saveAndFlush(StoredImage.builder()
+                    .contentHash(hash)
+                    .url(uploaded.url())
+                    .publicId(uploaded.publicId())
+                    .bytes(uploaded.bytes())
+                    .format(uploaded.format())
+                    .refCount(1)
+                    .build()));
+        } catch (DataIntegrityViolationException race) {
+            Optional<UploadResult> winner = reuse(hash);
+            if (winner.isPresent()) {
+                discard.accept(uploaded);
+                return winner.get();
+            }
+            log.debug("Could not index image {}; keeping it unindexed", uploaded.publicId());
+            return uploaded;
+        }
+        synchronized (local) {
+            local.put(hash, uploaded);
+        }
+        return uploaded;
+    }
+
+    /**
+     * Release one reference to an asset. Returns true when the caller should
+     * delete it from storage: this was the last reference, or the asset is not
+     * indexed.
+     */
+    public boolean release(String publicId) {
+        if (publicId == null || publicId.isBlank())
+            return false;
+        for (int attempt = 0; attempt < 5; attempt++) {
+            Boolean last = tx.execute(status -> {
+                if (repository.deleteIfLastReference(publicId) > 0)
+                    return true;
+                if (repository.releaseSharedReference(publicId) > 0)
+                    return false;
+                // Neither matched: not indexed, or a concurrent release changed the count in between
+                return repository.existsByPublicId(publicId) ? null : true;
+            });
+            if (last != null) {
+                if (last)
+                    evict(publicId);
+                return last;
+            }
+        }
+        log.warn("Could not release a reference to image {}; keeping the asset", publicId);
+        return false;
+    }
+
+    /**
+     * Count one more reference to an indexed asset whose URL is being stored
+     * again as is. Returns false when the asset is not indexed.
+     */
+    public boolean retain(String publicId) {
+        if (publicId == null || publicId.isBlank())
+            return false;
+        return Boolean.TRUE.equals(tx.execute(status -> repository.addReferenceByPublicId(publicId) > 0));
+    }
+
+    /**
+     * Release a reference that is known not to be the asset's last, e.g. one
+     * taken for a value that turned out to be already stored. Never leaves
+     * anything to delete.
+     */
+    public void releaseShared(String publicId) {
+        if (publicId == null || publicId.isBlank())
+            return;
+        tx.executeWithoutResult(status -> repository.releaseSharedReference(publicId));
+    }
+
+    /** Drop the index entry of an asset that was deleted outright. */
+    public void forget(String publicId) {
+        if (publicId == null || publicId.isBlank())
+            return;
+        tx.executeWithoutResult(status -> repository.deleteByPublicId(publicId));
+        evict(publicId);
+    }
+
+    private void evict(String publicId) {
+        synchronized (local) {
+            local.values().removeIf(r -> publicId.equals(r.publicId()));
+        }
+    }
+
+    private static UploadResult toResult(StoredImage s) {
+        return new UploadResult(s.getUrl(), s.getPublicId(), s.getBytes(), s.getFormat());
+    }
+
+    /** Hex SHA-256 of the bytes. */
+    public static String sha256(byte[] data) {
+        MessageDigest digest = newDigest();
+        digest.update(data);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Hex SHA-256 of a file, read as a stream. */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1)
+                digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
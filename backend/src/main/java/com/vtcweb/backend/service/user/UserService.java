@@ -31,5 +31,8 @@ public interface UserService {
 
     Page<UserDto> listWithStats(Pageable pageable);
 
+    /** Keyset variant of listWithStats, newest first; no count query. */
+    com.vtcweb.backend.dto.common.CursorSliceDTO<UserDto> listWithStatsAfter(String after, int size);
+
     UserDto updateStatus(Long userId, boolean enabled);
 }
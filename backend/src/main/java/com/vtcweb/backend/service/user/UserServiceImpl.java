@@ -133,6 +133,20 @@ public class UserServiceImpl implements UserService {
         });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public com.vtcweb.backend.dto.common.CursorSliceDTO<UserDto> listWithStatsAfter(String after, int size) {
+        com.vtcweb.backend.util.KeysetCursor cursor = com.vtcweb.backend.util.KeysetCursor.decode(after);
+        org.springframework.data.domain.Slice<User> slice = userRepository.findSliceAfter(
+                cursor != null ? cursor.keyAsInstant() : null, cursor != null ? cursor.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, Math.max(1, Math.min(size, 100))));
+        return com.vtcweb.backend.dto.common.CursorSliceDTO.of(slice, u -> {
+            UserDto dto = Mapper.toUserDto(u);
+            enrichWithStats(dto);
+            return dto;
+        }, u -> com.vtcweb.backend.util.KeysetCursor.encode(u.getCreatedAt(), u.getId()));
+    }
+
     @Override
     public UserDto update(Long id, UserUpdateRequest req) {
         User target = userRepository.findById(id).orElseThrow(() -> new NotFoundException("User not found"));
@@ -346,8 +360,9 @@ public class UserServiceImpl implements UserService {
     private void enrichWithStats(UserDto dto) {
         if (dto == null || dto.getEmail() == null)
             return;
-        long count = orderRepository.countByCustomerEmailIgnoreCase(dto.getEmail());
-        java.math.BigDecimal total = orderRepository.sumTotalByCustomerEmailIgnoreCase(dto.getEmail());
+        String email = com.vtcweb.backend.model.entity.order.Order.normalizeEmail(dto.getEmail());
+        long count = orderRepository.countByCustomerEmailNormalized(email);
+        java.math.BigDecimal total = orderRepository.sumTotalByCustomerEmailNormalized(email);
         dto.setOrderCount((int) Math.min(count, Integer.MAX_VALUE));
         dto.setTotalSpend(total);
     }
@@ -0,0 +1,36 @@
+package com.vtcweb.backend.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conditional GET for catalog reads. Sets a weak ETag, Last-Modified and
+ * "Cache-Control: no-cache" (store, but revalidate every time) and answers
+ * If-None-Match / If-Modified-Since. When it returns true the response is
+ * already a 304 and the handler returns null without building a body.
+ *
+ * ETags are weak because bodies are JSON that proxies may re-encode; callers
+ * build them from cheap version stamps, never from the body.
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    public static boolean notModified(ServletWebRequest request, String tag, long lastModifiedMillis) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null && !response.containsHeader(HttpHeaders.CACHE_CONTROL))
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return request.checkNotModified("W/\"" + tag + "\"", lastModifiedMillis);
+    }
+
+    /** Epoch millis of a server-local timestamp; -1 for null (no Last-Modified check). */
+    public static long millis(LocalDateTime time) {
+        return time == null ? -1L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
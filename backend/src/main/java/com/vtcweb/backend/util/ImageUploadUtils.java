@@ -6,8 +6,9 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
 import java.util.Locale;
 import java.util.Objects;
@@ -19,8 +20,11 @@ import java.util.regex.Pattern;
  */
 public final class ImageUploadUtils {
 
-    private static final Pattern DATA_URI_PATTERN = Pattern.compile("^data:(?<mime>[^;]+);base64,(?<data>.+)$",
+    /** Header of a data URI, i.e. everything before the comma. */
+    private static final Pattern DATA_URI_HEADER_PATTERN = Pattern.compile("^data:(?<mime>[^;,]+);base64$",
             Pattern.CASE_INSENSITIVE);
+    /** Data URIs are only recognised when the comma comes within this many characters. */
+    private static final int MAX_HEADER_LENGTH = 128;
     private static final Pattern CLOUDINARY_HOST_PATTERN = Pattern
             .compile("^https://res\\.cloudinary\\.com/[^/]+/image/upload/.*$", Pattern.CASE_INSENSITIVE);
 
@@ -32,9 +36,70 @@ public final class ImageUploadUtils {
      * (data:image/...;base64,...).
      */
     public static boolean isDataUri(String value) {
+        return dataUriMime(value) != null;
+    }
+
+    /**
+     * Mime type of a data URI (e.g. image/png), or null if the value is not one.
+     * Only the header is inspected, so this is cheap even for large images.
+     */
+    public static String dataUriMime(String value) {
         if (value == null)
-            return false;
-        return DATA_URI_PATTERN.matcher(value.trim()).matches();
+            return null;
+        int start = payloadStart(value);
+        if (start < 0)
+            return null;
+        int first = firstNonWhitespace(value);
+        Matcher matcher = DATA_URI_HEADER_PATTERN.matcher(value.substring(first, start - 1));
+        return matcher.matches() ? matcher.group("mime") : null;
+    }
+
+    /**
+     * Stream the decoded bytes of a data URI. The base64 text is read in place
+     * (no substring copy) and decoded incrementally, so only the caller's buffer
+     * is added on top of the String itself.
+     */
+    public static InputStream openDataUri(String dataUri) {
+        if (!isDataUri(dataUri)) {
+            throw new IllegalArgumentException("Value is not a valid data URI");
+        }
+        int start = payloadStart(dataUri);
+        int end = dataUri.length();
+        while (end > start && Character.isWhitespace(dataUri.charAt(end - 1)))
+            end--;
+        return Base64.getDecoder().wrap(new AsciiInputStream(dataUri, start, end));
+    }
+
+    /** Decode a data URI into a file, streaming. Returns the number of bytes written. */
+    public static long writeDataUri(String dataUri, Path target) throws IOException {
+        try (InputStream in = openDataUri(dataUri)) {
+            return Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** File extension for an image mime type; png when unknown. */
+    public static String extensionFor(String mime) {
+        return determineExtension(mime);
+    }
+
+    /** Index just past the comma of a data URI header, or -1. */
+    private static int payloadStart(String value) {
+        int first = firstNonWhitespace(value);
+        if (!value.regionMatches(true, first, "data:", 0, 5))
+            return -1;
+        int limit = Math.min(value.length(), first + MAX_HEADER_LENGTH);
+        for (int i = first; i < limit; i++) {
+            if (value.charAt(i) == ',')
+                return i + 1;
+        }
+        return -1;
+    }
+
+    private static int firstNonWhitespace(String value) {
+        int i = 0;
+        while (i < value.length() && Character.isWhitespace(value.charAt(i)))
+            i++;
+        return i;
     }
 
     /**
@@ -47,52 +112,6 @@ public final class ImageUploadUtils {
         return CLOUDINARY_HOST_PATTERN.matcher(value.trim()).matches();
     }
 
-    /**
-     * Download a remote HTTP(S) image (non-Cloudinary) and wrap it as a
-     * MultipartFile for re-upload.
-     * Enforces a basic 5MB size cap to avoid large transfers.
-     */
-    public static MultipartFile remoteImageToMultipart(String urlString, String nameHint) {
-        if (urlString == null || urlString.isBlank())
-            throw new IllegalArgumentException("url required");
-        try {
-            URL url = new URL(urlString);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(10000);
-            conn.setInstanceFollowRedirects(true);
-            int code = conn.getResponseCode();
-            if (code >= 300 && code < 400) {
-                String loc = conn.getHeaderField("Location");
-                if (loc != null) {
-                    conn.disconnect();
-                    return remoteImageToMultipart(loc, nameHint);
-                }
-            }
-            if (code != 200)
-                throw new IllegalArgumentException("Remote image fetch failed HTTP " + code);
-            String contentType = conn.getContentType();
-            if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
-                throw new IllegalArgumentException("URL does not point to an image");
-            }
-            int len = conn.getContentLength();
-            if (len > 5 * 1024 * 1024) {
-                throw new IllegalArgumentException("Remote image too large (>5MB)");
-            }
-            byte[] data;
-            try (InputStream in = conn.getInputStream()) {
-                data = in.readAllBytes();
-            }
-            if (data.length == 0)
-                throw new IllegalArgumentException("Empty remote image");
-            String extension = determineExtension(contentType);
-            String fileName = buildFileName(nameHint, extension);
-            return new InMemoryMultipartFile(fileName, fileName, contentType, data);
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Failed to download remote image", e);
-        }
-    }
-
     /**
      * Convert a data URI into an in-memory {@link MultipartFile} so it can be
      * passed to storage services.
@@ -103,16 +122,13 @@ public final class ImageUploadUtils {
      * @return multipart file containing the decoded bytes
      */
     public static MultipartFile dataUriToMultipartFile(String dataUri, String nameHint) {
-        if (!isDataUri(dataUri)) {
-            throw new IllegalArgumentException("Value is not a valid data URI");
-        }
-        Matcher matcher = DATA_URI_PATTERN.matcher(dataUri.trim());
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Unable to parse data URI");
+        String mime = dataUriMime(dataUri);
+        byte[] content;
+        try (InputStream in = openDataUri(dataUri)) {
+            content = in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to decode data URI", e);
         }
-        String mime = matcher.group("mime");
-        String dataPart = matcher.group("data");
-        byte[] content = Base64.getDecoder().decode(dataPart);
         String extension = determineExtension(mime);
         String fileName = buildFileName(nameHint, extension);
         return new InMemoryMultipartFile(fileName, fileName, mime != null ? mime : "image/png", content);
@@ -139,6 +155,44 @@ public final class ImageUploadUtils {
         };
     }
 
+    /**
+     * Reads the ASCII characters [start, end) of a String as bytes, so base64
+     * text can be decoded without first copying it into a byte array.
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String text;
+        private final int end;
+        private int pos;
+
+        private AsciiInputStream(String text, int start, int end) {
+            this.text = text;
+            this.pos = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            return pos < end ? text.charAt(pos++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (pos >= end)
+                return -1;
+            int n = Math.min(len, end - pos);
+            for (int i = 0; i < n; i++)
+                b[off + i] = (byte) text.charAt(pos++);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return end - pos;
+        }
+    }
+
     /** Simple in-memory MultipartFile implementation. */
     private static final class InMemoryMultipartFile implements MultipartFile {
         private final String name;
@@ -182,7 +236,7 @@ public final class ImageUploadUtils {
         @Override
         @NonNull
         public byte[] getBytes() {
-            return content.clone();
+            return content; // not copied: built for a single upload and never modified
         }
 
         @Override
@@ -0,0 +1,51 @@
+package com.vtcweb.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset (seek) pagination: the last row's sort key and id,
+ * base64url-encoded. Listings continue strictly after that (key, id) tuple, so
+ * no OFFSET and no count query is needed. For in-memory ranked results the key
+ * is unused and id carries the position.
+ */
+public record KeysetCursor(String key, long id) {
+
+    public static String encode(Object key, long id) {
+        String raw = (key == null ? "" : key.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Null for a blank cursor (first page); IllegalArgumentException when malformed. */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int bar = raw.lastIndexOf('|');
+            if (bar < 0)
+                throw new IllegalArgumentException("Invalid cursor");
+            return new KeysetCursor(raw.substring(0, bar), Long.parseLong(raw.substring(bar + 1)));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime keyAsLocalDateTime() {
+        try {
+            return key.isEmpty() ? null : LocalDateTime.parse(key);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Instant keyAsInstant() {
+        try {
+            return key.isEmpty() ? null : Instant.parse(key);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -107,7 +107,13 @@ public final class Mapper {
                 .orElse(Collections.emptySet())
                 .stream()
                 .map(ProductImage::getUrl)
+                .filter(Objects::nonNull) // uploads still pending have no URL yet
                 .collect(Collectors.toList());
+        boolean imagesReady = Optional.ofNullable(product.getImages())
+                .orElse(Collections.emptySet())
+                .stream()
+                .allMatch(img -> img == null || img.getStatus() == null
+                        || img.getStatus() == ProductImage.Status.READY);
 
         List<ProductVariationDTO> variationDTOs = Optional.ofNullable(product.getVariations())
                 .orElse(Collections.emptyList())
@@ -134,10 +140,12 @@ public final class Mapper {
                     .filter(Objects::nonNull)
                     .filter(img -> img.getType() == ProductImage.ImageType.PRIMARY)
                     .map(ProductImage::getUrl)
+                    .filter(Objects::nonNull)
                     .findFirst()
                     .orElseGet(() -> product.getImages().stream()
                             .filter(Objects::nonNull)
                             .map(ProductImage::getUrl)
+                            .filter(Objects::nonNull)
                             .findFirst().orElse(null));
         }
         return ProductDTO.builder()
@@ -148,6 +156,8 @@ public final class Mapper {
                 .detailedDescription(product.getDetailedDescription())
                 .basePrice(product.getBasePrice())
                 .price(product.getBasePrice())
+                .minPrice(product.getMinPrice())
+                .maxPrice(product.getMaxPrice())
                 .highlights(product.getHighlights() == null ? null : List.copyOf(product.getHighlights()))
                 .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
                 .categoryName(categoryName)
@@ -157,6 +167,7 @@ public final class Mapper {
                 .primaryImageUrl(primary)
                 .variations(variationDTOs)
                 .imageCount(imageCount)
+                .imagesReady(imagesReady)
                 .variationCount(variationCount)
                 .status(product.getStatus() == null ? null : product.getStatus().name().toLowerCase())
                 .createdAt(product.getCreatedAt())
@@ -0,0 +1,6 @@
+-- Per-prefix SKU number allocator (see SkuSequenceAllocator); rows are seeded lazily from existing SKUs
+CREATE TABLE IF NOT EXISTS category_sku_sequences (
+  prefix VARCHAR(16) NOT NULL PRIMARY KEY,
+  next_value BIGINT NOT NULL,
+  updated_at DATETIME(6) NULL
+);
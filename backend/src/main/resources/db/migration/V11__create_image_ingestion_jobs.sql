@@ -0,0 +1,27 @@
+-- Background image uploads (see ImageIngestionService): product images get a
+-- status and have no URL while their upload is pending
+ALTER TABLE product_images ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'READY';
+ALTER TABLE product_images MODIFY url VARCHAR(500) NULL;
+
+CREATE TABLE IF NOT EXISTS image_ingestion_jobs (
+  id VARCHAR(36) NOT NULL PRIMARY KEY,
+  target VARCHAR(16) NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  product_id BIGINT NULL,
+  product_image_id BIGINT NULL,
+  category_id BIGINT NULL,
+  slot VARCHAR(16) NULL,
+  folder VARCHAR(255) NOT NULL,
+  filename VARCHAR(255) NULL,
+  content_type VARCHAR(100) NULL,
+  source_path VARCHAR(500) NULL,
+  source_url VARCHAR(1000) NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at DATETIME(6) NULL,
+  last_error VARCHAR(500) NULL,
+  result_url VARCHAR(500) NULL,
+  created_at DATETIME(6) NULL,
+  updated_at DATETIME(6) NULL,
+  KEY idx_image_jobs_status_next (status, next_attempt_at),
+  KEY idx_image_jobs_product_image (product_image_id)
+);
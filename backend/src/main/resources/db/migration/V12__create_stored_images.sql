@@ -0,0 +1,15 @@
+-- Content-addressed index of uploaded images (see StoredImageIndex): identical
+-- bytes share one asset, which is deleted with its last reference
+CREATE TABLE IF NOT EXISTS stored_images (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  content_hash CHAR(64) NOT NULL,
+  url VARCHAR(500) NOT NULL,
+  public_id VARCHAR(255) NOT NULL,
+  bytes BIGINT NOT NULL,
+  format VARCHAR(16) NULL,
+  ref_count INT NOT NULL,
+  created_at DATETIME(6) NULL,
+  updated_at DATETIME(6) NULL,
+  UNIQUE KEY uk_stored_images_hash (content_hash),
+  KEY idx_stored_images_public_id (public_id)
+);
@@ -0,0 +1,38 @@
+-- Daily sales rollups maintained on checkout/order create/cancel (see SalesRollupService)
+CREATE TABLE IF NOT EXISTS sales_daily_rollups (
+  sales_date DATE NOT NULL PRIMARY KEY,
+  revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  net_sales DECIMAL(16,2) NOT NULL DEFAULT 0,
+  discount_total DECIMAL(16,2) NOT NULL DEFAULT 0,
+  orders_count BIGINT NOT NULL DEFAULT 0,
+  units_sold BIGINT NOT NULL DEFAULT 0,
+  online_revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  pos_revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  cancelled_revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  cancelled_orders BIGINT NOT NULL DEFAULT 0,
+  updated_at DATETIME(6) NULL
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_product_rollups (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  sales_date DATE NOT NULL,
+  product_id BIGINT NOT NULL,
+  product_name VARCHAR(255) NULL,
+  category_id BIGINT NULL,
+  category_name VARCHAR(255) NULL,
+  image_url VARCHAR(1024) NULL,
+  revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  units_sold BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT uk_sales_daily_product UNIQUE (sales_date, product_id),
+  INDEX idx_sales_daily_product_product (product_id, sales_date)
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_category_rollups (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  sales_date DATE NOT NULL,
+  category_id BIGINT NOT NULL,
+  category_name VARCHAR(255) NULL,
+  revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  units_sold BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT uk_sales_daily_category UNIQUE (sales_date, category_id)
+);
@@ -0,0 +1,11 @@
+-- Per-customer purchase ledger maintained on order place/cancel (see CustomerLedgerService)
+CREATE TABLE IF NOT EXISTS customer_ledger (
+  email VARCHAR(320) NOT NULL PRIMARY KEY,
+  first_order_at DATETIME(6) NULL,
+  last_order_at DATETIME(6) NULL,
+  lifetime_orders BIGINT NOT NULL DEFAULT 0,
+  lifetime_spend DECIMAL(16,2) NOT NULL DEFAULT 0,
+  updated_at DATETIME(6) NULL,
+  INDEX idx_customer_ledger_first_order (first_order_at),
+  INDEX idx_customer_ledger_last_order (last_order_at)
+);
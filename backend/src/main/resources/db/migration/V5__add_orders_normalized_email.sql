@@ -0,0 +1,7 @@
+-- Normalised (trimmed, lower-cased) customer email for index-friendly per-customer lookups
+ALTER TABLE orders ADD COLUMN customer_email_normalized VARCHAR(160) NULL;
+
+UPDATE orders SET customer_email_normalized = LOWER(TRIM(customer_email))
+WHERE customer_email_normalized IS NULL;
+
+CREATE INDEX idx_orders_email_norm_placed ON orders (customer_email_normalized, placed_at);
@@ -0,0 +1,12 @@
+-- Per day x product x variation lines behind GET /api/products/by-sku/{sku}/stats (all order statuses; variation_id 0 = none)
+CREATE TABLE IF NOT EXISTS product_variation_daily_sales (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  product_id BIGINT NOT NULL,
+  sales_date DATE NOT NULL,
+  variation_id BIGINT NOT NULL DEFAULT 0,
+  units_sold BIGINT NOT NULL DEFAULT 0,
+  revenue DECIMAL(16,2) NOT NULL DEFAULT 0,
+  orders_count BIGINT NOT NULL DEFAULT 0,
+  updated_at DATETIME(6) NULL,
+  CONSTRAINT uk_product_variation_daily UNIQUE (product_id, sales_date, variation_id)
+);
@@ -0,0 +1,10 @@
+-- Maintained stock counters over product_variations (see ProductRepository.applyStockChange)
+ALTER TABLE products ADD COLUMN total_stock BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN in_stock_variation_count INT NOT NULL DEFAULT 0;
+
+UPDATE products p
+SET p.total_stock = (SELECT COALESCE(SUM(v.stock), 0) FROM product_variations v WHERE v.product_id = p.id),
+    p.in_stock_variation_count = (SELECT COUNT(*) FROM product_variations v WHERE v.product_id = p.id AND v.stock > 0);
+
+CREATE INDEX idx_products_status_in_stock ON products (status, in_stock_variation_count);
+CREATE INDEX idx_products_category_in_stock ON products (category_id, status, in_stock_variation_count);
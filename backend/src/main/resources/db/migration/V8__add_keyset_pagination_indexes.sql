@@ -0,0 +1,5 @@
+-- Seek indexes for cursor-mode listings (InnoDB secondary indexes carry the id tie-breaker)
+CREATE INDEX idx_products_status_created ON products (status, created_at);
+CREATE INDEX idx_products_category_created ON products (category_id, status, created_at);
+CREATE INDEX idx_orders_placed_at ON orders (placed_at);
+CREATE INDEX idx_users_created_at ON users (created_at);
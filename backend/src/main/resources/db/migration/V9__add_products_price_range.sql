@@ -0,0 +1,10 @@
+-- Maintained effective price range over product_variations (see ProductRepository.refreshPriceRange)
+ALTER TABLE products ADD COLUMN min_price DECIMAL(12,2) NULL;
+ALTER TABLE products ADD COLUMN max_price DECIMAL(12,2) NULL;
+
+UPDATE products p
+SET p.min_price = COALESCE((SELECT MIN(COALESCE(v.price, p.base_price)) FROM product_variations v WHERE v.product_id = p.id), p.base_price),
+    p.max_price = COALESCE((SELECT MAX(COALESCE(v.price, p.base_price)) FROM product_variations v WHERE v.product_id = p.id), p.base_price);
+
+CREATE INDEX idx_products_status_min_price ON products (status, min_price);
+CREATE INDEX idx_products_category_min_price ON products (category_id, status, min_price);
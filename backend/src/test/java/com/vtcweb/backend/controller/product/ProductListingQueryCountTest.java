@@ -0,0 +1,144 @@
+package com.vtcweb.backend.controller.product;
+
+import com.jayway.jsonpath.JsonPath;
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.Product;
+import com.vtcweb.backend.model.entity.product.ProductImage;
+import com.vtcweb.backend.model.entity.product.ProductVariation;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import com.vtcweb.backend.repository.product.ProductImageRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.service.product.ProductFacetIndex;
+import com.vtcweb.backend.service.product.ProductSearchIndex;
+import com.vtcweb.backend.service.product.ProductVariationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listing endpoints build their cards from one projection query: the number of
+ * statements per request must not grow with the page (no entity, image or
+ * variation loads per product). Statistics are global, so the image ingestion
+ * poller is parked to keep its statements out of the counts.
+ */
+@SpringBootTest(classes = BackendApplication.class, properties = "app.images.ingest.poll-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductListingQueryCountTest {
+
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductImageRepository imageRepository;
+    @Autowired
+    private ProductVariationService variationService;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    private Statistics statistics;
+    private Long categoryId;
+    private String word;
+
+    @BeforeEach
+    void seed() {
+        word = "qc" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category category = new Category();
+        category.setName("Query count " + word);
+        category.setCode("QC");
+        categoryId = categoryRepository.save(category).getId();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .sku(("QC-" + word + "-" + i).toUpperCase())
+                    .name("Listed " + word + " " + i)
+                    .shortDescription("Short " + i)
+                    .category(category)
+                    .basePrice(new BigDecimal("10.00"))
+                    .build());
+            imageRepository.save(ProductImage.builder().product(product).type(ProductImage.ImageType.SECONDARY)
+                    .url("https://res.cloudinary.com/demo/image/upload/qc/" + i + "-b.png").build());
+            imageRepository.save(ProductImage.builder().product(product).type(ProductImage.ImageType.PRIMARY)
+                    .url("https://res.cloudinary.com/demo/image/upload/qc/" + i + "-a.png").build());
+            for (int v = 0; v < 2; v++) {
+                ProductVariation variation = new ProductVariation();
+                variation.setPrice(new BigDecimal(10 + v));
+                variation.setStock(i % 3 == 0 ? 0 : 5);
+                variation.setAttributes(Map.of("Size", v == 0 ? "S" : "M"));
+                variationService.create(product.getId(), variation);
+            }
+        }
+        searchIndex.rebuild();
+        facetIndex.rebuild();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void pagedListingsRunOneCardQueryPlusTheCount() throws Exception {
+        // Page 2 of 3: content query plus the count query
+        assertStatements(2, "/api/products/by-category/" + categoryId + "?size=10&page=1");
+        assertStatements(2, "/api/products/by-category/" + categoryId + "?size=10&stock=in");
+        assertStatements(2, "/api/products/by-category/" + categoryId + "?size=10&sort=price,asc");
+        assertStatements(2, "/api/products?size=10&page=1");
+    }
+
+    @Test
+    void cursorListingsRunOneCardQuery() throws Exception {
+        String first = assertStatements(1, "/api/products/by-category/" + categoryId + "?size=10&after=");
+        String next = JsonPath.read(first, "$.nextCursor");
+        assertNotNull(next);
+        assertStatements(1, "/api/products/by-category/" + categoryId + "?size=10&after=" + next);
+        assertStatements(1, "/api/products?size=10&after=");
+    }
+
+    @Test
+    void searchLoadsTheRankedPageInOneQuery() throws Exception {
+        String body = assertStatements(1, "/api/products/search?name=" + word + "&size=10");
+        assertEquals(PRODUCTS, ((Number) JsonPath.read(body, "$.page.totalElements")).intValue());
+        assertEquals(10, ((Number) JsonPath.read(body, "$.content.length()")).intValue());
+        assertTrue(((String) JsonPath.read(body, "$.content[0].primaryImageUrl")).endsWith("-a.png"));
+        assertStatements(1, "/api/products/search?name=" + word + "&size=10&after=");
+        // By SKU: the lookup, then the card
+        body = assertStatements(2, "/api/products/search?sku=QC-" + word + "-3");
+        assertEquals(1, ((Number) JsonPath.read(body, "$.content.length()")).intValue());
+    }
+
+    @Test
+    void facetedListingsLoadOnlyThePageCards() throws Exception {
+        assertStatements(1, "/api/products/by-category/" + categoryId + "?size=10&facets=true");
+        assertStatements(1, "/api/products/by-category/" + categoryId + "?size=10&attr.Size=M");
+    }
+
+    private String assertStatements(long expected, String url) throws Exception {
+        statistics.clear();
+        String body = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "statements for " + url);
+        return body;
+    }
+}
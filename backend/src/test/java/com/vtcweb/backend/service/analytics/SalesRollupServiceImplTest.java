@@ -0,0 +1,249 @@
+package com.vtcweb.backend.service.analytics;
+
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.model.entity.order.DeliveryMethod;
+import com.vtcweb.backend.model.entity.order.Order;
+import com.vtcweb.backend.model.entity.order.OrderItem;
+import com.vtcweb.backend.model.entity.order.OrderStatus;
+import com.vtcweb.backend.model.entity.order.PaymentMethod;
+import com.vtcweb.backend.repository.analytics.CustomerLedgerRepository;
+import com.vtcweb.backend.repository.analytics.DailyCategorySalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailyProductSalesRollupRepository;
+import com.vtcweb.backend.repository.analytics.DailyProductVariationSalesRepository;
+import com.vtcweb.backend.repository.analytics.DailySalesRollupRepository;
+import com.vtcweb.backend.repository.order.OrderRepository;
+import com.vtcweb.backend.service.order.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Incremental rollup maintenance must end where a rebuild from the orders tables ends. */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+class SalesRollupServiceImplTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private DailySalesRollupRepository dailyRepository;
+    @Autowired
+    private DailyProductSalesRollupRepository productRepository;
+    @Autowired
+    private DailyCategorySalesRollupRepository categoryRepository;
+    @Autowired
+    private DailyProductVariationSalesRepository variationRepository;
+    @Autowired
+    private CustomerLedgerRepository ledgerRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AnalyticsCacheService analyticsCacheService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void clean() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(s -> {
+            orderRepository.deleteAll();
+            dailyRepository.deleteAllInBatch();
+            productRepository.deleteAllInBatch();
+            categoryRepository.deleteAllInBatch();
+            variationRepository.deleteAllInBatch();
+            ledgerRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void deletingOrdersMatchesRebuild() {
+        Long first = place("ana@example.com", 9001L, 2, "10.00", DeliveryMethod.STANDARD_DELIVERY);
+        Long cancelled = place("ana@example.com", 9002L, 1, "25.00", DeliveryMethod.IN_STORE_PICKUP);
+        Long live = place("ana@example.com", 9001L, 3, "10.00", DeliveryMethod.STANDARD_DELIVERY);
+        place("ben@example.com", 9002L, 4, "25.00", DeliveryMethod.STANDARD_DELIVERY);
+
+        orderService.updateStatus(cancelled, OrderStatus.CANCELLED);
+        orderService.delete(live); // the customer's last order
+        orderService.delete(cancelled);
+
+        Map<String, String> incremental = snapshot();
+        assertTrue(incremental.containsKey("ledger|ana@example.com"));
+        assertNotNull(orderRepository.findById(first).orElse(null));
+
+        salesRollupService.rebuildAll();
+        assertEquals(snapshot(), incremental);
+    }
+
+    @Test
+    void deletingEveryOrderEmptiesTheRollups() {
+        Long a = place("cy@example.com", 9003L, 1, "5.00", DeliveryMethod.STANDARD_DELIVERY);
+        Long b = place("cy@example.com", 9003L, 2, "5.00", DeliveryMethod.STANDARD_DELIVERY);
+        orderService.updateStatus(b, OrderStatus.CANCELLED);
+        orderService.delete(a);
+        orderService.delete(b);
+
+        assertEquals(Map.of(), snapshot());
+    }
+
+    @Test
+    void cancellingKeepsLedgerBoundsInStepWithRebuild() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Long first = place("dee@example.com", 9004L, 1, "8.00", DeliveryMethod.STANDARD_DELIVERY, now.minusDays(3));
+        Long middle = place("dee@example.com", 9004L, 2, "8.00", DeliveryMethod.STANDARD_DELIVERY, now.minusDays(2));
+        place("dee@example.com", 9004L, 3, "8.00", DeliveryMethod.STANDARD_DELIVERY, now.minusDays(1));
+
+        orderService.updateStatus(middle, OrderStatus.CANCELLED);
+        Map<String, String> afterMiddle = snapshot();
+        assertTrue(afterMiddle.get("ledger|dee@example.com").startsWith(now.minusDays(3) + "," + now.minusDays(1) + ",2,"));
+        salesRollupService.rebuildAll();
+        assertEquals(snapshot(), afterMiddle);
+
+        orderService.updateStatus(first, OrderStatus.CANCELLED);
+        Map<String, String> afterFirst = snapshot();
+        assertTrue(afterFirst.get("ledger|dee@example.com").startsWith(now.minusDays(1) + "," + now.minusDays(1) + ",1,"));
+        salesRollupService.rebuildAll();
+        assertEquals(snapshot(), afterFirst);
+    }
+
+    @Test
+    void ledgerBoundsUpdateLeavesTheCallersEntitiesManaged() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Long first = place("fay@example.com", 9006L, 1, "8.00", DeliveryMethod.STANDARD_DELIVERY, now.minusDays(2));
+        place("fay@example.com", 9006L, 1, "8.00", DeliveryMethod.STANDARD_DELIVERY, now.minusDays(1));
+
+        tx.executeWithoutResult(s -> {
+            Order order = orderRepository.findById(first).orElseThrow();
+            order.setStatus(OrderStatus.CANCELLED); // not flushed yet
+            salesRollupService.recordCancelled(order); // the first order: re-derives the bounds
+            assertTrue(entityManager.contains(order));
+            assertTrue(order.getItems().stream().allMatch(entityManager::contains));
+        });
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(first).orElseThrow().getStatus());
+        assertTrue(snapshot().get("ledger|fay@example.com").startsWith(now.minusDays(1) + "," + now.minusDays(1) + ",1,"));
+    }
+
+    @Test
+    void cacheStampsMoveOnceTheChangeHasCommitted() {
+        LocalDate today = LocalDate.now();
+        String open = analyticsCacheService.bucketStamp(today.minusDays(6), today);
+        String closed = analyticsCacheService.bucketStamp(today.minusDays(6), today.minusDays(1));
+        String duringTx = tx.execute(s -> {
+            place("eve@example.com", 9005L, 1, "5.00", DeliveryMethod.STANDARD_DELIVERY);
+            return analyticsCacheService.bucketStamp(today.minusDays(6), today);
+        });
+        // A reader before the commit cannot see the order, so it must still get the old stamp
+        assertEquals(open, duringTx);
+        String afterToday = analyticsCacheService.bucketStamp(today.minusDays(6), today);
+        assertNotEquals(open, afterToday);
+        assertEquals(closed, analyticsCacheService.bucketStamp(today.minusDays(6), today.minusDays(1)));
+
+        String olderDays = analyticsCacheService.bucketStamp(today.minusDays(6), today.minusDays(3));
+        place("eve@example.com", 9005L, 1, "5.00", DeliveryMethod.STANDARD_DELIVERY, LocalDateTime.now().minusDays(2));
+        assertNotEquals(closed, analyticsCacheService.bucketStamp(today.minusDays(6), today.minusDays(1)));
+        assertNotEquals(afterToday, analyticsCacheService.bucketStamp(today.minusDays(6), today));
+        // Only the buckets of the day that changed move
+        assertEquals(olderDays, analyticsCacheService.bucketStamp(today.minusDays(6), today.minusDays(3)));
+    }
+
+    private Long place(String email, Long productId, int qty, String unitPrice, DeliveryMethod delivery) {
+        return place(email, productId, qty, unitPrice, delivery, null);
+    }
+
+    /** Save and record an order; placedAt, when given, backdates it (the column is not updatable through JPA). */
+    private Long place(String email, Long productId, int qty, String unitPrice, DeliveryMethod delivery,
+            LocalDateTime placedAt) {
+        return tx.execute(s -> {
+            BigDecimal unit = new BigDecimal(unitPrice);
+            BigDecimal line = unit.multiply(BigDecimal.valueOf(qty));
+            Order order = Order.builder()
+                    .orderNumber("T-" + UUID.randomUUID())
+                    .status(OrderStatus.PLACED)
+                    .customerFirstName("Test")
+                    .customerLastName("Customer")
+                    .customerEmail(email)
+                    .customerEmailNormalized(Order.normalizeEmail(email))
+                    .deliveryMethod(delivery)
+                    .paymentMethod(PaymentMethod.CASH_ON_DELIVERY)
+                    .subtotal(line)
+                    .discountTotal(BigDecimal.ZERO)
+                    .taxTotal(BigDecimal.ZERO)
+                    .shippingFee(BigDecimal.ZERO)
+                    .total(line)
+                    .build();
+            order.addItem(OrderItem.builder()
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .categoryId(77L)
+                    .categoryName("Test category")
+                    .quantity(qty)
+                    .unitPrice(unit)
+                    .totalPrice(line)
+                    .build());
+            Order saved = orderRepository.saveAndFlush(order);
+            if (placedAt != null) {
+                jdbcTemplate.update("update orders set placed_at = ? where id = ?", placedAt, saved.getId());
+                saved.setPlacedAt(placedAt);
+            }
+            salesRollupService.recordPlaced(saved);
+            return saved.getId();
+        });
+    }
+
+    /** Every non-empty rollup and ledger row, keyed and rendered for comparison. */
+    private Map<String, String> snapshot() {
+        Map<String, String> out = new TreeMap<>();
+        dailyRepository.findAll().forEach(r -> {
+            if (r.getOrdersCount() != 0 || r.getCancelledOrders() != 0 || r.getUnitsSold() != 0)
+                out.put("day|" + r.getSalesDate(), money(r.getRevenue()) + "," + money(r.getNetSales()) + ","
+                        + money(r.getDiscountTotal()) + "," + r.getOrdersCount() + "," + r.getUnitsSold() + ","
+                        + money(r.getOnlineRevenue()) + "," + money(r.getPosRevenue()) + ","
+                        + money(r.getCancelledRevenue()) + "," + r.getCancelledOrders());
+        });
+        productRepository.findAll().forEach(r -> {
+            if (r.getUnitsSold() != 0)
+                out.put("product|" + r.getSalesDate() + "|" + r.getProductId(),
+                        money(r.getRevenue()) + "," + r.getUnitsSold());
+        });
+        categoryRepository.findAll().forEach(r -> {
+            if (r.getUnitsSold() != 0)
+                out.put("category|" + r.getSalesDate() + "|" + r.getCategoryId(),
+                        money(r.getRevenue()) + "," + r.getUnitsSold());
+        });
+        variationRepository.findAll().forEach(r -> {
+            if (r.getUnitsSold() != 0 || r.getOrdersCount() != 0)
+                out.put("variation|" + r.getSalesDate() + "|" + r.getProductId() + "|" + r.getVariationId(),
+                        money(r.getRevenue()) + "," + r.getUnitsSold() + "," + r.getOrdersCount());
+        });
+        ledgerRepository.findAll().forEach(l -> out.put("ledger|" + l.getEmail(),
+                l.getFirstOrderAt() + "," + l.getLastOrderAt() + "," + l.getLifetimeOrders() + ","
+                        + money(l.getLifetimeSpend())));
+        return out;
+    }
+
+    private static String money(BigDecimal v) {
+        return (v == null ? BigDecimal.ZERO : v).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import com.vtcweb.backend.repository.product.ProductVariationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ProductSearchIndex on a 100k-product catalog, against the LIKE query it replaces. */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+@lombok.extern.slf4j.Slf4j
+class ProductSearchIndexTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final String[] ADJECTIVES = { "steel", "wooden", "plastic", "glass", "woven", "ceramic", "bamboo",
+            "copper", "linen", "marble" };
+    private static final String[] NOUNS = { "chair", "table", "lamp", "bowl", "basket", "shelf", "mirror", "vase",
+            "stool", "tray", "jug", "clock" };
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariationRepository variationRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unbuiltIndexesAnswerNullInsteadOfBuildingOnTheRequestThread() {
+        ProductSearchIndex search = new ProductSearchIndex(productRepository, transactionManager);
+        ProductFacetIndex facets = new ProductFacetIndex(productRepository, variationRepository, transactionManager);
+        assertNull(search.search("anything", null, null));
+        assertNull(facets.query(null, null, null, null, null, Map.of(), 0, 10));
+    }
+
+    @Test
+    void searchesAHundredThousandProducts() {
+        String tag = "bench" + UUID.randomUUID().toString().replace("-", "").substring(0, 6);
+        Category category = new Category();
+        category.setName("Benchmark " + tag);
+        category.setCode("BN");
+        Long categoryId = categoryRepository.save(category).getId();
+        try {
+            insertProducts(tag, categoryId);
+            ProductSearchIndex index = new ProductSearchIndex(productRepository, transactionManager);
+            ReflectionTestUtils.setField(index, "batchSize", 2000);
+
+            long started = System.nanoTime();
+            index.rebuild();
+            long buildMs = (System.nanoTime() - started) / 1_000_000;
+
+            // Correctness on the benchmark data: exact, prefix, multi-token and filtered hits
+            List<Long> model = index.search("model4242 " + tag, null, null);
+            assertEquals(11, model.size()); // model4242 and, as prefix hits, model42420..42429
+            assertEquals(idOf(tag, 4242), model.get(0)); // the exact match ranks first
+            assertEquals(PRODUCTS / ADJECTIVES.length, index.search("steel " + tag, null, null).size());
+            assertEquals(PRODUCTS / ADJECTIVES.length, index.search("ste " + tag, null, null).size());
+            int steelChairs = index.search("steel chair " + tag, null, null).size();
+            assertTrue(steelChairs > 0 && steelChairs < PRODUCTS / ADJECTIVES.length);
+            assertEquals(PRODUCTS / 2, index.search(tag, ProductStatus.ACTIVE, null).size());
+
+            String[] queries = { "model777", "steel chair", "wooden", "cer", "lamp", "linen basket", "marble vase",
+                    "glass" };
+            for (int i = 0; i < 200; i++)
+                index.search(queries[i % queries.length], null, null); // warm up
+            int runs = 2_000;
+            started = System.nanoTime();
+            for (int i = 0; i < runs; i++)
+                index.search(queries[i % queries.length], ProductStatus.ACTIVE, null);
+            double indexMs = (System.nanoTime() - started) / 1e6 / runs;
+
+            int likeRuns = 20;
+            started = System.nanoTime();
+            for (int i = 0; i < likeRuns; i++) {
+                String q = queries[i % queries.length].split(" ")[0];
+                productRepository
+                        .findByNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseOrCategory_NameContainingIgnoreCaseOrDetailedDescriptionContaining(
+                                q, q, q, q, PageRequest.of(0, 20));
+            }
+            double likeMs = (System.nanoTime() - started) / 1e6 / likeRuns;
+
+            log.info("Search index over {} products: built in {} ms; {} ms per query vs {} ms per LIKE page",
+                    PRODUCTS, buildMs, String.format("%.3f", indexMs), String.format("%.1f", likeMs));
+            assertTrue(buildMs < 60_000, "index build took " + buildMs + " ms");
+            assertTrue(indexMs < likeMs, "index " + indexMs + " ms vs LIKE " + likeMs + " ms per query");
+        } finally {
+            jdbcTemplate.update("delete from products where category_id = ?", categoryId);
+            categoryRepository.deleteById(categoryId);
+        }
+    }
+
+    private void insertProducts(String tag, Long categoryId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(5_000);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String adjective = ADJECTIVES[i % ADJECTIVES.length];
+            String noun = NOUNS[(i / ADJECTIVES.length) % NOUNS.length];
+            rows.add(new Object[] { sku(tag, i), adjective + " " + noun + " model" + i,
+                    "A " + adjective + " " + noun + " for every room " + tag,
+                    "<p>Hand finished " + noun + " in " + adjective + ". Batch " + (i % 97) + ".</p>", categoryId,
+                    new BigDecimal("25.00"), i % 2 == 0 ? "ACTIVE" : "INACTIVE", now, now });
+            if (rows.size() == 5_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into products (sku, name, short_description, description, category_id, "
+                + "base_price, status, total_stock, in_stock_variation_count, created_at, updated_at) "
+                + "values (?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?)", rows);
+    }
+
+    private Long idOf(String tag, int i) {
+        return jdbcTemplate.queryForObject("select id from products where sku = ?", Long.class, sku(tag, i));
+    }
+
+    private static String sku(String tag, int i) {
+        return ("BN-" + tag + "-" + i).toUpperCase();
+    }
+}
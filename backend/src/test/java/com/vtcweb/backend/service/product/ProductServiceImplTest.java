@@ -0,0 +1,114 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.dto.product.FacetedProductPageDTO;
+import com.vtcweb.backend.dto.product.ProductCardDTO;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.Product;
+import com.vtcweb.backend.model.entity.product.ProductStatus;
+import com.vtcweb.backend.model.entity.product.ProductVariation;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import com.vtcweb.backend.repository.product.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Listings while the in-memory indexes are still loading (mocked here, so they
+ * answer null): search and attribute filters are served from the database
+ * right away instead of waiting for a build.
+ */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+class ProductServiceImplTest {
+
+    @MockitoBean
+    private ProductSearchIndex searchIndex;
+    @MockitoBean
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductVariationService variationService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private String word;
+    private Long categoryId;
+
+    @BeforeEach
+    void seed() {
+        when(searchIndex.search(anyString(), any(), any())).thenReturn(null); // not built yet
+        word = "fb" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category category = new Category();
+        category.setName("Fallback " + word);
+        category.setCode("FB");
+        Category saved = categoryRepository.save(category);
+        categoryId = saved.getId();
+        product(saved, 0, Map.of("Color", "Red", "Size", "S"), Map.of("Color", "Blue", "Size", "M"));
+        product(saved, 1, Map.of("Color", "Red", "Size", "L"));
+        product(saved, 2, Map.of("Color", "Green", "Size", "S"));
+    }
+
+    @Test
+    void searchFallsBackToTheSubstringQuery() {
+        Page<ProductCardDTO> page = productService.searchCards(word, ProductStatus.ACTIVE, null, PageRequest.of(0, 10));
+        assertEquals(3, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(c -> c.getName().contains(word)));
+    }
+
+    @Test
+    void attributeFiltersFallBackToTheDatabase() {
+        FacetedProductPageDTO red = productService.listFaceted(ProductStatus.ACTIVE, categoryId, null, null, null,
+                Map.of("color", Set.of("red")), PageRequest.of(0, 10));
+        assertEquals(List.of(word + " 1", word + " 0"), red.getContent().stream().map(ProductCardDTO::getName).toList());
+        assertEquals(2, red.getPage().totalElements());
+        assertTrue(red.getFacets().isEmpty()); // counts come back once the index has loaded
+
+        FacetedProductPageDTO redSmall = productService.listFaceted(ProductStatus.ACTIVE, categoryId, null, null,
+                null, Map.of("Color", Set.of("Red", "Green"), "Size", Set.of("S")), PageRequest.of(0, 10));
+        assertEquals(List.of(word + " 2", word + " 0"),
+                redSmall.getContent().stream().map(ProductCardDTO::getName).toList());
+
+        FacetedProductPageDTO all = productService.listFaceted(ProductStatus.ACTIVE, categoryId, null, null, null,
+                Map.of(), PageRequest.of(0, 2));
+        assertEquals(3, all.getPage().totalElements());
+        assertEquals(2, all.getContent().size());
+    }
+
+    @SafeVarargs
+    private void product(Category category, int i, Map<String, String>... variations) {
+        Product product = productRepository.save(Product.builder()
+                .sku(("FB-" + word + "-" + i).toUpperCase())
+                .name(word + " " + i)
+                .category(category)
+                .basePrice(new BigDecimal("12.00"))
+                .build());
+        for (Map<String, String> attributes : variations) {
+            ProductVariation v = new ProductVariation();
+            v.setPrice(new BigDecimal("12.00"));
+            v.setStock(3);
+            v.setAttributes(attributes);
+            variationService.create(product.getId(), v);
+        }
+    }
+}
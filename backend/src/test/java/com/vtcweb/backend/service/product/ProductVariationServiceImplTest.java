@@ -0,0 +1,117 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.dto.product.ProductCardDTO;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.Product;
+import com.vtcweb.backend.model.entity.product.ProductVariation;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The maintained min/max effective price follows variation creates, updates and deletes. */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+class ProductVariationServiceImplTest {
+
+    @Autowired
+    private ProductVariationService variationService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void priceRangeFollowsVariationChanges() {
+        String word = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category category = new Category();
+        category.setName("Priced " + word);
+        category.setCode("PR");
+        Long categoryId = categoryRepository.save(category).getId();
+        Product product = productService.create(
+                Product.builder().name("Priced " + word).basePrice(new BigDecimal("20.00")).build(), categoryId);
+        Long id = product.getId();
+        assertRange(id, "20.00", "20.00"); // no variations: the base price
+
+        ProductVariation cheap = variationService.create(id, variation("S", "15.00"));
+        assertRange(id, "15.00", "15.00"); // every variation priced: the base price no longer applies
+        ProductVariation unpriced = variationService.create(id, variation("M", null));
+        assertRange(id, "15.00", "20.00"); // sells at the base price
+        ProductVariation dear = variationService.create(id, variation("L", "30.00"));
+        assertRange(id, "15.00", "30.00");
+
+        ProductVariation update = patch();
+        update.setPrice(new BigDecimal("25.00"));
+        variationService.update(dear.getId(), update);
+        assertRange(id, "15.00", "25.00");
+        ProductVariation stockOnly = patch();
+        stockOnly.setStock(9);
+        variationService.update(cheap.getId(), stockOnly);
+        assertRange(id, "15.00", "25.00");
+        update.setPrice(new BigDecimal("12.00"));
+        variationService.update(cheap.getId(), update);
+        assertRange(id, "12.00", "25.00");
+
+        // Listing filters run on the maintained columns and the facet index
+        assertEquals(List.of(id), cardIds(categoryId, new BigDecimal("24.00"), null));
+        assertEquals(List.of(), cardIds(categoryId, new BigDecimal("26.00"), null));
+        assertEquals(List.of(), cardIds(categoryId, null, new BigDecimal("11.00")));
+        assertEquals(List.of(id), facetIds(categoryId, new BigDecimal("24.00"), new BigDecimal("24.00")));
+        assertEquals(List.of(), facetIds(categoryId, new BigDecimal("26.00"), null));
+
+        variationService.delete(cheap.getId());
+        assertRange(id, "20.00", "25.00");
+        variationService.delete(unpriced.getId());
+        assertRange(id, "25.00", "25.00");
+        assertEquals(List.of(), facetIds(categoryId, null, new BigDecimal("24.00")));
+        variationService.delete(dear.getId());
+        assertRange(id, "20.00", "20.00");
+        assertEquals(List.of(id), facetIds(categoryId, null, new BigDecimal("20.00")));
+    }
+
+    private void assertRange(Long productId, String min, String max) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("select min_price, max_price from products where id = ?",
+                productId);
+        assertEquals(0, new BigDecimal(min).compareTo((BigDecimal) row.get("MIN_PRICE")), "min_price " + row);
+        assertEquals(0, new BigDecimal(max).compareTo((BigDecimal) row.get("MAX_PRICE")), "max_price " + row);
+    }
+
+    private List<Long> cardIds(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        return productService.listCards(null, categoryId, null, minPrice, maxPrice, PageRequest.of(0, 10))
+                .map(ProductCardDTO::getId).getContent();
+    }
+
+    private List<Long> facetIds(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        return productService.listFaceted(null, categoryId, null, minPrice, maxPrice, Map.of(), PageRequest.of(0, 10))
+                .getContent().stream().map(ProductCardDTO::getId).toList();
+    }
+
+    /** Partial update as the controller builds it: unset fields stay null. */
+    private static ProductVariation patch() {
+        ProductVariation v = new ProductVariation();
+        v.setStock(null);
+        v.setAttributes(null);
+        return v;
+    }
+
+    private static ProductVariation variation(String size, String price) {
+        ProductVariation v = new ProductVariation();
+        v.setPrice(price == null ? null : new BigDecimal(price));
+        v.setStock(2);
+        v.setAttributes(Map.of("Size", size));
+        return v;
+    }
+}
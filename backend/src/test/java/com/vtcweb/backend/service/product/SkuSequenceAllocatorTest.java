@@ -0,0 +1,82 @@
+package com.vtcweb.backend.service.product;
+
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.product.Product;
+import com.vtcweb.backend.repository.category.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SKU allocation under concurrent product creation in one category, with more
+ * creates in flight than the connection pool has connections.
+ */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+class SkuSequenceAllocatorTest {
+
+    private static final int CREATES = 40;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuSequenceAllocator skuAllocator;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Test
+    void concurrentCreatesGetDistinctConsecutiveSkus() throws Exception {
+        String word = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category category = new Category();
+        category.setName("Sequenced " + word);
+        category.setCode("SQ");
+        Category saved = categoryRepository.save(category);
+        String expectedFirst = skuAllocator.peek(saved);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CREATES);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Product>> futures = new ArrayList<>();
+            for (int i = 0; i < CREATES; i++) {
+                Product p = Product.builder().name("Sequenced " + word + " " + i)
+                        .basePrice(new BigDecimal("5.00")).build();
+                Callable<Product> task = () -> {
+                    start.await();
+                    return productService.create(p, saved.getId());
+                };
+                futures.add(pool.submit(task));
+            }
+            start.countDown();
+            List<Long> numbers = new ArrayList<>();
+            for (Future<Product> f : futures) {
+                String sku = f.get().getSku();
+                assertTrue(sku.startsWith("SQX-"), sku);
+                numbers.add(Long.parseLong(sku.substring(4)));
+            }
+            numbers.sort(null);
+            assertEquals(expectedFirst, "SQX-" + String.format("%03d", numbers.get(0)));
+            for (int i = 0; i < CREATES; i++)
+                assertEquals(numbers.get(0) + i, numbers.get(i), "SKUs must be distinct and consecutive");
+            // The index hooks read inside each create's own transaction instead of taking a second connection
+            assertEquals(CREATES, searchIndex.search(word, null, null).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.vtcweb.backend.service.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.vtcweb.backend.BackendApplication;
+import com.vtcweb.backend.model.entity.category.Category;
+import com.vtcweb.backend.model.entity.storage.StoredImage;
+import com.vtcweb.backend.repository.storage.StoredImageRepository;
+import com.vtcweb.backend.service.category.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/** Content dedup and reference counting of stored images, against H2 and a mocked Cloudinary. */
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+class CloudinaryImageStorageServiceTest {
+
+    @MockitoBean
+    private Cloudinary cloudinary;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+
+    private final Uploader uploader = mock(Uploader.class);
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final List<Path> files = new ArrayList<>();
+
+    @BeforeEach
+    void mockCloudinary() throws Exception {
+        storedImageRepository.deleteAllInBatch();
+        when(cloudinary.uploader()).thenReturn(uploader);
+        when(uploader.upload(any(), anyMap())).thenAnswer(inv -> {
+            String publicId = "test/img-" + uploads.incrementAndGet();
+            return Map.of("secure_url", url(publicId), "public_id", publicId, "bytes", 64, "format", "png");
+        });
+    }
+
+    @AfterEach
+    void deleteFiles() throws Exception {
+        for (Path f : files)
+            Files.deleteIfExists(f);
+    }
+
+    @Test
+    void identicalUploadsShareOneAssetUntilTheLastRelease() throws Exception {
+        Path image = image(1);
+        String first = imageStorageService.upload(image, "image/png", "test").url();
+        String second = imageStorageService.upload(image, "image/png", "test").url();
+
+        assertEquals(first, second);
+        assertEquals(1, uploads.get());
+        assertEquals(2, refCount(first));
+
+        imageStorageService.deleteByUrl(first);
+        verify(uploader, never()).destroy(anyString(), anyMap());
+        imageStorageService.deleteByUrl(second);
+        verify(uploader, times(1)).destroy(eq(ImageStorageService.publicIdOf(first)), anyMap());
+        assertFalse(storedImageRepository.existsByPublicId(ImageStorageService.publicIdOf(first)));
+    }
+
+    @Test
+    void passedThroughUrlKeepsTheAssetAliveForItsOtherUser() throws Exception {
+        Category a = categoryService.create(category(dataUri(2)));
+        String url = a.getCatMainImg();
+        Category b = categoryService.create(category(url)); // storage URL, passed through
+        assertEquals(url, b.getCatMainImg());
+        assertEquals(2, refCount(url));
+
+        categoryService.delete(a.getId());
+        verify(uploader, never()).destroy(anyString(), anyMap());
+        categoryService.delete(b.getId());
+        verify(uploader, times(1)).destroy(eq(ImageStorageService.publicIdOf(url)), anyMap());
+    }
+
+    @Test
+    void savingTheSameImageAgainDoesNotAddAReference() throws Exception {
+        String data = dataUri(3);
+        Category created = categoryService.create(category(data));
+        String url = created.getCatMainImg();
+
+        Category again = new Category();
+        again.setStatus(null);
+        again.setCatMainImg(data); // same bytes: the upload is a dedup hit on the current asset
+        categoryService.update(created.getId(), again);
+        again.setCatMainImg(url); // the stored URL itself
+        categoryService.update(created.getId(), again);
+
+        assertEquals(url, categoryService.getById(created.getId()).getCatMainImg());
+        assertEquals(1, refCount(url));
+        categoryService.delete(created.getId());
+        verify(uploader, times(1)).destroy(eq(ImageStorageService.publicIdOf(url)), anyMap());
+    }
+
+    @Test
+    void unindexedAssetsAreNeverReleasedByAReSave() throws Exception {
+        String legacy = url("legacy/banner"); // uploaded before the index existed
+        Category created = categoryService.create(category(legacy));
+        Category again = new Category();
+        again.setStatus(null);
+        again.setCatMainImg(legacy);
+        categoryService.update(created.getId(), again);
+
+        verify(uploader, never()).destroy(anyString(), anyMap());
+        categoryService.delete(created.getId());
+        verify(uploader, times(1)).destroy(eq("legacy/banner"), anyMap());
+    }
+
+    @Test
+    void concurrentIdenticalUploadsUploadOnce() throws Exception {
+        Path image = image(4);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<String> task = () -> {
+                    start.await();
+                    return imageStorageService.upload(image, "image/png", "test").url();
+                };
+                futures.add(pool.submit(task));
+            }
+            start.countDown();
+            Set<String> urls = new HashSet<>();
+            for (Future<String> f : futures)
+                urls.add(f.get());
+            assertEquals(1, urls.size());
+            assertEquals(1, uploads.get());
+            assertEquals(threads, refCount(urls.iterator().next()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int refCount(String url) {
+        String publicId = ImageStorageService.publicIdOf(url);
+        return storedImageRepository.findAll().stream()
+                .filter(s -> s.getPublicId().equals(publicId))
+                .mapToInt(StoredImage::getRefCount)
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static Category category(String mainImage) {
+        Category c = new Category();
+        c.setName("Images " + UUID.randomUUID());
+        c.setCatMainImg(mainImage);
+        return c;
+    }
+
+    private static String url(String publicId) {
+        return "https://res.cloudinary.com/demo/image/upload/v1/" + publicId + ".png";
+    }
+
+    private static byte[] bytes(long seed) {
+        byte[] data = new byte[2048];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private Path image(long seed) throws Exception {
+        Path f = Files.createTempFile("dedup-", ".png");
+        files.add(f);
+        Files.write(f, bytes(seed));
+        return f;
+    }
+
+    private static String dataUri(long seed) {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(bytes(seed));
+    }
+}
@@ -0,0 +1,175 @@
+package com.vtcweb.backend.service.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** RemoteImageFetcher against a local stub server. */
+class RemoteImageFetcherTest {
+
+    private static final byte[] IMAGE = new byte[64 * 1024];
+
+    static {
+        new Random(42).nextBytes(IMAGE);
+    }
+
+    private HttpServer server;
+    private String base;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/image.png", ex -> respond(ex, 200, "image/png", IMAGE, true));
+        server.createContext("/chunked.png", ex -> respond(ex, 200, "image/png", IMAGE, false));
+        server.createContext("/page.html", ex -> respond(ex, 200, "text/html", "<html/>".getBytes(), true));
+        server.createContext("/missing.png", ex -> respond(ex, 404, "text/plain", "nope".getBytes(), true));
+        // /redirect/N -> /redirect/N-1 -> ... -> /image.png
+        server.createContext("/redirect/", ex -> {
+            int n = Integer.parseInt(ex.getRequestURI().getPath().substring("/redirect/".length()));
+            ex.getResponseHeaders().add("Location", n <= 1 ? "/image.png" : "/redirect/" + (n - 1));
+            ex.sendResponseHeaders(302, -1);
+            ex.close();
+        });
+        server.createContext("/slow.png", ex -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            respond(ex, 200, "image/png", IMAGE, true);
+        });
+        // Headers and the first bytes right away, then the rest of the body never arrives in time
+        server.createContext("/stalled.png", ex -> {
+            ex.getResponseHeaders().add("Content-Type", "image/png");
+            ex.sendResponseHeaders(200, IMAGE.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(IMAGE, 0, 1024);
+                out.flush();
+                Thread.sleep(5000);
+                out.write(IMAGE, 1024, IMAGE.length - 1024);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // client gave up
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void downloadsImageToTempFileAndDeletesOnClose() throws IOException {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(5, 1024 * 1024, 4, 5000);
+        Path file;
+        try (RemoteImageFetcher.Fetched fetched = fetcher.fetch(base + "/image.png")) {
+            file = fetched.file();
+            assertEquals("image/png", fetched.contentType());
+            assertEquals(IMAGE.length, fetched.size());
+            assertArrayEquals(IMAGE, Files.readAllBytes(file));
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void followsRedirectsUpToTheLimit() {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(3, 1024 * 1024, 4, 5000);
+        try (RemoteImageFetcher.Fetched fetched = fetcher.fetch(base + "/redirect/3")) {
+            assertEquals(IMAGE.length, fetched.size());
+        }
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> fetcher.fetch(base + "/redirect/4"));
+        assertTrue(ex.getMessage().contains("Too many redirects"));
+    }
+
+    @Test
+    void enforcesSizeLimitWhileStreaming() {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(5, IMAGE.length - 1, 4, 5000);
+        // Declared length is rejected up front, chunked bodies once they pass the cap
+        assertThrows(IllegalArgumentException.class, () -> fetcher.fetch(base + "/image.png"));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> fetcher.fetch(base + "/chunked.png"));
+        assertTrue(ex.getMessage().contains("too large"));
+    }
+
+    @Test
+    void rejectsNonImagesAndErrors() {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(5, 1024 * 1024, 4, 5000);
+        assertThrows(IllegalArgumentException.class, () -> fetcher.fetch(base + "/page.html"));
+        assertThrows(IllegalArgumentException.class, () -> fetcher.fetch(base + "/missing.png"));
+        assertThrows(IllegalArgumentException.class, () -> fetcher.fetch("ftp://127.0.0.1/x.png"));
+    }
+
+    @Test
+    void abandonsBodiesThatDoNotArriveWithinTheTimeout() {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(5, 1024 * 1024, 4, 500);
+        long start = System.nanoTime();
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> fetcher.fetch(base + "/stalled.png"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(ex.getMessage().contains("Timed out"), ex.getMessage());
+        assertTrue(elapsedMs < 3000, "took " + elapsedMs + " ms");
+        // The host slot was given back
+        try (RemoteImageFetcher.Fetched fetched = fetcher.fetch(base + "/image.png")) {
+            assertEquals(IMAGE.length, fetched.size());
+        }
+    }
+
+    @Test
+    void limitsConcurrentDownloadsPerHost() throws Exception {
+        RemoteImageFetcher fetcher = new RemoteImageFetcher(5, 1024 * 1024, 2, 10000);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(pool.submit(() -> {
+                    try (RemoteImageFetcher.Fetched fetched = fetcher.fetch(base + "/slow.png")) {
+                        return fetched.size();
+                    }
+                }));
+            }
+            for (Future<Long> f : futures)
+                assertEquals(IMAGE.length, f.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    private static void respond(HttpExchange ex, int code, String contentType, byte[] body, boolean withLength)
+            throws IOException {
+        ex.getResponseHeaders().add("Content-Type", contentType);
+        ex.sendResponseHeaders(code, withLength ? body.length : 0);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
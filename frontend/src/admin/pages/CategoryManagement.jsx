@@ -117,7 +117,8 @@ export default function CategoryManagement() {
 					try {
 						const file = await dataUrlToFile(op.data, op.slot);
 						const uploaded = await uploadCategoryImage(categoryId, file, op.slot);
-						slotUrlMap[op.slot] = uploaded.url;
+						// Uploads finish in the background; the server fills the slot itself when no url comes back
+						if (uploaded?.url) slotUrlMap[op.slot] = uploaded.url;
 					} catch (err) {
 						// Fail soft: still allow category save with remaining images
 						console.warn('Image upload failed for slot', op.slot, err);
@@ -69,7 +69,7 @@ export async function uploadCategoryImage(categoryId, file, slot = 'main') {
 		if (slot) form.append('slot', slot);
 		const res = await apiClient.post(`${BASE}/${categoryId}/image/upload`, form);
 		cacheInvalidate('categories:list');
-		return res.data; // { categoryId, slot, url, publicId, bytes, format }
+		return res.data; // 202 { categoryId, slot, jobId, status }; the slot is set when the job succeeds
 	} catch (e) { throw normalizeError(e); }
 }
 
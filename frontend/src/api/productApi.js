@@ -115,7 +115,7 @@ export async function uploadProductImage(productId, file, { type } = {}) {
 		form.append('file', file);
 		if (type) form.append('type', type);
 		const res = await apiClient.post(`${BASE}/${productId}/images/upload`, form);
-		return res.data; // {id,url,type,publicId,...}
+		return res.data; // 202 {id,jobId,status,type}; url arrives when the job succeeds
 	} catch (e) { throw normalizeError(e); }
 }
 
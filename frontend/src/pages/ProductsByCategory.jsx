@@ -36,8 +36,8 @@ const ProductsByCategory = () => {
 	// Map sidebar sort to backend sort param
 	const sortToBackend = (val) => {
 		switch(val) {
-			case 'Price: Low-High': return 'basePrice,asc';
-			case 'Price: High-Low': return 'basePrice,desc';
+			case 'Price: Low-High': return 'price,asc';
+			case 'Price: High-Low': return 'price,desc';
 			default: return undefined;
 		}
 	};